@@ -0,0 +1,34 @@
+-- 账单日汇总表：统计接口读取此表，不再扫描 bill_record 明细
+-- family_id / category_id / account_id 为空时按 0 存储，保证唯一键生效
+
+CREATE TABLE IF NOT EXISTS bill_daily_summary (
+  summary_id BIGINT NOT NULL AUTO_INCREMENT COMMENT '汇总ID',
+  family_id BIGINT NOT NULL DEFAULT 0 COMMENT '家庭组ID（个人账单为0）',
+  user_id BIGINT NOT NULL COMMENT '记账人ID',
+  category_id BIGINT NOT NULL DEFAULT 0 COMMENT '分类ID（未分类为0）',
+  account_id BIGINT NOT NULL DEFAULT 0 COMMENT '账户ID（未指定为0）',
+  record_type CHAR(1) NOT NULL COMMENT '类型（0支出 1收入）',
+  stat_date DATE NOT NULL COMMENT '统计日期',
+  amount DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '金额合计',
+  record_count INT NOT NULL DEFAULT 0 COMMENT '账单笔数',
+  update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (summary_id),
+  UNIQUE KEY uk_bill_summary_dim (family_id, user_id, category_id, account_id, record_type, stat_date),
+  KEY idx_bill_summary_user_date (user_id, stat_date),
+  KEY idx_bill_summary_family_date (family_id, stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='账单日汇总表';
+
+-- 首次上线回填历史数据（也可执行定时任务 billSummaryTask.rebuildAll()）
+INSERT INTO bill_daily_summary (family_id, user_id, category_id, account_id, record_type, stat_date, amount, record_count)
+SELECT COALESCE(family_id, 0), user_id, COALESCE(category_id, 0), COALESCE(account_id, 0), record_type, record_date,
+       SUM(amount), COUNT(*)
+FROM bill_record
+WHERE del_flag = '0' AND user_id IS NOT NULL AND record_type IS NOT NULL AND record_date IS NOT NULL
+GROUP BY COALESCE(family_id, 0), user_id, COALESCE(category_id, 0), COALESCE(account_id, 0), record_type, record_date
+ON DUPLICATE KEY UPDATE amount = VALUES(amount), record_count = VALUES(record_count);
+
+-- 校准任务：每天凌晨重建最近 7 天的汇总，修正人工改库等绕过服务层的变更（默认暂停）
+INSERT INTO sys_job (job_name, job_group, invoke_target, cron_expression, misfire_policy, concurrent, status, create_by, create_time, remark)
+SELECT '账单日汇总校准', 'SYSTEM', 'billSummaryTask.rebuildRecent(7)', '0 30 3 * * ?', '3', '1', '1', 'admin', NOW(), '重建最近N天的 bill_daily_summary'
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM sys_job WHERE invoke_target = 'billSummaryTask.rebuildRecent(7)');
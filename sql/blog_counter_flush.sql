@@ -0,0 +1,11 @@
+-- 博客浏览/点赞计数回写批次登记表
+-- 计数增量先累加在 Redis，定时批量回写 blog / blog_en；批次号与 UPDATE 在同一事务内登记，
+-- 回写中途宕机后重放同一批次时据此判重，避免重复累加
+
+CREATE TABLE IF NOT EXISTS blog_counter_flush (
+  batch_id VARCHAR(64) NOT NULL COMMENT '回写批次号',
+  table_name VARCHAR(32) NOT NULL COMMENT '博客表 blog/blog_en',
+  create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '回写时间',
+  PRIMARY KEY (batch_id),
+  KEY idx_blog_counter_flush_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='博客计数回写批次';
@@ -0,0 +1,22 @@
+-- 部门闭包表：每个部门与其所有祖先（含自身，depth = 0）各存一行
+-- 数据权限“本部门及以下”按 ancestor_id 走主键前缀，不再对 sys_dept.ancestors 做 find_in_set 全表扫描；
+-- 部门新增、移动、删除时由 SysDeptServiceImpl 同步维护
+
+CREATE TABLE IF NOT EXISTS sys_dept_closure (
+  ancestor_id BIGINT NOT NULL COMMENT '祖先部门ID',
+  descendant_id BIGINT NOT NULL COMMENT '后代部门ID',
+  depth INT NOT NULL DEFAULT 0 COMMENT '层级差（自身为0）',
+  PRIMARY KEY (ancestor_id, descendant_id),
+  KEY idx_dept_closure_descendant (descendant_id, ancestor_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='部门闭包表';
+
+-- 首次上线按 parent_id 回填（MySQL 8.0+）
+INSERT IGNORE INTO sys_dept_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE dept_path (ancestor_id, descendant_id, depth) AS (
+  SELECT dept_id, dept_id, 0 FROM sys_dept
+  UNION ALL
+  SELECT p.ancestor_id, d.dept_id, p.depth + 1
+  FROM dept_path p
+  INNER JOIN sys_dept d ON d.parent_id = p.descendant_id
+)
+SELECT ancestor_id, descendant_id, depth FROM dept_path;
@@ -24,6 +24,36 @@ public class CacheConstants {
      */
     public static final String SYS_DICT_KEY = "sys_dict:";
 
+    /**
+     * 菜单树本地缓存命名空间（按角色组合，仅进程内缓存）
+     */
+    public static final String SYS_MENU_TREE_KEY = "sys_menu_tree:";
+
+    /**
+     * 部门树本地缓存命名空间（仅进程内缓存）
+     */
+    public static final String SYS_DEPT_TREE_KEY = "sys_dept_tree:";
+
+    /**
+     * 当前存储配置本地缓存命名空间（仅进程内缓存）
+     */
+    public static final String SYS_STORAGE_KEY = "sys_storage:";
+
+    /**
+     * 本地缓存失效通知 redis pub/sub 频道
+     */
+    public static final String LOCAL_CACHE_INVALIDATE_CHANNEL = "local_cache:invalidate";
+
+    /**
+     * 用户/角色权限 cache key
+     */
+    public static final String SYS_PERM_KEY = "sys_perm:";
+
+    /**
+     * 权限缓存失效通知 redis pub/sub 频道
+     */
+    public static final String PERM_CACHE_INVALIDATE_CHANNEL = "perm_cache:invalidate";
+
     /**
      * 防重提交 redis key
      */
@@ -58,4 +88,24 @@ public class CacheConstants {
      * 视频播放信息 redis key
      */
     public static final String VIDEO_PLAY_KEY = "video_play:";
+
+    /**
+     * 博客浏览/点赞计数 redis key
+     */
+    public static final String BLOG_COUNTER_KEY = "blog_counter:";
+
+    /**
+     * AI 调用每日配额计数 redis key
+     */
+    public static final String AI_QUOTA_KEY = "ai_quota:";
+
+    /**
+     * 微信小程序 access_token / 刷新锁 redis key 前缀（实际键为 wx_ma:access_token:{appid}）
+     */
+    public static final String WX_MA_KEY_PREFIX = "wx_ma";
+
+    /**
+     * 在线会话索引 redis key 前缀（index：按登录时间排序的 token 集合，info：token -> 会话信息，user/ip：按用户名、IP 的 token 集合）
+     */
+    public static final String ONLINE_SESSION_KEY = "online_session:";
 }
@@ -0,0 +1,65 @@
+package com.ruoyi.common.filter;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import com.alibaba.fastjson2.filter.ValueFilter;
+
+/**
+ * 序列化时截断大字段（长字符串、大集合、大数组），避免日志记录时把整个大对象写成 JSON
+ *
+ * @author ruoyi
+ */
+public class PayloadTruncateFilter implements ValueFilter
+{
+    /** 单个字符串最大长度 */
+    private final int maxStringLength;
+
+    /** 集合/数组最多保留的元素数 */
+    private final int maxElements;
+
+    public PayloadTruncateFilter(int maxStringLength, int maxElements)
+    {
+        this.maxStringLength = maxStringLength;
+        this.maxElements = maxElements;
+    }
+
+    @Override
+    public Object apply(Object object, String name, Object value)
+    {
+        if (value instanceof CharSequence text)
+        {
+            return text.length() > maxStringLength ? text.subSequence(0, maxStringLength) + "..." : value;
+        }
+        if (value instanceof byte[] bytes)
+        {
+            return "byte[" + bytes.length + "]";
+        }
+        if (value instanceof Collection<?> collection && collection.size() > maxElements)
+        {
+            List<Object> head = new ArrayList<>(maxElements + 1);
+            Iterator<?> iterator = collection.iterator();
+            while (head.size() < maxElements && iterator.hasNext())
+            {
+                head.add(iterator.next());
+            }
+            head.add("...(" + collection.size() + " items)");
+            return head;
+        }
+        if (value != null && value.getClass().isArray() && Array.getLength(value) > maxElements)
+        {
+            int length = Array.getLength(value);
+            List<Object> head = new ArrayList<>(maxElements + 1);
+            for (int i = 0; i < maxElements; i++)
+            {
+                head.add(Array.get(value, i));
+            }
+            head.add("...(" + length + " items)");
+            return head;
+        }
+        return value;
+    }
+}
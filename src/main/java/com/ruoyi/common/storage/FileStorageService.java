@@ -18,12 +18,12 @@ import com.ruoyi.common.utils.ip.IpUtils;
 import com.ruoyi.framework.config.CloudStorageConfig;
 import com.ruoyi.project.system.domain.SysFileUploadRecord;
 import com.ruoyi.project.system.domain.SysStorageConfig;
-import com.ruoyi.project.system.service.ISysFileUploadRecordService;
 import com.ruoyi.project.system.service.ISysStorageConfigService;
 
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * 文件存储服务
@@ -31,6 +31,7 @@ import jakarta.servlet.http.HttpServletRequest;
  *
  * @author ruoyi
  */
+@Slf4j
 @Service
 public class FileStorageService {
 
@@ -38,73 +39,25 @@ public class FileStorageService {
     private ApplicationContext applicationContext;
 
     @Autowired
-    private CloudStorageConfig cloudStorageConfig;
+    private StorageStrategyRegistry storageStrategyRegistry;
 
     @Autowired
-    private ISysStorageConfigService sysStorageConfigService;
+    private UploadRecordBatchWriter uploadRecordWriter;
+
+    @Autowired
+    private CloudStorageConfig cloudStorageConfig;
 
     @Autowired
-    private ISysFileUploadRecordService sysFileUploadRecordService;
+    private ISysStorageConfigService sysStorageConfigService;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * 获取当前配置的存储策略
-     * 优先使用数据库配置，如果数据库没有配置则使用YML配置
+     * 优先使用数据库配置，如果数据库没有配置则使用YML配置；解析结果由注册表缓存，配置变更后重建
      */
     private FileStorageStrategy getCurrentStrategy() {
-        try {
-            // 1. 优先查询数据库中的默认配置
-            QueryWrapper queryWrapper = QueryWrapper.create()
-                    .eq("is_default", "Y")
-                    .eq("status", "0")
-                    .eq("del_flag", "0");
-
-            SysStorageConfig dbConfig = sysStorageConfigService.getOne(queryWrapper);
-
-            if (dbConfig != null && StrUtil.isNotEmpty(dbConfig.getStorageType())) {
-                // 使用数据库配置
-                return getStrategyByType(dbConfig.getStorageType());
-            }
-        } catch (Exception e) {
-            // 数据库查询失败，记录日志但不影响功能
-            System.err.println("查询数据库存储配置失败，使用YML配置: " + e.getMessage());
-        }
-
-        // 2. 回退到YML配置
-        String storageType = cloudStorageConfig.getType();
-        return getStrategyByType(storageType);
-    }
-
-    /**
-     * 根据存储类型获取对应的存储策略
-     */
-    private FileStorageStrategy getStrategyByType(String storageType) {
-        switch (storageType.toLowerCase()) {
-            case "aliyun":
-                return getStrategyBean("aliyunOssStorageStrategy");
-            case "tencent":
-                return getStrategyBean("tencentCosStorageStrategy");
-            case "amazon":
-                return getStrategyBean("amazonS3StorageStrategy");
-            case "azure":
-                return getStrategyBean("azureStorageStrategy");
-            case "local":
-            default:
-                return getStrategyBean("localFileStorageStrategy");
-        }
-    }
-
-    /**
-     * 获取存储策略Bean
-     */
-    private FileStorageStrategy getStrategyBean(String beanName) {
-        try {
-            return applicationContext.getBean(beanName, FileStorageStrategy.class);
-        } catch (Exception e) {
-            // 如果指定的策略不存在，回退到本地存储
-            return applicationContext.getBean("localFileStorageStrategy", FileStorageStrategy.class);
-        }
+        return storageStrategyRegistry.getStrategy();
     }
 
     /**
@@ -137,13 +90,7 @@ public class FileStorageService {
             record.setErrorMessage(e.getMessage());
             throw e;
         } finally {
-            // 保存上传记录
-            try {
-                sysFileUploadRecordService.save(record);
-            } catch (Exception e) {
-                // 记录保存失败不影响文件上传功能
-                System.err.println("保存文件上传记录失败: " + e.getMessage());
-            }
+            saveUploadRecord(record);
         }
     }
 
@@ -180,13 +127,7 @@ public class FileStorageService {
             record.setErrorMessage(e.getMessage());
             throw e;
         } finally {
-            // 保存上传记录
-            try {
-                sysFileUploadRecordService.save(record);
-            } catch (Exception e) {
-                // 记录保存失败不影响文件上传功能
-                System.err.println("保存文件上传记录失败: " + e.getMessage());
-            }
+            saveUploadRecord(record);
         }
     }
 
@@ -292,6 +233,18 @@ public class FileStorageService {
         return record;
     }
 
+    /**
+     * 保存上传记录：交给异步写入器批量入库，队列已满时同步写入
+     */
+    private void saveUploadRecord(SysFileUploadRecord record) {
+        try {
+            uploadRecordWriter.offer(record);
+        } catch (Exception e) {
+            // 记录保存失败不影响文件上传功能
+            log.warn("保存文件上传记录失败: {}", e.getMessage());
+        }
+    }
+
     /**
      * 根据文件扩展名获取文件类型
      */
@@ -0,0 +1,254 @@
+package com.ruoyi.common.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.framework.config.CloudStorageConfig;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 分片上传
+ * 源流按顺序逐片读取，分片并行上传，内存中最多同时持有“并行度”个分片；
+ * uploadId 与已完成分片（ETag 及分片内容 MD5）记录在 Redis，同一对象同样大小的文件重传时
+ * 跳过内容 MD5 一致的已完成分片（断点续传），内容不同的分片重新上传；
+ * 同一对象同时只有一个上传使用断点，其它并发上传各自新建 uploadId、不记录断点
+ *
+ * @author ruoyi
+ */
+@Slf4j
+@Component
+public class MultipartUploadSupport {
+
+    private static final String CHECKPOINT_KEY_PREFIX = "storage:multipart:";
+    private static final String FIELD_UPLOAD_ID = "uploadId";
+    private static final String FIELD_PART_PREFIX = "part:";
+    private static final String PART_VALUE_SEPARATOR = "|";
+    private static final String LOCK_SUFFIX = ":lock";
+    /** 断点锁过期时间，每完成一个分片续期 */
+    private static final long LOCK_SECONDS = 300;
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    /** 各云厂商分片最小值 */
+    private static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    @Autowired
+    private CloudStorageConfig cloudStorageConfig;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @Qualifier("threadPoolTaskExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    /**
+     * 是否使用分片上传
+     *
+     * @param size 文件大小
+     */
+    public boolean isMultipart(long size) {
+        return size >= cloudStorageConfig.getMultipart().getThreshold();
+    }
+
+    /**
+     * 每个存储客户端的最大连接数
+     */
+    public int getMaxConnections() {
+        return cloudStorageConfig.getMultipart().getMaxConnections();
+    }
+
+    /**
+     * 分片上传
+     *
+     * @param storageType 存储类型
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param inputStream 源数据流，调用方负责关闭
+     * @param size 文件大小
+     * @param uploader 分片操作
+     * @throws Exception 上传异常
+     */
+    public void upload(String storageType, String bucketName, String objectName, InputStream inputStream,
+            long size, MultipartUploader uploader) throws Exception {
+        CloudStorageConfig.MultipartConfig config = cloudStorageConfig.getMultipart();
+        String checkpointKey = StrUtil.format("{}{}:{}:{}:{}", CHECKPOINT_KEY_PREFIX, storageType, bucketName,
+                objectName, size);
+
+        String lockKey = checkpointKey + LOCK_SUFFIX;
+        String lockValue = IdUtil.fastSimpleUUID();
+        boolean checkpointOwner = tryLock(lockKey, lockValue);
+        if (!checkpointOwner) {
+            log.info("同一对象正在分片上传，本次不使用断点续传: object={}", objectName);
+        }
+        try {
+            doUpload(checkpointOwner ? checkpointKey : null, lockKey, objectName, inputStream, size, uploader,
+                    config);
+        } finally {
+            if (checkpointOwner) {
+                unlock(lockKey, lockValue);
+            }
+        }
+    }
+
+    /**
+     * @param checkpointKey 断点键，为空时不读取也不记录断点
+     */
+    private void doUpload(String checkpointKey, String lockKey, String objectName, InputStream inputStream,
+            long size, MultipartUploader uploader, CloudStorageConfig.MultipartConfig config) throws Exception {
+        long partSize = Math.max(config.getPartSize(), MIN_PART_SIZE);
+        int parallelism = Math.max(config.getParallelism(), 1);
+        SortedMap<Integer, String> partETags = new ConcurrentSkipListMap<>();
+        Map<Integer, String> partDigests = new HashMap<>();
+        String uploadId = checkpointKey != null ? loadCheckpoint(checkpointKey, partETags, partDigests) : null;
+        boolean resumed = uploadId != null;
+        if (resumed) {
+            log.info("分片上传断点续传: object={}, 已完成分片={}", objectName, partETags.size());
+        } else {
+            uploadId = uploader.initiate();
+            saveCheckpoint(checkpointKey, lockKey, FIELD_UPLOAD_ID, uploadId, config);
+        }
+
+        String currentUploadId = uploadId;
+        int partCount = (int) ((size + partSize - 1) / partSize);
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicInteger uploadedParts = new AtomicInteger();
+        try {
+            for (int partNumber = 1; partNumber <= partCount && failure.get() == null; partNumber++) {
+                int length = (int) Math.min(partSize, size - (partNumber - 1) * partSize);
+                byte[] data = inputStream.readNBytes(length);
+                if (data.length != length) {
+                    throw new IOException("文件内容长度与声明大小不一致: " + objectName);
+                }
+                String digest = DigestUtil.md5Hex(data);
+                if (partETags.containsKey(partNumber)) {
+                    if (digest.equals(partDigests.get(partNumber))) {
+                        continue;
+                    }
+                    // 内容与断点记录不一致（同名同大小的不同文件），重新上传覆盖该分片
+                    partETags.remove(partNumber);
+                }
+                permits.acquire();
+                int currentPart = partNumber;
+                executor.execute(() -> {
+                    try {
+                        String eTag = uploader.uploadPart(currentUploadId, currentPart, data);
+                        partETags.put(currentPart, eTag);
+                        uploadedParts.incrementAndGet();
+                        saveCheckpoint(checkpointKey, lockKey, FIELD_PART_PREFIX + currentPart,
+                                eTag + PART_VALUE_SEPARATOR + digest, config);
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            // 等待进行中的分片全部结束
+            permits.acquire(parallelism);
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            uploader.complete(currentUploadId, partETags);
+            if (checkpointKey != null) {
+                stringRedisTemplate.delete(checkpointKey);
+            }
+        } catch (Exception e) {
+            if (checkpointKey == null) {
+                // 未记录断点的上传无法续传，直接取消
+                uploader.abort(currentUploadId);
+            } else if (resumed && uploadedParts.get() == 0) {
+                // 续传一个分片都没成功，多半是 uploadId 已失效，丢弃断点，下次重新上传
+                stringRedisTemplate.delete(checkpointKey);
+                uploader.abort(currentUploadId);
+            }
+            throw e;
+        }
+    }
+
+    private String loadCheckpoint(String checkpointKey, Map<Integer, String> partETags,
+            Map<Integer, String> partDigests) {
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(checkpointKey);
+            String uploadId = Convert.toStr(entries.get(FIELD_UPLOAD_ID));
+            if (StrUtil.isBlank(uploadId)) {
+                return null;
+            }
+            entries.forEach((field, value) -> {
+                String name = String.valueOf(field);
+                if (name.startsWith(FIELD_PART_PREFIX)) {
+                    // 值为 ETag|内容MD5；没有 MD5 的旧记录无法校验，按不一致重新上传
+                    Integer partNumber = Convert.toInt(name.substring(FIELD_PART_PREFIX.length()));
+                    String text = String.valueOf(value);
+                    int index = text.lastIndexOf(PART_VALUE_SEPARATOR);
+                    partETags.put(partNumber, index > 0 ? text.substring(0, index) : text);
+                    if (index > 0) {
+                        partDigests.put(partNumber, text.substring(index + 1));
+                    }
+                }
+            });
+            return uploadId;
+        } catch (Exception e) {
+            log.warn("读取分片上传断点失败，重新上传: key={}, error={}", checkpointKey, e.getMessage());
+            partETags.clear();
+            partDigests.clear();
+            return null;
+        }
+    }
+
+    private void saveCheckpoint(String checkpointKey, String lockKey, String field, String value,
+            CloudStorageConfig.MultipartConfig config) {
+        if (checkpointKey == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForHash().put(checkpointKey, field, value);
+            stringRedisTemplate.expire(checkpointKey, config.getCheckpointTtlHours(), TimeUnit.HOURS);
+            stringRedisTemplate.expire(lockKey, LOCK_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // 断点记录失败只影响续传，不影响本次上传
+            log.debug("保存分片上传断点失败: key={}, error={}", checkpointKey, e.getMessage());
+        }
+    }
+
+    private boolean tryLock(String lockKey, String lockValue) {
+        try {
+            return Boolean.TRUE.equals(
+                    stringRedisTemplate.opsForValue().setIfAbsent(lockKey, lockValue, LOCK_SECONDS, TimeUnit.SECONDS));
+        } catch (Exception e) {
+            log.debug("获取分片上传断点锁失败: key={}, error={}", lockKey, e.getMessage());
+            return false;
+        }
+    }
+
+    private void unlock(String lockKey, String lockValue) {
+        try {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey), lockValue);
+        } catch (Exception e) {
+            log.debug("释放分片上传断点锁失败: key={}, error={}", lockKey, e.getMessage());
+        }
+    }
+}
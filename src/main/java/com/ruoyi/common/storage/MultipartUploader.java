@@ -0,0 +1,46 @@
+package com.ruoyi.common.storage;
+
+import java.util.SortedMap;
+
+/**
+ * 单个对象的分片上传操作，由各云存储策略按自身 SDK 实现
+ *
+ * @author ruoyi
+ */
+public interface MultipartUploader {
+
+    /**
+     * 初始化分片上传
+     *
+     * @return uploadId
+     * @throws Exception 初始化异常
+     */
+    String initiate() throws Exception;
+
+    /**
+     * 上传分片
+     *
+     * @param uploadId uploadId
+     * @param partNumber 分片号，从1开始
+     * @param data 分片数据
+     * @return 分片ETag
+     * @throws Exception 上传异常
+     */
+    String uploadPart(String uploadId, int partNumber, byte[] data) throws Exception;
+
+    /**
+     * 合并分片
+     *
+     * @param uploadId uploadId
+     * @param partETags 分片号 -> ETag，按分片号升序
+     * @throws Exception 合并异常
+     */
+    void complete(String uploadId, SortedMap<Integer, String> partETags) throws Exception;
+
+    /**
+     * 取消分片上传，清理已上传的分片
+     *
+     * @param uploadId uploadId
+     */
+    void abort(String uploadId);
+}
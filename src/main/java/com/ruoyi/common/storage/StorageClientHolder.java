@@ -0,0 +1,78 @@
+package com.ruoyi.common.storage;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 云存储客户端持有者
+ * 每个存储策略只保留当前配置对应的一个客户端（线程安全，连接池在多次上传间共享）；
+ * 配置（端点、密钥等）变化时按新配置另建客户端，旧客户端延迟关闭，让正在进行的上传用完旧连接池
+ *
+ * @param <C> 客户端类型
+ * @author ruoyi
+ */
+@Slf4j
+public class StorageClientHolder<C> {
+
+    /** 旧客户端的延迟关闭时间（分钟） */
+    private static final long RETIRE_DELAY_MINUTES = 30;
+
+    private final String name;
+
+    private final Consumer<C> closer;
+
+    /** 当前客户端对应的配置摘要 */
+    private String key;
+
+    private C client;
+
+    public StorageClientHolder(String name, Consumer<C> closer) {
+        this.name = name;
+        this.closer = closer;
+    }
+
+    /**
+     * 获取配置摘要对应的客户端，摘要变化时重建并延迟关闭旧客户端
+     *
+     * @param key 配置摘要
+     * @param factory 客户端构建逻辑
+     * @param scheduler 旧客户端延迟关闭使用的调度线程池
+     * @return 客户端
+     */
+    public synchronized C get(String key, Supplier<C> factory, ScheduledExecutorService scheduler) {
+        if (client != null && key.equals(this.key)) {
+            return client;
+        }
+        C retired = client;
+        client = factory.get();
+        this.key = key;
+        if (retired != null) {
+            log.info("{}存储配置已变更，已创建新客户端，旧客户端 {} 分钟后关闭", name, RETIRE_DELAY_MINUTES);
+            scheduler.schedule(() -> closeQuietly(retired), RETIRE_DELAY_MINUTES, TimeUnit.MINUTES);
+        }
+        return client;
+    }
+
+    /**
+     * 关闭当前客户端
+     */
+    public synchronized void close() {
+        if (client != null) {
+            closeQuietly(client);
+            client = null;
+            key = null;
+        }
+    }
+
+    private void closeQuietly(C target) {
+        try {
+            closer.accept(target);
+        } catch (Exception e) {
+            log.warn("关闭{}客户端失败: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.ruoyi.common.storage;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.ruoyi.framework.config.CloudStorageConfig;
+import com.ruoyi.framework.redis.NearCache;
+import com.ruoyi.project.system.domain.SysStorageConfig;
+import com.ruoyi.project.system.service.ISysStorageConfigService;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 存储策略注册表
+ * 当前生效的存储配置（数据库默认配置，没有时使用YML配置）解析一次后连同对应的存储策略缓存在本地，
+ * 存储配置变更后由 {@link ISysStorageConfigService} 清除并通知其它节点，下次使用时按新配置重建
+ *
+ * @author ruoyi
+ */
+@Slf4j
+@Component
+public class StorageStrategyRegistry {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private CloudStorageConfig cloudStorageConfig;
+
+    @Autowired
+    private ISysStorageConfigService sysStorageConfigService;
+
+    @Autowired
+    private NearCache nearCache;
+
+    /**
+     * 获取当前生效的存储
+     */
+    public ActiveStorage getActive() {
+        ActiveStorage active = nearCache.getStorage(this::loadFromDatabase);
+        // 数据库查询失败时不缓存，使用YML配置并在下次调用时重试
+        return active != null ? active : buildFromYml();
+    }
+
+    /**
+     * 获取当前生效的存储策略
+     */
+    public FileStorageStrategy getStrategy() {
+        return getActive().getStrategy();
+    }
+
+    /**
+     * 获取指定存储类型的数据库配置数据
+     *
+     * @param storageType 存储类型
+     * @return 当前生效配置为该类型的数据库配置时返回其配置数据，否则返回 null（使用YML配置）
+     */
+    public Map<String, Object> getDatabaseConfigData(String storageType) {
+        ActiveStorage active = getActive();
+        if (active.isFromDatabase() && StrUtil.equalsIgnoreCase(storageType, active.getStorageType())) {
+            return active.getConfigData();
+        }
+        return null;
+    }
+
+    private ActiveStorage loadFromDatabase() {
+        try {
+            QueryWrapper queryWrapper = QueryWrapper.create()
+                    .eq("is_default", "Y")
+                    .eq("status", "0")
+                    .eq("del_flag", "0");
+
+            SysStorageConfig dbConfig = sysStorageConfigService.getOne(queryWrapper);
+
+            if (dbConfig == null || StrUtil.isEmpty(dbConfig.getStorageType())) {
+                return buildFromYml();
+            }
+            Map<String, Object> configData = Collections.emptyMap();
+            if (StrUtil.isNotEmpty(dbConfig.getConfigData())) {
+                configData = Collections.unmodifiableMap(JSONUtil.toBean(dbConfig.getConfigData(), Map.class));
+            }
+            FileStorageStrategy strategy = getStrategyByType(dbConfig.getStorageType());
+            log.info("存储策略已加载: configId={}, storageType={}", dbConfig.getConfigId(), strategy.getStorageType());
+            return new ActiveStorage(strategy.getStorageType(), true, configData, strategy);
+        } catch (Exception e) {
+            log.warn("查询数据库存储配置失败，使用YML配置: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private ActiveStorage buildFromYml() {
+        FileStorageStrategy strategy = getStrategyByType(cloudStorageConfig.getType());
+        return new ActiveStorage(strategy.getStorageType(), false, Collections.emptyMap(), strategy);
+    }
+
+    /**
+     * 根据存储类型获取对应的存储策略
+     */
+    private FileStorageStrategy getStrategyByType(String storageType) {
+        switch (StrUtil.nullToDefault(storageType, "local").toLowerCase()) {
+            case "aliyun":
+                return getStrategyBean("aliyunOssStorageStrategy");
+            case "tencent":
+                return getStrategyBean("tencentCosStorageStrategy");
+            case "amazon":
+                return getStrategyBean("amazonS3StorageStrategy");
+            case "azure":
+                return getStrategyBean("azureStorageStrategy");
+            case "local":
+            default:
+                return getStrategyBean("localFileStorageStrategy");
+        }
+    }
+
+    /**
+     * 获取存储策略Bean
+     */
+    private FileStorageStrategy getStrategyBean(String beanName) {
+        try {
+            return applicationContext.getBean(beanName, FileStorageStrategy.class);
+        } catch (Exception e) {
+            // 如果指定的策略不存在，回退到本地存储
+            return applicationContext.getBean("localFileStorageStrategy", FileStorageStrategy.class);
+        }
+    }
+
+    /**
+     * 当前生效的存储（只读共享）
+     */
+    public static class ActiveStorage {
+        /** 实际使用的存储类型 */
+        private final String storageType;
+
+        /** 是否来自数据库配置 */
+        private final boolean fromDatabase;
+
+        /** 数据库配置数据，YML配置时为空 */
+        private final Map<String, Object> configData;
+
+        /** 存储策略 */
+        private final FileStorageStrategy strategy;
+
+        ActiveStorage(String storageType, boolean fromDatabase, Map<String, Object> configData,
+                FileStorageStrategy strategy) {
+            this.storageType = storageType;
+            this.fromDatabase = fromDatabase;
+            this.configData = configData;
+            this.strategy = strategy;
+        }
+
+        public String getStorageType() {
+            return storageType;
+        }
+
+        public boolean isFromDatabase() {
+            return fromDatabase;
+        }
+
+        public Map<String, Object> getConfigData() {
+            return configData;
+        }
+
+        public FileStorageStrategy getStrategy() {
+            return strategy;
+        }
+    }
+}
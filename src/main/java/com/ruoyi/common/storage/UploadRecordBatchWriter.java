@@ -0,0 +1,161 @@
+package com.ruoyi.common.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.system.domain.SysFileUploadRecord;
+import com.ruoyi.project.system.service.ISysFileUploadRecordService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 文件上传记录批量写入器
+ * <p>
+ * 上传记录是文件管理的业务数据，不与日志共用写入器：记录先进入有界队列，由单个后台线程按数量或时间间隔
+ * 用多行 INSERT 写库。记录不丢弃：队列满且等待超时后由提交方同步写入；多行 INSERT 失败时逐条重试；
+ * 应用关闭时把队列中剩余记录全部写完。进程异常退出时最多丢失一个刷新间隔内排队的记录。
+ */
+@Slf4j
+@Component
+public class UploadRecordBatchWriter {
+
+    /** 队列容量 */
+    @Value("${ruoyi.upload-record-sink.capacity:2048}")
+    private int capacity;
+
+    /** 单批最大条数 */
+    @Value("${ruoyi.upload-record-sink.batch-size:200}")
+    private int batchSize;
+
+    /** 最长刷新间隔（毫秒） */
+    @Value("${ruoyi.upload-record-sink.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    /** 队列满时提交方最长等待（毫秒） */
+    @Value("${ruoyi.upload-record-sink.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Autowired
+    private ISysFileUploadRecordService uploadRecordService;
+
+    private BlockingQueue<SysFileUploadRecord> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        worker = new Thread(this::runLoop, "upload-record-sink");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 提交一条上传记录
+     *
+     * @param record 上传记录
+     */
+    public void offer(SysFileUploadRecord record) {
+        if (record == null) {
+            return;
+        }
+        if (running) {
+            try {
+                if (queue.offer(record) || queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                log.warn("上传记录队列已满，改为同步写入");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 关闭过程中或队列持续积压时直接同步写入
+        write(List.of(record));
+    }
+
+    /**
+     * 当前排队中的条数
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<SysFileUploadRecord> rest = new ArrayList<>(queue.size());
+        queue.drainTo(rest);
+        write(rest);
+        log.info("====上传记录写入器已关闭，剩余写入 {} 条====", rest.size());
+    }
+
+    private void runLoop() {
+        List<SysFileUploadRecord> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (running) {
+            try {
+                long wait = deadline - System.currentTimeMillis();
+                SysFileUploadRecord first = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : null;
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline) {
+                    if (!batch.isEmpty()) {
+                        write(batch);
+                        batch.clear();
+                    }
+                    deadline = System.currentTimeMillis() + flushIntervalMs;
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.error("上传记录写入线程异常", e);
+                batch.clear();
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<SysFileUploadRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            uploadRecordService.insertUploadRecordBatch(records);
+            return;
+        } catch (Exception e) {
+            log.error("批量写入文件上传记录失败，改为逐条写入，条数: {}", records.size(), e);
+        }
+        int failed = 0;
+        for (SysFileUploadRecord record : records) {
+            try {
+                uploadRecordService.save(record);
+            } catch (Exception e) {
+                failed++;
+                log.error("写入文件上传记录失败，丢弃: recordId={}, storedFilename={}, storageType={}",
+                        record.getRecordId(), record.getStoredFilename(), record.getStorageType(), e);
+            }
+        }
+        if (failed > 0) {
+            log.error("逐条写入文件上传记录完成，失败条数: {}/{}", failed, records.size());
+        }
+    }
+}
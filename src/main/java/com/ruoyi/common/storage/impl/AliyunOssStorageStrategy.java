@@ -1,27 +1,43 @@
 package com.ruoyi.common.storage.impl;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.aliyun.oss.ClientBuilderConfiguration;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
 import com.aliyun.oss.model.PutObjectRequest;
-import com.mybatisflex.core.query.QueryWrapper;
+import com.aliyun.oss.model.UploadPartRequest;
 import com.ruoyi.common.storage.FileStorageStrategy;
+import com.ruoyi.common.storage.MultipartUploadSupport;
+import com.ruoyi.common.storage.MultipartUploader;
+import com.ruoyi.common.storage.StorageClientHolder;
+import com.ruoyi.common.storage.StorageStrategyRegistry;
 import com.ruoyi.framework.config.CloudStorageConfig;
-import com.ruoyi.project.system.domain.SysStorageConfig;
-import com.ruoyi.project.system.service.ISysStorageConfigService;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 阿里云OSS文件存储策略实现
+ * 客户端按配置复用；大文件分片并行上传，支持断点续传
  *
  * @author ruoyi
  */
@@ -33,38 +49,34 @@ public class AliyunOssStorageStrategy implements FileStorageStrategy {
     private CloudStorageConfig cloudStorageConfig;
 
     @Autowired
-    private ISysStorageConfigService sysStorageConfigService;
+    private StorageStrategyRegistry storageStrategyRegistry;
+
+    @Autowired
+    private MultipartUploadSupport multipartUploadSupport;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /** 当前配置对应的客户端，配置（端点、密钥等）变化时重建，旧客户端延迟关闭 */
+    private final StorageClientHolder<OSS> clientHolder = new StorageClientHolder<>("阿里云OSS", OSS::shutdown);
 
     /**
      * 获取阿里云配置
      * 优先从数据库读取，如果数据库没有配置则使用YML配置
      */
     private AliyunConfig getAliyunConfig() {
-        try {
-            // 1. 优先查询数据库中的阿里云配置
-            QueryWrapper queryWrapper = QueryWrapper.create()
-                    .eq("storage_type", "aliyun")
-                    .eq("is_default", "Y")
-                    .eq("status", "0")
-                    .eq("del_flag", "0");
-
-            SysStorageConfig dbConfig = sysStorageConfigService.getOne(queryWrapper);
-
-            if (dbConfig != null && StrUtil.isNotEmpty(dbConfig.getConfigData())) {
-                // 解析数据库配置
-                Map<String, Object> configData = JSONUtil.toBean(dbConfig.getConfigData(), Map.class);
-                AliyunConfig config = new AliyunConfig();
-                config.setAccessKeyId((String) configData.get("accessKeyId"));
-                config.setAccessKeySecret((String) configData.get("accessKeySecret"));
-                config.setBucketName((String) configData.get("bucketName"));
-                config.setEndpoint((String) configData.get("endpoint"));
-                config.setPrefix((String) configData.getOrDefault("prefix", ""));
-                config.setCustomDomain((String) configData.get("customDomain"));
-                return config;
-            }
-        } catch (Exception e) {
-            // 数据库查询失败，记录日志但不影响功能
-            System.err.println("查询数据库阿里云配置失败，使用YML配置: " + e.getMessage());
+        // 1. 优先使用数据库中的阿里云配置（由存储策略注册表缓存）
+        Map<String, Object> configData = storageStrategyRegistry.getDatabaseConfigData(getStorageType());
+        if (configData != null) {
+            AliyunConfig config = new AliyunConfig();
+            config.setAccessKeyId((String) configData.get("accessKeyId"));
+            config.setAccessKeySecret((String) configData.get("accessKeySecret"));
+            config.setBucketName((String) configData.get("bucketName"));
+            config.setEndpoint((String) configData.get("endpoint"));
+            config.setPrefix((String) configData.getOrDefault("prefix", ""));
+            config.setCustomDomain((String) configData.get("customDomain"));
+            return config;
         }
 
         // 2. 回退到YML配置
@@ -81,10 +93,22 @@ public class AliyunOssStorageStrategy implements FileStorageStrategy {
 
     /**
      * 获取OSS客户端
+     * 客户端线程安全，按端点与密钥复用，连接池在多次上传间共享；配置变更后按新配置另建客户端并延迟关闭旧客户端
      */
-    private OSS getOssClient() {
-        AliyunConfig config = getAliyunConfig();
-        return new OSSClientBuilder().build(config.getEndpoint(), config.getAccessKeyId(), config.getAccessKeySecret());
+    private OSS getOssClient(AliyunConfig config) {
+        String clientKey = DigestUtil.sha256Hex(
+                config.getEndpoint() + "|" + config.getAccessKeyId() + "|" + config.getAccessKeySecret());
+        return clientHolder.get(clientKey, () -> {
+            ClientBuilderConfiguration conf = new ClientBuilderConfiguration();
+            conf.setMaxConnections(multipartUploadSupport.getMaxConnections());
+            return new OSSClientBuilder().build(config.getEndpoint(), config.getAccessKeyId(),
+                    config.getAccessKeySecret(), conf);
+        }, scheduledExecutorService);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientHolder.close();
     }
 
     /**
@@ -150,49 +174,48 @@ public class AliyunOssStorageStrategy implements FileStorageStrategy {
 
     @Override
     public String upload(MultipartFile file, String fileName) throws Exception {
-        OSS ossClient = null;
-        try {
-            ossClient = getOssClient();
-            AliyunConfig aliyun = getAliyunConfig();
-
-            // 构建完整的文件路径
-            String objectName = aliyun.getPrefix() + fileName;
-
-            // 上传文件
-            InputStream inputStream = file.getInputStream();
-            PutObjectRequest putObjectRequest = new PutObjectRequest(aliyun.getBucketName(), objectName, inputStream);
-            ossClient.putObject(putObjectRequest);
-
-            return getFileUrl(fileName);
-        } finally {
-            if (ossClient != null) {
-                ossClient.shutdown();
+        AliyunConfig aliyun = getAliyunConfig();
+        OSS ossClient = getOssClient(aliyun);
+
+        // 构建完整的文件路径
+        String objectName = aliyun.getPrefix() + fileName;
+        String bucketName = aliyun.getBucketName();
+
+        try (InputStream inputStream = file.getInputStream()) {
+            if (multipartUploadSupport.isMultipart(file.getSize())) {
+                multipartUploadSupport.upload(getStorageType(), bucketName, objectName, inputStream, file.getSize(),
+                        new OssMultipartUploader(ossClient, bucketName, objectName, file.getContentType()));
+            } else {
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentLength(file.getSize());
+                if (StrUtil.isNotBlank(file.getContentType())) {
+                    metadata.setContentType(file.getContentType());
+                }
+                ossClient.putObject(new PutObjectRequest(bucketName, objectName, inputStream, metadata));
             }
         }
+        return getFileUrl(aliyun, fileName);
     }
 
     @Override
     public boolean delete(String fileName) {
-        OSS ossClient = null;
         try {
-            ossClient = getOssClient();
             AliyunConfig aliyun = getAliyunConfig();
             String objectName = aliyun.getPrefix() + fileName;
-            ossClient.deleteObject(aliyun.getBucketName(), objectName);
+            getOssClient(aliyun).deleteObject(aliyun.getBucketName(), objectName);
             return true;
         } catch (Exception e) {
             log.error("删除文件失败: {}", fileName, e);
             return false;
-        } finally {
-            if (ossClient != null) {
-                ossClient.shutdown();
-            }
         }
     }
 
     @Override
     public String getFileUrl(String fileName) {
-        AliyunConfig aliyun = getAliyunConfig();
+        return getFileUrl(getAliyunConfig(), fileName);
+    }
+
+    private String getFileUrl(AliyunConfig aliyun, String fileName) {
         if (aliyun.getCustomDomain() != null && !aliyun.getCustomDomain().isEmpty()) {
             return aliyun.getCustomDomain() + "/" + aliyun.getPrefix() + fileName;
         } else {
@@ -204,19 +227,12 @@ public class AliyunOssStorageStrategy implements FileStorageStrategy {
 
     @Override
     public boolean exists(String fileName) {
-        OSS ossClient = null;
         try {
-            ossClient = getOssClient();
             AliyunConfig config = getAliyunConfig();
-
             String objectName = config.getPrefix() + fileName;
-            return ossClient.doesObjectExist(config.getBucketName(), objectName);
+            return getOssClient(config).doesObjectExist(config.getBucketName(), objectName);
         } catch (Exception e) {
             return false;
-        } finally {
-            if (ossClient != null) {
-                ossClient.shutdown();
-            }
         }
     }
 
@@ -224,4 +240,61 @@ public class AliyunOssStorageStrategy implements FileStorageStrategy {
     public String getStorageType() {
         return "aliyun";
     }
-}
\ No newline at end of file
+
+    /**
+     * OSS 分片上传
+     */
+    private static class OssMultipartUploader implements MultipartUploader {
+        private final OSS ossClient;
+        private final String bucketName;
+        private final String objectName;
+        private final String contentType;
+
+        OssMultipartUploader(OSS ossClient, String bucketName, String objectName, String contentType) {
+            this.ossClient = ossClient;
+            this.bucketName = bucketName;
+            this.objectName = objectName;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String initiate() {
+            InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucketName, objectName);
+            if (StrUtil.isNotBlank(contentType)) {
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentType(contentType);
+                request.setObjectMetadata(metadata);
+            }
+            return ossClient.initiateMultipartUpload(request).getUploadId();
+        }
+
+        @Override
+        public String uploadPart(String uploadId, int partNumber, byte[] data) {
+            UploadPartRequest request = new UploadPartRequest();
+            request.setBucketName(bucketName);
+            request.setKey(objectName);
+            request.setUploadId(uploadId);
+            request.setPartNumber(partNumber);
+            request.setInputStream(new ByteArrayInputStream(data));
+            request.setPartSize(data.length);
+            return ossClient.uploadPart(request).getETag();
+        }
+
+        @Override
+        public void complete(String uploadId, SortedMap<Integer, String> partETags) {
+            List<PartETag> parts = new ArrayList<>(partETags.size());
+            partETags.forEach((partNumber, eTag) -> parts.add(new PartETag(partNumber, eTag)));
+            ossClient.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, objectName, uploadId, parts));
+        }
+
+        @Override
+        public void abort(String uploadId) {
+            try {
+                ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, uploadId));
+            } catch (Exception e) {
+                log.debug("取消分片上传失败: object={}, error={}", objectName, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.ruoyi.common.storage.impl;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.ruoyi.common.storage.FileStorageStrategy;
+import com.ruoyi.common.storage.MultipartUploadSupport;
+import com.ruoyi.common.storage.MultipartUploader;
+import com.ruoyi.common.storage.StorageClientHolder;
+import com.ruoyi.common.storage.StorageStrategyRegistry;
+import com.ruoyi.framework.config.CloudStorageConfig;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * 亚马逊S3文件存储策略实现
+ * 客户端按配置复用；大文件分片并行上传，支持断点续传；
+ * 配置 endpoint 时使用路径风格访问，可对接 MinIO 等 S3 兼容存储
+ *
+ * @author ruoyi
+ */
+@Component("amazonS3StorageStrategy")
+@Slf4j
+public class AmazonS3StorageStrategy implements FileStorageStrategy {
+
+    @Autowired
+    private CloudStorageConfig cloudStorageConfig;
+
+    @Autowired
+    private StorageStrategyRegistry storageStrategyRegistry;
+
+    @Autowired
+    private MultipartUploadSupport multipartUploadSupport;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /** 当前配置对应的客户端，配置（端点、密钥等）变化时重建，旧客户端延迟关闭 */
+    private final StorageClientHolder<S3Client> clientHolder = new StorageClientHolder<>("亚马逊S3", S3Client::close);
+
+    /**
+     * 获取亚马逊S3配置
+     * 优先使用数据库配置（由存储策略注册表缓存），如果数据库没有配置则使用YML配置
+     */
+    private CloudStorageConfig.AmazonConfig getAmazonConfig() {
+        Map<String, Object> configData = storageStrategyRegistry.getDatabaseConfigData(getStorageType());
+        if (configData != null) {
+            CloudStorageConfig.AmazonConfig config = new CloudStorageConfig.AmazonConfig();
+            config.setAccessKeyId((String) configData.get("accessKeyId"));
+            config.setAccessKeySecret((String) configData.get("accessKeySecret"));
+            config.setBucketName((String) configData.get("bucketName"));
+            config.setRegion((String) configData.get("region"));
+            config.setEndpoint((String) configData.get("endpoint"));
+            config.setPrefix((String) configData.getOrDefault("prefix", ""));
+            config.setCustomDomain((String) configData.get("customDomain"));
+            return config;
+        }
+        return cloudStorageConfig.getAmazon();
+    }
+
+    /**
+     * 获取S3客户端，按地域、端点与密钥复用（使用 SDK 默认 HTTP 客户端自带的连接池）
+     */
+    private S3Client getS3Client(CloudStorageConfig.AmazonConfig config) {
+        String clientKey = DigestUtil.sha256Hex(config.getRegion() + "|" + config.getEndpoint() + "|"
+                + config.getAccessKeyId() + "|" + config.getAccessKeySecret());
+        return clientHolder.get(clientKey, () -> {
+            S3ClientBuilder builder = S3Client.builder()
+                    .region(Region.of(StrUtil.blankToDefault(config.getRegion(), "us-east-1")))
+                    .credentialsProvider(StaticCredentialsProvider.create(
+                            AwsBasicCredentials.create(config.getAccessKeyId(), config.getAccessKeySecret())));
+            if (StrUtil.isNotBlank(config.getEndpoint())) {
+                builder.endpointOverride(URI.create(config.getEndpoint())).forcePathStyle(true);
+            }
+            return builder.build();
+        }, scheduledExecutorService);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientHolder.close();
+    }
+
+    @Override
+    public String upload(MultipartFile file, String fileName) throws Exception {
+        CloudStorageConfig.AmazonConfig amazon = getAmazonConfig();
+        S3Client s3Client = getS3Client(amazon);
+        String objectName = StrUtil.nullToEmpty(amazon.getPrefix()) + fileName;
+        String bucketName = amazon.getBucketName();
+
+        try (InputStream inputStream = file.getInputStream()) {
+            if (multipartUploadSupport.isMultipart(file.getSize())) {
+                multipartUploadSupport.upload(getStorageType(), bucketName, objectName, inputStream, file.getSize(),
+                        new S3MultipartUploader(s3Client, bucketName, objectName, file.getContentType()));
+            } else {
+                PutObjectRequest request = PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(objectName)
+                        .contentType(StrUtil.emptyToNull(file.getContentType()))
+                        .build();
+                s3Client.putObject(request, RequestBody.fromInputStream(inputStream, file.getSize()));
+            }
+        }
+        return getFileUrl(amazon, fileName);
+    }
+
+    @Override
+    public boolean delete(String fileName) {
+        try {
+            CloudStorageConfig.AmazonConfig amazon = getAmazonConfig();
+            String objectName = StrUtil.nullToEmpty(amazon.getPrefix()) + fileName;
+            getS3Client(amazon).deleteObject(DeleteObjectRequest.builder()
+                    .bucket(amazon.getBucketName())
+                    .key(objectName)
+                    .build());
+            return true;
+        } catch (Exception e) {
+            log.error("删除文件失败: {}", fileName, e);
+            return false;
+        }
+    }
+
+    @Override
+    public String getFileUrl(String fileName) {
+        return getFileUrl(getAmazonConfig(), fileName);
+    }
+
+    private String getFileUrl(CloudStorageConfig.AmazonConfig amazon, String fileName) {
+        String objectName = StrUtil.nullToEmpty(amazon.getPrefix()) + fileName;
+        if (StrUtil.isNotEmpty(amazon.getCustomDomain())) {
+            return amazon.getCustomDomain() + "/" + objectName;
+        }
+        if (StrUtil.isNotBlank(amazon.getEndpoint())) {
+            return StrUtil.removeSuffix(amazon.getEndpoint(), "/") + "/" + amazon.getBucketName() + "/" + objectName;
+        }
+        return "https://" + amazon.getBucketName() + ".s3." + amazon.getRegion() + ".amazonaws.com/" + objectName;
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        try {
+            CloudStorageConfig.AmazonConfig amazon = getAmazonConfig();
+            String objectName = StrUtil.nullToEmpty(amazon.getPrefix()) + fileName;
+            getS3Client(amazon).headObject(HeadObjectRequest.builder()
+                    .bucket(amazon.getBucketName())
+                    .key(objectName)
+                    .build());
+            return true;
+        } catch (Exception e) {
+            // 对象不存在时 SDK 抛出 NoSuchKeyException
+            return false;
+        }
+    }
+
+    @Override
+    public String getStorageType() {
+        return "amazon";
+    }
+
+    /**
+     * S3 分片上传
+     */
+    private static class S3MultipartUploader implements MultipartUploader {
+        private final S3Client s3Client;
+        private final String bucketName;
+        private final String objectName;
+        private final String contentType;
+
+        S3MultipartUploader(S3Client s3Client, String bucketName, String objectName, String contentType) {
+            this.s3Client = s3Client;
+            this.bucketName = bucketName;
+            this.objectName = objectName;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String initiate() {
+            return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectName)
+                    .contentType(StrUtil.emptyToNull(contentType))
+                    .build()).uploadId();
+        }
+
+        @Override
+        public String uploadPart(String uploadId, int partNumber, byte[] data) {
+            UploadPartRequest request = UploadPartRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectName)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .contentLength((long) data.length)
+                    .build();
+            return s3Client.uploadPart(request, RequestBody.fromBytes(data)).eTag();
+        }
+
+        @Override
+        public void complete(String uploadId, SortedMap<Integer, String> partETags) {
+            List<CompletedPart> parts = new ArrayList<>(partETags.size());
+            partETags.forEach((partNumber, eTag) -> parts.add(
+                    CompletedPart.builder().partNumber(partNumber).eTag(eTag).build()));
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectName)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        }
+
+        @Override
+        public void abort(String uploadId) {
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(objectName)
+                        .uploadId(uploadId)
+                        .build());
+            } catch (Exception e) {
+                log.debug("取消分片上传失败: object={}, error={}", objectName, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.ruoyi.common.storage.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.ClientConfig;
+import com.qcloud.cos.auth.BasicCOSCredentials;
+import com.qcloud.cos.http.HttpProtocol;
+import com.qcloud.cos.model.AbortMultipartUploadRequest;
+import com.qcloud.cos.model.CompleteMultipartUploadRequest;
+import com.qcloud.cos.model.InitiateMultipartUploadRequest;
+import com.qcloud.cos.model.ObjectMetadata;
+import com.qcloud.cos.model.PartETag;
+import com.qcloud.cos.model.PutObjectRequest;
+import com.qcloud.cos.model.UploadPartRequest;
+import com.qcloud.cos.region.Region;
+import com.ruoyi.common.storage.FileStorageStrategy;
+import com.ruoyi.common.storage.MultipartUploadSupport;
+import com.ruoyi.common.storage.MultipartUploader;
+import com.ruoyi.common.storage.StorageClientHolder;
+import com.ruoyi.common.storage.StorageStrategyRegistry;
+import com.ruoyi.framework.config.CloudStorageConfig;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 腾讯云COS文件存储策略实现
+ * 客户端按配置复用；大文件分片并行上传，支持断点续传
+ *
+ * @author ruoyi
+ */
+@Component("tencentCosStorageStrategy")
+@Slf4j
+public class TencentCosStorageStrategy implements FileStorageStrategy {
+
+    @Autowired
+    private CloudStorageConfig cloudStorageConfig;
+
+    @Autowired
+    private StorageStrategyRegistry storageStrategyRegistry;
+
+    @Autowired
+    private MultipartUploadSupport multipartUploadSupport;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /** 当前配置对应的客户端，配置（端点、密钥等）变化时重建，旧客户端延迟关闭 */
+    private final StorageClientHolder<COSClient> clientHolder = new StorageClientHolder<>("腾讯云COS", COSClient::shutdown);
+
+    /**
+     * 获取腾讯云配置
+     * 优先使用数据库配置（由存储策略注册表缓存），如果数据库没有配置则使用YML配置
+     */
+    private CloudStorageConfig.TencentConfig getTencentConfig() {
+        Map<String, Object> configData = storageStrategyRegistry.getDatabaseConfigData(getStorageType());
+        if (configData != null) {
+            CloudStorageConfig.TencentConfig config = new CloudStorageConfig.TencentConfig();
+            config.setSecretId((String) configData.get("secretId"));
+            config.setSecretKey((String) configData.get("secretKey"));
+            config.setBucketName((String) configData.get("bucketName"));
+            config.setRegion((String) configData.get("region"));
+            config.setPrefix((String) configData.getOrDefault("prefix", ""));
+            config.setCustomDomain((String) configData.get("customDomain"));
+            return config;
+        }
+        return cloudStorageConfig.getTencent();
+    }
+
+    /**
+     * 获取COS客户端，按地域与密钥复用
+     */
+    private COSClient getCosClient(CloudStorageConfig.TencentConfig config) {
+        String clientKey = DigestUtil.sha256Hex(
+                config.getRegion() + "|" + config.getSecretId() + "|" + config.getSecretKey());
+        return clientHolder.get(clientKey, () -> {
+            ClientConfig clientConfig = new ClientConfig(new Region(config.getRegion()));
+            clientConfig.setHttpProtocol(HttpProtocol.https);
+            clientConfig.setMaxConnectionsCount(multipartUploadSupport.getMaxConnections());
+            return new COSClient(new BasicCOSCredentials(config.getSecretId(), config.getSecretKey()), clientConfig);
+        }, scheduledExecutorService);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientHolder.close();
+    }
+
+    @Override
+    public String upload(MultipartFile file, String fileName) throws Exception {
+        CloudStorageConfig.TencentConfig tencent = getTencentConfig();
+        COSClient cosClient = getCosClient(tencent);
+        String objectName = StrUtil.nullToEmpty(tencent.getPrefix()) + fileName;
+        String bucketName = tencent.getBucketName();
+
+        try (InputStream inputStream = file.getInputStream()) {
+            if (multipartUploadSupport.isMultipart(file.getSize())) {
+                multipartUploadSupport.upload(getStorageType(), bucketName, objectName, inputStream, file.getSize(),
+                        new CosMultipartUploader(cosClient, bucketName, objectName, file.getContentType()));
+            } else {
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentLength(file.getSize());
+                if (StrUtil.isNotBlank(file.getContentType())) {
+                    metadata.setContentType(file.getContentType());
+                }
+                cosClient.putObject(new PutObjectRequest(bucketName, objectName, inputStream, metadata));
+            }
+        }
+        return getFileUrl(tencent, fileName);
+    }
+
+    @Override
+    public boolean delete(String fileName) {
+        try {
+            CloudStorageConfig.TencentConfig tencent = getTencentConfig();
+            String objectName = StrUtil.nullToEmpty(tencent.getPrefix()) + fileName;
+            getCosClient(tencent).deleteObject(tencent.getBucketName(), objectName);
+            return true;
+        } catch (Exception e) {
+            log.error("删除文件失败: {}", fileName, e);
+            return false;
+        }
+    }
+
+    @Override
+    public String getFileUrl(String fileName) {
+        return getFileUrl(getTencentConfig(), fileName);
+    }
+
+    private String getFileUrl(CloudStorageConfig.TencentConfig tencent, String fileName) {
+        String objectName = StrUtil.nullToEmpty(tencent.getPrefix()) + fileName;
+        if (StrUtil.isNotEmpty(tencent.getCustomDomain())) {
+            return tencent.getCustomDomain() + "/" + objectName;
+        }
+        return "https://" + tencent.getBucketName() + ".cos." + tencent.getRegion() + ".myqcloud.com/" + objectName;
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        try {
+            CloudStorageConfig.TencentConfig tencent = getTencentConfig();
+            String objectName = StrUtil.nullToEmpty(tencent.getPrefix()) + fileName;
+            return getCosClient(tencent).doesObjectExist(tencent.getBucketName(), objectName);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String getStorageType() {
+        return "tencent";
+    }
+
+    /**
+     * COS 分片上传
+     */
+    private static class CosMultipartUploader implements MultipartUploader {
+        private final COSClient cosClient;
+        private final String bucketName;
+        private final String objectName;
+        private final String contentType;
+
+        CosMultipartUploader(COSClient cosClient, String bucketName, String objectName, String contentType) {
+            this.cosClient = cosClient;
+            this.bucketName = bucketName;
+            this.objectName = objectName;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String initiate() {
+            InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucketName, objectName);
+            if (StrUtil.isNotBlank(contentType)) {
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentType(contentType);
+                request.setObjectMetadata(metadata);
+            }
+            return cosClient.initiateMultipartUpload(request).getUploadId();
+        }
+
+        @Override
+        public String uploadPart(String uploadId, int partNumber, byte[] data) {
+            UploadPartRequest request = new UploadPartRequest();
+            request.setBucketName(bucketName);
+            request.setKey(objectName);
+            request.setUploadId(uploadId);
+            request.setPartNumber(partNumber);
+            request.setInputStream(new ByteArrayInputStream(data));
+            request.setPartSize(data.length);
+            return cosClient.uploadPart(request).getETag();
+        }
+
+        @Override
+        public void complete(String uploadId, SortedMap<Integer, String> partETags) {
+            List<PartETag> parts = new ArrayList<>(partETags.size());
+            partETags.forEach((partNumber, eTag) -> parts.add(new PartETag(partNumber, eTag)));
+            cosClient.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, objectName, uploadId, parts));
+        }
+
+        @Override
+        public void abort(String uploadId) {
+            try {
+                cosClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, uploadId));
+            } catch (Exception e) {
+                log.debug("取消分片上传失败: object={}, error={}", objectName, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.ruoyi.common.utils;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import com.alibaba.fastjson2.JSONArray;
 import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.framework.redis.NearCache;
+import com.ruoyi.framework.redis.NearCache.DictEntry;
 import com.ruoyi.framework.redis.RedisCache;
+import com.ruoyi.framework.redis.RedisKeyScanner;
 import com.ruoyi.project.system.domain.SysDictData;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.core.collection.CollUtil;
 
 /**
  * 字典工具类
@@ -31,6 +35,7 @@ public class DictUtils
     public static void setDictCache(String key, List<SysDictData> dictDatas)
     {
         SpringUtils.getBean(RedisCache.class).setCacheObject(getCacheKey(key), dictDatas);
+        SpringUtils.getBean(NearCache.class).evictDict(key);
     }
 
     /**
@@ -40,6 +45,29 @@ public class DictUtils
      * @return dictDatas 字典数据列表
      */
     public static List<SysDictData> getDictCache(String key)
+    {
+        DictEntry entry = getDictEntry(key);
+        return entry.isEmpty() ? null : new ArrayList<>(entry.getDictDatas());
+    }
+
+    /**
+     * 获取字典条目（优先本地缓存，未命中时读取 Redis）
+     * 
+     * @param key 参数键
+     * @return 字典条目
+     */
+    private static DictEntry getDictEntry(String key)
+    {
+        return SpringUtils.getBean(NearCache.class).getDict(key, DictUtils::loadDictCache);
+    }
+
+    /**
+     * 从 Redis 读取字典缓存
+     * 
+     * @param key 参数键
+     * @return dictDatas 字典数据列表
+     */
+    private static List<SysDictData> loadDictCache(String key)
     {
         Object cacheObject = SpringUtils.getBean(RedisCache.class).getCacheObject(getCacheKey(key));
         if (cacheObject != null)
@@ -66,8 +94,8 @@ public class DictUtils
                 org.slf4j.LoggerFactory.getLogger(DictUtils.class)
                     .warn("字典缓存类型转换失败，key: {}, cacheType: {}, 将从数据库重新加载", 
                           key, cacheObject.getClass().getSimpleName(), e);
-                // 删除有问题的缓存
-                removeDictCache(key);
+                // 删除有问题的缓存（此处处于本地缓存加载过程中，只删除 Redis 键）
+                SpringUtils.getBean(RedisCache.class).deleteObject(getCacheKey(key));
                 return null;
             }
         }
@@ -117,34 +145,26 @@ public class DictUtils
     public static String getDictLabel(String dictType, String dictValue, String separator)
     {
         StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (CollUtil.isEmpty(datas))
+        DictEntry entry = getDictEntry(dictType);
+        if (entry.isEmpty())
         {
             return StrUtil.EMPTY;
         }
         if (StrUtil.containsAny(dictValue, separator))
         {
-            for (SysDictData dict : datas)
+            Set<String> values = new HashSet<>(StrUtil.split(dictValue, separator));
+            for (SysDictData dict : entry.getDictDatas())
             {
-                for (String value : StrUtil.split(dictValue, separator))
+                if (values.contains(dict.getDictValue()))
                 {
-                    if (value.equals(dict.getDictValue()))
-                    {
-                        propertyString.append(dict.getDictLabel()).append(separator);
-                        break;
-                    }
+                    propertyString.append(dict.getDictLabel()).append(separator);
                 }
             }
         }
         else
         {
-            for (SysDictData dict : datas)
-            {
-                if (dictValue.equals(dict.getDictValue()))
-                {
-                    return dict.getDictLabel();
-                }
-            }
+            String label = entry.getLabel(dictValue);
+            return label != null ? label : StrUtil.EMPTY;
         }
         return StrUtil.removeSuffix(propertyString.toString(), separator);
     }
@@ -160,34 +180,26 @@ public class DictUtils
     public static String getDictValue(String dictType, String dictLabel, String separator)
     {
         StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (CollUtil.isEmpty(datas))
+        DictEntry entry = getDictEntry(dictType);
+        if (entry.isEmpty())
         {
             return StrUtil.EMPTY;
         }
         if (StrUtil.containsAny(dictLabel, separator))
         {
-            for (SysDictData dict : datas)
+            Set<String> labels = new HashSet<>(StrUtil.split(dictLabel, separator));
+            for (SysDictData dict : entry.getDictDatas())
             {
-                for (String label : StrUtil.split(dictLabel, separator))
+                if (labels.contains(dict.getDictLabel()))
                 {
-                    if (label.equals(dict.getDictLabel()))
-                    {
-                        propertyString.append(dict.getDictValue()).append(separator);
-                        break;
-                    }
+                    propertyString.append(dict.getDictValue()).append(separator);
                 }
             }
         }
         else
         {
-            for (SysDictData dict : datas)
-            {
-                if (dictLabel.equals(dict.getDictLabel()))
-                {
-                    return dict.getDictValue();
-                }
-            }
+            String value = entry.getValue(dictLabel);
+            return value != null ? value : StrUtil.EMPTY;
         }
         return StrUtil.removeSuffix(propertyString.toString(), separator);
     }
@@ -201,12 +213,12 @@ public class DictUtils
     public static String getDictValues(String dictType)
     {
         StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (CollUtil.isEmpty(datas))
+        DictEntry entry = getDictEntry(dictType);
+        if (entry.isEmpty())
         {
             return StrUtil.EMPTY;
         }
-        for (SysDictData dict : datas)
+        for (SysDictData dict : entry.getDictDatas())
         {
             propertyString.append(dict.getDictValue()).append(SEPARATOR);
         }
@@ -222,12 +234,12 @@ public class DictUtils
     public static String getDictLabels(String dictType)
     {
         StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (CollUtil.isEmpty(datas))
+        DictEntry entry = getDictEntry(dictType);
+        if (entry.isEmpty())
         {
             return StrUtil.EMPTY;
         }
-        for (SysDictData dict : datas)
+        for (SysDictData dict : entry.getDictDatas())
         {
             propertyString.append(dict.getDictLabel()).append(SEPARATOR);
         }
@@ -242,6 +254,7 @@ public class DictUtils
     public static void removeDictCache(String key)
     {
         SpringUtils.getBean(RedisCache.class).deleteObject(getCacheKey(key));
+        SpringUtils.getBean(NearCache.class).evictDict(key);
     }
 
     /**
@@ -249,8 +262,8 @@ public class DictUtils
      */
     public static void clearDictCache()
     {
-        Collection<String> keys = SpringUtils.getBean(RedisCache.class).keys(CacheConstants.SYS_DICT_KEY + "*");
-        SpringUtils.getBean(RedisCache.class).deleteObject(keys);
+        SpringUtils.getBean(RedisKeyScanner.class).unlinkByPattern(CacheConstants.SYS_DICT_KEY + "*");
+        SpringUtils.getBean(NearCache.class).evictDict(null);
     }
 
     /**
@@ -0,0 +1,97 @@
+package com.ruoyi.common.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 树结构组装工具
+ * 一次遍历按父ID分组，再把子节点列表挂到各节点上，整体 O(n)；子节点保持入参列表中的顺序
+ *
+ * @author ruoyi
+ */
+public class TreeBuildUtils
+{
+    private TreeBuildUtils()
+    {
+    }
+
+    /**
+     * 组装树，父节点不在列表中的节点视为顶级节点；没有顶级节点时（如存在环）原样返回列表
+     *
+     * @param nodes 节点列表
+     * @param idGetter 取节点ID
+     * @param parentIdGetter 取父节点ID
+     * @param childrenSetter 设置子节点列表（叶子节点设置为空列表）
+     * @return 顶级节点列表
+     */
+    public static <T, K> List<T> build(List<T> nodes, Function<T, K> idGetter, Function<T, K> parentIdGetter,
+            BiConsumer<T, List<T>> childrenSetter)
+    {
+        Set<K> ids = new HashSet<>(nodes.size() * 2);
+        for (T node : nodes)
+        {
+            ids.add(idGetter.apply(node));
+        }
+        List<T> roots = new ArrayList<>();
+        for (T node : nodes)
+        {
+            if (!ids.contains(parentIdGetter.apply(node)))
+            {
+                roots.add(node);
+            }
+        }
+        link(nodes, idGetter, parentIdGetter, childrenSetter);
+        return roots.isEmpty() ? nodes : roots;
+    }
+
+    /**
+     * 组装树，只返回父ID等于指定值的顶级节点
+     *
+     * @param nodes 节点列表
+     * @param rootParentId 顶级节点的父ID
+     * @param idGetter 取节点ID
+     * @param parentIdGetter 取父节点ID
+     * @param childrenSetter 设置子节点列表（叶子节点设置为空列表）
+     * @return 顶级节点列表
+     */
+    public static <T, K> List<T> build(List<T> nodes, K rootParentId, Function<T, K> idGetter,
+            Function<T, K> parentIdGetter, BiConsumer<T, List<T>> childrenSetter)
+    {
+        List<T> roots = new ArrayList<>();
+        for (T node : nodes)
+        {
+            if (Objects.equals(rootParentId, parentIdGetter.apply(node)))
+            {
+                roots.add(node);
+            }
+        }
+        link(nodes, idGetter, parentIdGetter, childrenSetter);
+        return roots;
+    }
+
+    private static <T, K> void link(List<T> nodes, Function<T, K> idGetter, Function<T, K> parentIdGetter,
+            BiConsumer<T, List<T>> childrenSetter)
+    {
+        Map<K, List<T>> childrenMap = new HashMap<>(nodes.size() * 2);
+        for (T node : nodes)
+        {
+            K parentId = parentIdGetter.apply(node);
+            if (parentId != null)
+            {
+                childrenMap.computeIfAbsent(parentId, key -> new ArrayList<>()).add(node);
+            }
+        }
+        for (T node : nodes)
+        {
+            List<T> children = childrenMap.get(idGetter.apply(node));
+            childrenSetter.accept(node, children != null ? children : new ArrayList<>());
+        }
+    }
+}
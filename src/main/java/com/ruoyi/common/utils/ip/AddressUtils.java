@@ -1,14 +1,9 @@
 package com.ruoyi.common.utils.ip;
 
-import java.nio.charset.Charset;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
-import com.ruoyi.common.constant.Constants;
-import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpUtil;
+import com.ruoyi.common.utils.spring.SpringUtils;
 import com.ruoyi.framework.config.RuoYiConfig;
+import com.ruoyi.framework.ip.IpLocator;
+import com.ruoyi.framework.ip.IpRegion;
 
 /**
  * 获取地址类
@@ -17,11 +12,6 @@ import com.ruoyi.framework.config.RuoYiConfig;
  */
 public class AddressUtils
 {
-    private static final Logger log = LoggerFactory.getLogger(AddressUtils.class);
-
-    // IP地址查询
-    public static final String IP_URL = "http://whois.pconline.com.cn/ipJson.jsp";
-
     // 未知地址
     public static final String UNKNOWN = "XX XX";
 
@@ -34,22 +24,10 @@ public class AddressUtils
         }
         if (RuoYiConfig.isAddressEnabled())
         {
-            try
-            {
-                String rspStr = HttpUtil.get(IP_URL + "?ip=" + ip + "&json=true", Charset.forName(Constants.GBK));
-                if (StrUtil.isEmpty(rspStr))
-                {
-                    log.error("获取地理位置异常 {}", ip);
-                    return UNKNOWN;
-                }
-                JSONObject obj = JSON.parseObject(rspStr);
-                String region = obj.getString("pro");
-                String city = obj.getString("city");
-                return String.format("%s %s", region, city);
-            }
-            catch (Exception e)
+            IpRegion region = SpringUtils.getBean(IpLocator.class).locate(ip);
+            if (region.isKnown())
             {
-                log.error("获取地理位置异常 {}", ip);
+                return region.getAddress();
             }
         }
         return UNKNOWN;
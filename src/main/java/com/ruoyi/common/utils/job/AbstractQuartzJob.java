@@ -11,9 +11,9 @@ import com.ruoyi.common.constant.ScheduleConstants;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.bean.BeanUtil;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.framework.manager.AsyncLogSink;
 import com.ruoyi.project.monitor.domain.SysJob;
 import com.ruoyi.project.monitor.domain.SysJobLog;
-import com.ruoyi.project.monitor.service.ISysJobLogService;
 import cn.hutool.core.exceptions.ExceptionUtil;
 
 /**
@@ -97,8 +97,8 @@ public abstract class AbstractQuartzJob implements Job
             sysJobLog.setStatus(Constants.SUCCESS);
         }
 
-        // 写入数据库当中
-        SpringUtils.getBean(ISysJobLogService.class).addJobLog(sysJobLog);
+        // 交给日志写入器批量写入数据库
+        SpringUtils.getBean(AsyncLogSink.class).offer(sysJobLog);
     }
 
     /**
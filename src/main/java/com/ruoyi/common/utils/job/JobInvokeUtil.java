@@ -1,9 +1,15 @@
 package com.ruoyi.common.utils.job;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.ruoyi.common.utils.spring.SpringUtils;
@@ -11,11 +17,18 @@ import com.ruoyi.project.monitor.domain.SysJob;
 
 /**
  * 任务执行工具
+ * 调用目标在任务创建/更新时编译为 MethodHandle 并按 invokeTarget 缓存，触发时直接调用，
+ * 不再重复解析字符串、查找 Bean 和反射查找方法。
  *
  * @author ruoyi
  */
 public class JobInvokeUtil
 {
+    private static final Logger log = LoggerFactory.getLogger(JobInvokeUtil.class);
+
+    /** 已编译的调用目标：invokeTarget -> 调用器 */
+    private static final Map<String, JobInvoker> INVOKERS = new ConcurrentHashMap<>();
+
     /**
      * 执行方法
      *
@@ -24,43 +37,110 @@ public class JobInvokeUtil
     public static void invokeMethod(SysJob sysJob) throws Exception
     {
         String invokeTarget = sysJob.getInvokeTarget();
+        JobInvoker invoker = INVOKERS.get(invokeTarget);
+        if (invoker == null)
+        {
+            // 未预编译（如编译时 Bean 尚不可用），首次执行时编译
+            invoker = compile(invokeTarget);
+            INVOKERS.put(invokeTarget, invoker);
+        }
+        invoker.invoke();
+    }
+
+    /**
+     * 编译并缓存调用目标，任务创建或更新时调用；编译失败时只记录日志，执行时再报错
+     *
+     * @param invokeTarget 调用目标字符串
+     */
+    public static void prepare(String invokeTarget)
+    {
+        if (StrUtil.isBlank(invokeTarget))
+        {
+            return;
+        }
+        try
+        {
+            INVOKERS.put(invokeTarget, compile(invokeTarget));
+        }
+        catch (Exception e)
+        {
+            INVOKERS.remove(invokeTarget);
+            log.warn("定时任务调用目标编译失败: {}, {}", invokeTarget, e.getMessage());
+        }
+    }
+
+    /**
+     * 编译调用目标
+     *
+     * @param invokeTarget 调用目标字符串
+     * @return 调用器
+     */
+    private static JobInvoker compile(String invokeTarget) throws Exception
+    {
         String beanName = getBeanName(invokeTarget);
         String methodName = getMethodName(invokeTarget);
         List<Object[]> methodParams = getMethodParams(invokeTarget);
+        Class<?>[] paramTypes = ObjectUtil.isNotNull(methodParams) ? getMethodParamsType(methodParams) : new Class<?>[0];
+        Object[] paramValues = ObjectUtil.isNotNull(methodParams) ? getMethodParamsValue(methodParams) : new Object[0];
 
-        if (!isValidClassName(beanName))
+        if (isValidClassName(beanName))
         {
-            Object bean = SpringUtils.getBean(beanName);
-            invokeMethod(bean, methodName, methodParams);
+            // 类名形式：与原逻辑一致，每次执行创建新实例
+            Class<?> clazz = Class.forName(beanName);
+            MethodHandle factory = MethodHandles.publicLookup()
+                    .findConstructor(clazz, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            return new JobInvoker(null, factory, bindParams(clazz, methodName, paramTypes, paramValues));
         }
-        else
+        if (SpringUtils.isSingleton(beanName))
         {
-            Object bean = Class.forName(beanName).getDeclaredConstructor().newInstance();
-            invokeMethod(bean, methodName, methodParams);
+            Object bean = SpringUtils.getBean(beanName);
+            MethodHandle handle = bindParams(bean.getClass(), methodName, paramTypes, paramValues).bindTo(bean);
+            return new JobInvoker(null, null, handle.asType(MethodType.methodType(void.class)));
         }
+        // 非单例 Bean 每次执行时重新获取实例
+        return new JobInvoker(beanName, null, bindParams(SpringUtils.getType(beanName), methodName, paramTypes, paramValues));
     }
 
     /**
-     * 调用任务方法
-     *
-     * @param bean 目标对象
-     * @param methodName 方法名称
-     * @param methodParams 方法参数
+     * 查找方法并绑定参数，返回 (Object)void 形式的句柄
      */
-    private static void invokeMethod(Object bean, String methodName, List<Object[]> methodParams)
-            throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException,
-            InvocationTargetException
+    private static MethodHandle bindParams(Class<?> clazz, String methodName, Class<?>[] paramTypes, Object[] paramValues)
+            throws NoSuchMethodException, IllegalAccessException
     {
-        if (ObjectUtil.isNotNull(methodParams) && methodParams.size() > 0)
+        Method method = clazz.getMethod(methodName, paramTypes);
+        MethodHandle handle;
+        try
         {
-            Method method = bean.getClass().getMethod(methodName, getMethodParamsType(methodParams));
-            method.invoke(bean, getMethodParamsValue(methodParams));
+            handle = MethodHandles.publicLookup().unreflect(method);
         }
-        else
+        catch (IllegalAccessException e)
         {
-            Method method = bean.getClass().getMethod(methodName);
-            method.invoke(bean);
+            // JDK 动态代理类不可直接访问，改用接口上声明的同名方法
+            handle = unreflectFromInterfaces(clazz, methodName, paramTypes, e);
         }
+        if (paramValues.length > 0)
+        {
+            handle = MethodHandles.insertArguments(handle, 1, paramValues);
+        }
+        return handle.asType(MethodType.methodType(void.class, Object.class));
+    }
+
+    private static MethodHandle unreflectFromInterfaces(Class<?> clazz, String methodName, Class<?>[] paramTypes,
+            IllegalAccessException cause) throws IllegalAccessException
+    {
+        for (Class<?> itf : clazz.getInterfaces())
+        {
+            try
+            {
+                return MethodHandles.publicLookup().unreflect(itf.getMethod(methodName, paramTypes));
+            }
+            catch (NoSuchMethodException | IllegalAccessException ignored)
+            {
+                // 继续查找下一个接口
+            }
+        }
+        throw cause;
     }
 
     /**
@@ -188,4 +268,53 @@ public class JobInvokeUtil
         }
         return classs;
     }
+
+    /**
+     * 已编译的任务调用器
+     */
+    private static final class JobInvoker
+    {
+        /** 非单例 Bean 名称，执行时获取实例 */
+        private final String beanName;
+
+        /** 类名形式的构造器，执行时创建实例 */
+        private final MethodHandle factory;
+
+        /** 单例 Bean 时为 ()void，否则为 (Object)void */
+        private final MethodHandle handle;
+
+        private JobInvoker(String beanName, MethodHandle factory, MethodHandle handle)
+        {
+            this.beanName = beanName;
+            this.factory = factory;
+            this.handle = handle;
+        }
+
+        private void invoke() throws Exception
+        {
+            try
+            {
+                if (factory != null)
+                {
+                    handle.invokeExact(factory.invokeExact());
+                }
+                else if (beanName != null)
+                {
+                    handle.invokeExact(SpringUtils.<Object> getBean(beanName));
+                }
+                else
+                {
+                    handle.invokeExact();
+                }
+            }
+            catch (Exception | Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                throw new Exception(e);
+            }
+        }
+    }
 }
@@ -77,6 +77,9 @@ public class ScheduleUtils
         // 放入参数，运行时的方法可以获取
         jobDetail.getJobDataMap().put(ScheduleConstants.TASK_PROPERTIES, job);
 
+        // 预编译调用目标，触发时直接调用缓存的方法句柄
+        JobInvokeUtil.prepare(job.getInvokeTarget());
+
         // 判断是否存在
         if (scheduler.checkExists(getJobKey(jobId, jobGroup)))
         {
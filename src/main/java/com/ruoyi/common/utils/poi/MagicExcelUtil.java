@@ -1,26 +1,47 @@
 package com.ruoyi.common.utils.poi;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
 import com.ruoyi.common.exception.UtilException;
 import com.ruoyi.framework.aspectj.lang.annotation.Excel;
 import com.ruoyi.framework.aspectj.lang.annotation.Excel.Type;
@@ -28,7 +49,6 @@ import com.ruoyi.framework.aspectj.lang.annotation.Excels;
 import com.ruoyi.framework.config.RuoYiConfig;
 import com.ruoyi.framework.web.domain.AjaxResult;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateUtil;
@@ -37,8 +57,6 @@ import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.ReflectUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.poi.excel.ExcelReader;
-import cn.hutool.poi.excel.ExcelWriter;
-import cn.hutool.poi.excel.StyleSet;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
@@ -74,9 +92,34 @@ public class MagicExcelUtil<T>
     public static final String DEFAULT_DATETIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
 
     /**
-     * 字段注解缓存
+     * 流式写入时内存中保留的行数，超出部分刷到临时文件
      */
-    private Map<String, Object> fieldAnnotationCache = new HashMap<>();
+    public static final int ROW_ACCESS_WINDOW_SIZE = 500;
+
+    /**
+     * 单个工作表最多写入的数据行数，超出后自动新建工作表
+     */
+    public static final int MAX_SHEET_ROWS = 1000000;
+
+    /**
+     * 用于估算列宽的采样行数
+     */
+    public static final int WIDTH_SAMPLE_ROWS = 100;
+
+    /**
+     * 按采样估算出的列宽上限（字符数），注解指定的宽度不受此限制
+     */
+    public static final int SAMPLE_MAX_WIDTH = 50;
+
+    /**
+     * 分页导出时默认每页条数
+     */
+    public static final int DEFAULT_PAGE_SIZE = 2000;
+
+    /**
+     * 导出列元数据缓存，每个实体类只解析一次
+     */
+    private static final Map<Class<?>, List<ExcelColumn>> COLUMN_CACHE = new ConcurrentHashMap<>();
 
     public MagicExcelUtil(Class<T> clazz)
     {
@@ -109,6 +152,78 @@ public class MagicExcelUtil<T>
      * @param fileName 指定的文件名（不包含扩展名）
      */
     public void exportExcel(HttpServletResponse response, List<T> list, String sheetName, String title, String fileName)
+    {
+        exportExcel(response, sheetName, title, fileName, consumer -> {
+            if (list != null)
+            {
+                list.forEach(consumer);
+            }
+        });
+    }
+
+    /**
+     * 通过 MyBatis-Flex 游标逐行导出，数据不在内存中整体驻留
+     * 游标语句的流式抓取条数由 CursorFetchSizeInterceptor 设置（ruoyi.mybatis.cursor-fetch-size）
+     *
+     * @param response 响应对象
+     * @param sheetName 工作表的名称
+     * @param mapper 实体对应的 Mapper
+     * @param queryWrapper 查询条件
+     */
+    public void exportExcel(HttpServletResponse response, String sheetName, BaseMapper<T> mapper, QueryWrapper queryWrapper)
+    {
+        exportExcel(response, sheetName, StrUtil.EMPTY, null, consumer -> Db.tx(() -> {
+            // 游标需要在同一个事务（连接）内遍历
+            try (Cursor<T> cursor = mapper.selectCursorByQuery(queryWrapper))
+            {
+                cursor.forEach(consumer);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * 分页拉取数据并流式导出
+     *
+     * @param response 响应对象
+     * @param sheetName 工作表的名称
+     * @param pageSize 每页条数
+     * @param pageLoader 分页加载函数，参数为页码（从1开始）和每页条数，返回不足一页时结束
+     */
+    public void exportExcel(HttpServletResponse response, String sheetName, int pageSize, BiFunction<Integer, Integer, List<T>> pageLoader)
+    {
+        int size = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+        exportExcel(response, sheetName, StrUtil.EMPTY, null, consumer -> {
+            for (int pageNum = 1; ; pageNum++)
+            {
+                List<T> page = pageLoader.apply(pageNum, size);
+                if (CollUtil.isEmpty(page))
+                {
+                    break;
+                }
+                page.forEach(consumer);
+                if (page.size() < size)
+                {
+                    break;
+                }
+            }
+        });
+    }
+
+    /**
+     * 流式导出Excel，数据由 rowSource 逐行推送，写入滑动窗口工作簿后直接输出到响应流
+     *
+     * @param response 响应对象
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     * @param fileName 指定的文件名（不包含扩展名）
+     * @param rowSource 数据源，接收一个行消费者并依次推送每一行
+     */
+    public void exportExcel(HttpServletResponse response, String sheetName, String title, String fileName, Consumer<Consumer<T>> rowSource)
     {
         try
         {
@@ -122,26 +237,7 @@ public class MagicExcelUtil<T>
             String encodedFileName = customUrlEncode(fileName + ".xlsx");
             response.setHeader("Content-disposition", "attachment;filename=" + encodedFileName);
 
-            // 创建ExcelWriter
-            ExcelWriter writer = createExcelWriter();
-            
-            // 设置sheet名称
-            writer.renameSheet(sheetName);
-            
-            // 如果有标题，添加标题行
-            if (StrUtil.isNotEmpty(title)) {
-                writer.merge(getExcelFields().size() - 1, title);
-            }
-            
-            // 写入数据
-            writeData(writer, list);
-            
-            // 自动调整列宽
-            autoSizeColumns(writer);
-            
-            // 写入响应
-            writer.flush(response.getOutputStream());
-            writer.close();
+            writeWorkbook(response.getOutputStream(), sheetName, title, rowSource);
         }
         catch (Exception e)
         {
@@ -150,8 +246,6 @@ public class MagicExcelUtil<T>
         }
     }
 
-  
-    
     /**
      * 导出Excel
      *
@@ -162,26 +256,18 @@ public class MagicExcelUtil<T>
      */
     public AjaxResult exportExcel(List<T> list, String sheetName, String title)
     {
-        try
+        // 编码文件名
+        String filename = encodingFilename(sheetName, title);
+        // 获取文件存储路径
+        String downloadPath = getAbsoluteFile(filename);
+        try (OutputStream out = new FileOutputStream(downloadPath))
         {
-            // 获取导出数据
-            List<Map<String, Object>> listMap = writeData(list);
-            // 创建工作簿对象
-            ExcelWriter writer = createExcelWriter();
-            // 设置sheet名称
-            writer.renameSheet(0, sheetName);
-            // 写入数据
-            writer.write(listMap, true);
-            // 自动调整列宽
-            autoSizeColumns(writer);
-            // 编码文件名
-            String filename = encodingFilename(sheetName, title);
-            // 获取文件存储路径
-            String downloadPath = getAbsoluteFile(filename);
-            // 写入文件
-            writer.flush(new File(downloadPath));
-            // 关闭writer
-            writer.close();
+            writeWorkbook(out, sheetName, null, consumer -> {
+                if (list != null)
+                {
+                    list.forEach(consumer);
+                }
+            });
             // 返回结果
             return AjaxResult.success(filename);
         }
@@ -193,339 +279,396 @@ public class MagicExcelUtil<T>
     }
 
     /**
-     * 创建Excel写入器
+     * 使用 SXSSF 滑动窗口工作簿写出数据，超出窗口的行刷到压缩临时文件，写完后删除临时文件
      */
-    private ExcelWriter createExcelWriter() {
-        // 使用false参数，避免创建多个sheet
-        ExcelWriter writer = cn.hutool.poi.excel.ExcelUtil.getWriter(false);
-        
-        // 设置样式
-        StyleSet styleSet = writer.getStyleSet();
-        
-        // 设置表头样式
-        CellStyle headCellStyle = styleSet.getHeadCellStyle();
-        headCellStyle.setFillForegroundColor(IndexedColors.GREY_50_PERCENT.getIndex());
-        headCellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        Font headFont = writer.createFont();
-        headFont.setBold(true);
-        headFont.setFontHeightInPoints((short) 11);
-        headFont.setColor(IndexedColors.WHITE.getIndex());
-        headCellStyle.setFont(headFont);
-        headCellStyle.setAlignment(HorizontalAlignment.CENTER);
-        headCellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        headCellStyle.setWrapText(true); // 允许内容换行
-        
-        // 设置内容样式
-        CellStyle contentCellStyle = styleSet.getCellStyle();
-        Font contentFont = writer.createFont();
-        contentFont.setFontHeightInPoints((short) 11);
-        contentCellStyle.setFont(contentFont);
-        contentCellStyle.setAlignment(HorizontalAlignment.CENTER); // 默认居中对齐
-        contentCellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        contentCellStyle.setWrapText(true); // 允许内容换行
-        
-        return writer;
+    private void writeWorkbook(OutputStream out, String sheetName, String title, Consumer<Consumer<T>> rowSource) throws IOException
+    {
+        List<ExcelColumn> columns = getExcelColumns();
+        if (columns.isEmpty())
+        {
+            throw new UtilException("没有找到Excel注解字段");
+        }
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        try
+        {
+            SheetWriter sheetWriter = new SheetWriter(workbook, sheetName, title, columns);
+            rowSource.accept(sheetWriter::writeRow);
+            sheetWriter.finish();
+            workbook.write(out);
+            out.flush();
+        }
+        finally
+        {
+            workbook.dispose();
+            workbook.close();
+        }
     }
-    
+
     /**
-     * 写入数据
-     * 
-     * @param <T> 泛型
-     * @param list 数据列表
-     * @return 结果
+     * 工作表写入器：负责表头、标题、分表以及按采样估算列宽
      */
-    private List<Map<String, Object>> writeData(List<T> list)
+    private class SheetWriter
     {
-        List<Map<String, Object>> mapList = new ArrayList<>();
-        if (CollUtil.isEmpty(list))
+        private final SXSSFWorkbook workbook;
+        private final String sheetName;
+        private final String title;
+        private final List<ExcelColumn> columns;
+        private final CellStyle titleStyle;
+        private final CellStyle headStyle;
+        private final CellStyle contentStyle;
+        /** 各列内容样式：指定了精度的列使用对应小数位的数字格式 */
+        private final CellStyle[] columnStyles;
+        /** 采样得到的各列最大显示宽度 */
+        private final int[] sampleWidths;
+        private final List<SXSSFSheet> sheets = new ArrayList<>();
+        private SXSSFSheet sheet;
+        private int rowIndex;
+        private int sheetRows;
+        private int sampledRows;
+
+        SheetWriter(SXSSFWorkbook workbook, String sheetName, String title, List<ExcelColumn> columns)
+        {
+            this.workbook = workbook;
+            this.sheetName = StrUtil.blankToDefault(sheetName, "Sheet1");
+            this.title = title;
+            this.columns = columns;
+            this.titleStyle = createTitleStyle(workbook);
+            this.headStyle = createHeadStyle(workbook);
+            this.contentStyle = createContentStyle(workbook);
+            this.columnStyles = createColumnStyles();
+            this.sampleWidths = new int[columns.size()];
+            for (int i = 0; i < columns.size(); i++)
+            {
+                sampleWidths[i] = displayWidth(columns.get(i).header);
+            }
+            newSheet();
+        }
+
+        private CellStyle[] createColumnStyles()
         {
-            return mapList;
+            CellStyle[] styles = new CellStyle[columns.size()];
+            Map<Integer, CellStyle> scaleStyles = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++)
+            {
+                int scale = columns.get(i).excel.scale();
+                styles[i] = scale < 0 ? contentStyle : scaleStyles.computeIfAbsent(scale, key -> {
+                    CellStyle style = workbook.createCellStyle();
+                    style.cloneStyleFrom(contentStyle);
+                    style.setDataFormat(workbook.createDataFormat().getFormat(key > 0 ? "0." + "0".repeat(key) : "0"));
+                    return style;
+                });
+            }
+            return styles;
         }
-        // 获取实体对象的所有字段
-        List<Field> fields = getExcelFields();
-        // 遍历数据
-        for (T vo : list)
+
+        void writeRow(T item)
         {
-            Map<String, Object> resultMap = new HashMap<>();
-            // 遍历字段
-            for (Field field : fields)
+            if (sheetRows >= MAX_SHEET_ROWS)
+            {
+                newSheet();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            boolean sampling = sampledRows < WIDTH_SAMPLE_ROWS;
+            for (int i = 0; i < columns.size(); i++)
             {
-                // 字段名
-                String fieldName = field.getName();
-                // 获取注解
-                Excel attr = field.getAnnotation(Excel.class);
-                // 如果没有Excel注解或者不导出，则跳过
-                if (attr == null || attr.type() == Type.IMPORT)
+                Object value = columns.get(i).getValue(item);
+                Cell cell = row.createCell(i);
+                cell.setCellStyle(columnStyles[i]);
+                if (value instanceof Number number && isSafeNumber(number))
                 {
-                    continue;
+                    cell.setCellValue(number.doubleValue());
                 }
-                // 字段值
-                Object value = null;
-                try
+                else if (value != null)
                 {
-                    // 设置可访问
-                    field.setAccessible(true);
-                    // 获取字段值
-                    value = field.get(vo);
-                    // 处理日期格式
-                    if (StrUtil.isNotEmpty(attr.dateFormat()) && value != null)
-                    {
-                        value = DateUtil.format((Date) value, attr.dateFormat());
-                    }
-                    // 处理表达式
-                    else if (StrUtil.isNotEmpty(attr.readConverterExp()) && value != null)
-                    {
-                        value = convertByExp(Convert.toStr(value), attr.readConverterExp(), attr.separator());
-                    }
-                    // 处理BigDecimal精度和舍入规则
-                    else if (attr.scale() >= 0 && value != null && value instanceof BigDecimal)
-                    {
-                        value = ((BigDecimal) value).setScale(attr.scale(), attr.roundingMode());
-                    }
-                    // 处理后缀
-                    if (StrUtil.isNotEmpty(attr.suffix()) && value != null)
-                    {
-                        value = value + attr.suffix();
-                    }
-                    // 处理默认值
-                    if (value == null && StrUtil.isNotEmpty(attr.defaultValue()))
-                    {
-                        value = attr.defaultValue();
-                    }
-                    // 将字段值添加到结果映射中
-                    resultMap.put(fieldName, value);
+                    cell.setCellValue(value instanceof Date date ? DateUtil.format(date, DEFAULT_DATETIME_FORMAT) : value.toString());
                 }
-                catch (Exception e)
+                if (sampling && value != null)
                 {
-                    log.error("导出Excel失败{}", e.getMessage());
+                    sampleWidths[i] = Math.max(sampleWidths[i], displayWidth(cell.getCellType() == CellType.NUMERIC
+                            ? Convert.toStr(value) : cell.getStringCellValue()));
                 }
-                // 处理嵌套对象的Excel注解在writeData方法中统一处理
             }
-            mapList.add(resultMap);
-        }
-        return mapList;
-    }
-    
-  
-    
-    /**
-     * 写入数据到Excel
-     */
-    private void writeData(ExcelWriter writer, List<T> list) {
-        if (CollUtil.isEmpty(list)) {
-            return;
-        }
-        
-        // 获取Excel字段信息
-        List<Field> fields = getExcelFields();
-        if (CollUtil.isEmpty(fields)) {
-            throw new UtilException("没有找到Excel注解字段");
+            if (sampling)
+            {
+                sampledRows++;
+            }
+            sheetRows++;
         }
-        
-        // 设置表头别名和列样式
-        for (Field field : fields) {
-            Excel excel = field.getAnnotation(Excel.class);
-            if (excel != null) {
-                writer.addHeaderAlias(field.getName(), excel.name());
-                
-                // 设置列宽度
-                if (excel.width() > 0) {
-                    int columnIndex = fields.indexOf(field);
-                    writer.setColumnWidth(columnIndex, (int) excel.width());
+
+        void finish()
+        {
+            for (SXSSFSheet target : sheets)
+            {
+                for (int i = 0; i < columns.size(); i++)
+                {
+                    // 采样宽度封顶后与注解宽度取较大值
+                    double width = Math.max(columns.get(i).excel.width(), Math.min(sampleWidths[i] + 2, SAMPLE_MAX_WIDTH));
+                    target.setColumnWidth(i, (int) (Math.min(width, MAX_WIDTH) * 256));
                 }
             }
         }
-        
-        // 处理数据
-        List<Map<String, Object>> dataList = new ArrayList<>();
-        for (T item : list) {
-            Map<String, Object> dataMap = BeanUtil.beanToMap(item);
-            Map<String, Object> resultMap = new HashMap<>();
-            
-            // 处理每个字段的值
-            for (Field field : fields) {
-                String fieldName = field.getName();
-                Object value = dataMap.get(fieldName);
-                
-                // 处理Excel注解
-                Excel excel = field.getAnnotation(Excel.class);
-                if (excel != null) {
-                    // 处理日期格式
-                    if (value instanceof Date && StrUtil.isNotEmpty(excel.dateFormat())) {
-                        value = DateUtil.format((Date) value, excel.dateFormat());
-                    }
-                    
-                    // 处理读取转换表达式
-                    if (StrUtil.isNotEmpty(excel.readConverterExp())) {
-                        value = convertByExp(Convert.toStr(value), excel.readConverterExp(), excel.separator());
-                    }
-                    
-                    // 处理数字精度
-                    if (value instanceof BigDecimal && excel.scale() >= 0) {
-                        value = ((BigDecimal) value).setScale(excel.scale(), excel.roundingMode());
-                    }
-                    
-                    // 处理后缀
-                    if (StrUtil.isNotEmpty(excel.suffix()) && value != null) {
-                        value = value + excel.suffix();
-                    }
-                    
-                    // 处理默认值
-                    if (ObjectUtil.isEmpty(value) && StrUtil.isNotEmpty(excel.defaultValue())) {
-                        value = excel.defaultValue();
-                    }
-                    
-                    // 只添加有Excel注解的字段
-                    resultMap.put(fieldName, value);
+
+        private void newSheet()
+        {
+            String name = sheets.isEmpty() ? sheetName : sheetName + "_" + (sheets.size() + 1);
+            sheet = workbook.createSheet(name);
+            sheets.add(sheet);
+            rowIndex = 0;
+            sheetRows = 0;
+            if (StrUtil.isNotEmpty(title))
+            {
+                Row titleRow = sheet.createRow(rowIndex++);
+                titleRow.setHeightInPoints(30);
+                Cell cell = titleRow.createCell(0);
+                cell.setCellValue(title);
+                cell.setCellStyle(titleStyle);
+                if (columns.size() > 1)
+                {
+                    sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, columns.size() - 1));
                 }
             }
-            
-            // 处理嵌套对象的Excel注解
-            handleNestedExcel(dataMap, resultMap, fields, writer);
-            
-            dataList.add(resultMap);
+            Row headRow = sheet.createRow(rowIndex++);
+            for (int i = 0; i < columns.size(); i++)
+            {
+                Cell cell = headRow.createCell(i);
+                cell.setCellValue(columns.get(i).header);
+                cell.setCellStyle(headStyle);
+            }
         }
-        
-        // 写入数据
-        writer.write(dataList, true);
     }
-    
+
     /**
-     * 自动调整列宽
+     * 创建标题样式
      */
-    private void autoSizeColumns(ExcelWriter writer) {
-        try {
-            // 获取当前sheet
-            org.apache.poi.ss.usermodel.Sheet sheet = writer.getSheet();
-            
-            // 获取Excel字段信息
-            List<Field> fields = getExcelFields();
-            if (CollUtil.isEmpty(fields)) {
-                return;
+    private CellStyle createTitleStyle(Workbook workbook)
+    {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        font.setFontHeightInPoints((short) 16);
+        style.setFont(font);
+        style.setAlignment(HorizontalAlignment.CENTER);
+        style.setVerticalAlignment(VerticalAlignment.CENTER);
+        return style;
+    }
+
+    /**
+     * 创建表头样式
+     */
+    private CellStyle createHeadStyle(Workbook workbook)
+    {
+        CellStyle style = workbook.createCellStyle();
+        style.setFillForegroundColor(IndexedColors.GREY_50_PERCENT.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        Font font = workbook.createFont();
+        font.setBold(true);
+        font.setFontHeightInPoints((short) 11);
+        font.setColor(IndexedColors.WHITE.getIndex());
+        style.setFont(font);
+        style.setAlignment(HorizontalAlignment.CENTER);
+        style.setVerticalAlignment(VerticalAlignment.CENTER);
+        style.setWrapText(true); // 允许内容换行
+        setBorder(style);
+        return style;
+    }
+
+    /**
+     * 创建内容样式
+     */
+    private CellStyle createContentStyle(Workbook workbook)
+    {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setFontHeightInPoints((short) 11);
+        style.setFont(font);
+        style.setAlignment(HorizontalAlignment.CENTER); // 默认居中对齐
+        style.setVerticalAlignment(VerticalAlignment.CENTER);
+        style.setWrapText(true); // 允许内容换行
+        setBorder(style);
+        return style;
+    }
+
+    private void setBorder(CellStyle style)
+    {
+        style.setBorderTop(BorderStyle.THIN);
+        style.setBorderBottom(BorderStyle.THIN);
+        style.setBorderLeft(BorderStyle.THIN);
+        style.setBorderRight(BorderStyle.THIN);
+    }
+
+    /**
+     * 能否无损写为数值单元格（超过15位有效数字的整数写成文本，避免精度丢失）
+     */
+    private static boolean isSafeNumber(Number number)
+    {
+        if (number instanceof Long || number instanceof BigInteger)
+        {
+            return Math.abs(number.doubleValue()) < 1e15;
+        }
+        if (number instanceof BigDecimal decimal)
+        {
+            return decimal.precision() <= 15;
+        }
+        return true;
+    }
+
+    /**
+     * 估算字符串显示宽度：双字节字符按2个字符宽计算，多行取最长一行
+     */
+    private static int displayWidth(String text)
+    {
+        if (text == null)
+        {
+            return 0;
+        }
+        int max = 0;
+        int width = 0;
+        for (int i = 0; i < text.length() && max < MAX_WIDTH; i++)
+        {
+            char c = text.charAt(i);
+            if (c == '\n')
+            {
+                max = Math.max(max, width);
+                width = 0;
             }
-            
-            // 遍历所有列，设置自动列宽
-            for (int i = 0; i < fields.size(); i++) {
-                Field field = fields.get(i);
-                Excel excel = field.getAnnotation(Excel.class);
-                
-                if (excel != null) {
-                    // 如果注解中指定了宽度，则使用注解中的宽度
-                    if (excel.width() > 0) {
-                        writer.setColumnWidth(i, (int) excel.width());
-                    } else {
-                        // 否则自动计算列宽
-                        writer.autoSizeColumn(i);
-                    }
-                }
+            else
+            {
+                width += c < 128 ? 1 : 2;
             }
-        } catch (Exception e) {
-            log.error("自动调整列宽异常: {}", e.getMessage());
         }
+        return Math.max(max, width);
     }
-    
+
     /**
-     * 处理嵌套对象的Excel注解
+     * 获取导出列（含 @Excels 展开的嵌套列），按 sort 排序并按类缓存
      */
-    private void handleNestedExcel(Map<String, Object> dataMap, Map<String, Object> resultMap, List<Field> fields, ExcelWriter writer) {
-        for (Field field : fields) {
+    private List<ExcelColumn> getExcelColumns()
+    {
+        return COLUMN_CACHE.computeIfAbsent(clazz, MagicExcelUtil::resolveColumns);
+    }
+
+    private static List<ExcelColumn> resolveColumns(Class<?> type)
+    {
+        List<ExcelColumn> columns = new ArrayList<>();
+        for (Field field : ReflectUtil.getFields(type))
+        {
+            Excel excel = field.getAnnotation(Excel.class);
+            if (excel != null && excel.type() != Type.IMPORT && excel.isExport())
+            {
+                field.setAccessible(true);
+                columns.add(new ExcelColumn(field, null, excel));
+            }
             Excels excels = field.getAnnotation(Excels.class);
-            if (excels != null) {
-                Excel[] excelArray = excels.value();
-                if (excelArray != null && excelArray.length > 0) {
-                    String fieldName = field.getName();
-                    Object nestedObj = dataMap.get(fieldName);
-                    if (nestedObj != null) {
-                        Map<String, Object> nestedMap = BeanUtil.beanToMap(nestedObj);
-                        for (Excel excel : excelArray) {
-                            String targetAttr = excel.targetAttr();
-                            if (StrUtil.isNotEmpty(targetAttr)) {
-                                Object value = nestedMap.get(targetAttr);
-                                
-                                // 处理日期格式
-                                if (value instanceof Date && StrUtil.isNotEmpty(excel.dateFormat())) {
-                                    value = DateUtil.format((Date) value, excel.dateFormat());
-                                }
-                                
-                                // 处理读取转换表达式
-                                if (StrUtil.isNotEmpty(excel.readConverterExp())) {
-                                    value = convertByExp(Convert.toStr(value), excel.readConverterExp(), excel.separator());
-                                }
-                                
-                                // 处理后缀
-                                if (StrUtil.isNotEmpty(excel.suffix()) && value != null) {
-                                    value = value + excel.suffix();
-                                }
-                                
-                                // 处理默认值
-                                if (ObjectUtil.isEmpty(value) && StrUtil.isNotEmpty(excel.defaultValue())) {
-                                    value = excel.defaultValue();
-                                }
-                                
-                                resultMap.put(fieldName + "." + targetAttr, value);
-                                writer.addHeaderAlias(fieldName + "." + targetAttr, excel.name());
-                            }
-                        }
+            if (excels != null)
+            {
+                field.setAccessible(true);
+                for (Excel nested : excels.value())
+                {
+                    if (StrUtil.isEmpty(nested.targetAttr()) || nested.type() == Type.IMPORT || !nested.isExport())
+                    {
+                        continue;
                     }
+                    Field target = ReflectUtil.getField(field.getType(), nested.targetAttr());
+                    if (target == null)
+                    {
+                        log.warn("导出字段不存在: {}.{}", field.getType().getName(), nested.targetAttr());
+                        continue;
+                    }
+                    target.setAccessible(true);
+                    columns.add(new ExcelColumn(field, target, nested));
                 }
             }
         }
+        // 按照sort排序（稳定排序，同序号保持字段声明顺序）
+        columns.sort(Comparator.comparingInt(column -> column.excel.sort()));
+        return Collections.unmodifiableList(columns);
     }
-    
+
     /**
-     * 获取Excel字段
+     * 导出列元数据：字段、可选的嵌套目标字段、注解以及预解析的转换表达式
      */
-    private List<Field> getExcelFields() {
-        String cacheKey = "excel_fields_" + clazz.getName();
-        @SuppressWarnings("unchecked")
-        List<Field> fields = (List<Field>) fieldAnnotationCache.get(cacheKey);
-        
-        if (fields == null) {
-            fields = new ArrayList<>();
-            Field[] allFields = ReflectUtil.getFields(clazz);
-            
-            // 获取所有带有Excel注解的字段
-            for (Field field : allFields) {
-                Excel excel = field.getAnnotation(Excel.class);
-                if (excel != null && excel.type() != Type.IMPORT) {
-                    fields.add(field);
-                }
-                
-                Excels excels = field.getAnnotation(Excels.class);
-                if (excels != null) {
-                    fields.add(field);
+    private static final class ExcelColumn
+    {
+        private final Field field;
+        private final Field target;
+        private final Excel excel;
+        private final String header;
+        private final Map<String, String> converter;
+
+        ExcelColumn(Field field, Field target, Excel excel)
+        {
+            this.field = field;
+            this.target = target;
+            this.excel = excel;
+            this.header = StrUtil.isNotEmpty(excel.name()) ? excel.name()
+                    : target != null ? field.getName() + "." + target.getName() : field.getName();
+            this.converter = parseExp(excel.readConverterExp());
+        }
+
+        Object getValue(Object item)
+        {
+            Object value;
+            try
+            {
+                value = field.get(item);
+                if (target != null && value != null)
+                {
+                    value = target.get(value);
                 }
             }
-            
-            // 按照sort排序
-            fields.sort(Comparator.comparing(field -> {
-                Excel excel = field.getAnnotation(Excel.class);
-                return excel != null ? excel.sort() : Integer.MAX_VALUE;
-            }));
-            
-            fieldAnnotationCache.put(cacheKey, fields);
-        }
-        
-        return fields;
-    }
-    
-    /**
-     * 根据表达式转换值
-     */
-    private String convertByExp(String value, String expression, String separator) {
-        if (StrUtil.isEmpty(value) || StrUtil.isEmpty(expression)) {
+            catch (IllegalAccessException e)
+            {
+                log.error("导出Excel失败{}", e.getMessage());
+                value = null;
+            }
+            // 处理日期格式
+            if (value instanceof Date date && StrUtil.isNotEmpty(excel.dateFormat()))
+            {
+                value = DateUtil.format(date, excel.dateFormat());
+            }
+            // 处理读取转换表达式
+            if (converter != null && value != null)
+            {
+                String text = Convert.toStr(value);
+                value = converter.getOrDefault(text, text);
+            }
+            // 处理数字精度
+            if (value instanceof BigDecimal decimal && excel.scale() >= 0)
+            {
+                // 保持数值单元格（可求和、排序），小数位由列样式的数字格式显示
+                value = decimal.setScale(excel.scale(), excel.roundingMode());
+            }
+            // 处理后缀
+            if (StrUtil.isNotEmpty(excel.suffix()) && value != null)
+            {
+                value = value + excel.suffix();
+            }
+            // 处理默认值
+            if (ObjectUtil.isEmpty(value) && StrUtil.isNotEmpty(excel.defaultValue()))
+            {
+                value = excel.defaultValue();
+            }
             return value;
         }
-        
-        String[] exps = expression.split(",");
-        for (String exp : exps) {
-            String[] items = exp.split("=");
-            if (items.length == 2 && value.equals(items[0])) {
-                return items[1];
+
+        private static Map<String, String> parseExp(String expression)
+        {
+            if (StrUtil.isEmpty(expression))
+            {
+                return null;
             }
+            Map<String, String> map = new HashMap<>();
+            for (String exp : expression.split(","))
+            {
+                String[] items = exp.split("=");
+                if (items.length == 2)
+                {
+                    map.putIfAbsent(items[0], items[1]);
+                }
+            }
+            return map;
         }
-        
-        return value;
     }
 
     /**
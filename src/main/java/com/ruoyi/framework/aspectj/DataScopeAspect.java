@@ -1,24 +1,23 @@
 package com.ruoyi.framework.aspectj;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Arrays;
 import java.util.Set;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.springframework.stereotype.Component;
-import com.ruoyi.common.constant.UserConstants;
-import cn.hutool.core.convert.Convert;
 import com.ruoyi.common.utils.SecurityUtils;
+import com.ruoyi.common.utils.spring.SpringUtils;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.core.collection.CollUtil;
 import com.ruoyi.framework.aspectj.lang.annotation.DataScope;
 import com.ruoyi.framework.security.LoginUser;
 import com.ruoyi.framework.security.context.PermissionContextHolder;
+import com.ruoyi.framework.security.service.DataScopeService;
+import com.ruoyi.framework.security.service.DataScopeService.DataScopeRange;
 import com.ruoyi.framework.web.domain.BaseEntity;
-import com.ruoyi.project.system.domain.SysRole;
 import com.ruoyi.project.system.domain.SysUser;
 
 /**
@@ -85,6 +84,7 @@ public class DataScopeAspect
 
     /**
      * 数据范围过滤
+     * 数据范围预先解析为部门ID集合并按用户缓存，这里只拼接 IN 条件，不再使用 find_in_set / 子查询
      *
      * @param joinPoint 切点
      * @param user 用户
@@ -94,95 +94,40 @@ public class DataScopeAspect
      */
     public static void dataScopeFilter(JoinPoint joinPoint, SysUser user, String deptAlias, String userAlias, String permission)
     {
-        StringBuilder sqlString = new StringBuilder();
-        List<String> conditions = new ArrayList<String>();
-        List<String> scopeCustomIds = new ArrayList<String>();
-
-        // 当permission不为空时才进行权限字符判断
-        if (StrUtil.isNotBlank(permission)) {
-            user.getRoles().forEach(role -> {
-                if (DATA_SCOPE_CUSTOM.equals(role.getDataScope()) 
-                    && StrUtil.equals(role.getStatus(), UserConstants.ROLE_NORMAL) 
-                    && CollUtil.containsAny(CollUtil.newHashSet(role.getPermissions()), Arrays.asList(Convert.toStrArray(permission))))
-                {
-                    scopeCustomIds.add(Convert.toStr(role.getRoleId()));
-                }
-            });
-        } else {
-            // 如果permission为空，只判断数据范围
-            user.getRoles().forEach(role -> {
-                if (DATA_SCOPE_CUSTOM.equals(role.getDataScope()) 
-                    && StrUtil.equals(role.getStatus(), UserConstants.ROLE_NORMAL))
-                {
-                    scopeCustomIds.add(Convert.toStr(role.getRoleId()));
-                }
-            });
+        DataScopeRange range = SpringUtils.getBean(DataScopeService.class).getDataScope(user, permission);
+        if (range.isAll() || !range.isRestricted())
+        {
+            return;
         }
 
-        for (SysRole role : user.getRoles())
+        Set<Long> deptIds = new LinkedHashSet<Long>(range.getDeptIds());
+        List<String> conditions = new ArrayList<String>();
+        if (range.isSelf())
         {
-            String dataScope = role.getDataScope();
-            if (conditions.contains(dataScope) || StrUtil.equals(role.getStatus(), UserConstants.ROLE_DISABLE))
-            {
-                continue;
-            }
-            
-            // 只在permission不为空时才进行权限字符判断
-            if (StrUtil.isNotBlank(permission)) {
-                Set<String> rolePermissions = role.getPermissions();
-                if (rolePermissions == null || !CollUtil.containsAny(CollUtil.newHashSet(rolePermissions), Arrays.asList(Convert.toStrArray(permission))))
-                {
-                    continue;
-                }
-            }
-
-            if (DATA_SCOPE_ALL.equals(dataScope))
-            {
-                sqlString = new StringBuilder();
-                conditions.add(dataScope);
-                break;
-            }
-            else if (DATA_SCOPE_CUSTOM.equals(dataScope))
-            {
-                if (scopeCustomIds.size() > 1)
-                {
-                    sqlString.append(StrUtil.format(" OR {}.dept_id IN ( SELECT dept_id FROM sys_role_dept WHERE role_id in ({}) ) ", deptAlias, String.join(",", scopeCustomIds)));
-                }
-                else
-                {
-                    sqlString.append(StrUtil.format(" OR {}.dept_id IN ( SELECT dept_id FROM sys_role_dept WHERE role_id = {} ) ", deptAlias, role.getRoleId()));
-                }
-            }
-            else if (DATA_SCOPE_DEPT.equals(dataScope))
+            if (StrUtil.isNotBlank(userAlias))
             {
-                sqlString.append(StrUtil.format(" OR {}.dept_id = {} ", deptAlias, user.getDeptId()));
+                conditions.add(StrUtil.format("{}.user_id = {}", userAlias, user.getUserId()));
             }
-            else if (DATA_SCOPE_DEPT_AND_CHILD.equals(dataScope))
+            else if (ObjectUtil.isNotNull(user.getDeptId()))
             {
-                sqlString.append(StrUtil.format(" OR {}.dept_id IN ( SELECT dept_id FROM sys_dept WHERE dept_id = {} or find_in_set( {} , ancestors ) )", deptAlias, user.getDeptId(), user.getDeptId()));
+                deptIds.add(user.getDeptId());
             }
-            else if (DATA_SCOPE_SELF.equals(dataScope))
-            {
-                if (StrUtil.isNotBlank(userAlias))
-                {
-                    sqlString.append(StrUtil.format(" OR {}.user_id = {} ", userAlias, user.getUserId()));
-                }
-                else
-                {
-                    sqlString.append(StrUtil.format(" OR {}.dept_id = {} ", deptAlias, user.getDeptId()));
-                }
-            }
-            conditions.add(dataScope);
+        }
+        if (!deptIds.isEmpty())
+        {
+            conditions.add(0, StrUtil.format("{}.dept_id IN ({})", deptAlias, StrUtil.join(",", deptIds)));
+        }
+        if (conditions.isEmpty())
+        {
+            // 有数据范围限制但没有可见部门（如自定义权限未分配部门），不返回任何数据
+            conditions.add("1 = 0");
         }
 
-        if (StrUtil.isNotBlank(sqlString.toString()))
+        Object params = joinPoint.getArgs()[0];
+        if (ObjectUtil.isNotNull(params) && params instanceof BaseEntity)
         {
-            Object params = joinPoint.getArgs()[0];
-            if (ObjectUtil.isNotNull(params) && params instanceof BaseEntity)
-            {
-                BaseEntity baseEntity = (BaseEntity) params;
-                baseEntity.getParams().put(DATA_SCOPE, " AND (" + sqlString.substring(4) + ")");
-            }
+            BaseEntity baseEntity = (BaseEntity) params;
+            baseEntity.getParams().put(DATA_SCOPE, " AND (" + String.join(" OR ", conditions) + ")");
         }
     }
 
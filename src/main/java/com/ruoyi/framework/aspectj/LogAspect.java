@@ -18,7 +18,9 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.filter.Filter;
 import com.ruoyi.common.enums.HttpMethod;
+import com.ruoyi.common.filter.PayloadTruncateFilter;
 import com.ruoyi.common.filter.PropertyPreExcludeFilter;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.ServletUtils;
@@ -53,6 +55,12 @@ public class LogAspect {
     /** 计算操作消耗时间 */
     private static final ThreadLocal<Long> TIME_THREADLOCAL = new NamedThreadLocal<Long>("Cost Time");
 
+    /** 参数、返回值入库的最大长度 */
+    private static final int MAX_PAYLOAD_LENGTH = 2000;
+
+    /** 序列化前截断大字段，避免大对象完整序列化后再截取 */
+    private static final PayloadTruncateFilter PAYLOAD_TRUNCATE_FILTER = new PayloadTruncateFilter(MAX_PAYLOAD_LENGTH, 20);
+
     /**
      * 处理请求前执行
      */
@@ -125,7 +133,7 @@ public class LogAspect {
             getControllerMethodDescription(joinPoint, controllerLog, operLog, jsonResult);
             // 设置消耗时间
             operLog.setCostTime(System.currentTimeMillis() - TIME_THREADLOCAL.get());
-            // 保存数据库
+            // 保存数据库（异步线程解析操作地点后交给日志写入器）
             AsyncManager.me().execute(AsyncFactory.recordOper(operLog));
         } catch (Exception exp) {
             // 记录本地异常日志
@@ -158,7 +166,7 @@ public class LogAspect {
         }
         // 是否需要保存response，参数和值
         if (log.isSaveResponseData() && ObjectUtil.isNotNull(jsonResult)) {
-            operLog.setJsonResult(StrUtil.sub(JSON.toJSONString(jsonResult), 0, 2000));
+            operLog.setJsonResult(StrUtil.sub(toJsonString(jsonResult), 0, MAX_PAYLOAD_LENGTH));
         }
     }
 
@@ -174,10 +182,10 @@ public class LogAspect {
         if (MapUtil.isEmpty(paramsMap) && StrUtil.equalsAny(requestMethod, HttpMethod.PUT.name(),
                 HttpMethod.POST.name(), HttpMethod.DELETE.name())) {
             String params = argsArrayToString(joinPoint.getArgs(), excludeParamNames);
-            operLog.setOperParam(StrUtil.sub(params, 0, 2000));
+            operLog.setOperParam(StrUtil.sub(params, 0, MAX_PAYLOAD_LENGTH));
         } else {
-            operLog.setOperParam(
-                    StrUtil.sub(JSON.toJSONString(paramsMap, excludePropertyPreFilter(excludeParamNames)), 0, 2000));
+            operLog.setOperParam(StrUtil.sub(toJsonString(paramsMap, excludePropertyPreFilter(excludeParamNames)), 0,
+                    MAX_PAYLOAD_LENGTH));
         }
     }
 
@@ -185,19 +193,29 @@ public class LogAspect {
      * 参数拼装
      */
     private String argsArrayToString(Object[] paramsArray, String[] excludeParamNames) {
-        String params = "";
+        StringBuilder params = new StringBuilder();
         if (paramsArray != null && paramsArray.length > 0) {
             for (Object o : paramsArray) {
+                if (params.length() >= MAX_PAYLOAD_LENGTH) {
+                    break;
+                }
                 if (ObjectUtil.isNotNull(o) && !isFilterObject(o)) {
                     try {
-                        String jsonObj = JSON.toJSONString(o, excludePropertyPreFilter(excludeParamNames));
-                        params += jsonObj.toString() + " ";
+                        params.append(toJsonString(o, excludePropertyPreFilter(excludeParamNames))).append(' ');
                     } catch (Exception e) {
                     }
                 }
             }
         }
-        return params.trim();
+        return params.toString().trim();
+    }
+
+    /**
+     * 序列化日志内容，长字符串、大集合在序列化前先截断
+     */
+    private String toJsonString(Object value, Filter... filters) {
+        Filter[] all = ArrayUtils.add(filters, PAYLOAD_TRUNCATE_FILTER);
+        return JSON.toJSONString(PAYLOAD_TRUNCATE_FILTER.apply(null, null, value), all);
     }
 
     /**
@@ -39,6 +39,11 @@ public class CloudStorageConfig {
      */
     private AzureConfig azure = new AzureConfig();
 
+    /**
+     * 分片上传配置（阿里云OSS、腾讯云COS、亚马逊S3）
+     */
+    private MultipartConfig multipart = new MultipartConfig();
+
     /**
      * 阿里云OSS配置
      */
@@ -177,4 +182,35 @@ public class CloudStorageConfig {
          */
         private String customDomain;
     }
-}
\ No newline at end of file
+
+    /**
+     * 分片上传配置
+     */
+    @Data
+    public static class MultipartConfig {
+        /**
+         * 文件大小达到该值（字节）时使用分片上传
+         */
+        private long threshold = 16 * 1024 * 1024;
+
+        /**
+         * 分片大小（字节），各云厂商要求除最后一片外不小于5MB
+         */
+        private long partSize = 8 * 1024 * 1024;
+
+        /**
+         * 单个文件同时上传的分片数
+         */
+        private int parallelism = 4;
+
+        /**
+         * 断点续传记录保留小时数
+         */
+        private int checkpointTtlHours = 24;
+
+        /**
+         * 每个存储客户端的最大连接数（阿里云OSS、腾讯云COS）
+         */
+        private int maxConnections = 64;
+    }
+}
@@ -41,6 +41,24 @@ public class ThreadPoolConfig
     @Value("${ruoyi.thread-pool.scheduled.core-size:4}")
     private int scheduledCorePoolSize;
 
+    @Value("${ruoyi.thread-pool.ai-tool.max-size:8}")
+    private int aiToolMaxPoolSize;
+
+    @Value("${ruoyi.thread-pool.ai-tool.queue-capacity:64}")
+    private int aiToolQueueCapacity;
+
+    @Value("${ruoyi.thread-pool.ai-workflow.max-size:4}")
+    private int aiWorkflowMaxPoolSize;
+
+    @Value("${ruoyi.thread-pool.ai-workflow.queue-capacity:32}")
+    private int aiWorkflowQueueCapacity;
+
+    @Value("${ruoyi.thread-pool.miniapp-media.max-size:8}")
+    private int miniAppMediaMaxPoolSize;
+
+    @Value("${ruoyi.thread-pool.miniapp-media.queue-capacity:64}")
+    private int miniAppMediaQueueCapacity;
+
     @Bean(name = "threadPoolTaskExecutor")
     public ThreadPoolTaskExecutor threadPoolTaskExecutor()
     {
@@ -60,6 +78,70 @@ public class ThreadPoolConfig
         return executor;
     }
 
+    /**
+     * AI 工具调用线程池：同一条模型消息中的多个工具调用并行执行。
+     * 独立于业务线程池，避免长耗时工具（抓取、数据库查询）挤占其它异步任务；队列满时由调用线程执行。
+     */
+    @Bean(name = "aiToolTaskExecutor")
+    public ThreadPoolTaskExecutor aiToolTaskExecutor()
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(aiToolMaxPoolSize);
+        executor.setMaxPoolSize(aiToolMaxPoolSize);
+        executor.setQueueCapacity(aiToolQueueCapacity);
+        executor.setKeepAliveSeconds(keepAliveSeconds);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("ai-tool-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        log.info("AI工具线程池初始化完成，max={}, queue={}", aiToolMaxPoolSize, aiToolQueueCapacity);
+        return executor;
+    }
+
+    /**
+     * 文件化工作流步骤线程池：依赖图中同时就绪的步骤并行执行。
+     * 与 AI 工具线程池分开，步骤内部的工具调用不会因等待本池线程而互相阻塞；队列满时由调用线程执行。
+     */
+    @Bean(name = "aiWorkflowTaskExecutor")
+    public ThreadPoolTaskExecutor aiWorkflowTaskExecutor()
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(aiWorkflowMaxPoolSize);
+        executor.setMaxPoolSize(aiWorkflowMaxPoolSize);
+        executor.setQueueCapacity(aiWorkflowQueueCapacity);
+        executor.setKeepAliveSeconds(keepAliveSeconds);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("ai-workflow-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        log.info("AI工作流步骤线程池初始化完成，max={}, queue={}", aiWorkflowMaxPoolSize, aiWorkflowQueueCapacity);
+        return executor;
+    }
+
+    /**
+     * 小程序媒体处理线程池：内容安全审核通过后的 OCR、翻译、语音识别、头像存储等后续步骤。
+     * 这些步骤由审核回调（微信回调请求线程或 Redis 订阅线程）触发，队列满时直接拒绝，
+     * 由对应的 CompletableFuture 以异常结束，而不是在触发线程上执行耗时的外部调用。
+     */
+    @Bean(name = "miniAppMediaTaskExecutor")
+    public ThreadPoolTaskExecutor miniAppMediaTaskExecutor()
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(miniAppMediaMaxPoolSize);
+        executor.setMaxPoolSize(miniAppMediaMaxPoolSize);
+        executor.setQueueCapacity(miniAppMediaQueueCapacity);
+        executor.setKeepAliveSeconds(keepAliveSeconds);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("miniapp-media-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        log.info("小程序媒体处理线程池初始化完成，max={}, queue={}", miniAppMediaMaxPoolSize, miniAppMediaQueueCapacity);
+        return executor;
+    }
+
     /**
      * 执行周期性或延迟任务（操作日志、登录日志等）。
      * 任务会进入无界延迟队列，核心线程按需创建，空闲后回收。
@@ -2,6 +2,7 @@ package com.ruoyi.framework.config.mybatis;
 
 import java.time.LocalDateTime;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 import com.mybatisflex.core.FlexGlobalConfig;
@@ -9,6 +10,7 @@ import com.mybatisflex.core.mybatis.FlexConfiguration;
 import com.mybatisflex.spring.boot.ConfigurationCustomizer;
 import com.mybatisflex.spring.boot.MyBatisFlexCustomizer;
 import com.ruoyi.framework.config.mybatis.handler.MultiFormatDateTypeHandler;
+import com.ruoyi.framework.config.mybatis.interceptor.CursorFetchSizeInterceptor;
 import com.ruoyi.framework.config.mybatis.listener.BaseEntityInsertListener;
 import com.ruoyi.framework.config.mybatis.listener.BaseEntityUpdateListener;
 import com.ruoyi.framework.web.domain.BaseEntity;
@@ -19,7 +21,9 @@ import com.ruoyi.framework.web.domain.BaseEntity;
 @Configuration
 public class MyBatisFlexConfiguration implements MyBatisFlexCustomizer, ConfigurationCustomizer {
 
-
+    /** 游标查询抓取条数，默认 Integer.MIN_VALUE（MySQL 逐行流式读取） */
+    @Value("${ruoyi.mybatis.cursor-fetch-size:-2147483648}")
+    private int cursorFetchSize;
     
     @Override
     public void customize(FlexGlobalConfig globalConfig) {
@@ -33,6 +37,8 @@ public class MyBatisFlexConfiguration implements MyBatisFlexCustomizer, Configur
     public void customize(FlexConfiguration configuration) {
         // 注册 LocalDateTime 的 TypeHandler
         configuration.getTypeHandlerRegistry().register(LocalDateTime.class, MultiFormatDateTypeHandler.class);
+        // 游标查询使用流式抓取，避免驱动把整个结果集读入内存
+        configuration.addInterceptor(new CursorFetchSizeInterceptor(cursorFetchSize));
 
 
 
@@ -0,0 +1,59 @@
+package com.ruoyi.framework.config.mybatis.interceptor;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * 游标查询抓取条数拦截器
+ * 游标查询（如 selectCursorByQuery）未显式指定 fetchSize 时，为语句设置流式抓取条数，
+ * 否则 MySQL 驱动会在返回第一行前把整个结果集读入内存。
+ * 正数抓取条数需要 JDBC URL 带 useCursorFetch=true（服务端游标）；
+ * Integer.MIN_VALUE 为逐行流式读取，无需该参数，但遍历期间连接不能执行其它语句。
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "queryCursor", args = { MappedStatement.class, Object.class, RowBounds.class }),
+        @Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class })
+})
+public class CursorFetchSizeInterceptor implements Interceptor {
+
+    /** 当前线程是否正在打开游标（游标查询在 queryCursor 调用内同步创建语句） */
+    private static final ThreadLocal<Boolean> CURSOR_QUERY = new ThreadLocal<>();
+
+    private final int fetchSize;
+
+    public CursorFetchSizeInterceptor(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (invocation.getTarget() instanceof Executor) {
+            MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+            if (ms.getFetchSize() != null) {
+                return invocation.proceed();
+            }
+            CURSOR_QUERY.set(Boolean.TRUE);
+            try {
+                return (Cursor<?>) invocation.proceed();
+            } finally {
+                CURSOR_QUERY.remove();
+            }
+        }
+
+        Statement statement = (Statement) invocation.proceed();
+        if (Boolean.TRUE.equals(CURSOR_QUERY.get())) {
+            statement.setFetchSize(fetchSize);
+        }
+        return statement;
+    }
+}
@@ -0,0 +1,148 @@
+package com.ruoyi.framework.ip;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruoyi.common.utils.ip.IpUtils;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 默认 IP 定位：内网判断 -> 离线库（ip2region xdb，内存二分查找） -> 可选在线回退
+ * 查到的结果按 IP 缓存在本地；未查到的结果短时缓存，避免同一 IP 反复在线查询
+ *
+ * @author ruoyi
+ */
+@Component
+public class DefaultIpLocator implements IpLocator
+{
+    private static final Logger log = LoggerFactory.getLogger(DefaultIpLocator.class);
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    /** 离线库路径，classpath: 开头从类路径加载，否则为文件路径 */
+    @Value("${ruoyi.ip-region.db-path:classpath:ip2region.xdb}")
+    private String dbPath;
+
+    /** 本地结果缓存条数 */
+    @Value("${ruoyi.ip-region.cache-size:10000}")
+    private long cacheSize;
+
+    /** 离线库未收录时是否在线查询：auto 仅在离线库不可用时在线查询，true 总是回退，false 不回退 */
+    @Value("${ruoyi.ip-region.remote-fallback:auto}")
+    private String remoteFallback;
+
+    /** 未查到结果的缓存时间（秒） */
+    @Value("${ruoyi.ip-region.negative-ttl-seconds:300}")
+    private long negativeTtlSeconds;
+
+    /** 在线查询超时（毫秒） */
+    @Value("${ruoyi.ip-region.remote-timeout-ms:3000}")
+    private int remoteTimeoutMs;
+
+    private XdbSearcher searcher;
+
+    private IpLocator remoteLocator;
+
+    private Cache<String, IpRegion> cache;
+
+    private Cache<String, Boolean> negativeCache;
+
+    @PostConstruct
+    public void init()
+    {
+        cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        negativeCache = Caffeine.newBuilder().maximumSize(cacheSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS).build();
+        searcher = loadSearcher();
+        boolean remote = "auto".equalsIgnoreCase(remoteFallback) ? searcher == null : Boolean.parseBoolean(remoteFallback);
+        remoteLocator = remote ? new RemoteIpLocator(remoteTimeoutMs) : null;
+        if (searcher == null)
+        {
+            log.warn("IP离线库不可用: {}，IP所在地{}", dbPath, remote ? "使用在线查询" : "将显示为未知");
+        }
+    }
+
+    @Override
+    public IpRegion locate(String ip)
+    {
+        if (StrUtil.isBlank(ip))
+        {
+            return IpRegion.UNKNOWN;
+        }
+        ip = ip.trim();
+        if (IpUtils.internalIp(ip))
+        {
+            return IpRegion.INTERNAL;
+        }
+        IpRegion cached = cache.getIfPresent(ip);
+        if (cached != null)
+        {
+            return cached;
+        }
+        if (negativeCache.getIfPresent(ip) != null)
+        {
+            return IpRegion.UNKNOWN;
+        }
+        IpRegion region = lookup(ip);
+        if (region.isKnown())
+        {
+            cache.put(ip, region);
+        }
+        else
+        {
+            negativeCache.put(ip, Boolean.TRUE);
+        }
+        return region;
+    }
+
+    private IpRegion lookup(String ip)
+    {
+        if (searcher != null)
+        {
+            try
+            {
+                IpRegion region = IpRegion.parse(searcher.search(ip));
+                if (region.isKnown())
+                {
+                    return region;
+                }
+            }
+            catch (Exception e)
+            {
+                log.warn("离线库查询IP失败 {}: {}", ip, e.getMessage());
+            }
+        }
+        return remoteLocator != null ? remoteLocator.locate(ip) : IpRegion.UNKNOWN;
+    }
+
+    private XdbSearcher loadSearcher()
+    {
+        Resource resource = StrUtil.startWith(dbPath, CLASSPATH_PREFIX)
+                ? new ClassPathResource(StrUtil.removePrefix(dbPath, CLASSPATH_PREFIX))
+                : new FileSystemResource(dbPath);
+        if (!resource.exists())
+        {
+            return null;
+        }
+        try (InputStream in = resource.getInputStream())
+        {
+            XdbSearcher loaded = new XdbSearcher(in.readAllBytes());
+            log.info("IP离线库已加载: {}", dbPath);
+            return loaded;
+        }
+        catch (Exception e)
+        {
+            log.warn("IP离线库加载失败: {}, {}", dbPath, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ruoyi.framework.ip;
+
+/**
+ * IP 地理位置查询
+ *
+ * @author ruoyi
+ */
+public interface IpLocator
+{
+    /**
+     * 查询 IP 所在地
+     *
+     * @param ip IP地址
+     * @return 所在地，查询不到时为 {@link IpRegion#UNKNOWN}
+     */
+    IpRegion locate(String ip);
+}
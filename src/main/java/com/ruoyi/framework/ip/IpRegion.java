@@ -0,0 +1,117 @@
+package com.ruoyi.framework.ip;
+
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * IP 所在地（只读）
+ *
+ * @author ruoyi
+ */
+public class IpRegion
+{
+    /** 查询不到 */
+    public static final IpRegion UNKNOWN = new IpRegion("", "", "", "");
+
+    /** 内网地址 */
+    public static final IpRegion INTERNAL = new IpRegion("内网IP", "", "", "");
+
+    /** 国家 */
+    private final String country;
+
+    /** 省份/州 */
+    private final String province;
+
+    /** 城市 */
+    private final String city;
+
+    /** 运营商 */
+    private final String isp;
+
+    public IpRegion(String country, String province, String city, String isp)
+    {
+        this.country = StrUtil.nullToEmpty(country);
+        this.province = StrUtil.nullToEmpty(province);
+        this.city = StrUtil.nullToEmpty(city);
+        this.isp = StrUtil.nullToEmpty(isp);
+    }
+
+    /**
+     * 解析 ip2region 区域串，“0”表示该级为空
+     * 支持“国家|区域|省份|城市|ISP”与“国家|省份|城市|ISP”两种格式
+     *
+     * @param region 区域串
+     * @return 所在地
+     */
+    public static IpRegion parse(String region)
+    {
+        if (StrUtil.isBlank(region))
+        {
+            return UNKNOWN;
+        }
+        String[] parts = region.split("\\|", -1);
+        for (int i = 0; i < parts.length; i++)
+        {
+            parts[i] = "0".equals(parts[i]) ? "" : parts[i].trim();
+        }
+        IpRegion result;
+        if (parts.length >= 5)
+        {
+            result = new IpRegion(parts[0], parts[2], parts[3], parts[4]);
+        }
+        else if (parts.length == 4)
+        {
+            result = new IpRegion(parts[0], parts[1], parts[2], parts[3]);
+        }
+        else
+        {
+            result = new IpRegion(parts[0], "", "", "");
+        }
+        return result.isKnown() ? result : UNKNOWN;
+    }
+
+    /**
+     * 是否查到了所在地
+     */
+    public boolean isKnown()
+    {
+        return StrUtil.isNotEmpty(country) || StrUtil.isNotEmpty(province) || StrUtil.isNotEmpty(city);
+    }
+
+    /**
+     * 展示用地址：省份 城市，没有省市时为国家
+     */
+    public String getAddress()
+    {
+        if (StrUtil.isEmpty(province) && StrUtil.isEmpty(city))
+        {
+            return country;
+        }
+        return StrUtil.trim(province + " " + city);
+    }
+
+    public String getCountry()
+    {
+        return country;
+    }
+
+    public String getProvince()
+    {
+        return province;
+    }
+
+    public String getCity()
+    {
+        return city;
+    }
+
+    public String getIsp()
+    {
+        return isp;
+    }
+
+    @Override
+    public String toString()
+    {
+        return country + "|" + province + "|" + city + "|" + isp;
+    }
+}
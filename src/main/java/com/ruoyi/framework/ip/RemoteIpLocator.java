@@ -0,0 +1,89 @@
+package com.ruoyi.framework.ip;
+
+import java.nio.charset.Charset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.ruoyi.common.constant.Constants;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpUtil;
+
+/**
+ * 在线 IP 查询（离线库未收录时的可选回退）
+ * 先查 ip-api.com（含国家），失败再查 pconline（仅国内省市）
+ *
+ * @author ruoyi
+ */
+public class RemoteIpLocator implements IpLocator
+{
+    private static final Logger log = LoggerFactory.getLogger(RemoteIpLocator.class);
+
+    private static final String IP_API_URL = "http://ip-api.com/json/%s?fields=status,country,regionName,city,isp&lang=zh-CN";
+
+    private static final String PCONLINE_URL = "http://whois.pconline.com.cn/ipJson.jsp?ip=%s&json=true";
+
+    private final int timeoutMs;
+
+    public RemoteIpLocator(int timeoutMs)
+    {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public IpRegion locate(String ip)
+    {
+        IpRegion region = locateByIpApi(ip);
+        return region.isKnown() ? region : locateByPconline(ip);
+    }
+
+    private IpRegion locateByIpApi(String ip)
+    {
+        try
+        {
+            String rspStr = HttpUtil.get(String.format(IP_API_URL, ip), timeoutMs);
+            if (StrUtil.isNotEmpty(rspStr))
+            {
+                JSONObject obj = JSON.parseObject(rspStr);
+                if ("success".equals(obj.getString("status")))
+                {
+                    return new IpRegion(obj.getString("country"), obj.getString("regionName"),
+                            obj.getString("city"), obj.getString("isp"));
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            log.debug("ip-api 查询失败 {}: {}", ip, e.getMessage());
+        }
+        return IpRegion.UNKNOWN;
+    }
+
+    private IpRegion locateByPconline(String ip)
+    {
+        try
+        {
+            String rspStr;
+            try (HttpResponse response = HttpUtil.createGet(String.format(PCONLINE_URL, ip)).timeout(timeoutMs).execute())
+            {
+                rspStr = new String(response.bodyBytes(), Charset.forName(Constants.GBK));
+            }
+            if (StrUtil.isNotEmpty(rspStr))
+            {
+                JSONObject obj = JSON.parseObject(rspStr);
+                String pro = obj.getString("pro");
+                String city = obj.getString("city");
+                if (StrUtil.isNotEmpty(pro) || StrUtil.isNotEmpty(city))
+                {
+                    return new IpRegion("中国", pro, city, "");
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            log.debug("pconline 查询失败 {}: {}", ip, e.getMessage());
+        }
+        return IpRegion.UNKNOWN;
+    }
+}
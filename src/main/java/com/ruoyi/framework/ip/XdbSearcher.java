@@ -0,0 +1,138 @@
+package com.ruoyi.framework.ip;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ip2region xdb 离线库查询（IPv4）
+ * 整个库文件加载到内存；先按 IP 前两段定位向量索引得到分段区间，再在区间内二分查找 IP 段，无锁、线程安全。
+ * 文件布局：256 字节头部 + 256×256×8 字节向量索引 + 区域数据 + 每条 14 字节的分段索引（起始IP、结束IP、数据长度、数据偏移，小端）
+ *
+ * @author ruoyi
+ */
+public class XdbSearcher
+{
+    private static final int HEADER_INFO_LENGTH = 256;
+    private static final int VECTOR_INDEX_COLS = 256;
+    private static final int VECTOR_INDEX_SIZE = 8;
+    private static final int SEGMENT_INDEX_SIZE = 14;
+
+    private final byte[] content;
+
+    public XdbSearcher(byte[] content)
+    {
+        if (content == null || content.length < HEADER_INFO_LENGTH + VECTOR_INDEX_COLS * VECTOR_INDEX_COLS * VECTOR_INDEX_SIZE)
+        {
+            throw new IllegalArgumentException("无效的 xdb 文件");
+        }
+        this.content = content;
+    }
+
+    /**
+     * 查询区域串
+     *
+     * @param ip IPv4 文本
+     * @return 区域串，不是 IPv4 或未收录时为空
+     */
+    public String search(String ip)
+    {
+        long value = ipToLong(ip);
+        return value < 0 ? null : search(value);
+    }
+
+    /**
+     * 查询区域串
+     *
+     * @param ip IPv4 数值
+     * @return 区域串，未收录时为空
+     */
+    public String search(long ip)
+    {
+        int il0 = (int) ((ip >> 24) & 0xFF);
+        int il1 = (int) ((ip >> 16) & 0xFF);
+        int idx = HEADER_INFO_LENGTH + il0 * VECTOR_INDEX_COLS * VECTOR_INDEX_SIZE + il1 * VECTOR_INDEX_SIZE;
+        long sPtr = getInt(idx);
+        long ePtr = getInt(idx + 4);
+        if (sPtr == 0 || ePtr < sPtr)
+        {
+            return null;
+        }
+
+        long low = 0;
+        long high = (ePtr - sPtr) / SEGMENT_INDEX_SIZE;
+        while (low <= high)
+        {
+            long mid = (low + high) >> 1;
+            int p = (int) (sPtr + mid * SEGMENT_INDEX_SIZE);
+            if (ip < getInt(p))
+            {
+                high = mid - 1;
+            }
+            else if (ip > getInt(p + 4))
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                int dataLen = getShort(p + 8);
+                int dataPtr = (int) getInt(p + 10);
+                return new String(content, dataPtr, dataLen, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * IPv4 文本转数值
+     *
+     * @return 数值，不是合法 IPv4 时为 -1
+     */
+    public static long ipToLong(String ip)
+    {
+        if (ip == null)
+        {
+            return -1;
+        }
+        String[] parts = ip.trim().split("\\.", -1);
+        if (parts.length != 4)
+        {
+            return -1;
+        }
+        long value = 0;
+        for (String part : parts)
+        {
+            if (part.isEmpty() || part.length() > 3)
+            {
+                return -1;
+            }
+            int n = 0;
+            for (int i = 0; i < part.length(); i++)
+            {
+                char c = part.charAt(i);
+                if (c < '0' || c > '9')
+                {
+                    return -1;
+                }
+                n = n * 10 + (c - '0');
+            }
+            if (n > 255)
+            {
+                return -1;
+            }
+            value = (value << 8) | n;
+        }
+        return value;
+    }
+
+    private long getInt(int offset)
+    {
+        return (content[offset] & 0xFFL)
+                | ((content[offset + 1] & 0xFFL) << 8)
+                | ((content[offset + 2] & 0xFFL) << 16)
+                | ((content[offset + 3] & 0xFFL) << 24);
+    }
+
+    private int getShort(int offset)
+    {
+        return (content[offset] & 0xFF) | ((content[offset + 1] & 0xFF) << 8);
+    }
+}
@@ -0,0 +1,281 @@
+package com.ruoyi.framework.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.monitor.domain.SysJobLog;
+import com.ruoyi.project.monitor.domain.SysLogininfor;
+import com.ruoyi.project.monitor.domain.SysOperLog;
+import com.ruoyi.project.monitor.service.ISysJobLogService;
+import com.ruoyi.project.monitor.service.ISysLogininforService;
+import com.ruoyi.project.monitor.service.ISysOperLogService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 异步日志批量写入器
+ * 操作日志、登录日志、调度日志先进入有界队列，由单个后台线程按数量或时间间隔汇总为多行 INSERT 写库。
+ * 入队前已解析好操作地点等信息，写入线程只负责入库；多行 INSERT 失败时逐条重试，只丢弃单条写不进去的记录。
+ * 队列满时生产者短暂等待（背压），超时仍无空位则丢弃并计数；应用关闭时把队列中剩余日志全部写完。
+ *
+ * @author ruoyi
+ */
+@Component
+public class AsyncLogSink
+{
+    private static final Logger log = LoggerFactory.getLogger("sys-user");
+
+    /** 队列容量 */
+    @Value("${ruoyi.log-sink.capacity:4096}")
+    private int capacity;
+
+    /** 单批最大条数 */
+    @Value("${ruoyi.log-sink.batch-size:200}")
+    private int batchSize;
+
+    /** 最长刷新间隔（毫秒） */
+    @Value("${ruoyi.log-sink.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    /** 队列满时生产者最长等待（毫秒） */
+    @Value("${ruoyi.log-sink.offer-timeout-ms:20}")
+    private long offerTimeoutMs;
+
+    @Autowired
+    private ISysOperLogService operLogService;
+
+    @Autowired
+    private ISysLogininforService logininforService;
+
+    @Autowired
+    private ISysJobLogService jobLogService;
+
+    private BlockingQueue<Object> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    /** 累计丢弃条数 */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** 上次已上报的丢弃条数 */
+    private long reportedDropped;
+
+    @PostConstruct
+    public void start()
+    {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        worker = new Thread(this::runLoop, "log-sink");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 提交一条日志（SysOperLog / SysLogininfor / SysJobLog）
+     *
+     * @param record 日志对象
+     * @return 是否已入队，false 表示已丢弃
+     */
+    public boolean offer(Object record)
+    {
+        if (record == null)
+        {
+            return false;
+        }
+        if (!running)
+        {
+            // 关闭过程中直接同步写入，避免日志丢失
+            write(List.of(record));
+            return true;
+        }
+        try
+        {
+            if (queue.offer(record) || queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS))
+            {
+                return true;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 累计丢弃的日志条数
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * 当前排队中的日志条数
+     */
+    public int getPendingCount()
+    {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        // 不中断后台线程，避免打断正在执行的批量写入；线程在下一次等待超时后退出
+        running = false;
+        try
+        {
+            worker.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(10));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        // 后台线程退出后把剩余日志同步写完
+        List<Object> rest = new ArrayList<>(queue.size());
+        queue.drainTo(rest);
+        write(rest);
+        log.info("====日志写入器已关闭，剩余写入 {} 条，累计丢弃 {} 条====", rest.size(), dropped.get());
+    }
+
+    private void runLoop()
+    {
+        List<Object> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (running)
+        {
+            try
+            {
+                long wait = deadline - System.currentTimeMillis();
+                Object first = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : null;
+                if (first != null)
+                {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline)
+                {
+                    flush(batch);
+                    deadline = System.currentTimeMillis() + flushIntervalMs;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                break;
+            }
+            catch (Exception e)
+            {
+                log.error("日志写入线程异常", e);
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<Object> batch)
+    {
+        reportDropped();
+        if (batch.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            write(batch);
+        }
+        finally
+        {
+            batch.clear();
+        }
+    }
+
+    private void write(List<Object> records)
+    {
+        List<SysOperLog> operLogs = new ArrayList<>();
+        List<SysLogininfor> logininfors = new ArrayList<>();
+        List<SysJobLog> jobLogs = new ArrayList<>();
+        for (Object record : records)
+        {
+            if (record instanceof SysOperLog operLog)
+            {
+                operLogs.add(operLog);
+            }
+            else if (record instanceof SysLogininfor logininfor)
+            {
+                logininfors.add(logininfor);
+            }
+            else if (record instanceof SysJobLog jobLog)
+            {
+                jobLogs.add(jobLog);
+            }
+            else
+            {
+                log.warn("不支持的日志类型: {}", record.getClass().getName());
+            }
+        }
+        insert("操作日志", operLogs, operLogService::insertOperlogBatch, operLogService::insertOperlog);
+        insert("登录日志", logininfors, logininforService::insertLogininforBatch, logininforService::insertLogininfor);
+        insert("调度日志", jobLogs, jobLogService::addJobLogBatch, jobLogService::addJobLog);
+    }
+
+    /**
+     * 多行 INSERT 写入，失败时逐条重试，避免一条坏数据丢掉整批
+     */
+    private <T> void insert(String name, List<T> records, Consumer<List<T>> batchInsert, Consumer<T> singleInsert)
+    {
+        if (records.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            batchInsert.accept(records);
+            return;
+        }
+        catch (Exception e)
+        {
+            log.error("批量写入{}失败，改为逐条写入，条数: {}", name, records.size(), e);
+        }
+        int failed = 0;
+        for (T record : records)
+        {
+            try
+            {
+                singleInsert.accept(record);
+            }
+            catch (Exception e)
+            {
+                failed++;
+                log.error("写入{}失败，丢弃: {}", name, record, e);
+            }
+        }
+        if (failed > 0)
+        {
+            log.error("逐条写入{}完成，失败条数: {}/{}", name, failed, records.size());
+        }
+    }
+
+    private void reportDropped()
+    {
+        long total = dropped.get();
+        if (total > reportedDropped)
+        {
+            log.warn("日志队列已满，新增丢弃 {} 条，累计丢弃 {} 条", total - reportedDropped, total);
+            reportedDropped = total;
+        }
+    }
+}
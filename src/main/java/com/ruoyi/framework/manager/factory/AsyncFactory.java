@@ -8,10 +8,9 @@ import com.ruoyi.common.utils.ServletUtils;
 import com.ruoyi.common.utils.ip.AddressUtils;
 import com.ruoyi.common.utils.ip.IpUtils;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.framework.manager.AsyncLogSink;
 import com.ruoyi.project.monitor.domain.SysLogininfor;
 import com.ruoyi.project.monitor.domain.SysOperLog;
-import com.ruoyi.project.monitor.service.ISysLogininforService;
-import com.ruoyi.project.monitor.service.ISysOperLogService;
 import eu.bitwalker.useragentutils.UserAgent;
 
 import cn.hutool.core.util.StrUtil;
@@ -70,11 +69,9 @@ public class AsyncFactory
                         logininfor.setStatus(Constants.FAIL);
                     }
 
-                    // 插入数据
-                    ISysLogininforService logininforService = SpringUtils.getBean(ISysLogininforService.class);
-                    sys_user_logger.info("准备插入登录日志: {}", logininfor);
-                    logininforService.insertLogininfor(logininfor);
-                    sys_user_logger.info("登录日志记录完成");
+                    // 交给日志写入器批量入库
+                    SpringUtils.getBean(AsyncLogSink.class).offer(logininfor);
+                    sys_user_logger.info("登录日志已提交: {}", logininfor);
                 } catch (Exception e) {
                     sys_user_logger.error("记录登录日志失败", e);
                     e.printStackTrace();
@@ -96,9 +93,9 @@ public class AsyncFactory
             @Override
             public void run()
             {
-                // 远程查询操作地点
+                // 远程查询操作地点，放在异步线程中，日志写入线程只负责入库
                 operLog.setOperLocation(AddressUtils.getRealAddressByIP(operLog.getOperIp()));
-                SpringUtils.getBean(ISysOperLogService.class).insertOperlog(operLog);
+                SpringUtils.getBean(AsyncLogSink.class).offer(operLog);
             }
         };
     }
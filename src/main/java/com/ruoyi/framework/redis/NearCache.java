@@ -0,0 +1,350 @@
+package com.ruoyi.framework.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.storage.StorageStrategyRegistry.ActiveStorage;
+import com.ruoyi.framework.web.domain.TreeSelect;
+import com.ruoyi.project.system.domain.SysDictData;
+import com.ruoyi.project.system.domain.SysMenu;
+
+import cn.hutool.core.collection.CollUtil;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 字典、参数的进程内近端缓存（L1 Caffeine + L2 Redis），以及菜单树、部门树、当前存储配置的进程内缓存
+ * 本地缓存未命中时回源 Redis/数据库；任一节点写入后通过 Redis 频道广播失效消息，各节点清除本地副本。
+ *
+ * @author ruoyi
+ */
+@Component
+public class NearCache implements MessageListener
+{
+    private static final Logger log = LoggerFactory.getLogger(NearCache.class);
+
+    /** 失效消息中表示整个命名空间的通配符 */
+    private static final String ALL = "*";
+
+    /** 当前存储的缓存键 */
+    private static final String STORAGE_ACTIVE = "active";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    /** 字典缓存：dictType -> 字典条目（含值/标签索引） */
+    private final Cache<String, DictEntry> dictCache = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    /** 参数缓存：configKey -> configValue，未配置的键缓存为空串 */
+    private final Cache<String, String> configCache = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    /** 菜单树：角色组合 -> 已组装的菜单树（只读共享） */
+    private final Cache<String, List<SysMenu>> menuTreeCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    /** 部门树：查询范围 -> 已组装的下拉树（只读共享） */
+    private final Cache<String, List<TreeSelect>> deptTreeCache = Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    /** 当前存储：固定键 -> 生效的存储配置与策略（只读共享） */
+    private final Cache<String, ActiveStorage> storageCache = Caffeine.newBuilder()
+            .maximumSize(1)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    @PostConstruct
+    public void init()
+    {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 获取字典条目
+     *
+     * @param dictType 字典类型
+     * @param loader 本地未命中时的加载逻辑（读取 Redis/数据库），返回空表示不存在
+     * @return 字典条目，不存在时为空条目
+     */
+    public DictEntry getDict(String dictType, Function<String, List<SysDictData>> loader)
+    {
+        if (dictType == null)
+        {
+            return new DictEntry(loader.apply(null));
+        }
+        return dictCache.get(dictType, key -> new DictEntry(loader.apply(key)));
+    }
+
+    /**
+     * 获取参数值
+     *
+     * @param configKey 参数键
+     * @param loader 本地未命中时的加载逻辑，返回空串表示不存在
+     * @return 参数值
+     */
+    public String getConfig(String configKey, Function<String, String> loader)
+    {
+        if (configKey == null)
+        {
+            return loader.apply(null);
+        }
+        return configCache.get(configKey, key -> {
+            String value = loader.apply(key);
+            return value != null ? value : "";
+        });
+    }
+
+    /**
+     * 获取菜单树
+     *
+     * @param roleKey 角色组合标识
+     * @param loader 本地未命中时的加载逻辑
+     * @return 菜单树，调用方不得修改
+     */
+    public List<SysMenu> getMenuTree(String roleKey, Function<String, List<SysMenu>> loader)
+    {
+        return menuTreeCache.get(roleKey, key -> Collections.unmodifiableList(loader.apply(key)));
+    }
+
+    /**
+     * 获取部门树
+     *
+     * @param scope 查询范围标识
+     * @param loader 本地未命中时的加载逻辑
+     * @return 部门下拉树，调用方不得修改
+     */
+    public List<TreeSelect> getDeptTree(String scope, Function<String, List<TreeSelect>> loader)
+    {
+        return deptTreeCache.get(scope, key -> Collections.unmodifiableList(loader.apply(key)));
+    }
+
+    /**
+     * 获取当前生效的存储
+     *
+     * @param loader 本地未命中时的加载逻辑，返回空表示本次加载失败（不缓存）
+     * @return 当前存储，加载失败时为空
+     */
+    public ActiveStorage getStorage(Supplier<ActiveStorage> loader)
+    {
+        return storageCache.get(STORAGE_ACTIVE, key -> loader.get());
+    }
+
+    /**
+     * 清除当前存储，并通知其它节点
+     */
+    public void evictStorage()
+    {
+        publish(CacheConstants.SYS_STORAGE_KEY + ALL);
+    }
+
+    /**
+     * 清除全部菜单树，并通知其它节点
+     */
+    public void evictMenuTree()
+    {
+        publish(CacheConstants.SYS_MENU_TREE_KEY + ALL);
+    }
+
+    /**
+     * 清除全部部门树，并通知其它节点
+     */
+    public void evictDeptTree()
+    {
+        publish(CacheConstants.SYS_DEPT_TREE_KEY + ALL);
+    }
+
+    /**
+     * 清除本节点指定字典，并通知其它节点
+     *
+     * @param dictType 字典类型，为空时清除全部
+     */
+    public void evictDict(String dictType)
+    {
+        publish(CacheConstants.SYS_DICT_KEY + (dictType != null ? dictType : ALL));
+    }
+
+    /**
+     * 清除本节点指定参数，并通知其它节点
+     *
+     * @param configKey 参数键，为空时清除全部
+     */
+    public void evictConfig(String configKey)
+    {
+        publish(CacheConstants.SYS_CONFIG_KEY + (configKey != null ? configKey : ALL));
+    }
+
+    /**
+     * 按 Redis 键清除本地缓存并广播，供直接操作 Redis 键的场景（如缓存监控）使用
+     *
+     * @param redisKey Redis 键或以 * 结尾的前缀
+     */
+    public void evictByRedisKey(String redisKey)
+    {
+        if (redisKey != null && (matches(redisKey, CacheConstants.SYS_DICT_KEY)
+                || matches(redisKey, CacheConstants.SYS_CONFIG_KEY)))
+        {
+            publish(redisKey);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern)
+    {
+        invalidateLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void publish(String redisKey)
+    {
+        // 先清本地，保证本节点写后立即可读到新值；广播失败时其它节点依赖过期时间兜底
+        invalidateLocal(redisKey);
+        try
+        {
+            stringRedisTemplate.convertAndSend(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL, redisKey);
+        }
+        catch (Exception e)
+        {
+            log.warn("本地缓存失效广播失败: key={}, error={}", redisKey, e.getMessage());
+        }
+    }
+
+    private void invalidateLocal(String redisKey)
+    {
+        if (matches(redisKey, CacheConstants.SYS_DICT_KEY))
+        {
+            invalidate(dictCache, redisKey, CacheConstants.SYS_DICT_KEY);
+        }
+        if (matches(redisKey, CacheConstants.SYS_CONFIG_KEY))
+        {
+            invalidate(configCache, redisKey, CacheConstants.SYS_CONFIG_KEY);
+        }
+        if (matches(redisKey, CacheConstants.SYS_MENU_TREE_KEY))
+        {
+            invalidate(menuTreeCache, redisKey, CacheConstants.SYS_MENU_TREE_KEY);
+        }
+        if (matches(redisKey, CacheConstants.SYS_DEPT_TREE_KEY))
+        {
+            invalidate(deptTreeCache, redisKey, CacheConstants.SYS_DEPT_TREE_KEY);
+        }
+        if (matches(redisKey, CacheConstants.SYS_STORAGE_KEY))
+        {
+            invalidate(storageCache, redisKey, CacheConstants.SYS_STORAGE_KEY);
+        }
+    }
+
+    /**
+     * 判断 Redis 键（或以 * 结尾的模式）是否落在指定命名空间内
+     */
+    private static boolean matches(String redisKey, String namespace)
+    {
+        if (redisKey.endsWith(ALL))
+        {
+            String prefix = redisKey.substring(0, redisKey.length() - 1);
+            return namespace.startsWith(prefix) || prefix.startsWith(namespace);
+        }
+        return redisKey.startsWith(namespace);
+    }
+
+    private static void invalidate(Cache<String, ?> cache, String redisKey, String namespace)
+    {
+        if (!redisKey.endsWith(ALL))
+        {
+            cache.invalidate(redisKey.substring(namespace.length()));
+            return;
+        }
+        String prefix = redisKey.substring(0, redisKey.length() - 1);
+        if (prefix.length() <= namespace.length())
+        {
+            cache.invalidateAll();
+            return;
+        }
+        String keyPrefix = prefix.substring(namespace.length());
+        cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    /**
+     * 字典条目：保留原始顺序的列表，并预建值->标签、标签->值索引
+     */
+    public static class DictEntry
+    {
+        private final List<SysDictData> dictDatas;
+        private final Map<String, String> valueToLabel;
+        private final Map<String, String> labelToValue;
+
+        private DictEntry(List<SysDictData> dictDatas)
+        {
+            if (CollUtil.isEmpty(dictDatas))
+            {
+                this.dictDatas = Collections.emptyList();
+                this.valueToLabel = Collections.emptyMap();
+                this.labelToValue = Collections.emptyMap();
+                return;
+            }
+            this.dictDatas = Collections.unmodifiableList(dictDatas);
+            Map<String, String> labels = new HashMap<>(dictDatas.size() * 2);
+            Map<String, String> values = new HashMap<>(dictDatas.size() * 2);
+            for (SysDictData dict : dictDatas)
+            {
+                if (dict.getDictValue() != null)
+                {
+                    labels.putIfAbsent(dict.getDictValue(), dict.getDictLabel());
+                }
+                if (dict.getDictLabel() != null)
+                {
+                    values.putIfAbsent(dict.getDictLabel(), dict.getDictValue());
+                }
+            }
+            this.valueToLabel = labels;
+            this.labelToValue = values;
+        }
+
+        public boolean isEmpty()
+        {
+            return dictDatas.isEmpty();
+        }
+
+        public List<SysDictData> getDictDatas()
+        {
+            return dictDatas;
+        }
+
+        public String getLabel(String dictValue)
+        {
+            return valueToLabel.get(dictValue);
+        }
+
+        public String getValue(String dictLabel)
+        {
+            return labelToValue.get(dictLabel);
+        }
+    }
+}
@@ -25,6 +25,9 @@ public class RedisCache
     @Autowired
     public RedisTemplate redisTemplate;
 
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
+
     /**
      * 缓存基本的对象，Integer、String、实体类等
      *
@@ -256,13 +259,13 @@ public class RedisCache
     }
 
     /**
-     * 获得缓存的基本对象列表
+     * 获得缓存的基本对象列表（SCAN 遍历，不阻塞 Redis）
      *
      * @param pattern 字符串前缀
      * @return 对象列表
      */
     public Collection<String> keys(final String pattern)
     {
-        return redisTemplate.keys(pattern);
+        return redisKeyScanner.scanAll(pattern);
     }
 }
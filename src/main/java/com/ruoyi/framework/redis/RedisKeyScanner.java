@@ -0,0 +1,246 @@
+package com.ruoyi.framework.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisServerCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.exception.ServiceException;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+
+/**
+ * Redis 键遍历（SCAN 游标，不使用阻塞的 KEYS）
+ * 支持按游标分页浏览、抽样统计前缀分布、按模式分批 UNLINK 删除
+ * 游标续扫使用 Lettuce 原生命令（Spring 的 Cursor 不支持从指定游标继续）
+ *
+ * @author ruoyi
+ */
+@Component
+public class RedisKeyScanner
+{
+    /** 扫描结束时的游标 */
+    public static final String CURSOR_END = "0";
+
+    /** 单页最多扫描轮数，避免稀疏匹配时一次请求扫描过多 */
+    private static final int MAX_ROUNDS_PER_PAGE = 16;
+
+    /** 单次 SCAN 命令超时 */
+    private static final long SCAN_TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /** SCAN 的 COUNT 提示 */
+    @Value("${ruoyi.redis-scan.count:1000}")
+    private int scanCount;
+
+    /** 前缀统计的抽样键数 */
+    @Value("${ruoyi.redis-scan.sample-size:5000}")
+    private int sampleSize;
+
+    /** 每条 UNLINK 命令的键数 */
+    @Value("${ruoyi.redis-scan.unlink-batch-size:500}")
+    private int unlinkBatchSize;
+
+    /**
+     * 按游标扫描一页键
+     *
+     * @param pattern 匹配模式
+     * @param cursor 游标，首次为 0
+     * @param pageSize 期望键数（SCAN 可能略多或略少）
+     * @return 本页键与下一页游标，游标为 0 表示已扫描完
+     */
+    public KeyPage scan(String pattern, String cursor, int pageSize)
+    {
+        List<String> keys = new ArrayList<>();
+        String next = cursor == null || cursor.isEmpty() ? CURSOR_END : cursor;
+        int rounds = 0;
+        do
+        {
+            KeyScanCursor<byte[]> result = scanOnce(pattern, next, Math.max(scanCount, pageSize));
+            for (byte[] key : result.getKeys())
+            {
+                keys.add(new String(key, StandardCharsets.UTF_8));
+            }
+            next = result.isFinished() ? CURSOR_END : result.getCursor();
+        }
+        while (!CURSOR_END.equals(next) && keys.size() < pageSize && ++rounds < MAX_ROUNDS_PER_PAGE);
+        return new KeyPage(keys, next);
+    }
+
+    /**
+     * 扫描全部匹配的键（仅用于匹配结果较少的场景，如系统前缀缓存）
+     *
+     * @param pattern 匹配模式
+     * @return 键列表
+     */
+    public List<String> scanAll(String pattern)
+    {
+        List<String> keys = new ArrayList<>();
+        String cursor = CURSOR_END;
+        do
+        {
+            KeyScanCursor<byte[]> result = scanOnce(pattern, cursor, scanCount);
+            for (byte[] key : result.getKeys())
+            {
+                keys.add(new String(key, StandardCharsets.UTF_8));
+            }
+            cursor = result.isFinished() ? CURSOR_END : result.getCursor();
+        }
+        while (!CURSOR_END.equals(cursor));
+        return keys;
+    }
+
+    /**
+     * 抽样统计键前缀分布
+     * 从头扫描至多 sampleSize 个键，按前缀计数后按库大小等比放大为估算值
+     *
+     * @param prefixOf 键 -> 前缀
+     * @return 前缀 -> 估算键数
+     */
+    public Map<String, Long> samplePrefixes(Function<String, String> prefixOf)
+    {
+        Map<String, Long> counts = new HashMap<>();
+        KeyPage page = scan("*", CURSOR_END, sampleSize);
+        for (String key : page.getKeys())
+        {
+            counts.merge(prefixOf.apply(key), 1L, Long::sum);
+        }
+        int sampled = page.getKeys().size();
+        if (page.isFinished() || sampled == 0)
+        {
+            return counts;
+        }
+        Long dbSize = stringRedisTemplate.execute(RedisServerCommands::dbSize, true);
+        double ratio = dbSize == null ? 1D : (double) dbSize / sampled;
+        counts.replaceAll((prefix, count) -> Math.max(1L, Math.round(count * ratio)));
+        return counts;
+    }
+
+    /**
+     * 按模式删除键：SCAN 分批取键，每批以管道提交多条 UNLINK（后台释放内存）
+     *
+     * @param pattern 匹配模式
+     * @return 删除的键数
+     */
+    public long unlinkByPattern(String pattern)
+    {
+        long total = 0;
+        String cursor = CURSOR_END;
+        do
+        {
+            KeyScanCursor<byte[]> result = scanOnce(pattern, cursor, scanCount);
+            List<String> keys = new ArrayList<>(result.getKeys().size());
+            for (byte[] key : result.getKeys())
+            {
+                keys.add(new String(key, StandardCharsets.UTF_8));
+            }
+            total += unlink(keys);
+            cursor = result.isFinished() ? CURSOR_END : result.getCursor();
+        }
+        while (!CURSOR_END.equals(cursor));
+        return total;
+    }
+
+    /**
+     * 批量删除指定键（管道提交，每条 UNLINK 至多 unlinkBatchSize 个键）
+     *
+     * @param keys 键集合
+     * @return 删除的键数
+     */
+    public long unlink(Collection<String> keys)
+    {
+        if (keys == null || keys.isEmpty())
+        {
+            return 0;
+        }
+        List<String> keyList = keys instanceof List ? (List<String>) keys : new ArrayList<>(keys);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (int from = 0; from < keyList.size(); from += unlinkBatchSize)
+            {
+                List<String> batch = keyList.subList(from, Math.min(from + unlinkBatchSize, keyList.size()));
+                stringConnection.unlink(batch.toArray(new String[0]));
+            }
+            return null;
+        });
+        long deleted = 0;
+        for (Object result : results)
+        {
+            if (result instanceof Long)
+            {
+                deleted += (Long) result;
+            }
+        }
+        return deleted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private KeyScanCursor<byte[]> scanOnce(String pattern, String cursor, int count)
+    {
+        return stringRedisTemplate.execute((RedisCallback<KeyScanCursor<byte[]>>) connection -> {
+            RedisKeyAsyncCommands<byte[], byte[]> commands = (RedisKeyAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            ScanArgs args = ScanArgs.Builder.matches(pattern.getBytes(StandardCharsets.UTF_8)).limit(count);
+            try
+            {
+                return commands.scan(ScanCursor.of(cursor), args).get(SCAN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new ServiceException("扫描Redis键被中断");
+            }
+            catch (ExecutionException | TimeoutException e)
+            {
+                throw new ServiceException("扫描Redis键失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 一页扫描结果
+     */
+    public static class KeyPage
+    {
+        private final List<String> keys;
+
+        private final String cursor;
+
+        public KeyPage(List<String> keys, String cursor)
+        {
+            this.keys = keys;
+            this.cursor = cursor;
+        }
+
+        public List<String> getKeys()
+        {
+            return keys;
+        }
+
+        /** 下一页游标，0 表示已扫描完 */
+        public String getCursor()
+        {
+            return cursor;
+        }
+
+        public boolean isFinished()
+        {
+            return CURSOR_END.equals(cursor);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ruoyi.framework.security.listener;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.project.system.service.ISysUserOnlineService;
+
+/**
+ * 在线会话索引启动回填
+ * 索引只在登录时登记，启动后把已有会话中仍有效、未登记的 token 补进索引；
+ * 多实例同时启动时由拿到锁的实例执行，已登记的 token 跳过，重复执行无副作用
+ *
+ * @author ruoyi
+ */
+@Component
+public class OnlineSessionBackfillStarter
+{
+    private static final Logger log = LoggerFactory.getLogger(OnlineSessionBackfillStarter.class);
+
+    private static final String LOCK_KEY = CacheConstants.ONLINE_SESSION_KEY + "backfill_lock";
+
+    private static final long LOCK_MINUTES = 10;
+
+    @Autowired
+    private ISysUserOnlineService userOnlineService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Async("threadPoolTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup()
+    {
+        try
+        {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", LOCK_MINUTES, TimeUnit.MINUTES)))
+            {
+                return;
+            }
+            try
+            {
+                int count = userOnlineService.backfillOnline();
+                log.info("在线会话索引回填完成，新增 {} 个会话", count);
+            }
+            finally
+            {
+                stringRedisTemplate.delete(LOCK_KEY);
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("在线会话索引回填失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ruoyi.framework.security.listener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.system.service.ISysUserOnlineService;
+
+import cn.dev33.satoken.listener.SaTokenListenerForSimple;
+import cn.dev33.satoken.stp.StpUtil;
+
+/**
+ * 在线会话索引维护
+ * 后台账号（StpUtil）注销、被踢下线、被顶下线时从在线会话索引中移除对应 token
+ *
+ * @author ruoyi
+ */
+@Component
+public class OnlineSessionListener extends SaTokenListenerForSimple
+{
+    @Autowired
+    private ISysUserOnlineService userOnlineService;
+
+    @Override
+    public void doLogout(String loginType, Object loginId, String tokenValue)
+    {
+        removeOnline(loginType, tokenValue);
+    }
+
+    @Override
+    public void doKickout(String loginType, Object loginId, String tokenValue)
+    {
+        removeOnline(loginType, tokenValue);
+    }
+
+    @Override
+    public void doReplaced(String loginType, Object loginId, String tokenValue)
+    {
+        removeOnline(loginType, tokenValue);
+    }
+
+    private void removeOnline(String loginType, String tokenValue)
+    {
+        if (StpUtil.TYPE.equals(loginType))
+        {
+            userOnlineService.removeOnline(tokenValue);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.row.Db;
+import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.framework.aspectj.DataScopeAspect;
+import com.ruoyi.project.system.domain.SysRole;
+import com.ruoyi.project.system.domain.SysUser;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * 数据权限范围解析
+ * 把用户角色的数据范围预先解析为可见部门ID集合（“本部门及以下”读取部门闭包表 sys_dept_closure），
+ * 按用户 + 部门 + 权限字符缓存在本地；部门结构、角色数据权限、用户角色变更时由 {@link PermissionCacheService} 失效。
+ *
+ * @author ruoyi
+ */
+@Component
+public class DataScopeService
+{
+    /** 数据范围：userId:deptId:permission -> 解析结果 */
+    private final Cache<String, DataScopeRange> scopeCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * 获取用户的数据范围
+     *
+     * @param user 用户（含角色）
+     * @param permission 权限字符，为空时只判断数据范围
+     * @return 数据范围
+     */
+    public DataScopeRange getDataScope(SysUser user, String permission)
+    {
+        String key = user.getUserId() + ":" + user.getDeptId() + ":" + StrUtil.nullToEmpty(permission);
+        return scopeCache.get(key, k -> resolve(user, permission));
+    }
+
+    /**
+     * 失效本节点指定用户的数据范围
+     *
+     * @param userIds 用户ID
+     */
+    public void invalidateUsers(Collection<Long> userIds)
+    {
+        Set<String> prefixes = userIds.stream().map(id -> id + ":").collect(Collectors.toSet());
+        scopeCache.asMap().keySet().removeIf(key -> prefixes.stream().anyMatch(key::startsWith));
+    }
+
+    /**
+     * 失效本节点全部数据范围
+     */
+    public void invalidateAll()
+    {
+        scopeCache.invalidateAll();
+    }
+
+    private DataScopeRange resolve(SysUser user, String permission)
+    {
+        DataScopeRange range = new DataScopeRange();
+        List<String> permissions = StrUtil.isNotBlank(permission) ? Arrays.asList(Convert.toStrArray(permission))
+                : Collections.emptyList();
+        Set<Long> customRoleIds = new LinkedHashSet<>();
+        Set<String> conditions = new LinkedHashSet<>();
+        for (SysRole role : user.getRoles())
+        {
+            String dataScope = role.getDataScope();
+            if (StrUtil.equals(role.getStatus(), UserConstants.ROLE_DISABLE))
+            {
+                continue;
+            }
+            // 只在permission不为空时才进行权限字符判断
+            if (!permissions.isEmpty() && (role.getPermissions() == null
+                    || !CollUtil.containsAny(role.getPermissions(), permissions)))
+            {
+                continue;
+            }
+            if (DataScopeAspect.DATA_SCOPE_ALL.equals(dataScope))
+            {
+                range.all = true;
+                return range;
+            }
+            if (DataScopeAspect.DATA_SCOPE_CUSTOM.equals(dataScope))
+            {
+                customRoleIds.add(role.getRoleId());
+            }
+            conditions.add(dataScope);
+        }
+        range.restricted = !conditions.isEmpty();
+        if (!customRoleIds.isEmpty())
+        {
+            range.deptIds.addAll(selectLongs("SELECT DISTINCT dept_id FROM sys_role_dept WHERE role_id IN ("
+                    + StrUtil.join(",", customRoleIds) + ")"));
+        }
+        if (conditions.contains(DataScopeAspect.DATA_SCOPE_DEPT_AND_CHILD) && user.getDeptId() != null)
+        {
+            range.deptIds.add(user.getDeptId());
+            range.deptIds.addAll(selectLongs("SELECT descendant_id FROM sys_dept_closure WHERE ancestor_id = ?",
+                    user.getDeptId()));
+        }
+        else if (conditions.contains(DataScopeAspect.DATA_SCOPE_DEPT) && user.getDeptId() != null)
+        {
+            range.deptIds.add(user.getDeptId());
+        }
+        range.self = conditions.contains(DataScopeAspect.DATA_SCOPE_SELF);
+        return range;
+    }
+
+    private static List<Long> selectLongs(String sql, Object... args)
+    {
+        return Db.selectObjectList(sql, args).stream().map(Convert::toLong).collect(Collectors.toList());
+    }
+
+    /**
+     * 解析后的数据范围（只读共享）
+     */
+    public static class DataScopeRange
+    {
+        /** 全部数据 */
+        private boolean all;
+
+        /** 是否存在需要过滤的数据范围；为 false 时不追加过滤条件 */
+        private boolean restricted;
+
+        /** 可见部门ID */
+        private final Set<Long> deptIds = new LinkedHashSet<>();
+
+        /** 包含仅本人数据 */
+        private boolean self;
+
+        public boolean isAll()
+        {
+            return all;
+        }
+
+        public boolean isRestricted()
+        {
+            return restricted;
+        }
+
+        public Set<Long> getDeptIds()
+        {
+            return Collections.unmodifiableSet(deptIds);
+        }
+
+        public boolean isSelf()
+        {
+            return self;
+        }
+    }
+}
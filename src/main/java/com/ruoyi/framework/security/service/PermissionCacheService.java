@@ -0,0 +1,468 @@
+package com.ruoyi.framework.security.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.alibaba.fastjson2.JSON;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.query.QueryColumn;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.framework.redis.NearCache;
+import com.ruoyi.framework.redis.RedisCache;
+import com.ruoyi.framework.redis.RedisKeyScanner;
+import com.ruoyi.project.system.domain.SysMenu;
+import com.ruoyi.project.system.domain.SysRole;
+import com.ruoyi.project.system.domain.SysRoleMenu;
+import com.ruoyi.project.system.domain.SysUserRole;
+import com.ruoyi.project.system.mapper.SysMenuMapper;
+import com.ruoyi.project.system.mapper.SysRoleMapper;
+import com.ruoyi.project.system.mapper.SysRoleMenuMapper;
+import com.ruoyi.project.system.mapper.SysUserRoleMapper;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+
+/**
+ * 用户角色/权限缓存
+ * 按用户缓存角色ID、按角色缓存权限字符，本地 Caffeine + Redis 两级存储；
+ * 菜单、角色、角色菜单、用户角色变更时按用户/角色精确失效，并通过 Redis 频道通知其它节点；
+ * 数据权限范围（{@link DataScopeService}）随用户、角色、部门结构变更一并失效。
+ *
+ * @author ruoyi
+ */
+@Component
+public class PermissionCacheService implements MessageListener
+{
+    private static final Logger log = LoggerFactory.getLogger(PermissionCacheService.class);
+
+    private static final String USER_PREFIX = "user:";
+
+    private static final String ROLE_PREFIX = "role:";
+
+    private static final String SCOPE_PREFIX = "scope:";
+
+    private static final String ALL = "*";
+
+    /** Redis 中权限缓存的过期时间（小时） */
+    private static final int REDIS_EXPIRE_HOURS = 2;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private SysUserRoleMapper userRoleMapper;
+
+    @Autowired
+    private SysRoleMapper roleMapper;
+
+    @Autowired
+    private SysRoleMenuMapper roleMenuMapper;
+
+    @Autowired
+    private SysMenuMapper menuMapper;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private DataScopeService dataScopeService;
+
+    /** 用户授权：userId -> 角色字符/权限字符（由角色授权汇总） */
+    private final Cache<Long, UserAuth> userCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    /** 角色授权：roleId -> 角色字符/状态/权限字符 */
+    private final Cache<Long, RoleAuth> roleCache = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    @PostConstruct
+    public void init()
+    {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.PERM_CACHE_INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 获取用户角色字符列表
+     *
+     * @param userId 用户ID
+     * @return 角色字符
+     */
+    public List<String> getRoleList(Long userId)
+    {
+        return getUserAuth(userId).getRoles();
+    }
+
+    /**
+     * 获取用户权限字符列表
+     *
+     * @param userId 用户ID
+     * @return 权限字符
+     */
+    public List<String> getPermissionList(Long userId)
+    {
+        return getUserAuth(userId).getPermissions();
+    }
+
+    /**
+     * 获取用户角色ID列表
+     *
+     * @param userId 用户ID
+     * @return 角色ID
+     */
+    public List<Long> getRoleIdList(Long userId)
+    {
+        return getUserAuth(userId).getRoleIds();
+    }
+
+    /**
+     * 菜单新增、修改、删除后清除各节点的菜单树（角色授权由 evictRolesByMenu 精确失效）
+     */
+    public void evictMenus()
+    {
+        afterCommit(nearCache::evictMenuTree);
+    }
+
+    /**
+     * 部门新增、修改、删除后清除各节点的部门树（事务提交后执行，避免提交前回源把旧树重新写入缓存）
+     */
+    public void evictDeptTree()
+    {
+        afterCommit(nearCache::evictDeptTree);
+    }
+
+    /**
+     * 部门结构变更后清除各节点的数据权限范围
+     */
+    public void evictDataScopes()
+    {
+        afterCommit(() -> publish(SCOPE_PREFIX + ALL));
+    }
+
+    /**
+     * 用户角色关联变更后失效
+     *
+     * @param userIds 用户ID
+     */
+    public void evictUsers(Long... userIds)
+    {
+        evict(USER_PREFIX, userIds == null ? Collections.emptyList() : Arrays.asList(userIds));
+    }
+
+    /**
+     * 角色信息或角色菜单关联变更后失效（同时清除菜单树）
+     *
+     * @param roleIds 角色ID
+     */
+    public void evictRoles(Collection<Long> roleIds)
+    {
+        evict(ROLE_PREFIX, roleIds);
+    }
+
+    /**
+     * 菜单变更后失效所有关联了该菜单的角色
+     *
+     * @param menuId 菜单ID
+     */
+    public void evictRolesByMenu(Long menuId)
+    {
+        if (menuId == null)
+        {
+            return;
+        }
+        List<Long> roleIds = roleMenuMapper.selectListByQuery(QueryWrapper.create()
+                .from("sys_role_menu")
+                .where(new QueryColumn("menu_id").eq(menuId)))
+                .stream().map(SysRoleMenu::getRoleId).distinct().collect(Collectors.toList());
+        evictRoles(roleIds);
+    }
+
+    /**
+     * 清空全部权限缓存
+     */
+    public void evictAll()
+    {
+        afterCommit(() -> {
+            redisKeyScanner.unlinkByPattern(CacheConstants.SYS_PERM_KEY + "*");
+            publish(ALL);
+            nearCache.evictMenuTree();
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern)
+    {
+        invalidateLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private UserAuth getUserAuth(Long userId)
+    {
+        return userCache.get(userId, this::loadUserAuth);
+    }
+
+    private UserAuth loadUserAuth(Long userId)
+    {
+        Set<String> roles = new LinkedHashSet<>();
+        Set<String> permissions = new LinkedHashSet<>();
+        List<Long> roleIds = getUserRoleIds(userId);
+        for (Long roleId : roleIds)
+        {
+            RoleAuth role = roleCache.get(roleId, this::loadRoleAuth);
+            if (role == null || role.getRoleKey() == null)
+            {
+                continue;
+            }
+            roles.addAll(split(role.getRoleKey()));
+            if (UserConstants.ROLE_NORMAL.equals(role.getStatus()) && role.getPermissions() != null)
+            {
+                permissions.addAll(role.getPermissions());
+            }
+        }
+        return new UserAuth(roleIds, List.copyOf(roles), List.copyOf(permissions));
+    }
+
+    /**
+     * 用户的角色ID，优先读取 Redis
+     */
+    private List<Long> getUserRoleIds(Long userId)
+    {
+        String key = CacheConstants.SYS_PERM_KEY + USER_PREFIX + userId;
+        Object cached = redisCache.getCacheObject(key);
+        if (cached != null)
+        {
+            return JSON.parseArray(JSON.toJSONString(cached), Long.class);
+        }
+        List<Long> roleIds = userRoleMapper.selectListByQuery(QueryWrapper.create()
+                .from("sys_user_role")
+                .where(new QueryColumn("user_id").eq(userId)))
+                .stream().map(SysUserRole::getRoleId).filter(Objects::nonNull).distinct()
+                .collect(Collectors.toList());
+        redisCache.setCacheObject(key, roleIds, REDIS_EXPIRE_HOURS, TimeUnit.HOURS);
+        return roleIds;
+    }
+
+    /**
+     * 角色授权，优先读取 Redis；角色不存在（含已删除）时缓存空角色
+     */
+    private RoleAuth loadRoleAuth(Long roleId)
+    {
+        String key = CacheConstants.SYS_PERM_KEY + ROLE_PREFIX + roleId;
+        Object cached = redisCache.getCacheObject(key);
+        if (cached != null)
+        {
+            return cached instanceof RoleAuth ? (RoleAuth) cached
+                    : JSON.parseObject(JSON.toJSONString(cached), RoleAuth.class);
+        }
+        RoleAuth auth = new RoleAuth();
+        SysRole role = roleMapper.selectOneById(roleId);
+        if (role != null)
+        {
+            auth.setRoleKey(role.getRoleKey());
+            auth.setStatus(role.getStatus());
+            auth.setPermissions(selectMenuPermsByRoleId(roleId));
+        }
+        redisCache.setCacheObject(key, auth, REDIS_EXPIRE_HOURS, TimeUnit.HOURS);
+        return auth;
+    }
+
+    private List<String> selectMenuPermsByRoleId(Long roleId)
+    {
+        Set<String> perms = new LinkedHashSet<>();
+        menuMapper.selectListByQuery(QueryWrapper.create()
+                .select("DISTINCT m.perms")
+                .from("sys_menu").as("m")
+                .innerJoin("sys_role_menu").as("rm").on("m.menu_id = rm.menu_id")
+                .where("m.status = '0'")
+                .and(new QueryColumn("rm", "role_id").eq(roleId)))
+                .stream().map(SysMenu::getPerms)
+                .filter(StrUtil::isNotEmpty)
+                .forEach(perm -> perms.addAll(split(perm)));
+        return new ArrayList<>(perms);
+    }
+
+    private static List<String> split(String value)
+    {
+        return Arrays.stream(value.trim().split(",")).map(String::trim)
+                .filter(StrUtil::isNotEmpty).collect(Collectors.toList());
+    }
+
+    private void evict(String prefix, Collection<Long> ids)
+    {
+        if (ids == null || ids.isEmpty())
+        {
+            return;
+        }
+        List<Long> targets = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (targets.isEmpty())
+        {
+            return;
+        }
+        // 事务提交后再失效，避免其它请求在提交前回源读到旧数据并重新写入缓存
+        afterCommit(() -> {
+            redisCache.deleteObject(targets.stream()
+                    .map(id -> CacheConstants.SYS_PERM_KEY + prefix + id)
+                    .collect(Collectors.toList()));
+            publish(prefix + StrUtil.join(",", targets));
+            if (ROLE_PREFIX.equals(prefix))
+            {
+                // 角色菜单关联可能变化，按角色组合缓存的菜单树一并清除
+                nearCache.evictMenuTree();
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    action.run();
+                }
+            });
+        }
+        else
+        {
+            action.run();
+        }
+    }
+
+    private void publish(String message)
+    {
+        invalidateLocal(message);
+        try
+        {
+            stringRedisTemplate.convertAndSend(CacheConstants.PERM_CACHE_INVALIDATE_CHANNEL, message);
+        }
+        catch (Exception e)
+        {
+            log.warn("权限缓存失效广播失败: message={}, error={}", message, e.getMessage());
+        }
+    }
+
+    /**
+     * 失效本地缓存，消息格式：user:1,2 / role:3,4 / scope:* / *
+     */
+    private void invalidateLocal(String message)
+    {
+        if (ALL.equals(message))
+        {
+            userCache.invalidateAll();
+            roleCache.invalidateAll();
+            dataScopeService.invalidateAll();
+        }
+        else if (message.startsWith(USER_PREFIX))
+        {
+            Set<Long> userIds = parseIds(message.substring(USER_PREFIX.length()));
+            userCache.invalidateAll(userIds);
+            dataScopeService.invalidateUsers(userIds);
+        }
+        else if (message.startsWith(ROLE_PREFIX))
+        {
+            Set<Long> roleIds = parseIds(message.substring(ROLE_PREFIX.length()));
+            roleCache.invalidateAll(roleIds);
+            // 汇总结果依赖角色授权，持有这些角色的用户一并清除
+            userCache.asMap().entrySet().removeIf(entry -> entry.getValue().getRoleIds().stream().anyMatch(roleIds::contains));
+            // 数据范围依赖角色的数据权限与自定义部门
+            dataScopeService.invalidateAll();
+        }
+        else if (message.startsWith(SCOPE_PREFIX))
+        {
+            dataScopeService.invalidateAll();
+        }
+    }
+
+    private static Set<Long> parseIds(String ids)
+    {
+        return StrUtil.split(ids, ',').stream().filter(StrUtil::isNotBlank)
+                .map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    /**
+     * 角色授权信息（Redis 中缓存的结构）
+     */
+    @Data
+    public static class RoleAuth
+    {
+        /** 角色字符 */
+        private String roleKey;
+
+        /** 角色状态 */
+        private String status;
+
+        /** 权限字符 */
+        private List<String> permissions;
+    }
+
+    /**
+     * 用户授权汇总（仅本地缓存）
+     */
+    private static class UserAuth
+    {
+        private final List<Long> roleIds;
+        private final List<String> roles;
+        private final List<String> permissions;
+
+        private UserAuth(List<Long> roleIds, List<String> roles, List<String> permissions)
+        {
+            this.roleIds = roleIds;
+            this.roles = roles;
+            this.permissions = permissions;
+        }
+
+        private List<Long> getRoleIds()
+        {
+            return roleIds;
+        }
+
+        private List<String> getRoles()
+        {
+            return roles;
+        }
+
+        private List<String> getPermissions()
+        {
+            return permissions;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.ruoyi.project.system.domain.SysRole;
 import com.ruoyi.project.system.domain.SysUser;
 import com.ruoyi.project.system.service.ISysMenuService;
 import com.ruoyi.project.system.service.ISysRoleService;
+import com.ruoyi.project.system.service.ISysUserOnlineService;
 import com.ruoyi.project.system.service.ISysUserService;
 
 import cn.dev33.satoken.session.SaSession;
@@ -49,6 +50,9 @@ public class SaTokenLoginService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ISysUserOnlineService userOnlineService;
+
     /**
      * 登录验证
      */
@@ -103,6 +107,9 @@ public class SaTokenLoginService {
         SaSession session = StpUtil.getSession(false);
         session.set(Constants.LOGIN_USER_KEY, loginUser);
         log.info("用户信息已存储到 session");
+
+        // 登记在线会话索引
+        userOnlineService.registerOnline(StpUtil.getTokenValue(), loginUser);
         
         // 记录登录日志
         AsyncManager.me().execute(AsyncFactory.recordLogininfor(username, Constants.LOGIN_SUCCESS, "登录成功"));
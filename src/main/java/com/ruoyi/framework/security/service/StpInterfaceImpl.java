@@ -3,15 +3,12 @@ package com.ruoyi.framework.security.service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import com.ruoyi.common.utils.SecurityUtils;
-import com.ruoyi.project.system.service.ISysMenuService;
-import com.ruoyi.project.system.service.ISysRoleService;
 
 import cn.dev33.satoken.stp.StpInterface;
 
@@ -22,10 +19,7 @@ import cn.dev33.satoken.stp.StpInterface;
 @Lazy(false)  // 禁用懒加载，确保Sa-Token能正确找到权限接口实现
 public class StpInterfaceImpl implements StpInterface {
     @Autowired
-    private ISysMenuService menuService;
-    
-    @Autowired
-    private ISysRoleService roleService;
+    private PermissionCacheService permissionCacheService;
 
     /**
      * 获取角色列表
@@ -39,8 +33,7 @@ public class StpInterfaceImpl implements StpInterface {
             roles.add("admin");
             return roles;
         }
-        Set<String> roles = roleService.selectRolePermissionByUserId(userId);
-        return new ArrayList<>(roles);
+        return permissionCacheService.getRoleList(userId);
     }
 
     /**
@@ -55,7 +48,6 @@ public class StpInterfaceImpl implements StpInterface {
             permissions.add("*:*:*");
             return permissions;
         }
-        Set<String> permissions = menuService.selectMenuPermsByUserId(userId);
-        return new ArrayList<>(permissions);
+        return permissionCacheService.getPermissionList(userId);
     }
 }
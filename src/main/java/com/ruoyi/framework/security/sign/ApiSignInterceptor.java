@@ -15,6 +15,7 @@ import com.ruoyi.framework.security.LoginUser;
 import com.ruoyi.project.system.domain.SysUser;
 import com.ruoyi.project.system.service.ISysMenuService;
 import com.ruoyi.project.system.service.ISysRoleService;
+import com.ruoyi.project.system.service.ISysUserOnlineService;
 import com.ruoyi.project.system.service.ISysUserService;
 
 import cn.hutool.core.util.StrUtil;
@@ -52,6 +53,9 @@ public class ApiSignInterceptor implements HandlerInterceptor {
     @Autowired
     private ISysRoleService roleService;
 
+    @Autowired
+    private ISysUserOnlineService userOnlineService;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         // 全局关闭时，仍允许对指定受保护路径强制启用签名验证
@@ -168,6 +172,7 @@ public class ApiSignInterceptor implements HandlerInterceptor {
         LoginUser loginUser = new LoginUser(user.getUserId(), user, permissions);
         StpUtil.login(user.getUserId());
         StpUtil.getSession().set(Constants.LOGIN_USER_KEY, loginUser);
+        userOnlineService.registerOnline(StpUtil.getTokenValue(), loginUser);
     }
 
     private byte[] extractRequestBody(HttpServletRequest request) {
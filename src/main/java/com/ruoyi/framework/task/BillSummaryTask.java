@@ -0,0 +1,47 @@
+package com.ruoyi.framework.task;
+
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.bill.service.IBillDailySummaryService;
+
+/**
+ * 账单日汇总重建任务
+ * 调用示例：billSummaryTask.rebuildAll() 全量回填；billSummaryTask.rebuildRecent(7) 校准最近7天
+ * 
+ * @author ruoyi
+ */
+@Component("billSummaryTask")
+public class BillSummaryTask
+{
+    private static final Logger log = LoggerFactory.getLogger(BillSummaryTask.class);
+
+    @Autowired
+    private IBillDailySummaryService billDailySummaryService;
+
+    /**
+     * 按账单明细全量重建日汇总
+     */
+    public void rebuildAll()
+    {
+        billDailySummaryService.rebuildAll();
+    }
+
+    /**
+     * 重建最近若干天（含今天）的日汇总
+     * 
+     * @param days 天数
+     */
+    public void rebuildRecent(Integer days)
+    {
+        int span = days != null && days > 0 ? days : 1;
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusDays(span - 1L);
+        int rows = billDailySummaryService.rebuild(start, end);
+        log.info("账单日汇总重建完成，范围 {} ~ {}，汇总行数 {}", start, end, rows);
+    }
+}
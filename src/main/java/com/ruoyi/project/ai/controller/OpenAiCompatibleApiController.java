@@ -31,7 +31,7 @@ import com.ruoyi.project.ai.domain.AiOpenApiKey;
 import com.ruoyi.project.ai.domain.AiUsageRecord;
 import com.ruoyi.project.ai.service.IAiModelConfigService;
 import com.ruoyi.project.ai.service.IAiOpenApiKeyService;
-import com.ruoyi.project.ai.service.IAiUsageRecordService;
+import com.ruoyi.project.ai.service.impl.AiUsageBatchWriter;
 import com.ruoyi.project.ai.service.impl.LangChain4jAgentService;
 import com.ruoyi.project.ai.service.impl.LangChain4jAgentService.ProxyChatExecutionResult;
 import com.ruoyi.project.system.domain.SysConfig;
@@ -72,18 +72,21 @@ public class OpenAiCompatibleApiController {
 
     private final IAiModelConfigService modelConfigService;
     private final IAiOpenApiKeyService openApiKeyService;
-    private final IAiUsageRecordService usageRecordService;
+    private final AiUsageBatchWriter usageBatchWriter;
     private final ISysConfigService sysConfigService;
     private final LangChain4jAgentService langChain4jAgentService;
 
+    /** 兼容接口所需参数是否已确认存在（每个进程只检查一次） */
+    private volatile boolean compatConfigsReady;
+
     public OpenAiCompatibleApiController(IAiModelConfigService modelConfigService,
             IAiOpenApiKeyService openApiKeyService,
-            IAiUsageRecordService usageRecordService,
+            AiUsageBatchWriter usageBatchWriter,
             ISysConfigService sysConfigService,
             LangChain4jAgentService langChain4jAgentService) {
         this.modelConfigService = modelConfigService;
         this.openApiKeyService = openApiKeyService;
-        this.usageRecordService = usageRecordService;
+        this.usageBatchWriter = usageBatchWriter;
         this.sysConfigService = sysConfigService;
         this.langChain4jAgentService = langChain4jAgentService;
     }
@@ -662,7 +665,15 @@ public class OpenAiCompatibleApiController {
     // -----------------------------------------------------------------------
 
     private void ensureCompatConfigs() {
-        ensureConfig(DEFAULT_MODEL_CONFIG_KEY, "OpenAI兼容接口默认模型", "", "未传 model 时使用，对应 ai_model_config.model");
+        if (compatConfigsReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!compatConfigsReady) {
+                ensureConfig(DEFAULT_MODEL_CONFIG_KEY, "OpenAI兼容接口默认模型", "", "未传 model 时使用，对应 ai_model_config.model");
+                compatConfigsReady = true;
+            }
+        }
     }
 
     private void ensureConfig(String key, String name, String value, String remark) {
@@ -685,7 +696,7 @@ public class OpenAiCompatibleApiController {
     }
 
     // -----------------------------------------------------------------------
-    // 用量记录
+    // 用量记录（明细与 Key 计数经 AiUsageBatchWriter 异步批量写入）
     // -----------------------------------------------------------------------
 
     private boolean isModelAllowed(AiOpenApiKey openApiKey, String model) {
@@ -702,17 +713,19 @@ public class OpenAiCompatibleApiController {
 
     private void recordSuccess(AiOpenApiKey openApiKey, AiModelConfig modelConfig, HttpServletRequest request,
             long startMillis, Integer inputTokens, Integer outputTokens, Integer totalTokens) {
-        saveUsageRecord(openApiKey, modelConfig, request, startMillis, inputTokens, outputTokens, totalTokens, "success", null);
-        openApiKeyService.recordUsage(openApiKey.getId(), true, inputTokens, outputTokens, totalTokens, request.getRemoteAddr());
+        AiUsageRecord record = buildUsageRecord(openApiKey, modelConfig, request, startMillis,
+                inputTokens, outputTokens, totalTokens, "success", null);
+        usageBatchWriter.offer(record, openApiKey.getId(), true, request.getRemoteAddr());
     }
 
     private void recordFailure(AiOpenApiKey openApiKey, AiModelConfig modelConfig, HttpServletRequest request,
             long startMillis, String errorMessage) {
-        saveUsageRecord(openApiKey, modelConfig, request, startMillis, 0, 0, 0, "failed", errorMessage);
-        openApiKeyService.recordUsage(openApiKey.getId(), false, 0, 0, 0, request.getRemoteAddr());
+        AiUsageRecord record = buildUsageRecord(openApiKey, modelConfig, request, startMillis,
+                0, 0, 0, "failed", errorMessage);
+        usageBatchWriter.offer(record, openApiKey.getId(), false, request.getRemoteAddr());
     }
 
-    private void saveUsageRecord(AiOpenApiKey openApiKey, AiModelConfig modelConfig, HttpServletRequest request,
+    private AiUsageRecord buildUsageRecord(AiOpenApiKey openApiKey, AiModelConfig modelConfig, HttpServletRequest request,
             long startMillis, Integer inputTokens, Integer outputTokens, Integer totalTokens,
             String status, String errorMessage) {
         AiUsageRecord record = new AiUsageRecord();
@@ -751,7 +764,7 @@ public class OpenAiCompatibleApiController {
         record.setCreateBy("open-api");
         record.setUpdateBy("open-api");
         record.setDelFlag("0");
-        usageRecordService.save(record);
+        return record;
     }
 
     // -----------------------------------------------------------------------
@@ -4,4 +4,15 @@ import com.mybatisflex.core.service.IService;
 import com.ruoyi.project.ai.domain.AiModelPolicy;
 
 public interface IAiModelPolicyService extends IService<AiModelPolicy> {
+
+    /**
+     * 解析模型在指定产品、等级下生效的策略：等级专属策略优先于通用策略（user_tier 为空），同级按 priority 升序，
+     * 结果在内存中短时缓存
+     *
+     * @param modelConfigId 模型配置 ID
+     * @param productType   产品类型
+     * @param userTier      用户等级
+     * @return 策略，未配置时返回 null
+     */
+    AiModelPolicy resolvePolicy(Long modelConfigId, String productType, String userTier);
 }
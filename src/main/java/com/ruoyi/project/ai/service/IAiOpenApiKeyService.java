@@ -1,5 +1,6 @@
 package com.ruoyi.project.ai.service;
 
+import java.util.Date;
 import java.util.Map;
 
 import com.mybatisflex.core.service.IService;
@@ -9,7 +10,19 @@ public interface IAiOpenApiKeyService extends IService<AiOpenApiKey> {
 
     Map<String, Object> createKey(AiOpenApiKey entity);
 
+    /**
+     * 校验 API Key，结果按 Key 摘要短时缓存（无效 Key 同样缓存，避免反复查库）
+     *
+     * @param rawKey 客户端提供的完整 Key
+     * @return 有效时返回 Key 信息，否则返回 null
+     */
     AiOpenApiKey validateKey(String rawKey);
 
     void recordUsage(Long keyId, boolean success, Integer inputTokens, Integer outputTokens, Integer totalTokens, String clientIp);
+
+    /**
+     * 以增量方式累加 Key 的调用计数（单条 UPDATE，不先查后改）
+     */
+    void addUsageDeltas(Long keyId, long requests, long success, long failed,
+            long inputTokens, long outputTokens, long totalTokens, Date lastUsedAt, String lastUsedIp);
 }
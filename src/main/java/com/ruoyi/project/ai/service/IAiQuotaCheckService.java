@@ -1,12 +1,17 @@
 package com.ruoyi.project.ai.service;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * AI 调用配额检查服务
+ * <p>
+ * 调用前 {@link #reserve} 原子预占一次额度，调用成功后 {@link #commit} 计入实际用量，失败或放弃时 {@link #refund} 归还。
  */
 public interface IAiQuotaCheckService {
 
     /**
-     * 检查用户是否还有可用配额，超限时抛出 ServiceException
+     * 检查并立即计入一次请求（不计 Token），超限时抛出 ServiceException。
+     * 需要按实际 Token 结算的调用方应使用 {@link #reserve} / {@link #commit} / {@link #refund}
      *
      * @param userId      用户 ID
      * @param userTier    用户等级（free/pro 等）
@@ -14,6 +19,59 @@ public interface IAiQuotaCheckService {
      */
     void checkAndConsume(Long userId, String userTier, String productType);
 
+    /**
+     * 原子预占一次调用额度，超限时抛出 ServiceException
+     *
+     * @param userId      用户 ID
+     * @param userTier    用户等级（free/pro 等）
+     * @param productType 产品类型（plugin 等）
+     * @return 预占凭证，须且仅须调用一次 commit 或 refund
+     */
+    QuotaReservation reserve(Long userId, String userTier, String productType);
+
+    /**
+     * 结算预占：计入一次请求及实际 Token 用量（含按模型的分项计数），重复结算会被忽略
+     *
+     * @param reservation 预占凭证
+     * @param modelName   实际使用的模型
+     * @param totalTokens 实际消耗 Token
+     */
+    void commit(QuotaReservation reservation, String modelName, long totalTokens);
+
+    /**
+     * 归还预占额度（调用失败或未发起），重复归还会被忽略
+     *
+     * @param reservation 预占凭证
+     */
+    void refund(QuotaReservation reservation);
+
+    /**
+     * 判断模型今日是否仍在 AiModelPolicy 的每日限额内
+     *
+     * @param userId        用户 ID
+     * @param userTier      用户等级
+     * @param productType   产品类型
+     * @param modelConfigId 模型配置 ID
+     * @param modelName     模型名称
+     * @return 未配置策略或未超限时为 true
+     */
+    boolean isModelAvailable(Long userId, String userTier, String productType, Long modelConfigId, String modelName);
+
+    /**
+     * 异步把一次调用累加到每日汇总表（ai_usage_summary_daily），不阻塞请求线程
+     *
+     * @param userId       用户 ID
+     * @param productType  产品类型
+     * @param provider     模型提供方
+     * @param modelName    模型名称
+     * @param status       调用状态（success/failed/rate_limited）
+     * @param inputTokens  输入 Token
+     * @param outputTokens 输出 Token
+     * @param totalTokens  总 Token
+     */
+    void recordDailyUsageAsync(Long userId, String productType, String provider, String modelName,
+            String status, int inputTokens, int outputTokens, int totalTokens);
+
     /**
      * 获取用户今日配额使用情况（不消费，仅查询）
      *
@@ -24,6 +82,28 @@ public interface IAiQuotaCheckService {
      */
     QuotaUsageInfo getUsageInfo(Long userId, String userTier, String productType);
 
+    /** 配额预占凭证 */
+    class QuotaReservation {
+        private final String id;
+        private final String counterKey;
+        private final String reserveKey;
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+
+        public QuotaReservation(String id, String counterKey, String reserveKey) {
+            this.id = id;
+            this.counterKey = counterKey;
+            this.reserveKey = reserveKey;
+        }
+
+        public String getId() { return id; }
+        public String getCounterKey() { return counterKey; }
+        public String getReserveKey() { return reserveKey; }
+        /** 是否为降级凭证（Redis 不可用时签发，结算为空操作） */
+        public boolean isDetached() { return counterKey == null; }
+        /** 标记已结算，返回 false 表示此前已结算过 */
+        public boolean markSettled() { return settled.compareAndSet(false, true); }
+    }
+
     /** 配额使用情况 VO */
     class QuotaUsageInfo {
         private int todayUsedRequests;
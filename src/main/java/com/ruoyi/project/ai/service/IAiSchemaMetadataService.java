@@ -0,0 +1,32 @@
+package com.ruoyi.project.ai.service;
+
+/**
+ * AI 可查询表的结构元数据服务
+ * <p>
+ * 按参数 ai.database.allowed_tables 从表结构目录缓存读取表注释与字段信息并渲染为提示词片段，结果常驻内存；
+ * 参数变更或定时检查发现表结构变化时重新渲染，AI 调用路径不再访问 information_schema。
+ */
+public interface IAiSchemaMetadataService {
+
+    /**
+     * AI 可查询的表（参数原值，逗号分隔），未配置时返回空串
+     */
+    String getAllowedTables();
+
+    /**
+     * 可查询表的结构说明（提示词片段），未配置表时返回空串
+     */
+    String getSchemaPrompt();
+
+    /**
+     * 按表结构目录重新渲染，有变化时替换
+     *
+     * @return 是否重新加载
+     */
+    boolean checkSchemaVersion();
+
+    /**
+     * 丢弃缓存，下次使用时重新加载
+     */
+    void refresh();
+}
@@ -4,4 +4,14 @@ import com.mybatisflex.core.service.IService;
 import com.ruoyi.project.ai.domain.AiUsageQuota;
 
 public interface IAiUsageQuotaService extends IService<AiUsageQuota> {
+
+    /**
+     * 解析生效的配额规则：个人配额 > 等级配额，结果在内存中短时缓存
+     *
+     * @param userId      用户 ID
+     * @param userTier    用户等级
+     * @param productType 产品类型
+     * @return 配额规则，未配置时返回 null
+     */
+    AiUsageQuota resolveQuota(Long userId, String userTier, String productType);
 }
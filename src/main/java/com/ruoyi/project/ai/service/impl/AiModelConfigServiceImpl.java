@@ -1,5 +1,8 @@
 package com.ruoyi.project.ai.service.impl;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
@@ -13,6 +16,7 @@ import com.ruoyi.project.ai.domain.AiModelConfig;
 import com.ruoyi.project.ai.mapper.AiModelConfigMapper;
 import com.ruoyi.project.ai.service.IAiModelConfigService;
 import com.ruoyi.project.ai.service.IAiModelPriceService;
+import com.ruoyi.project.ai.strategy.LangChain4jModelRegistry;
 import com.ruoyi.project.system.service.ISysConfigService;
 
 @Service
@@ -22,10 +26,40 @@ public class AiModelConfigServiceImpl extends ServiceImpl<AiModelConfigMapper, A
 
     private final IAiModelPriceService modelPriceService;
     private final ISysConfigService sysConfigService;
+    private final LangChain4jModelRegistry modelRegistry;
 
-    public AiModelConfigServiceImpl(IAiModelPriceService modelPriceService, ISysConfigService sysConfigService) {
+    public AiModelConfigServiceImpl(IAiModelPriceService modelPriceService, ISysConfigService sysConfigService,
+            LangChain4jModelRegistry modelRegistry) {
         this.modelPriceService = modelPriceService;
         this.sysConfigService = sysConfigService;
+        this.modelRegistry = modelRegistry;
+    }
+
+    @Override
+    public boolean updateById(AiModelConfig entity, boolean ignoreNulls) {
+        boolean updated = super.updateById(entity, ignoreNulls);
+        if (updated) {
+            modelRegistry.evict(entity.getId());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            modelRegistry.evict(Collections.singletonList(id));
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids) {
+        boolean removed = super.removeByIds(ids);
+        if (removed) {
+            modelRegistry.evict(ids);
+        }
+        return removed;
     }
 
     @Override
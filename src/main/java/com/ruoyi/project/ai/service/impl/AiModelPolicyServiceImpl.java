@@ -1,8 +1,16 @@
 package com.ruoyi.project.ai.service.impl;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.mybatisflex.annotation.UseDataSource;
+import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.project.ai.domain.AiModelPolicy;
 import com.ruoyi.project.ai.mapper.AiModelPolicyMapper;
@@ -12,4 +20,63 @@ import com.ruoyi.project.ai.service.IAiModelPolicyService;
 @UseDataSource("MASTER")
 public class AiModelPolicyServiceImpl extends ServiceImpl<AiModelPolicyMapper, AiModelPolicy>
         implements IAiModelPolicyService {
+
+    /**
+     * 已解析的模型策略：modelConfigId|productType|tier -> 策略（未配置时缓存空值）。
+     * 本节点增删改时整体清空，其它节点依赖过期时间兜底
+     */
+    private final Cache<String, Optional<AiModelPolicy>> resolvedCache = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    @Override
+    public AiModelPolicy resolvePolicy(Long modelConfigId, String productType, String userTier) {
+        if (modelConfigId == null) {
+            return null;
+        }
+        String key = modelConfigId + "|" + productType + "|" + userTier;
+        return resolvedCache.get(key, k -> Optional.ofNullable(loadPolicy(modelConfigId, productType, userTier)))
+                .orElse(null);
+    }
+
+    private AiModelPolicy loadPolicy(Long modelConfigId, String productType, String userTier) {
+        return getOne(QueryWrapper.create()
+                .where("model_config_id = ?", modelConfigId)
+                .and("product_type = ?", productType)
+                .and("(user_tier = ? OR user_tier IS NULL OR user_tier = '')", userTier)
+                .and("enabled = 'Y'")
+                .and("del_flag = '0'")
+                .orderByUnSafely("CASE WHEN user_tier IS NULL OR user_tier = '' THEN 1 ELSE 0 END ASC")
+                .orderBy("priority", true)
+                .limit(1));
+    }
+
+    @Override
+    public boolean save(AiModelPolicy entity) {
+        boolean result = super.save(entity);
+        resolvedCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean updateById(AiModelPolicy entity, boolean ignoreNulls) {
+        boolean result = super.updateById(entity, ignoreNulls);
+        resolvedCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        resolvedCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids) {
+        boolean result = super.removeByIds(ids);
+        resolvedCache.invalidateAll();
+        return result;
+    }
 }
@@ -1,19 +1,25 @@
 package com.ruoyi.project.ai.service.impl;
 
+import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.mybatisflex.annotation.UseDataSource;
 import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.project.ai.domain.AiOpenApiKey;
 import com.ruoyi.project.ai.mapper.AiOpenApiKeyMapper;
@@ -29,6 +35,21 @@ public class AiOpenApiKeyServiceImpl extends ServiceImpl<AiOpenApiKeyMapper, AiO
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
     private static final String KEY_PREFIX = "omk";
 
+    /**
+     * Key 校验结果缓存：Key 的 SHA-256 摘要 -> 有效 Key（不缓存明文）。
+     * 本节点增删改时整体清空，其它节点依赖过期时间兜底
+     */
+    private final Cache<String, AiOpenApiKey> validKeyCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    /** 无效 Key 的负缓存，有效期更短，容量有限防止随机 Key 撑大内存 */
+    private final Cache<String, Boolean> invalidKeyCache = Caffeine.newBuilder()
+            .maximumSize(50000)
+            .expireAfterWrite(10, TimeUnit.SECONDS)
+            .build();
+
     @Override
     @Transactional
     public Map<String, Object> createKey(AiOpenApiKey entity) {
@@ -72,12 +93,34 @@ public class AiOpenApiKeyServiceImpl extends ServiceImpl<AiOpenApiKeyMapper, AiO
         if (StrUtil.isBlank(rawKey) || !rawKey.startsWith(KEY_PREFIX + "_")) {
             return null;
         }
+        String digest = hash(rawKey, "");
+        AiOpenApiKey cached = validKeyCache.getIfPresent(digest);
+        if (cached == null) {
+            if (invalidKeyCache.getIfPresent(digest) != null) {
+                return null;
+            }
+            cached = loadValidKey(rawKey);
+            if (cached == null) {
+                invalidKeyCache.put(digest, Boolean.TRUE);
+                return null;
+            }
+            validKeyCache.put(digest, cached);
+        }
+        // 缓存期间 Key 可能到期
+        if (isExpired(cached)) {
+            validKeyCache.invalidate(digest);
+            return null;
+        }
+        return cached;
+    }
+
+    private AiOpenApiKey loadValidKey(String rawKey) {
         for (int i = rawKey.indexOf('_', KEY_PREFIX.length() + 1); i > 0; i = rawKey.indexOf('_', i + 1)) {
             AiOpenApiKey entity = getActiveKeyByPrefix(rawKey.substring(0, i));
             if (entity == null) {
                 continue;
             }
-            if (entity.getExpiresAt() != null && entity.getExpiresAt().toInstant().isBefore(Instant.now())) {
+            if (isExpired(entity)) {
                 return null;
             }
             String expectedHash = hash(rawKey, entity.getSalt());
@@ -88,6 +131,10 @@ public class AiOpenApiKeyServiceImpl extends ServiceImpl<AiOpenApiKeyMapper, AiO
         return null;
     }
 
+    private boolean isExpired(AiOpenApiKey entity) {
+        return entity.getExpiresAt() != null && entity.getExpiresAt().toInstant().isBefore(Instant.now());
+    }
+
     private AiOpenApiKey getActiveKeyByPrefix(String keyPrefix) {
         QueryWrapper qw = QueryWrapper.create()
             .from("ai_open_api_key")
@@ -99,22 +146,60 @@ public class AiOpenApiKeyServiceImpl extends ServiceImpl<AiOpenApiKeyMapper, AiO
     }
 
     @Override
-    @Transactional
     public void recordUsage(Long keyId, boolean success, Integer inputTokens, Integer outputTokens, Integer totalTokens, String clientIp) {
-        AiOpenApiKey entity = getById(keyId);
-        if (entity == null) {
+        addUsageDeltas(keyId, 1, success ? 1 : 0, success ? 0 : 1,
+                defaultInt(inputTokens), defaultInt(outputTokens), defaultInt(totalTokens), new Date(), clientIp);
+    }
+
+    @Override
+    public void addUsageDeltas(Long keyId, long requests, long success, long failed,
+            long inputTokens, long outputTokens, long totalTokens, Date lastUsedAt, String lastUsedIp) {
+        if (keyId == null) {
             return;
         }
-        entity.setLastUsedAt(new Date());
-        entity.setLastUsedIp(clientIp);
-        entity.setRequestCount(defaultLong(entity.getRequestCount()) + 1);
-        entity.setSuccessCount(defaultLong(entity.getSuccessCount()) + (success ? 1 : 0));
-        entity.setFailedCount(defaultLong(entity.getFailedCount()) + (success ? 0 : 1));
-        entity.setInputTokens(defaultLong(entity.getInputTokens()) + defaultInt(inputTokens));
-        entity.setOutputTokens(defaultLong(entity.getOutputTokens()) + defaultInt(outputTokens));
-        entity.setTotalTokens(defaultLong(entity.getTotalTokens()) + defaultInt(totalTokens));
-        entity.setUpdateBy("system");
-        updateById(entity);
+        Db.updateBySql("UPDATE ai_open_api_key SET "
+                + "request_count = IFNULL(request_count, 0) + ?, "
+                + "success_count = IFNULL(success_count, 0) + ?, "
+                + "failed_count = IFNULL(failed_count, 0) + ?, "
+                + "input_tokens = IFNULL(input_tokens, 0) + ?, "
+                + "output_tokens = IFNULL(output_tokens, 0) + ?, "
+                + "total_tokens = IFNULL(total_tokens, 0) + ?, "
+                + "last_used_at = ?, last_used_ip = ?, update_by = 'system' WHERE id = ?",
+                requests, success, failed, inputTokens, outputTokens, totalTokens, lastUsedAt, lastUsedIp, keyId);
+    }
+
+    @Override
+    public boolean save(AiOpenApiKey entity) {
+        boolean result = super.save(entity);
+        // 新 Key 可能刚被当作无效 Key 缓存过
+        invalidateKeyCache();
+        return result;
+    }
+
+    @Override
+    public boolean updateById(AiOpenApiKey entity, boolean ignoreNulls) {
+        boolean result = super.updateById(entity, ignoreNulls);
+        invalidateKeyCache();
+        return result;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        invalidateKeyCache();
+        return result;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids) {
+        boolean result = super.removeByIds(ids);
+        invalidateKeyCache();
+        return result;
+    }
+
+    private void invalidateKeyCache() {
+        validKeyCache.invalidateAll();
+        invalidKeyCache.invalidateAll();
     }
 
     private String randomHex(int byteLength) {
@@ -141,10 +226,6 @@ public class AiOpenApiKeyServiceImpl extends ServiceImpl<AiOpenApiKeyMapper, AiO
         }
     }
 
-    private long defaultLong(Long value) {
-        return value == null ? 0L : value;
-    }
-
     private long defaultInt(Integer value) {
         return value == null ? 0L : value.longValue();
     }
@@ -1,15 +1,27 @@
 package com.ruoyi.project.ai.service.impl;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
-import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.framework.manager.AsyncManager;
+import com.ruoyi.project.ai.domain.AiModelPolicy;
 import com.ruoyi.project.ai.domain.AiUsageQuota;
-import com.ruoyi.project.ai.domain.AiUsageSummaryDaily;
+import com.ruoyi.project.ai.service.IAiModelPolicyService;
 import com.ruoyi.project.ai.service.IAiQuotaCheckService;
 import com.ruoyi.project.ai.service.IAiUsageQuotaService;
 import com.ruoyi.project.ai.service.IAiUsageSummaryDailyService;
@@ -23,53 +35,209 @@ import lombok.extern.slf4j.Slf4j;
  * 配额优先级：
  * 1. 先查 ai_usage_quota 中 user_id = userId 的个人配额（精准覆盖）
  * 2. 若无个人配额，查 user_tier + product_type 的等级配额
- * 3. 与 ai_usage_summary_daily 中今日用量对比
+ * 3. 与 Redis 中今日计数对比
+ * <p>
+ * 今日计数保存在 Redis 哈希 ai_quota:{product}:{userId}:{yyyyMMdd} 中：req/tok 为已结算的请求数与 Token，
+ * req:{model}/tok:{model} 为按模型的分项；进行中的预占放在同名 :rsv 有序集合里（score 为租约到期时间，
+ * 进程崩溃未结算的预占到期后自动释放）。预占、结算均由 Lua 脚本原子完成，并发请求不会同时越过上限。
+ * 哈希不存在时（当天首次调用、Redis 数据丢失）从 ai_usage_summary_daily / ai_usage_record 回填；
+ * 明细与汇总表由请求线程之外异步写入，作为计数的持久化对账来源。
  */
 @Slf4j
 @Service
 public class AiQuotaCheckServiceImpl implements IAiQuotaCheckService {
 
+    /** 计数键保留时长（秒），覆盖跨天结算 */
+    private static final long COUNTER_TTL_SECONDS = TimeUnit.DAYS.toSeconds(2);
+
+    /** 预占租约（毫秒），流式调用可能持续较长时间 */
+    private static final long RESERVATION_LEASE_MS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String FIELD_REQ = "req";
+    private static final String FIELD_TOK = "tok";
+
+    private static final long RESERVED = 1L;
+    private static final long REQUEST_EXCEEDED = -1L;
+    private static final long NOT_SEEDED = -2L;
+    private static final long TOKEN_EXCEEDED = -3L;
+
+    /**
+     * 回填今日计数：键不存在时写入 ARGV[2..] 的字段/值对
+     */
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end "
+            + "for i = 2, #ARGV, 2 do redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+            + "redis.call('expire', KEYS[1], ARGV[1]) "
+            + "return 1", Long.class);
+
+    /**
+     * 预占：清理过期租约后，已结算请求数 + 进行中预占数 未达上限且 Token 未超限时登记一条预占
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return -2 end "
+            + "redis.call('zremrangebyscore', KEYS[2], '-inf', ARGV[4]) "
+            + "local reqLimit = tonumber(ARGV[1]) "
+            + "if reqLimit > 0 and tonumber(redis.call('hget', KEYS[1], 'req') or '0') "
+            + "+ redis.call('zcard', KEYS[2]) >= reqLimit then return -1 end "
+            + "local tokLimit = tonumber(ARGV[2]) "
+            + "if tokLimit > 0 and tonumber(redis.call('hget', KEYS[1], 'tok') or '0') >= tokLimit then return -3 end "
+            + "redis.call('zadd', KEYS[2], ARGV[5], ARGV[3]) "
+            + "redis.call('expire', KEYS[2], ARGV[6]) "
+            + "return 1", Long.class);
+
+    /**
+     * 结算：移除预占并累加请求数、Token 及模型分项
+     */
+    private static final DefaultRedisScript<Long> COMMIT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('zrem', KEYS[2], ARGV[1]) "
+            + "redis.call('hincrby', KEYS[1], 'req', 1) "
+            + "redis.call('hincrby', KEYS[1], 'tok', ARGV[2]) "
+            + "if ARGV[3] ~= '' then "
+            + "redis.call('hincrby', KEYS[1], 'req:' .. ARGV[3], 1) "
+            + "redis.call('hincrby', KEYS[1], 'tok:' .. ARGV[3], ARGV[2]) "
+            + "end "
+            + "if redis.call('ttl', KEYS[1]) < 0 then redis.call('expire', KEYS[1], ARGV[4]) end "
+            + "return 1", Long.class);
+
     @Autowired
     private IAiUsageQuotaService quotaService;
 
+    @Autowired
+    private IAiModelPolicyService modelPolicyService;
+
     @Autowired
     private IAiUsageSummaryDailyService summaryDailyService;
 
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
     @Override
     public void checkAndConsume(Long userId, String userTier, String productType) {
-        AiUsageQuota quota = resolveQuota(userId, userTier, productType);
+        commit(reserve(userId, userTier, productType), null, 0L);
+    }
+
+    @Override
+    public QuotaReservation reserve(Long userId, String userTier, String productType) {
+        AiUsageQuota quota = quotaService.resolveQuota(userId, userTier, productType);
         if (quota == null) {
-            // 未配置配额规则 → 放行（宽松策略，避免误杀）
+            // 未配置配额规则 → 放行（宽松策略，避免误杀），仍记录计数供用量展示
             log.debug("未找到配额配置，放行 userId={} tier={} type={}", userId, userTier, productType);
-            return;
         }
-        if (!"Y".equals(quota.getEnabled())) {
-            log.debug("配额规则已禁用，放行 userId={}", userId);
+        long requestLimit = quota != null && quota.getRequestLimit() != null ? quota.getRequestLimit() : -1L;
+        long tokenLimit = quota != null && quota.getTokenLimit() != null ? quota.getTokenLimit() : -1L;
+
+        LocalDate today = LocalDate.now();
+        String counterKey = counterKey(userId, productType, today);
+        String reserveKey = counterKey + ":rsv";
+        String id = UUID.randomUUID().toString().replace("-", "");
+        long result;
+        try {
+            result = tryReserve(counterKey, reserveKey, id, requestLimit, tokenLimit);
+            if (result == NOT_SEEDED) {
+                seed(counterKey, userId, productType, today);
+                result = tryReserve(counterKey, reserveKey, id, requestLimit, tokenLimit);
+            }
+        } catch (Exception e) {
+            // Redis 不可用时退回数据库检查，保证配额仍然生效
+            log.warn("配额计数不可用，改用数据库检查 userId={}: {}", userId, e.getMessage());
+            checkByDatabase(userId, productType, requestLimit, tokenLimit);
+            return new QuotaReservation(id, null, null);
+        }
+
+        if (result == REQUEST_EXCEEDED) {
+            throw new ServiceException(String.format(
+                    "今日 AI 调用次数已达上限（%d 次），请明天再来", requestLimit));
+        }
+        if (result == TOKEN_EXCEEDED) {
+            throw new ServiceException(String.format(
+                    "今日 Token 用量已达上限（%d），请明天再来", tokenLimit));
+        }
+        return new QuotaReservation(id, counterKey, reserveKey);
+    }
+
+    @Override
+    public void commit(QuotaReservation reservation, String modelName, long totalTokens) {
+        if (reservation == null || !reservation.markSettled() || reservation.isDetached()) {
             return;
         }
+        try {
+            stringRedisTemplate.execute(COMMIT_SCRIPT,
+                    Arrays.asList(reservation.getCounterKey(), reservation.getReserveKey()),
+                    reservation.getId(), String.valueOf(Math.max(totalTokens, 0L)),
+                    StrUtil.nullToEmpty(modelName), String.valueOf(COUNTER_TTL_SECONDS));
+        } catch (Exception e) {
+            log.warn("配额结算失败 key={}: {}", reservation.getCounterKey(), e.getMessage());
+        }
+    }
 
-        QuotaUsageInfo usage = getTodayUsage(userId, productType);
+    @Override
+    public void refund(QuotaReservation reservation) {
+        if (reservation == null || !reservation.markSettled() || reservation.isDetached()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForZSet().remove(reservation.getReserveKey(), reservation.getId());
+        } catch (Exception e) {
+            // 未归还的预占在租约到期后自动释放
+            log.warn("配额归还失败 key={}: {}", reservation.getReserveKey(), e.getMessage());
+        }
+    }
 
-        // 检查请求次数
-        if (quota.getRequestLimit() != null && quota.getRequestLimit() > 0) {
-            if (usage.getTodayUsedRequests() >= quota.getRequestLimit()) {
-                throw new ServiceException(String.format(
-                        "今日 AI 调用次数已达上限（%d 次），请明天再来", quota.getRequestLimit()));
+    @Override
+    public boolean isModelAvailable(Long userId, String userTier, String productType,
+            Long modelConfigId, String modelName) {
+        AiModelPolicy policy = modelPolicyService.resolvePolicy(modelConfigId, productType, userTier);
+        if (policy == null || StrUtil.isBlank(modelName)) {
+            return true;
+        }
+        boolean limitRequests = policy.getDailyRequestLimit() != null && policy.getDailyRequestLimit() > 0;
+        boolean limitTokens = policy.getDailyTokenLimit() != null && policy.getDailyTokenLimit() > 0;
+        if (!limitRequests && !limitTokens) {
+            return true;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            String counterKey = counterKey(userId, productType, today);
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(counterKey))) {
+                seed(counterKey, userId, productType, today);
+            }
+            List<Object> values = stringRedisTemplate.opsForHash().multiGet(counterKey,
+                    Arrays.asList(FIELD_REQ + ":" + modelName, FIELD_TOK + ":" + modelName));
+            long usedRequests = toLong(values.get(0));
+            long usedTokens = toLong(values.get(1));
+            if (limitRequests && usedRequests >= policy.getDailyRequestLimit()) {
+                return false;
             }
+            return !limitTokens || usedTokens < policy.getDailyTokenLimit();
+        } catch (Exception e) {
+            log.warn("读取模型用量失败，视为可用 model={}: {}", modelName, e.getMessage());
+            return true;
         }
+    }
 
-        // 检查 Token 上限
-        if (quota.getTokenLimit() != null && quota.getTokenLimit() > 0) {
-            if (usage.getTodayUsedTokens() >= quota.getTokenLimit()) {
-                throw new ServiceException(String.format(
-                        "今日 Token 用量已达上限（%d），请明天再来", quota.getTokenLimit()));
+    @Override
+    public void recordDailyUsageAsync(Long userId, String productType, String provider, String modelName,
+            String status, int inputTokens, int outputTokens, int totalTokens) {
+        int successDelta = "success".equals(status) ? 1 : 0;
+        int failedDelta = "failed".equals(status) ? 1 : 0;
+        AsyncManager.me().execute(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    summaryDailyService.upsertDailyRecord(userId, productType, provider, modelName,
+                            1, successDelta, failedDelta, inputTokens, outputTokens, totalTokens);
+                } catch (Exception e) {
+                    log.error("更新每日用量汇总失败 userId={}", userId, e);
+                }
             }
-        }
+        });
     }
 
     @Override
     public QuotaUsageInfo getUsageInfo(Long userId, String userTier, String productType) {
-        AiUsageQuota quota = resolveQuota(userId, userTier, productType);
+        AiUsageQuota quota = quotaService.resolveQuota(userId, userTier, productType);
         int requestLimit = (quota != null && quota.getRequestLimit() != null) ? quota.getRequestLimit() : -1;
         long tokenLimit = (quota != null && quota.getTokenLimit() != null) ? quota.getTokenLimit() : -1L;
 
@@ -85,60 +253,94 @@ public class AiQuotaCheckServiceImpl implements IAiQuotaCheckService {
     // 私有方法
     // -----------------------------------------------------------------------
 
+    private String counterKey(Long userId, String productType, LocalDate day) {
+        return CacheConstants.AI_QUOTA_KEY + productType + ":" + userId + ":" + day.format(DAY_FORMAT);
+    }
+
+    private long tryReserve(String counterKey, String reserveKey, String id, long requestLimit, long tokenLimit) {
+        long now = System.currentTimeMillis();
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT, Arrays.asList(counterKey, reserveKey),
+                String.valueOf(requestLimit), String.valueOf(tokenLimit), id,
+                String.valueOf(now), String.valueOf(now + RESERVATION_LEASE_MS),
+                String.valueOf(COUNTER_TTL_SECONDS));
+        return result != null ? result : RESERVED;
+    }
+
     /**
-     * 解析配额规则：个人配额 > 等级配额
+     * 从数据库回填今日计数：总量取汇总表（成功请求数、Token），模型分项取调用明细
      */
-    private AiUsageQuota resolveQuota(Long userId, String userTier, String productType) {
-        // 1. 个人专属配额
-        if (userId != null) {
-            QueryWrapper qw = QueryWrapper.create()
-                    .from("ai_usage_quota")
-                    .where("user_id = " + userId)
-                    .and("product_type = '" + productType + "'")
-                    .and("enabled = 'Y'")
-                    .and("del_flag = '0'")
-                    .limit(1);
-            AiUsageQuota personal = quotaService.getOne(qw);
-            if (personal != null) {
-                return personal;
+    private void seed(String counterKey, Long userId, String productType, LocalDate today) {
+        QuotaUsageInfo usage = getTodayUsageFromDatabase(userId, productType, today);
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(COUNTER_TTL_SECONDS));
+        args.add(FIELD_REQ);
+        args.add(String.valueOf(usage.getTodayUsedRequests()));
+        args.add(FIELD_TOK);
+        args.add(String.valueOf(usage.getTodayUsedTokens()));
+        List<Row> models = Db.selectListBySql(
+                "SELECT model_name, COUNT(*) AS req, COALESCE(SUM(total_tokens), 0) AS tok FROM ai_usage_record "
+                + "WHERE user_id = ? AND product_type = ? AND status = 'success' AND del_flag = '0' "
+                + "AND start_time >= ? AND start_time < ? GROUP BY model_name",
+                userId, productType, today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+        for (Row row : models) {
+            String modelName = row.getString("model_name");
+            if (StrUtil.isNotBlank(modelName)) {
+                args.add(FIELD_REQ + ":" + modelName);
+                args.add(String.valueOf(row.getLong("req", 0L)));
+                args.add(FIELD_TOK + ":" + modelName);
+                args.add(String.valueOf(row.getLong("tok", 0L)));
             }
         }
+        stringRedisTemplate.execute(SEED_SCRIPT, List.of(counterKey), args.toArray());
+    }
 
-        // 2. 等级配额
-        if (StrUtil.isNotBlank(userTier)) {
-            QueryWrapper qw = QueryWrapper.create()
-                    .from("ai_usage_quota")
-                    .where("user_id IS NULL")
-                    .and("user_tier = '" + userTier + "'")
-                    .and("product_type = '" + productType + "'")
-                    .and("enabled = 'Y'")
-                    .and("del_flag = '0'")
-                    .limit(1);
-            return quotaService.getOne(qw);
+    /**
+     * 获取用户今日用量：优先读 Redis 计数（含进行中的预占），缺失时读汇总表
+     */
+    private QuotaUsageInfo getTodayUsage(Long userId, String productType) {
+        LocalDate today = LocalDate.now();
+        String counterKey = counterKey(userId, productType, today);
+        try {
+            List<Object> values = stringRedisTemplate.opsForHash().multiGet(counterKey,
+                    Arrays.asList(FIELD_REQ, FIELD_TOK));
+            if (values.get(0) != null) {
+                Long reserved = stringRedisTemplate.opsForZSet().count(counterKey + ":rsv",
+                        System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+                int requests = (int) (toLong(values.get(0)) + (reserved != null ? reserved : 0L));
+                return new QuotaUsageInfo(requests, -1, toLong(values.get(1)), -1L);
+            }
+        } catch (Exception e) {
+            log.warn("读取配额计数失败，改用数据库 userId={}: {}", userId, e.getMessage());
         }
-        return null;
+        return getTodayUsageFromDatabase(userId, productType, today);
+    }
+
+    private QuotaUsageInfo getTodayUsageFromDatabase(Long userId, String productType, LocalDate today) {
+        Row row = Db.selectOneBySql(
+                "SELECT COALESCE(SUM(success_count), 0) AS req, COALESCE(SUM(total_tokens), 0) AS tok "
+                + "FROM ai_usage_summary_daily WHERE user_id = ? AND product_type = ? AND summary_date = ?",
+                userId, productType, today);
+        long requests = row != null ? row.getLong("req", 0L) : 0L;
+        long tokens = row != null ? row.getLong("tok", 0L) : 0L;
+        return new QuotaUsageInfo((int) requests, -1, tokens, -1L);
     }
 
     /**
-     * 获取用户今日用量（汇总表）
+     * Redis 不可用时的兜底检查（非原子，仅按汇总表判断）
      */
-    private QuotaUsageInfo getTodayUsage(Long userId, String productType) {
-        String today = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-        QueryWrapper qw = QueryWrapper.create()
-                .from("ai_usage_summary_daily")
-                .where("user_id = " + userId)
-                .and("product_type = '" + productType + "'")
-                .and("DATE(summary_date) = '" + today + "'");
-
-        java.util.List<AiUsageSummaryDaily> list = summaryDailyService.list(qw);
-
-        int totalRequests = list.stream()
-                .mapToInt(r -> r.getRequestCount() == null ? 0 : r.getRequestCount())
-                .sum();
-        long totalTokens = list.stream()
-                .mapToLong(r -> r.getTotalTokens() == null ? 0L : r.getTotalTokens())
-                .sum();
-
-        return new QuotaUsageInfo(totalRequests, -1, totalTokens, -1L);
+    private void checkByDatabase(Long userId, String productType, long requestLimit, long tokenLimit) {
+        QuotaUsageInfo usage = getTodayUsageFromDatabase(userId, productType, LocalDate.now());
+        if (requestLimit > 0 && usage.getTodayUsedRequests() >= requestLimit) {
+            throw new ServiceException(String.format(
+                    "今日 AI 调用次数已达上限（%d 次），请明天再来", requestLimit));
+        }
+        if (tokenLimit > 0 && usage.getTodayUsedTokens() >= tokenLimit) {
+            throw new ServiceException(String.format(
+                    "今日 Token 用量已达上限（%d），请明天再来", tokenLimit));
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0L : Long.parseLong(value.toString());
     }
 }
@@ -0,0 +1,287 @@
+package com.ruoyi.project.ai.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.ruoyi.project.ai.service.IAiSchemaMetadataService;
+import com.ruoyi.project.common.domain.vo.SchemaColumnMeta;
+import com.ruoyi.project.common.domain.vo.SchemaTableMeta;
+import com.ruoyi.project.common.service.ISchemaCatalogService;
+import com.ruoyi.project.system.service.ISysConfigService;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AI 可查询表的结构元数据服务实现
+ * <p>
+ * 表注释与字段信息从表结构目录缓存读取，不再单独查询 information_schema；渲染后的提示词片段常驻内存，
+ * 由定时任务按目录缓存重新渲染，内容变化时替换。可查询表的参数值走参数缓存，变化时在下次使用时重新渲染。
+ */
+@Slf4j
+@Service
+public class AiSchemaMetadataServiceImpl implements IAiSchemaMetadataService {
+
+    private static final String ALLOWED_TABLES_KEY = "ai.database.allowed_tables";
+
+    @Autowired
+    private ISysConfigService sysConfigService;
+
+    @Autowired
+    private ISchemaCatalogService schemaCatalogService;
+
+    /** 当前快照：参数原值、渲染后的提示词片段 */
+    private volatile SchemaSnapshot snapshot;
+
+    @Override
+    public String getAllowedTables() {
+        return StrUtil.nullToEmpty(sysConfigService.selectConfigByKey(ALLOWED_TABLES_KEY));
+    }
+
+    @Override
+    public String getSchemaPrompt() {
+        String allowedTables = getAllowedTables();
+        SchemaSnapshot current = snapshot;
+        if (current != null && current.allowedTables.equals(allowedTables)) {
+            return current.prompt;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || !current.allowedTables.equals(allowedTables)) {
+                current = load(allowedTables);
+                snapshot = current;
+            }
+            return current.prompt;
+        }
+    }
+
+    @Override
+    public boolean checkSchemaVersion() {
+        String allowedTables = getAllowedTables();
+        SchemaSnapshot current = snapshot;
+        SchemaSnapshot loaded = load(allowedTables);
+        if (current != null && current.allowedTables.equals(allowedTables) && current.prompt.equals(loaded.prompt)) {
+            return false;
+        }
+        synchronized (this) {
+            snapshot = loaded;
+        }
+        if (current != null) {
+            log.info("AI 可查询表结构已变化，已重新加载: tables={}", allowedTables);
+        }
+        return true;
+    }
+
+    @Override
+    public void refresh() {
+        snapshot = null;
+    }
+
+    // -----------------------------------------------------------------------
+    // 加载与渲染
+    // -----------------------------------------------------------------------
+
+    private SchemaSnapshot load(String allowedTables) {
+        List<String> tables = parseTables(allowedTables);
+        StringBuilder prompt = new StringBuilder();
+        for (String tableName : tables) {
+            prompt.append(getTableStructure(tableName));
+        }
+        log.debug("渲染 AI 可查询表结构: tables={}", tables.size());
+        return new SchemaSnapshot(allowedTables, prompt.toString());
+    }
+
+    /**
+     * 获取表结构信息（结构化格式），单表失败时输出失败说明，不影响其它表
+     */
+    private String getTableStructure(String tableName) {
+        try {
+            SchemaTableMeta table = schemaCatalogService.getTable(null, tableName);
+            StringBuilder structure = new StringBuilder();
+            appendTableStructure(structure, tableName, table != null ? table.getTableComment() : "",
+                    schemaCatalogService.getColumns(null, tableName));
+            return structure.toString();
+        } catch (Exception e) {
+            log.error("获取表 {} 结构信息失败: {}", tableName, e.getMessage(), e);
+            return "**表名：" + tableName + "**\n  获取表结构失败: " + e.getMessage() + "\n\n";
+        }
+    }
+
+    /**
+     * 渲染单表结构（结构化格式）
+     */
+    private void appendTableStructure(StringBuilder structure, String tableName, String tableComment,
+            List<SchemaColumnMeta> columns) {
+        structure.append("**表名：").append(tableName);
+        if (StrUtil.isNotBlank(tableComment)) {
+            structure.append("（").append(tableComment).append("）");
+        }
+        structure.append("**\n");
+
+        if (columns.isEmpty()) {
+            structure.append("  无法获取字段信息\n");
+            return;
+        }
+
+        structure.append("字段列表：\n");
+        for (SchemaColumnMeta column : columns) {
+            String columnName = column.getColumnName();
+            String dataType = column.getDataType();
+            String isNullable = column.getIsNullable();
+            String columnDefault = column.getColumnDefault();
+            String columnComment = column.getColumnComment();
+            String columnKey = column.getColumnKey();
+            String extra = column.getExtra();
+
+            structure.append("  - `").append(columnName).append("` (").append(dataType).append(")");
+
+            // 添加主键标识
+            if ("PRI".equals(columnKey)) {
+                structure.append(" [主键]");
+            }
+
+            // 添加自增标识
+            if (StrUtil.isNotBlank(extra) && extra.contains("auto_increment")) {
+                structure.append(" [自增]");
+            }
+
+            // 添加非空标识
+            if ("NO".equals(isNullable)) {
+                structure.append(" [非空]");
+            }
+
+            // 添加默认值
+            if (StrUtil.isNotBlank(columnDefault)) {
+                structure.append(" [默认值: ").append(columnDefault).append("]");
+            }
+
+            // 添加字段注释和业务含义
+            if (StrUtil.isNotBlank(columnComment)) {
+                structure.append(" - ").append(columnComment);
+            }
+
+            // 添加常见字段的业务含义说明
+            addFieldBusinessMeaning(structure, columnName, dataType);
+
+            structure.append("\n");
+        }
+
+        structure.append("\n");
+    }
+
+    /**
+     * 为常见字段添加业务含义说明
+     */
+    private void addFieldBusinessMeaning(StringBuilder structure, String columnName, String dataType) {
+        if (columnName == null) return;
+
+        String lowerName = columnName.toLowerCase();
+
+        // 状态字段
+        if ("status".equals(lowerName)) {
+            structure.append(" [状态: '0'=正常, '1'=停用]");
+        }
+        // 删除标志
+        else if ("del_flag".equals(lowerName)) {
+            structure.append(" [删除标志: '0'=正常, '2'=删除]");
+        }
+        // 性别字段
+        else if ("sex".equals(lowerName)) {
+            structure.append(" [性别: '0'=男, '1'=女, '2'=未知]");
+        }
+        // 用户类型
+        else if ("user_type".equals(lowerName)) {
+            structure.append(" [用户类型: '00'=系统用户]");
+        }
+        // 菜单类型
+        else if ("menu_type".equals(lowerName)) {
+            structure.append(" [菜单类型: 'M'=目录, 'C'=菜单, 'F'=按钮]");
+        }
+        // 是否框架
+        else if ("is_frame".equals(lowerName)) {
+            structure.append(" [是否外链: '0'=否, '1'=是]");
+        }
+        // 是否缓存
+        else if ("is_cache".equals(lowerName)) {
+            structure.append(" [是否缓存: '0'=缓存, '1'=不缓存]");
+        }
+        // 显示状态
+        else if ("visible".equals(lowerName)) {
+            structure.append(" [显示状态: '0'=显示, '1'=隐藏]");
+        }
+        // 角色权限
+        else if ("data_scope".equals(lowerName)) {
+            structure.append(" [数据范围: '1'=全部, '2'=自定义, '3'=本部门, '4'=本部门及以下, '5'=仅本人]");
+        }
+        // 通知类型
+        else if ("notice_type".equals(lowerName)) {
+            structure.append(" [公告类型: '1'=通知, '2'=公告]");
+        }
+        // 操作类型
+        else if ("oper_type".equals(lowerName)) {
+            structure.append(" [操作类型: 数字代码对应不同操作]");
+        }
+        // 业务类型
+        else if ("business_type".equals(lowerName)) {
+            structure.append(" [业务类型: 数字代码对应不同业务]");
+        }
+        // 时间字段说明
+        else if (lowerName.contains("time") && ("datetime".equals(dataType) || "timestamp".equals(dataType))) {
+            if ("create_time".equals(lowerName)) {
+                structure.append(" [创建时间]");
+            } else if ("update_time".equals(lowerName)) {
+                structure.append(" [更新时间]");
+            } else if ("login_date".equals(lowerName)) {
+                structure.append(" [最后登录时间]");
+            }
+        }
+        // 创建者和更新者
+        else if ("create_by".equals(lowerName)) {
+            structure.append(" [创建者]");
+        }
+        else if ("update_by".equals(lowerName)) {
+            structure.append(" [更新者]");
+        }
+        // 排序字段
+        else if (lowerName.contains("sort") || lowerName.contains("order")) {
+            structure.append(" [排序字段: 数字越小越靠前]");
+        }
+        // IP地址
+        else if (lowerName.contains("ip")) {
+            structure.append(" [IP地址]");
+        }
+        // 备注字段
+        else if ("remark".equals(lowerName)) {
+            structure.append(" [备注信息]");
+        }
+    }
+
+    private static List<String> parseTables(String allowedTables) {
+        if (StrUtil.isBlank(allowedTables)) {
+            return Collections.emptyList();
+        }
+        Set<String> tables = new LinkedHashSet<>();
+        for (String tableName : allowedTables.split(",")) {
+            if (StrUtil.isNotBlank(tableName)) {
+                tables.add(tableName.trim());
+            }
+        }
+        return new ArrayList<>(tables);
+    }
+
+    private static final class SchemaSnapshot {
+        private final String allowedTables;
+        private final String prompt;
+
+        private SchemaSnapshot(String allowedTables, String prompt) {
+            this.allowedTables = allowedTables;
+            this.prompt = prompt;
+        }
+    }
+}
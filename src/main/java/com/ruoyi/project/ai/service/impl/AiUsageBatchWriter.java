@@ -0,0 +1,256 @@
+package com.ruoyi.project.ai.service.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.ai.domain.AiUsageRecord;
+import com.ruoyi.project.ai.service.IAiOpenApiKeyService;
+import com.ruoyi.project.ai.service.IAiUsageRecordService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AI 调用用量批量写入器
+ * <p>
+ * 调用明细（ai_usage_record）与对外 API Key 的计数增量先进入有界队列，由单个后台线程按数量或时间间隔
+ * 批量插入明细，并把同一 Key 的增量合并为一条 UPDATE。计费数据不丢弃：队列满且等待超时后由提交方同步写入；
+ * 批量插入失败时逐条重试，只丢弃单条写不进去的明细；应用关闭时把队列中剩余数据全部写完。
+ */
+@Slf4j
+@Component
+public class AiUsageBatchWriter {
+
+    /** 队列容量 */
+    @Value("${ruoyi.ai-usage-sink.capacity:4096}")
+    private int capacity;
+
+    /** 单批最大条数 */
+    @Value("${ruoyi.ai-usage-sink.batch-size:200}")
+    private int batchSize;
+
+    /** 最长刷新间隔（毫秒） */
+    @Value("${ruoyi.ai-usage-sink.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    /** 队列满时提交方最长等待（毫秒） */
+    @Value("${ruoyi.ai-usage-sink.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Autowired
+    private IAiUsageRecordService usageRecordService;
+
+    @Autowired
+    private IAiOpenApiKeyService openApiKeyService;
+
+    private BlockingQueue<UsageEntry> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        worker = new Thread(this::runLoop, "ai-usage-sink");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 提交一条调用明细
+     *
+     * @param record 调用明细
+     */
+    public void offer(AiUsageRecord record) {
+        offer(new UsageEntry(record, null, false, null));
+    }
+
+    /**
+     * 提交一条调用明细，并把本次调用计入对外 API Key 的计数
+     *
+     * @param record       调用明细（Token 数取自明细）
+     * @param openApiKeyId API Key ID
+     * @param success      是否成功
+     * @param clientIp     调用方 IP
+     */
+    public void offer(AiUsageRecord record, Long openApiKeyId, boolean success, String clientIp) {
+        offer(new UsageEntry(record, openApiKeyId, success, clientIp));
+    }
+
+    private void offer(UsageEntry entry) {
+        if (running) {
+            try {
+                if (queue.offer(entry) || queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                log.warn("用量队列已满，改为同步写入");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 关闭过程中或队列持续积压时直接同步写入，避免计费数据丢失
+        write(List.of(entry));
+    }
+
+    /**
+     * 当前排队中的条数
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<UsageEntry> rest = new ArrayList<>(queue.size());
+        queue.drainTo(rest);
+        write(rest);
+        log.info("====AI 用量写入器已关闭，剩余写入 {} 条====", rest.size());
+    }
+
+    private void runLoop() {
+        List<UsageEntry> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (running) {
+            try {
+                long wait = deadline - System.currentTimeMillis();
+                UsageEntry first = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : null;
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline) {
+                    if (!batch.isEmpty()) {
+                        write(batch);
+                        batch.clear();
+                    }
+                    deadline = System.currentTimeMillis() + flushIntervalMs;
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.error("AI 用量写入线程异常", e);
+                batch.clear();
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<UsageEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<AiUsageRecord> records = new ArrayList<>(entries.size());
+        Map<Long, KeyDelta> deltas = new LinkedHashMap<>();
+        for (UsageEntry entry : entries) {
+            records.add(entry.record);
+            if (entry.openApiKeyId != null) {
+                deltas.computeIfAbsent(entry.openApiKeyId, id -> new KeyDelta()).add(entry);
+            }
+        }
+        try {
+            usageRecordService.saveBatch(records);
+        } catch (Exception e) {
+            log.error("批量写入 AI 调用明细失败，改为逐条写入，条数: {}", records.size(), e);
+            saveOneByOne(records);
+        }
+        for (Map.Entry<Long, KeyDelta> item : deltas.entrySet()) {
+            KeyDelta delta = item.getValue();
+            try {
+                openApiKeyService.addUsageDeltas(item.getKey(), delta.requests, delta.success, delta.failed,
+                        delta.inputTokens, delta.outputTokens, delta.totalTokens, delta.lastUsedAt, delta.lastUsedIp);
+            } catch (Exception e) {
+                log.error("更新 API Key 计数失败 keyId={}, requests={}", item.getKey(), delta.requests, e);
+            }
+        }
+    }
+
+    /**
+     * 批量写入失败后逐条写入，只有单条本身写不进去的明细才会丢失
+     */
+    private void saveOneByOne(List<AiUsageRecord> records) {
+        int failed = 0;
+        for (AiUsageRecord record : records) {
+            // 已回填主键的明细已写入，跳过避免重复
+            if (record.getId() != null) {
+                continue;
+            }
+            try {
+                usageRecordService.save(record);
+            } catch (Exception e) {
+                failed++;
+                log.error("写入 AI 调用明细失败，丢弃: requestId={}, userId={}, totalTokens={}",
+                        record.getRequestId(), record.getUserId(), record.getTotalTokens(), e);
+            }
+        }
+        if (failed > 0) {
+            log.error("逐条写入 AI 调用明细完成，失败条数: {}/{}", failed, records.size());
+        }
+    }
+
+    private static int nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    /** 队列中的一条用量 */
+    private static class UsageEntry {
+        private final AiUsageRecord record;
+        private final Long openApiKeyId;
+        private final boolean success;
+        private final String clientIp;
+
+        UsageEntry(AiUsageRecord record, Long openApiKeyId, boolean success, String clientIp) {
+            this.record = record;
+            this.openApiKeyId = openApiKeyId;
+            this.success = success;
+            this.clientIp = clientIp;
+        }
+    }
+
+    /** 同一 API Key 在一批中的合并增量 */
+    private static class KeyDelta {
+        private long requests;
+        private long success;
+        private long failed;
+        private long inputTokens;
+        private long outputTokens;
+        private long totalTokens;
+        private Date lastUsedAt;
+        private String lastUsedIp;
+
+        void add(UsageEntry entry) {
+            requests++;
+            if (entry.success) {
+                success++;
+            } else {
+                failed++;
+            }
+            inputTokens += nullToZero(entry.record.getInputTokens());
+            outputTokens += nullToZero(entry.record.getOutputTokens());
+            totalTokens += nullToZero(entry.record.getTotalTokens());
+            Date usedAt = entry.record.getEndTime() != null ? entry.record.getEndTime() : new Date();
+            if (lastUsedAt == null || !usedAt.before(lastUsedAt)) {
+                lastUsedAt = usedAt;
+                lastUsedIp = entry.clientIp;
+            }
+        }
+    }
+}
@@ -1,15 +1,96 @@
 package com.ruoyi.project.ai.service.impl;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.mybatisflex.annotation.UseDataSource;
+import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.project.ai.domain.AiUsageQuota;
 import com.ruoyi.project.ai.mapper.AiUsageQuotaMapper;
 import com.ruoyi.project.ai.service.IAiUsageQuotaService;
 
+import cn.hutool.core.util.StrUtil;
+
 @Service
 @UseDataSource("MASTER")
 public class AiUsageQuotaServiceImpl extends ServiceImpl<AiUsageQuotaMapper, AiUsageQuota>
         implements IAiUsageQuotaService {
+
+    /**
+     * 已解析的配额规则：userId|tier|productType -> 规则（未配置时缓存空值，避免每次调用都查两次库）。
+     * 本节点增删改时整体清空，其它节点依赖过期时间兜底
+     */
+    private final Cache<String, Optional<AiUsageQuota>> resolvedCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    @Override
+    public AiUsageQuota resolveQuota(Long userId, String userTier, String productType) {
+        String key = userId + "|" + userTier + "|" + productType;
+        return resolvedCache.get(key, k -> Optional.ofNullable(loadQuota(userId, userTier, productType)))
+                .orElse(null);
+    }
+
+    private AiUsageQuota loadQuota(Long userId, String userTier, String productType) {
+        // 1. 个人专属配额
+        if (userId != null) {
+            AiUsageQuota personal = getOne(QueryWrapper.create()
+                    .where("user_id = ?", userId)
+                    .and("product_type = ?", productType)
+                    .and("enabled = 'Y'")
+                    .and("del_flag = '0'")
+                    .limit(1));
+            if (personal != null) {
+                return personal;
+            }
+        }
+
+        // 2. 等级配额
+        if (StrUtil.isNotBlank(userTier)) {
+            return getOne(QueryWrapper.create()
+                    .where("user_id IS NULL")
+                    .and("user_tier = ?", userTier)
+                    .and("product_type = ?", productType)
+                    .and("enabled = 'Y'")
+                    .and("del_flag = '0'")
+                    .limit(1));
+        }
+        return null;
+    }
+
+    @Override
+    public boolean save(AiUsageQuota entity) {
+        boolean result = super.save(entity);
+        resolvedCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean updateById(AiUsageQuota entity, boolean ignoreNulls) {
+        boolean result = super.updateById(entity, ignoreNulls);
+        resolvedCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        resolvedCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids) {
+        boolean result = super.removeByIds(ids);
+        resolvedCache.invalidateAll();
+        return result;
+    }
 }
@@ -16,12 +16,11 @@ import org.springframework.stereotype.Service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ruoyi.common.exception.ServiceException;
-import com.ruoyi.common.utils.spring.SpringUtils;
 import com.ruoyi.project.ai.domain.AiModelConfig;
-import com.ruoyi.project.ai.service.IAiModelConfigService;
+import com.ruoyi.project.ai.strategy.LangChain4jModelRegistry;
+import com.ruoyi.project.ai.tool.LangChain4jToolExecutor;
 import com.ruoyi.project.ai.tool.LangChain4jToolRegistry;
 import com.ruoyi.project.ai.util.ToolResultProcessor;
-import com.ruoyi.project.system.service.ISysConfigService;
 
 import cn.hutool.core.util.StrUtil;
 import dev.langchain4j.agent.tool.ToolSpecification;
@@ -68,11 +67,14 @@ public class LangChain4jAgentService {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @Autowired
-    private IAiModelConfigService modelConfigService;
+    private LangChain4jModelRegistry modelRegistry;
     
     @Autowired
     private LangChain4jToolRegistry toolRegistry;
 
+    @Autowired
+    private LangChain4jToolExecutor toolExecutor;
+
     // 重试配置
     private static final int MAX_RETRIES = 2;
     private static final long RETRY_DELAY_MS = 500;
@@ -293,16 +295,19 @@ public class LangChain4jAgentService {
 
     private ChatExecutionResult executeChatWithMessagesDetailed(ChatModel chatModel, List<ChatMessage> messages,
             List<String> availableTools, boolean allowRecovery) throws Exception {
-        // 构建聊天请求
-        ChatRequest.Builder requestBuilder = ChatRequest.builder().messages(messages);
-        
-        // 如果有工具，添加工具规范
-        if (availableTools != null && !availableTools.isEmpty()) {
-            List<ToolSpecification> toolSpecs = toolRegistry.getToolSpecifications(availableTools);
-            requestBuilder.toolSpecifications(toolSpecs);
-        }
-        
-        ChatRequest chatRequest = requestBuilder.build();
+        long deadlineMillis = System.currentTimeMillis() + CHAT_WITH_TOOLS_TIMEOUT.toMillis();
+        return executeChatWithMessagesDetailed(chatModel, messages, availableTools, allowRecovery, deadlineMillis);
+    }
+
+    /**
+     * 执行聊天并递归处理工具调用，deadlineMillis 为整轮工具调用的时间预算
+     */
+    private ChatExecutionResult executeChatWithMessagesDetailed(ChatModel chatModel, List<ChatMessage> messages,
+            List<String> availableTools, boolean allowRecovery, long deadlineMillis) throws Exception {
+        // 构建聊天请求；有工具且时间预算未用尽时添加工具规范
+        ChatRequest.Builder requestBuilder = ChatRequest.builder();
+        boolean toolsEnabled = applyToolSpecifications(requestBuilder, messages, availableTools, deadlineMillis);
+        ChatRequest chatRequest = requestBuilder.messages(messages).build();
         
         AtomicBoolean toolInvoked = new AtomicBoolean(false);
         AtomicBoolean toolSuccessAll = new AtomicBoolean(true);
@@ -310,7 +315,7 @@ public class LangChain4jAgentService {
         ChatResponse completeResponse = chatModel.chat(chatRequest);
         if (completeResponse != null && completeResponse.aiMessage() != null) {
             AiMessage aiMessage = completeResponse.aiMessage();
-            if (aiMessage.hasToolExecutionRequests()) {
+            if (toolsEnabled && aiMessage.hasToolExecutionRequests()) {
                 log.debug("模型触发工具调用: toolCount={}, tools={}",
                     aiMessage.toolExecutionRequests().size(),
                     aiMessage.toolExecutionRequests().stream()
@@ -318,34 +323,32 @@ public class LangChain4jAgentService {
                         .collect(Collectors.joining(",")));
                 messages.add(aiMessage);
 
-                aiMessage.toolExecutionRequests().forEach(toolRequest -> {
-                    try {
-                        log.debug("执行工具: name={}, argsLength={}, argsSnippet={}",
-                            toolRequest.name(),
-                            toolRequest.arguments() != null ? toolRequest.arguments().length() : 0,
-                            abbreviate(toolRequest.arguments(), 300));
-                        String result = toolRegistry.executeTool(toolRequest.name(), toolRequest.arguments());
-                        toolInvoked.set(true);
-                        if (!ToolResultProcessor.isSuccess(result)) {
-                            toolSuccessAll.set(false);
-                        }
-                        if (result == null) {
-                            result = "{\"success\":false,\"operationType\":\"unknown\",\"message\":\"工具返回null\"}";
-                            log.warn("工具返回null结果: {}, 已转换为失败格式", toolRequest.name());
-                        }
-                        messages.add(ToolExecutionResultMessage.from(toolRequest, result));
-                        log.debug("工具调用成功: name={}, resultLength={}, resultSnippet={}",
-                                toolRequest.name(),
-                                result != null ? result.length() : 0,
-                                abbreviate(result, 500));
-                    } catch (Exception e) {
-                        log.error("工具调用失败: {}", e.getMessage(), e);
-                        String errorResult = "{\"success\":false,\"operationType\":\"error\",\"message\":\"工具调用失败: " + e.getMessage() + "\"}";
-                        messages.add(ToolExecutionResultMessage.from(toolRequest, errorResult));
+                List<ToolExecutionRequest> toolRequests = aiMessage.toolExecutionRequests();
+                toolRequests.forEach(toolRequest -> log.debug("执行工具: name={}, argsLength={}, argsSnippet={}",
+                        toolRequest.name(),
+                        toolRequest.arguments() != null ? toolRequest.arguments().length() : 0,
+                        abbreviate(toolRequest.arguments(), 300)));
+                // 同一条消息中的工具调用相互独立，并行执行，结果按原顺序回填
+                List<String> results = toolExecutor.executeAll(toolRequests, deadlineMillis);
+                for (int i = 0; i < toolRequests.size(); i++) {
+                    ToolExecutionRequest toolRequest = toolRequests.get(i);
+                    String result = results.get(i);
+                    toolInvoked.set(true);
+                    if (!ToolResultProcessor.isSuccess(result)) {
+                        toolSuccessAll.set(false);
                     }
-                });
+                    if (result == null) {
+                        result = "{\"success\":false,\"operationType\":\"unknown\",\"message\":\"工具返回null\"}";
+                        log.warn("工具返回null结果: {}, 已转换为失败格式", toolRequest.name());
+                    }
+                    messages.add(ToolExecutionResultMessage.from(toolRequest, result));
+                    log.debug("工具调用完成: name={}, resultLength={}, resultSnippet={}",
+                            toolRequest.name(),
+                            result.length(),
+                            abbreviate(result, 500));
+                }
 
-                return executeChatWithMessagesDetailed(chatModel, messages, availableTools, allowRecovery);
+                return executeChatWithMessagesDetailed(chatModel, messages, availableTools, allowRecovery, deadlineMillis);
             }
         }
 
@@ -359,7 +362,7 @@ public class LangChain4jAgentService {
                 && allowRecovery) {
             log.warn("模型返回 TOOL_EXECUTION_FAILED 但工具执行均成功，触发一次恢复重试");
             messages.add(SystemMessage.from("工具均已成功返回，请继续完成任务。禁止返回TOOL_EXECUTION_FAILED。"));
-            return executeChatWithMessagesDetailed(chatModel, messages, availableTools, false);
+            return executeChatWithMessagesDetailed(chatModel, messages, availableTools, false, deadlineMillis);
         }
         log.debug("模型最终响应: length={}, snippet={}",
                 response != null ? response.length() : 0,
@@ -642,18 +645,45 @@ public class LangChain4jAgentService {
         }
     }
 
+    /**
+     * 有可用工具且工具调用时间预算未用尽时添加工具规范；预算已用尽时不再提供工具，
+     * 并提示模型根据已有结果直接作答，使本轮对话在下一次模型调用后结束
+     *
+     * @return 本次请求是否提供了工具
+     */
+    private boolean applyToolSpecifications(ChatRequest.Builder requestBuilder, List<ChatMessage> messages,
+            List<String> availableTools, long deadlineMillis) {
+        if (availableTools == null || availableTools.isEmpty()) {
+            return false;
+        }
+        if (System.currentTimeMillis() >= deadlineMillis) {
+            log.warn("工具调用时间预算已用尽，不再提供工具，要求模型直接作答");
+            messages.add(SystemMessage.from("工具调用时间已用尽，请不要再调用工具，直接根据已有信息给出最终回答。"));
+            return false;
+        }
+        requestBuilder.toolSpecifications(toolRegistry.getToolSpecifications(availableTools));
+        return true;
+    }
+
     private void streamChatWithMessagesDetailed(StreamingChatModel streamingChatModel, List<ChatMessage> messages,
                                       List<String> availableTools, Consumer<String> onToken,
                                       Consumer<ChatExecutionResult> onComplete, Consumer<Throwable> onError) {
-        try {
-            ChatRequest.Builder requestBuilder = ChatRequest.builder().messages(messages);
-
-            if (availableTools != null && !availableTools.isEmpty()) {
-                List<ToolSpecification> toolSpecs = toolRegistry.getToolSpecifications(availableTools);
-                requestBuilder.toolSpecifications(toolSpecs);
-            }
+        long deadlineMillis = System.currentTimeMillis() + CHAT_WITH_TOOLS_TIMEOUT.toMillis();
+        streamChatWithMessagesDetailed(streamingChatModel, messages, availableTools, onToken, onComplete, onError,
+                deadlineMillis);
+    }
 
-            ChatRequest chatRequest = requestBuilder.build();
+    /**
+     * 执行流式聊天并递归处理工具调用，deadlineMillis 为整轮工具调用的时间预算
+     */
+    private void streamChatWithMessagesDetailed(StreamingChatModel streamingChatModel, List<ChatMessage> messages,
+                                      List<String> availableTools, Consumer<String> onToken,
+                                      Consumer<ChatExecutionResult> onComplete, Consumer<Throwable> onError,
+                                      long deadlineMillis) {
+        try {
+            ChatRequest.Builder requestBuilder = ChatRequest.builder();
+            boolean toolsEnabled = applyToolSpecifications(requestBuilder, messages, availableTools, deadlineMillis);
+            ChatRequest chatRequest = requestBuilder.messages(messages).build();
 
             streamingChatModel.chat(chatRequest, new StreamingChatResponseHandler() {
                 @Override
@@ -673,21 +703,18 @@ public class LangChain4jAgentService {
                     try {
                         if (completeResponse != null && completeResponse.aiMessage() != null) {
                             AiMessage aiMessage = completeResponse.aiMessage();
-                            if (aiMessage.hasToolExecutionRequests()) {
+                            if (toolsEnabled && aiMessage.hasToolExecutionRequests()) {
                                 messages.add(aiMessage);
 
-                                aiMessage.toolExecutionRequests().forEach(toolRequest -> {
-                                    try {
-                                        String result = toolRegistry.executeTool(toolRequest.name(), toolRequest.arguments());
-                                        messages.add(ToolExecutionResultMessage.from(toolRequest, result));
-                                        log.debug("工具调用成功: {} -> {}", toolRequest.name(), result);
-                                    } catch (Exception e) {
-                                        log.error("工具调用失败: {}", e.getMessage(), e);
-                                        messages.add(ToolExecutionResultMessage.from(toolRequest, "工具调用失败: " + e.getMessage()));
-                                    }
-                                });
-
-                                streamChatWithMessagesDetailed(streamingChatModel, messages, availableTools, onToken, onComplete, onError);
+                                List<ToolExecutionRequest> toolRequests = aiMessage.toolExecutionRequests();
+                                List<String> results = toolExecutor.executeAll(toolRequests, deadlineMillis);
+                                for (int i = 0; i < toolRequests.size(); i++) {
+                                    messages.add(ToolExecutionResultMessage.from(toolRequests.get(i), results.get(i)));
+                                    log.debug("工具调用完成: {} -> {}", toolRequests.get(i).name(), results.get(i));
+                                }
+
+                                streamChatWithMessagesDetailed(streamingChatModel, messages, availableTools, onToken,
+                                        onComplete, onError, deadlineMillis);
                                 return;
                             }
                         }
@@ -727,8 +754,9 @@ public class LangChain4jAgentService {
      */
     private StreamingChatModel getStreamingChatModel(Long modelConfigId) {
         try {
-            AiModelConfig config = getModelConfig(modelConfigId);
-            return createStreamingChatModelFromConfig(config);
+            AiModelConfig config = modelRegistry.getModelConfig(modelConfigId);
+            return modelRegistry.getOrBuild("streaming", config, CHAT_TIMEOUT,
+                    () -> createStreamingChatModelFromConfig(config));
         } catch (Exception e) {
             log.error("获取StreamingChatModel失败: {}", e.getMessage(), e);
             throw new ServiceException("获取StreamingChatModel失败: " + e.getMessage());
@@ -757,30 +785,15 @@ public class LangChain4jAgentService {
      */
     private ChatModel getChatModel(Long modelConfigId, Duration timeout) {
         try {
-            AiModelConfig config = getModelConfig(modelConfigId);
-            return createChatModelFromConfig(config, timeout);
+            AiModelConfig config = modelRegistry.getModelConfig(modelConfigId);
+            return modelRegistry.getOrBuild("chat", config, timeout,
+                    () -> createChatModelFromConfig(config, timeout));
         } catch (Exception e) {
             log.error("获取ChatModel失败: {}", e.getMessage(), e);
             throw new ServiceException("获取ChatModel失败: " + e.getMessage());
         }
     }
     
-    /**
-     * 获取并验证模型配置
-     */
-    private AiModelConfig getModelConfig(Long modelConfigId) {
-        AiModelConfig config = modelConfigService.getById(modelConfigId);
-        if (config == null) {
-            throw new ServiceException("模型配置不存在: " + modelConfigId);
-        }
-        
-        if (!"Y".equals(config.getEnabled())) {
-            throw new ServiceException("模型配置已禁用: " + modelConfigId);
-        }
-        
-        return config;
-    }
-    
     /**
      * 根据配置创建StreamingChatModel
      */
@@ -804,7 +817,8 @@ public class LangChain4jAgentService {
                     .timeout(CHAT_TIMEOUT)
                     .logRequests(false)
                     .logResponses(true)
-                    .customHeaders(Collections.singletonMap("Accept-Charset", "utf-8"));
+                    .customHeaders(Collections.singletonMap("Accept-Charset", "utf-8"))
+                    .httpClientBuilder(modelRegistry.httpClientBuilder(endpoint));
 
             if (StrUtil.isNotBlank(endpoint)) {
                 builder.baseUrl(endpoint);
@@ -849,7 +863,8 @@ public class LangChain4jAgentService {
                     .timeout(timeout != null ? timeout : CHAT_TIMEOUT)
                     .logRequests(false)
                     .logResponses(true)
-                    .customHeaders(Collections.singletonMap("Accept-Charset", "utf-8"));
+                    .customHeaders(Collections.singletonMap("Accept-Charset", "utf-8"))
+                    .httpClientBuilder(modelRegistry.httpClientBuilder(endpoint));
 
             if (StrUtil.isNotBlank(endpoint)) {
                 builder.baseUrl(endpoint);
@@ -1005,46 +1020,6 @@ public class LangChain4jAgentService {
     }
 
     private String resolveApiKey(AiModelConfig config) {
-        if (config == null) {
-            return null;
-        }
-        String apiKeyRef = config.getApiKeyRef();
-        if (StrUtil.isNotBlank(apiKeyRef)) {
-            String keyName = apiKeyRef;
-            if (StrUtil.startWithIgnoreCase(apiKeyRef, "env:")) {
-                keyName = apiKeyRef.substring(4);
-                String value = System.getenv(keyName);
-                if (StrUtil.isNotBlank(value)) {
-                    return value;
-                }
-            } else if (StrUtil.startWithIgnoreCase(apiKeyRef, "config:")) {
-                keyName = apiKeyRef.substring(7);
-                String value = SpringUtils.getBean(ISysConfigService.class).selectConfigByKey(keyName);
-                if (StrUtil.isNotBlank(value)) {
-                    return value;
-                }
-            } else if (StrUtil.startWithIgnoreCase(apiKeyRef, "sys:")) {
-                keyName = apiKeyRef.substring(4);
-                String value = System.getProperty(keyName);
-                if (StrUtil.isNotBlank(value)) {
-                    return value;
-                }
-            } else {
-                String envValue = System.getenv(keyName);
-                if (StrUtil.isNotBlank(envValue)) {
-                    return envValue;
-                }
-                String propertyValue = System.getProperty(keyName);
-                if (StrUtil.isNotBlank(propertyValue)) {
-                    return propertyValue;
-                }
-                String configValue = SpringUtils.getBean(ISysConfigService.class).selectConfigByKey(keyName);
-                if (StrUtil.isNotBlank(configValue)) {
-                    return configValue;
-                }
-            }
-            log.warn("模型配置 apiKeyRef 未解析到有效密钥，回退到明文apiKey: configId={}, ref={}", config.getId(), apiKeyRef);
-        }
-        return config.getApiKey();
+        return modelRegistry.resolveApiKey(config);
     }
 }
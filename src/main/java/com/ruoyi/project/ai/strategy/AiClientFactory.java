@@ -1,15 +1,18 @@
 package com.ruoyi.project.ai.strategy;
 
+import com.ruoyi.common.utils.spring.SpringUtils;
 import com.ruoyi.project.ai.domain.AiModelConfig;
 import com.ruoyi.project.ai.strategy.impl.LangChainGenericClientStrategy;
 
 /**
  * 策略工厂：根据配置创建具体策略实现
+ * 策略实例无状态，按配置ID与配置指纹复用，配置变更后自动重建
  */
 public class AiClientFactory {
 
     public static AiClientStrategy fromConfig(AiModelConfig cfg) {
         // 统一走 LangChain4j 通用策略，传递完整的配置对象
-        return new LangChainGenericClientStrategy(cfg);
+        return SpringUtils.getBean(LangChain4jModelRegistry.class)
+                .getOrBuild("strategy", cfg, null, () -> new LangChainGenericClientStrategy(cfg));
     }
 }
\ No newline at end of file
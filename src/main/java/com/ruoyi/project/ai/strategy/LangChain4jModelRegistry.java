@@ -0,0 +1,351 @@
+package com.ruoyi.project.ai.strategy;
+
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.project.ai.domain.AiModelConfig;
+import com.ruoyi.project.ai.mapper.AiModelConfigMapper;
+import com.ruoyi.project.system.service.ISysConfigService;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.jdk.JdkHttpClient;
+
+/**
+ * LangChain4j 模型注册表
+ * 按「模型配置ID + 配置指纹」缓存已构建的 ChatModel / StreamingChatModel / 策略实例，
+ * 同一 baseUrl 共享一个 JDK HttpClient（连接池），配置修改后自动失效重建。
+ * 指纹包含 apiKeyRef 解析出的密钥摘要，参数或环境中的密钥轮换后下次使用即重建。
+ *
+ * @author ruoyi
+ */
+@Component
+public class LangChain4jModelRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(LangChain4jModelRegistry.class);
+
+    /** 配置快照的回源校验间隔，用于感知其它节点对配置的修改 */
+    private static final long CONFIG_REVALIDATE_MS = 30_000L;
+
+    /** 共享连接池的建连超时 */
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(15);
+
+    /** 未配置 endpoint 时（走 OpenAI 默认地址）共享连接池的键 */
+    private static final String DEFAULT_BASE_URL = "default";
+
+    @Autowired
+    private AiModelConfigMapper modelConfigMapper;
+
+    @Autowired
+    private ISysConfigService sysConfigService;
+
+    /** 配置快照：configId -> snapshot */
+    private final Map<Long, ConfigSnapshot> configCache = new ConcurrentHashMap<>();
+
+    /** 已构建的模型/策略：type:configId:timeout -> entry */
+    private final Map<String, CachedModel> modelCache = new ConcurrentHashMap<>();
+
+    /** 共享连接池：baseUrl -> JDK HttpClient */
+    private final Map<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+
+    /**
+     * 获取模型配置（带本地快照），并校验是否启用
+     *
+     * @param modelConfigId 模型配置ID
+     * @return 模型配置
+     */
+    public AiModelConfig getModelConfig(Long modelConfigId) {
+        if (modelConfigId == null) {
+            throw new ServiceException("模型配置ID不能为空");
+        }
+        ConfigSnapshot snapshot = configCache.get(modelConfigId);
+        if (snapshot == null || snapshot.isStale()) {
+            snapshot = reloadConfig(modelConfigId, snapshot);
+        }
+        AiModelConfig config = snapshot.config;
+        if (config == null) {
+            throw new ServiceException("模型配置不存在: " + modelConfigId);
+        }
+        if (!"Y".equals(config.getEnabled())) {
+            throw new ServiceException("模型配置已禁用: " + modelConfigId);
+        }
+        return config;
+    }
+
+    /**
+     * 获取或构建模型实例
+     *
+     * @param type 模型类型标识（chat、streaming、strategy 等）
+     * @param config 模型配置
+     * @param timeout 超时时间，参与缓存键；可为空
+     * @param factory 缓存未命中或配置已变化时的构建逻辑
+     * @return 模型实例
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrBuild(String type, AiModelConfig config, Duration timeout, Supplier<T> factory) {
+        if (config == null || config.getId() == null) {
+            // 临时配置（未入库）不缓存
+            return factory.get();
+        }
+        String key = type + ":" + config.getId() + ":" + (timeout != null ? timeout.toMillis() : 0);
+        // 密钥可能引用参数或环境变量，按解析结果参与指纹，轮换后重建
+        String fingerprint = fingerprint(config) + ":" + DigestUtil.md5Hex(StrUtil.nullToEmpty(lookupApiKeyRef(config)));
+        CachedModel entry = modelCache.compute(key, (k, existing) -> {
+            if (existing != null && existing.fingerprint.equals(fingerprint)) {
+                return existing;
+            }
+            if (existing != null) {
+                log.info("模型配置已变更，重建模型实例: key={}", k);
+            }
+            return new CachedModel(fingerprint, factory.get());
+        });
+        return (T) entry.instance;
+    }
+
+    /**
+     * 获取共享连接池的 HttpClientBuilder。
+     * 每次调用返回新的 builder（模型构建时会写入超时参数），但底层 JDK HttpClient 按 baseUrl 复用。
+     *
+     * @param baseUrl 模型 endpoint，可为空
+     * @return HttpClientBuilder
+     */
+    public HttpClientBuilder httpClientBuilder(String baseUrl) {
+        String key = StrUtil.isNotBlank(baseUrl) ? StrUtil.removeSuffix(baseUrl.trim(), "/") : DEFAULT_BASE_URL;
+        HttpClient shared = httpClients.computeIfAbsent(key, k -> {
+            log.info("创建模型共享连接池: baseUrl={}", k);
+            return HttpClient.newBuilder()
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .build();
+        });
+        return JdkHttpClient.builder().httpClientBuilder(new SharedHttpClientBuilder(shared));
+    }
+
+    /**
+     * 使指定配置的快照与模型实例失效
+     *
+     * @param modelConfigId 模型配置ID
+     */
+    public void evict(Long modelConfigId) {
+        if (modelConfigId == null) {
+            return;
+        }
+        configCache.remove(modelConfigId);
+        String marker = ":" + modelConfigId + ":";
+        modelCache.keySet().removeIf(key -> key.contains(marker));
+        log.info("已清除模型缓存: configId={}", modelConfigId);
+    }
+
+    /**
+     * 批量失效
+     *
+     * @param modelConfigIds 模型配置ID集合
+     */
+    public void evict(Collection<? extends java.io.Serializable> modelConfigIds) {
+        if (modelConfigIds == null) {
+            return;
+        }
+        for (java.io.Serializable id : modelConfigIds) {
+            if (id != null) {
+                evict(Long.valueOf(id.toString()));
+            }
+        }
+    }
+
+    /**
+     * 清空全部缓存（连接池保留）
+     */
+    public void evictAll() {
+        configCache.clear();
+        modelCache.clear();
+        log.info("已清空全部模型缓存");
+    }
+
+    /**
+     * 解析模型密钥：apiKeyRef 优先（env:/config:/sys: 前缀，或依次查环境变量、系统属性、参数），
+     * 未解析到时回退到明文 apiKey
+     *
+     * @param config 模型配置
+     * @return 密钥
+     */
+    public String resolveApiKey(AiModelConfig config) {
+        if (config == null) {
+            return null;
+        }
+        String value = lookupApiKeyRef(config);
+        if (StrUtil.isNotBlank(value)) {
+            return value;
+        }
+        if (StrUtil.isNotBlank(config.getApiKeyRef())) {
+            log.warn("模型配置 apiKeyRef 未解析到有效密钥，回退到明文apiKey: configId={}, ref={}", config.getId(),
+                    config.getApiKeyRef());
+        }
+        return config.getApiKey();
+    }
+
+    /**
+     * 按 apiKeyRef 查找密钥，未配置或未解析到时返回 null
+     */
+    private String lookupApiKeyRef(AiModelConfig config) {
+        String apiKeyRef = config.getApiKeyRef();
+        if (StrUtil.isBlank(apiKeyRef)) {
+            return null;
+        }
+        String value;
+        if (StrUtil.startWithIgnoreCase(apiKeyRef, "env:")) {
+            value = System.getenv(apiKeyRef.substring(4));
+        } else if (StrUtil.startWithIgnoreCase(apiKeyRef, "config:")) {
+            value = sysConfigService.selectConfigByKey(apiKeyRef.substring(7));
+        } else if (StrUtil.startWithIgnoreCase(apiKeyRef, "sys:")) {
+            value = System.getProperty(apiKeyRef.substring(4));
+        } else {
+            value = System.getenv(apiKeyRef);
+            if (StrUtil.isBlank(value)) {
+                value = System.getProperty(apiKeyRef);
+            }
+            if (StrUtil.isBlank(value)) {
+                value = sysConfigService.selectConfigByKey(apiKeyRef);
+            }
+        }
+        return StrUtil.isNotBlank(value) ? value : null;
+    }
+
+    private ConfigSnapshot reloadConfig(Long modelConfigId, ConfigSnapshot previous) {
+        AiModelConfig config = modelConfigMapper.selectOneById(modelConfigId);
+        ConfigSnapshot snapshot = new ConfigSnapshot(config, config != null ? fingerprint(config) : "");
+        if (previous != null && !previous.fingerprint.equals(snapshot.fingerprint)) {
+            String marker = ":" + modelConfigId + ":";
+            modelCache.keySet().removeIf(key -> key.contains(marker));
+            log.info("检测到模型配置变更，已清除旧实例: configId={}", modelConfigId);
+        }
+        configCache.put(modelConfigId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * 配置指纹：更新时间 + 影响模型构建的字段摘要
+     */
+    private String fingerprint(AiModelConfig config) {
+        String content = StrUtil.join("|",
+                config.getUpdateTime() != null ? config.getUpdateTime().getTime() : 0,
+                config.getProvider(),
+                config.getModel(),
+                config.getEndpoint(),
+                config.getApiKey(),
+                config.getApiKeyRef(),
+                config.getExtraParams(),
+                config.getToolCallDelay(),
+                config.getEnabled(),
+                config.getStatus());
+        return DigestUtil.md5Hex(content);
+    }
+
+    private static class ConfigSnapshot {
+        private final AiModelConfig config;
+        private final String fingerprint;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private ConfigSnapshot(AiModelConfig config, String fingerprint) {
+            this.config = config;
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isStale() {
+            return System.currentTimeMillis() - loadedAt > CONFIG_REVALIDATE_MS;
+        }
+    }
+
+    private static class CachedModel {
+        private final String fingerprint;
+        private final Object instance;
+
+        private CachedModel(String fingerprint, Object instance) {
+            this.fingerprint = fingerprint;
+            this.instance = instance;
+        }
+    }
+
+    /**
+     * 始终返回同一个 JDK HttpClient 的 Builder，使多个模型实例共用连接池。
+     * LangChain4j 构建时写入的建连超时等参数在共享实例上忽略。
+     */
+    private static class SharedHttpClientBuilder implements HttpClient.Builder {
+        private final HttpClient shared;
+
+        private SharedHttpClientBuilder(HttpClient shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public HttpClient.Builder cookieHandler(CookieHandler cookieHandler) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder connectTimeout(Duration duration) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder sslContext(SSLContext sslContext) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder sslParameters(SSLParameters sslParameters) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder executor(Executor executor) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder followRedirects(HttpClient.Redirect policy) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder version(HttpClient.Version version) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder priority(int priority) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder proxy(ProxySelector proxySelector) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder authenticator(Authenticator authenticator) {
+            return this;
+        }
+
+        @Override
+        public HttpClient build() {
+            return shared;
+        }
+    }
+}
@@ -12,14 +12,13 @@ import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.mybatisflex.core.row.Db;
-import com.mybatisflex.core.row.Row;
 import com.ruoyi.common.utils.spring.SpringUtils;
 
 import com.ruoyi.project.ai.domain.AiModelConfig;
+import com.ruoyi.project.ai.service.IAiSchemaMetadataService;
 import com.ruoyi.project.ai.strategy.AiClientStrategy;
+import com.ruoyi.project.ai.strategy.LangChain4jModelRegistry;
 import com.ruoyi.project.ai.tool.LangChain4jToolRegistry;
-import com.ruoyi.project.system.service.ISysConfigService;
 
 import cn.hutool.core.util.StrUtil;
 import dev.langchain4j.agent.tool.ToolSpecification;
@@ -54,6 +53,9 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
     // 注入工具注册器
     private final LangChain4jToolRegistry toolRegistry;
 
+    // 模型注册表（提供按 baseUrl 共享的连接池）
+    private final LangChain4jModelRegistry modelRegistry;
+
     // 速率限制重试配置
     private static final int MAX_RETRY_ATTEMPTS = 10;
     private static final long INITIAL_RETRY_DELAY_MS = 3000; // 3秒
@@ -66,6 +68,7 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
         this.endpoint = endpoint;
         this.apiKey = apiKey;
         this.toolCallDelay = null; // 不设置默认延时
+        this.modelRegistry = SpringUtils.getBean(LangChain4jModelRegistry.class);
         this.chatModel = buildChatModel();
         this.streamingChatModel = buildStreamingChatModel();
         // 初始化工具注册器
@@ -76,6 +79,7 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
         this.provider = config.getProvider();
         this.model = config.getModel();
         this.endpoint = config.getEndpoint();
+        this.modelRegistry = SpringUtils.getBean(LangChain4jModelRegistry.class);
         this.apiKey = resolveApiKey(config);
         this.toolCallDelay = config.getToolCallDelay(); // 直接使用配置值，可能为空
         this.chatModel = buildChatModel();
@@ -85,44 +89,7 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
     }
 
     private String resolveApiKey(AiModelConfig config) {
-        String apiKeyRef = config.getApiKeyRef();
-        if (StrUtil.isNotBlank(apiKeyRef)) {
-            String keyName = apiKeyRef;
-            if (StrUtil.startWithIgnoreCase(apiKeyRef, "env:")) {
-                keyName = apiKeyRef.substring(4);
-                String value = System.getenv(keyName);
-                if (StrUtil.isNotBlank(value)) {
-                    return value;
-                }
-            } else if (StrUtil.startWithIgnoreCase(apiKeyRef, "config:")) {
-                keyName = apiKeyRef.substring(7);
-                String value = SpringUtils.getBean(ISysConfigService.class).selectConfigByKey(keyName);
-                if (StrUtil.isNotBlank(value)) {
-                    return value;
-                }
-            } else if (StrUtil.startWithIgnoreCase(apiKeyRef, "sys:")) {
-                keyName = apiKeyRef.substring(4);
-                String value = System.getProperty(keyName);
-                if (StrUtil.isNotBlank(value)) {
-                    return value;
-                }
-            } else {
-                String envValue = System.getenv(keyName);
-                if (StrUtil.isNotBlank(envValue)) {
-                    return envValue;
-                }
-                String propertyValue = System.getProperty(keyName);
-                if (StrUtil.isNotBlank(propertyValue)) {
-                    return propertyValue;
-                }
-                String configValue = SpringUtils.getBean(ISysConfigService.class).selectConfigByKey(keyName);
-                if (StrUtil.isNotBlank(configValue)) {
-                    return configValue;
-                }
-            }
-            log.warn("模型配置 apiKeyRef 未解析到有效密钥，回退到明文apiKey: configId={}, ref={}", config.getId(), apiKeyRef);
-        }
-        return config.getApiKey();
+        return modelRegistry.resolveApiKey(config);
     }
 
     /**
@@ -335,11 +302,13 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
                         .apiKey(apiKey)
                         .modelName(model)
                         .baseUrl(endpoint)
+                        .httpClientBuilder(modelRegistry.httpClientBuilder(endpoint))
                         .build();
             } else {
                 return OpenAiChatModel.builder()
                         .apiKey(apiKey)
                         .modelName(model)
+                        .httpClientBuilder(modelRegistry.httpClientBuilder(null))
                         .build();
             }
         } catch (Exception e) {
@@ -360,6 +329,7 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
                         .logRequests(false)
                         .logResponses(false)
                         .customHeaders(Collections.singletonMap("Accept-Charset", "utf-8"))
+                        .httpClientBuilder(modelRegistry.httpClientBuilder(endpoint))
                         .build();
             } else {
                 return OpenAiStreamingChatModel.builder()
@@ -369,6 +339,7 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
                         .logRequests(false)
                         .logResponses(true)
                         .customHeaders(Collections.singletonMap("Accept-Charset", "utf-8"))
+                        .httpClientBuilder(modelRegistry.httpClientBuilder(null))
                         .build();
             }
         } catch (Exception e) {
@@ -460,10 +431,9 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
      */
     private String buildEnhancedSystemPrompt(String originalPrompt) {
         try {
-            // 获取AI可访问的表列表
-            Row configRow = Db.selectOneBySql("SELECT config_value FROM sys_config WHERE config_key = ?", "ai.database.allowed_tables");
-            String allowedTables = configRow != null ? configRow.getString("config_value") : null;
-            if (StrUtil.isBlank(allowedTables)) {
+            // 获取AI可访问的表列表（表结构由元数据服务缓存，不在调用路径上查询 information_schema）
+            IAiSchemaMetadataService schemaMetadataService = SpringUtils.getBean(IAiSchemaMetadataService.class);
+            if (StrUtil.isBlank(schemaMetadataService.getAllowedTables())) {
                 return originalPrompt;
             }
 
@@ -490,15 +460,7 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
             enhancedPrompt.append("=== 数据库表结构信息 ===\n");
             enhancedPrompt.append("以下是你可以查询的数据库表详细结构信息。请仔细阅读每个表的字段定义、数据类型、业务含义和约束条件：\n\n");
 
-            // 解析允许的表列表
-            String[] tables = allowedTables != null ? allowedTables.split(",") : new String[0];
-            for (String tableName : tables) {
-                tableName = tableName.trim();
-                if (StrUtil.isNotBlank(tableName)) {
-                    String tableStructure = getTableStructure(tableName);
-                    enhancedPrompt.append(tableStructure);
-                }
-            }
+            enhancedPrompt.append(schemaMetadataService.getSchemaPrompt());
 
             enhancedPrompt.append("=== 表关系说明 ===\n");
             enhancedPrompt.append("**主要表关系：**\n");
@@ -585,178 +547,6 @@ public class LangChainGenericClientStrategy implements AiClientStrategy {
         }
     }
 
-    /**
-     * 获取表结构信息（结构化格式）
-     */
-    private String getTableStructure(String tableName) {
-        try {
-            StringBuilder structure = new StringBuilder();
-            
-            // 获取表注释
-            Row tableInfo = Db.selectOneBySql(
-                "SELECT table_comment FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?", 
-                tableName
-            );
-            String tableComment = tableInfo != null ? tableInfo.getString("table_comment") : "";
-            
-            structure.append("**表名：").append(tableName);
-            if (StrUtil.isNotBlank(tableComment)) {
-                structure.append("（").append(tableComment).append("）");
-            }
-            structure.append("**\n");
-            
-            // 获取字段信息
-            List<Row> columns = Db.selectListBySql(
-                "SELECT column_name, data_type, is_nullable, column_default, column_comment, " +
-                "column_key, extra FROM information_schema.columns " +
-                "WHERE table_schema = DATABASE() AND table_name = ? ORDER BY ordinal_position", 
-                tableName
-            );
-            
-            if (columns.isEmpty()) {
-                structure.append("  无法获取字段信息\n");
-                return structure.toString();
-            }
-            
-            structure.append("字段列表：\n");
-            for (Row column : columns) {
-                String columnName = column.getString("column_name");
-                String dataType = column.getString("data_type");
-                String isNullable = column.getString("is_nullable");
-                String columnDefault = column.getString("column_default");
-                String columnComment = column.getString("column_comment");
-                String columnKey = column.getString("column_key");
-                String extra = column.getString("extra");
-                
-                structure.append("  - `").append(columnName).append("` (").append(dataType).append(")");
-                
-                // 添加主键标识
-                if ("PRI".equals(columnKey)) {
-                    structure.append(" [主键]");
-                }
-                
-                // 添加自增标识
-                if (StrUtil.isNotBlank(extra) && extra.contains("auto_increment")) {
-                    structure.append(" [自增]");
-                }
-                
-                // 添加非空标识
-                if ("NO".equals(isNullable)) {
-                    structure.append(" [非空]");
-                }
-                
-                // 添加默认值
-                if (StrUtil.isNotBlank(columnDefault)) {
-                    structure.append(" [默认值: ").append(columnDefault).append("]");
-                }
-                
-                // 添加字段注释和业务含义
-                if (StrUtil.isNotBlank(columnComment)) {
-                    structure.append(" - ").append(columnComment);
-                }
-                
-                // 添加常见字段的业务含义说明
-                addFieldBusinessMeaning(structure, columnName, dataType);
-                
-                structure.append("\n");
-            }
-            
-            structure.append("\n");
-            return structure.toString();
-            
-        } catch (Exception e) {
-            log.error("获取表 {} 结构信息失败: {}", tableName, e.getMessage(), e);
-            return "**表名：" + tableName + "**\n  获取表结构失败: " + e.getMessage() + "\n\n";
-        }
-    }
-
-    /**
-     * 为常见字段添加业务含义说明
-     */
-    private void addFieldBusinessMeaning(StringBuilder structure, String columnName, String dataType) {
-        if (columnName == null) return;
-        
-        String lowerName = columnName.toLowerCase();
-        
-        // 状态字段
-        if ("status".equals(lowerName)) {
-            structure.append(" [状态: '0'=正常, '1'=停用]");
-        }
-        // 删除标志
-        else if ("del_flag".equals(lowerName)) {
-            structure.append(" [删除标志: '0'=正常, '2'=删除]");
-        }
-        // 性别字段
-        else if ("sex".equals(lowerName)) {
-            structure.append(" [性别: '0'=男, '1'=女, '2'=未知]");
-        }
-        // 用户类型
-        else if ("user_type".equals(lowerName)) {
-            structure.append(" [用户类型: '00'=系统用户]");
-        }
-        // 菜单类型
-        else if ("menu_type".equals(lowerName)) {
-            structure.append(" [菜单类型: 'M'=目录, 'C'=菜单, 'F'=按钮]");
-        }
-        // 是否框架
-        else if ("is_frame".equals(lowerName)) {
-            structure.append(" [是否外链: '0'=否, '1'=是]");
-        }
-        // 是否缓存
-        else if ("is_cache".equals(lowerName)) {
-            structure.append(" [是否缓存: '0'=缓存, '1'=不缓存]");
-        }
-        // 显示状态
-        else if ("visible".equals(lowerName)) {
-            structure.append(" [显示状态: '0'=显示, '1'=隐藏]");
-        }
-        // 角色权限
-        else if ("data_scope".equals(lowerName)) {
-            structure.append(" [数据范围: '1'=全部, '2'=自定义, '3'=本部门, '4'=本部门及以下, '5'=仅本人]");
-        }
-        // 通知类型
-        else if ("notice_type".equals(lowerName)) {
-            structure.append(" [公告类型: '1'=通知, '2'=公告]");
-        }
-        // 操作类型
-        else if ("oper_type".equals(lowerName)) {
-            structure.append(" [操作类型: 数字代码对应不同操作]");
-        }
-        // 业务类型
-        else if ("business_type".equals(lowerName)) {
-            structure.append(" [业务类型: 数字代码对应不同业务]");
-        }
-        // 时间字段说明
-        else if (lowerName.contains("time") && ("datetime".equals(dataType) || "timestamp".equals(dataType))) {
-            if ("create_time".equals(lowerName)) {
-                structure.append(" [创建时间]");
-            } else if ("update_time".equals(lowerName)) {
-                structure.append(" [更新时间]");
-            } else if ("login_date".equals(lowerName)) {
-                structure.append(" [最后登录时间]");
-            }
-        }
-        // 创建者和更新者
-        else if ("create_by".equals(lowerName)) {
-            structure.append(" [创建者]");
-        }
-        else if ("update_by".equals(lowerName)) {
-            structure.append(" [更新者]");
-        }
-        // 排序字段
-        else if (lowerName.contains("sort") || lowerName.contains("order")) {
-            structure.append(" [排序字段: 数字越小越靠前]");
-        }
-        // IP地址
-        else if (lowerName.contains("ip")) {
-            structure.append(" [IP地址]");
-        }
-        // 备注字段
-        else if ("remark".equals(lowerName)) {
-            structure.append(" [备注信息]");
-        }
-    }
-    
     /**
      * 解析工具参数
      */
@@ -0,0 +1,30 @@
+package com.ruoyi.project.ai.task;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.ai.service.IAiSchemaMetadataService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AI 可查询表结构版本检查任务
+ * 启动后预热表结构缓存，之后定期比对结构版本，表结构变化时重新加载
+ */
+@Slf4j
+@Component
+public class AiSchemaVersionCheckTask {
+
+    @Autowired
+    private IAiSchemaMetadataService schemaMetadataService;
+
+    @Scheduled(fixedDelayString = "${ruoyi.ai-schema.check-interval-ms:300000}", initialDelay = 10000)
+    public void execute() {
+        try {
+            schemaMetadataService.checkSchemaVersion();
+        } catch (Exception e) {
+            log.error("AI 可查询表结构版本检查失败，将在下次执行时重试", e);
+        }
+    }
+}
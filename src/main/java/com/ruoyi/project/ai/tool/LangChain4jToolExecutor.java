@@ -0,0 +1,126 @@
+package com.ruoyi.project.ai.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+
+/**
+ * LangChain4j工具并行执行器
+ * 同一条模型消息中的多个工具调用互不依赖，在有界线程池中并行执行；
+ * 单个工具受超时限制，整轮对话的时间预算用尽时取消未完成的调用，结果按原始顺序返回。
+ *
+ * @author ruoyi-magic
+ */
+@Component
+public class LangChain4jToolExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(LangChain4jToolExecutor.class);
+
+    @Autowired
+    private LangChain4jToolRegistry toolRegistry;
+
+    @Autowired
+    @Qualifier("aiToolTaskExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    /** 单个工具调用超时（秒） */
+    @Value("${ruoyi.thread-pool.ai-tool.timeout-seconds:60}")
+    private long toolTimeoutSeconds;
+
+    /**
+     * 并行执行一组工具调用
+     *
+     * @param requests 模型返回的工具调用请求
+     * @param deadlineMillis 本轮对话的截止时间（epoch 毫秒），小于等于0表示不限制
+     * @return 与 requests 一一对应的执行结果，失败或超时时为统一失败格式
+     */
+    public List<String> executeAll(List<ToolExecutionRequest> requests, long deadlineMillis) {
+        List<String> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+        if (isExpired(deadlineMillis)) {
+            requests.forEach(request -> results.add(budgetExhausted(request)));
+            return results;
+        }
+
+        long toolTimeoutMs = TimeUnit.SECONDS.toMillis(toolTimeoutSeconds);
+        List<Future<String>> futures = new ArrayList<>(requests.size());
+        List<Long> startTimes = new ArrayList<>(requests.size());
+        for (ToolExecutionRequest request : requests) {
+            startTimes.add(System.currentTimeMillis());
+            try {
+                futures.add(executor.submit(() -> toolRegistry.executeTool(request.name(), request.arguments())));
+            } catch (TaskRejectedException e) {
+                log.warn("工具线程池已关闭，改为同步执行: name={}", request.name());
+                futures.add(CompletableFuture.completedFuture(
+                        toolRegistry.executeTool(request.name(), request.arguments())));
+            }
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            ToolExecutionRequest request = requests.get(i);
+            Future<String> future = futures.get(i);
+            long waitUntil = startTimes.get(i) + toolTimeoutMs;
+            boolean budgetLimited = deadlineMillis > 0 && deadlineMillis < waitUntil;
+            if (budgetLimited) {
+                waitUntil = deadlineMillis;
+            }
+            long remaining = Math.max(waitUntil - System.currentTimeMillis(), 0);
+            try {
+                results.add(future.get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                if (budgetLimited) {
+                    results.add(budgetExhausted(request));
+                } else {
+                    log.warn("工具执行超时: name={}, timeout={}s", request.name(), toolTimeoutSeconds);
+                    results.add(ToolExecutionResult.failure("operation",
+                            "工具执行超时(" + toolTimeoutSeconds + "s): " + request.name()));
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("工具调用失败: name={}, error={}", request.name(), cause.getMessage(), cause);
+                results.add(ToolExecutionResult.failure("error", "工具调用失败: " + cause.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelRemaining(futures, i);
+                for (int j = i; j < requests.size(); j++) {
+                    results.add(ToolExecutionResult.failure("error", "工具调用被中断: " + requests.get(j).name()));
+                }
+                return results;
+            }
+        }
+        return results;
+    }
+
+    private boolean isExpired(long deadlineMillis) {
+        return deadlineMillis > 0 && System.currentTimeMillis() >= deadlineMillis;
+    }
+
+    private String budgetExhausted(ToolExecutionRequest request) {
+        log.warn("对话时间预算已用尽，取消工具调用: name={}", request.name());
+        return ToolExecutionResult.failure("operation", "对话时间预算已用尽，工具调用已取消: " + request.name());
+    }
+
+    private void cancelRemaining(List<Future<String>> futures, int from) {
+        for (int i = from; i < futures.size(); i++) {
+            futures.get(i).cancel(true);
+        }
+    }
+}
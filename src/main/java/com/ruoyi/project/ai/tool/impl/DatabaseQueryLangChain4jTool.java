@@ -5,10 +5,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.mybatisflex.core.row.Db;
 import com.mybatisflex.core.row.Row;
+import com.ruoyi.project.ai.service.IAiSchemaMetadataService;
 import com.ruoyi.project.ai.tool.LangChain4jTool;
 import com.ruoyi.project.ai.tool.ToolExecutionResult;
 
@@ -31,6 +33,9 @@ public class DatabaseQueryLangChain4jTool implements LangChain4jTool {
     private static final Pattern DANGEROUS_SQL_PATTERN = Pattern.compile(
         "(?i).*\\b(drop|delete|truncate|alter|create\\s+table|create\\s+database|create\\s+index|create\\s+view|insert|update|grant|revoke|exec|execute|xp_|sp_)\\b.*"
     );
+
+    @Autowired
+    private IAiSchemaMetadataService schemaMetadataService;
     
     @Override
     public String getToolName() {
@@ -42,8 +47,7 @@ public class DatabaseQueryLangChain4jTool implements LangChain4jTool {
         String description = "执行数据库查询并返回结果。";
         try {
             // 获取AI可访问的表列表
-            Row configRow = Db.selectOneBySql("SELECT config_value FROM sys_config WHERE config_key = ?", "ai.database.allowed_tables");
-            String allowedTables = configRow != null ? configRow.getString("config_value") : null;
+            String allowedTables = schemaMetadataService.getAllowedTables();
             if (StrUtil.isNotBlank(allowedTables)) {
                 description += "允许查询的表包括：" + allowedTables + "。";
             }
@@ -0,0 +1,146 @@
+package com.ruoyi.project.ai.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译的提示词模板
+ * 模板文本只在编译时扫描一次，拆成“字面量 / 变量”片段；渲染时按片段顺序拼接，不再重复做正则匹配。
+ * 占位符格式与 {@link PromptVariableProcessor} 一致：{{variable_name}}，变量名两端空白会被忽略，
+ * 变量不存在时保留原占位符。
+ *
+ * @author ruoyi-magic
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String source;
+
+    /** 片段：literal 非空表示字面量，否则为变量 */
+    private final List<Segment> segments;
+
+    private final List<String> variableNames;
+
+    /** 字面量总长度，用于预估渲染结果容量 */
+    private final int literalLength;
+
+    private PromptTemplate(String source, List<Segment> segments, List<String> variableNames, int literalLength) {
+        this.source = source;
+        this.segments = segments;
+        this.variableNames = variableNames;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * 编译模板文本
+     *
+     * @param source 模板文本
+     * @return 编译后的模板
+     */
+    public static PromptTemplate compile(String source) {
+        if (source == null || source.isEmpty()) {
+            return new PromptTemplate(source, Collections.emptyList(), Collections.emptyList(), 0);
+        }
+        List<Segment> segments = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        int literalLength = 0;
+        int cursor = 0;
+        int literalStart = 0;
+        while (cursor < source.length()) {
+            int open = source.indexOf(OPEN, cursor);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                break;
+            }
+            String inner = source.substring(open + OPEN.length(), close);
+            // 与原正则 \{\{([^}]+)\}\} 保持一致：变量名非空且不含 '}'
+            if (inner.isEmpty() || inner.indexOf('}') >= 0) {
+                cursor = open + 1;
+                continue;
+            }
+            if (open > literalStart) {
+                String literal = source.substring(literalStart, open);
+                segments.add(Segment.literal(literal));
+                literalLength += literal.length();
+            }
+            String name = inner.trim();
+            segments.add(Segment.variable(name, source.substring(open, close + CLOSE.length())));
+            names.add(name);
+            cursor = close + CLOSE.length();
+            literalStart = cursor;
+        }
+        if (literalStart < source.length()) {
+            String literal = source.substring(literalStart);
+            segments.add(Segment.literal(literal));
+            literalLength += literal.length();
+        }
+        return new PromptTemplate(source, Collections.unmodifiableList(segments),
+                Collections.unmodifiableList(new ArrayList<>(names)), literalLength);
+    }
+
+    /**
+     * 渲染模板
+     *
+     * @param variables 变量映射表
+     * @return 渲染结果
+     */
+    public String render(Map<String, Object> variables) {
+        if (variableNames.isEmpty() || variables == null || variables.isEmpty()) {
+            return source;
+        }
+        StringBuilder builder = new StringBuilder(literalLength + variableNames.size() * 64);
+        for (Segment segment : segments) {
+            if (segment.literal != null) {
+                builder.append(segment.literal);
+                continue;
+            }
+            Object value = variables.get(segment.variable);
+            builder.append(value != null ? value.toString() : segment.placeholder);
+        }
+        return builder.toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 模板中出现的变量名（去重，保持出现顺序）
+     */
+    public List<String> getVariableNames() {
+        return variableNames;
+    }
+
+    public boolean hasVariables() {
+        return !variableNames.isEmpty();
+    }
+
+    private static final class Segment {
+        private final String literal;
+        private final String variable;
+        private final String placeholder;
+
+        private Segment(String literal, String variable, String placeholder) {
+            this.literal = literal;
+            this.variable = variable;
+            this.placeholder = placeholder;
+        }
+
+        static Segment literal(String text) {
+            return new Segment(text, null, null);
+        }
+
+        static Segment variable(String name, String placeholder) {
+            return new Segment(null, name, placeholder);
+        }
+    }
+}
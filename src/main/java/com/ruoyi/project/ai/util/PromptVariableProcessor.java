@@ -1,8 +1,9 @@
 package com.ruoyi.project.ai.util;
 
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import cn.hutool.core.util.StrUtil;
 
@@ -16,9 +17,25 @@ import cn.hutool.core.util.StrUtil;
 public class PromptVariableProcessor {
     
     /**
-     * 变量占位符正则表达式：匹配 {{variable_name}} 格式
+     * 已编译模板缓存：模板文本 -> 编译结果，按文本长度计权，总量约 4M 字符
      */
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^}]+)\\}\\}");
+    private static final Cache<String, PromptTemplate> TEMPLATE_CACHE = Caffeine.newBuilder()
+            .maximumWeight(4L * 1024 * 1024)
+            .weigher((String text, PromptTemplate template) -> text.length())
+            .build();
+
+    /**
+     * 获取模板文本对应的编译结果（相同文本只编译一次）
+     *
+     * @param userPrompt 用户提示词模板
+     * @return 编译后的模板
+     */
+    public static PromptTemplate compile(String userPrompt) {
+        if (userPrompt == null) {
+            return PromptTemplate.compile(null);
+        }
+        return TEMPLATE_CACHE.get(userPrompt, PromptTemplate::compile);
+    }
     
     /**
      * 处理用户提示词中的变量占位符
@@ -32,20 +49,8 @@ public class PromptVariableProcessor {
             return userPrompt;
         }
         
-        Matcher matcher = VARIABLE_PATTERN.matcher(userPrompt);
-        StringBuffer result = new StringBuffer();
-        
-        while (matcher.find()) {
-            String variableName = matcher.group(1).trim();
-            Object variableValue = variables.get(variableName);
-            
-            // 如果变量存在，则替换；否则保留原占位符
-            String replacement = variableValue != null ? variableValue.toString() : matcher.group(0);
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
-        }
-        
-        matcher.appendTail(result);
-        return result.toString();
+        // 如果变量存在，则替换；否则保留原占位符
+        return compile(userPrompt).render(variables);
     }
     
     /**
@@ -58,7 +63,7 @@ public class PromptVariableProcessor {
         if (StrUtil.isBlank(userPrompt)) {
             return false;
         }
-        return VARIABLE_PATTERN.matcher(userPrompt).find();
+        return compile(userPrompt).hasVariables();
     }
     
     /**
@@ -72,17 +77,7 @@ public class PromptVariableProcessor {
             return new String[0];
         }
         
-        Matcher matcher = VARIABLE_PATTERN.matcher(userPrompt);
-        java.util.List<String> variableNames = new java.util.ArrayList<>();
-        
-        while (matcher.find()) {
-            String variableName = matcher.group(1).trim();
-            if (!variableNames.contains(variableName)) {
-                variableNames.add(variableName);
-            }
-        }
-        
-        return variableNames.toArray(new String[0]);
+        return compile(userPrompt).getVariableNames().toArray(new String[0]);
     }
     
     /**
@@ -2,13 +2,20 @@ package com.ruoyi.project.ai.workflow;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
@@ -17,15 +24,19 @@ import org.springframework.stereotype.Component;
 import org.yaml.snakeyaml.Yaml;
 
 import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.project.ai.util.PromptTemplate;
 import com.ruoyi.project.ai.workflow.definition.FileWorkflowDefinition;
 import com.ruoyi.project.ai.workflow.definition.FileWorkflowStepDefinition;
 
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 从 classpath 加载文件化工作流定义，仅用于管理端查询展示。
+ * 步骤提示词首次使用时读取并编译为 {@link PromptTemplate}，按路径缓存；
+ * 配置 ruoyi.ai-prompt.reload-check-ms 后按该间隔检查文件修改时间，内容摘要变化时重新编译（开发环境使用）。
  */
 @Slf4j
 @Component
@@ -35,11 +46,17 @@ public class FileWorkflowDefinitionLoader {
 
     private final Map<String, FileWorkflowDefinition> workflows = new LinkedHashMap<>();
     private final Map<Long, String> legacyIdIndex = new LinkedHashMap<>();
+    private final Map<String, CachedPrompt> promptCache = new ConcurrentHashMap<>();
+
+    /** 提示词文件变更检查间隔（毫秒），0 表示只加载一次 */
+    @Value("${ruoyi.ai-prompt.reload-check-ms:0}")
+    private long promptReloadCheckMs;
 
     @PostConstruct
     public void load() {
         workflows.clear();
         legacyIdIndex.clear();
+        promptCache.clear();
 
         PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
         try {
@@ -55,6 +72,8 @@ public class FileWorkflowDefinitionLoader {
                     if (StrUtil.isBlank(definition.getId())) {
                         throw new ServiceException("文件化工作流缺少id: " + resource.getFilename());
                     }
+                    resolveDependencies(definition);
+                    definition.setHash(definitionHash(definition));
                     workflows.put(definition.getId(), definition);
                     for (Long legacyWorkflowId : definition.getLegacyWorkflowIds()) {
                         legacyIdIndex.put(legacyWorkflowId, definition.getId());
@@ -90,21 +109,62 @@ public class FileWorkflowDefinitionLoader {
     }
 
     public String loadPrompt(String promptPath) {
+        return loadPromptTemplate(promptPath).getSource();
+    }
+
+    /**
+     * 获取编译后的提示词模板
+     *
+     * @param promptPath 提示词路径（可省略 ai-prompts/ 前缀）
+     * @return 编译后的模板
+     */
+    public PromptTemplate loadPromptTemplate(String promptPath) {
         if (StrUtil.isBlank(promptPath)) {
             throw new ServiceException("文件化工作流步骤缺少prompt配置");
         }
         String normalizedPath = promptPath.startsWith("ai-prompts/")
                 ? promptPath
                 : "ai-prompts/" + promptPath;
+        CachedPrompt cached = promptCache.get(normalizedPath);
+        if (cached != null && (promptReloadCheckMs <= 0
+                || System.currentTimeMillis() - cached.checkedAt < promptReloadCheckMs)) {
+            return cached.template;
+        }
+        return promptCache.compute(normalizedPath, this::readPrompt).template;
+    }
+
+    private CachedPrompt readPrompt(String normalizedPath, CachedPrompt previous) {
         ClassPathResource resource = new ClassPathResource(normalizedPath);
         if (!resource.exists()) {
             throw new ServiceException("提示词文件不存在: " + normalizedPath);
         }
+        long lastModified = lastModified(resource);
+        long now = System.currentTimeMillis();
+        if (previous != null && lastModified > 0 && previous.lastModified == lastModified) {
+            return new CachedPrompt(previous.template, previous.contentHash, lastModified, now);
+        }
+        String content;
         try (InputStream inputStream = resource.getInputStream()) {
-            return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+            content = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new ServiceException("读取提示词文件失败: " + normalizedPath + ", " + e.getMessage());
         }
+        String contentHash = contentHash(content);
+        if (previous != null && previous.contentHash.equals(contentHash)) {
+            return new CachedPrompt(previous.template, contentHash, lastModified, now);
+        }
+        if (previous != null) {
+            log.info("提示词文件已变更，重新编译: {}", normalizedPath);
+        }
+        return new CachedPrompt(PromptTemplate.compile(content), contentHash, lastModified, now);
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (Exception e) {
+            return 0L;
+        }
     }
 
     public List<Map<String, Object>> listManagementSummaries() {
@@ -143,6 +203,7 @@ public class FileWorkflowDefinitionLoader {
             stepInfo.put("tools", step.getTools());
             stepInfo.put("input", step.getInput());
             stepInfo.put("output", step.getOutput());
+            stepInfo.put("dependsOn", step.getDependsOn());
             stepInfo.put("retry", step.getRetry());
             stepInfo.put("emptyPolicy", step.getEmptyPolicy());
             stepInfo.put("failurePolicy", step.getFailurePolicy());
@@ -220,12 +281,83 @@ public class FileWorkflowDefinitionLoader {
         step.setTools(asStringList(source.get("tools")));
         step.setInput(asStringList(source.get("input")));
         step.setOutput(asString(source.get("output")));
+        step.setDependsOn(new ArrayList<>(asStringList(source.get("dependsOn"))));
         step.setRetry(asInteger(source.get("retry"), 0));
         step.setEmptyPolicy(defaultString(source.get("emptyPolicy"), "fail"));
         step.setFailurePolicy(defaultString(source.get("failurePolicy"), "fail"));
         return step;
     }
 
+    /**
+     * 把 input 引用的输出解析为生产该输出的步骤，与显式 dependsOn 合并，并校验依赖存在且无环
+     */
+    private void resolveDependencies(FileWorkflowDefinition definition) {
+        Map<String, FileWorkflowStepDefinition> stepIndex = new LinkedHashMap<>();
+        Map<String, String> producers = new HashMap<>();
+        for (FileWorkflowStepDefinition step : definition.getSteps()) {
+            if (StrUtil.isBlank(step.getId()) || stepIndex.putIfAbsent(step.getId(), step) != null) {
+                throw new ServiceException("文件化工作流步骤id为空或重复: " + definition.getId() + "." + step.getId());
+            }
+            if (StrUtil.isNotBlank(step.getOutput())) {
+                producers.put(step.getOutput(), step.getId());
+            }
+        }
+        for (FileWorkflowStepDefinition step : definition.getSteps()) {
+            Set<String> dependsOn = new LinkedHashSet<>(step.getDependsOn());
+            for (String input : step.getInput()) {
+                // 未由任何步骤产出的 input 视为外部输入参数
+                String producer = producers.get(input);
+                if (producer != null && !producer.equals(step.getId())) {
+                    dependsOn.add(producer);
+                }
+            }
+            for (String dependency : dependsOn) {
+                if (!stepIndex.containsKey(dependency)) {
+                    throw new ServiceException("文件化工作流步骤依赖不存在: " + definition.getId() + "."
+                            + step.getId() + " -> " + dependency);
+                }
+            }
+            step.setDependsOn(new ArrayList<>(dependsOn));
+        }
+        Set<String> visited = new HashSet<>();
+        for (String stepId : stepIndex.keySet()) {
+            checkCycle(definition, stepIndex, stepId, visited, new LinkedHashSet<>());
+        }
+    }
+
+    private void checkCycle(FileWorkflowDefinition definition, Map<String, FileWorkflowStepDefinition> stepIndex,
+            String stepId, Set<String> visited, Set<String> path) {
+        if (visited.contains(stepId)) {
+            return;
+        }
+        if (!path.add(stepId)) {
+            throw new ServiceException("文件化工作流步骤存在循环依赖: " + definition.getId() + " " + path + " -> " + stepId);
+        }
+        for (String dependency : stepIndex.get(stepId).getDependsOn()) {
+            checkCycle(definition, stepIndex, dependency, visited, path);
+        }
+        path.remove(stepId);
+        visited.add(stepId);
+    }
+
+    private String definitionHash(FileWorkflowDefinition definition) {
+        return contentHash(JSONUtil.toJsonStr(definition));
+    }
+
+    private String contentHash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < Math.min(hash.length, 8); i++) {
+                builder.append(String.format("%02x", hash[i]));
+            }
+            return builder.toString();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
     private String asString(Object value) {
         return value == null ? null : String.valueOf(value);
     }
@@ -299,4 +431,21 @@ public class FileWorkflowDefinitionLoader {
         result.add(asLong(value));
         return result;
     }
+
+    /**
+     * 已缓存的提示词：编译结果、内容摘要、文件修改时间与上次检查时间
+     */
+    private static final class CachedPrompt {
+        private final PromptTemplate template;
+        private final String contentHash;
+        private final long lastModified;
+        private final long checkedAt;
+
+        private CachedPrompt(PromptTemplate template, String contentHash, long lastModified, long checkedAt) {
+            this.template = template;
+            this.contentHash = contentHash;
+            this.lastModified = lastModified;
+            this.checkedAt = checkedAt;
+        }
+    }
 }
@@ -1,17 +1,22 @@
 package com.ruoyi.project.ai.workflow;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import com.ruoyi.common.exception.ServiceException;
-import com.ruoyi.project.ai.util.PromptVariableProcessor;
 import com.ruoyi.project.ai.util.ToolResultProcessor;
 import com.ruoyi.project.ai.workflow.definition.FileWorkflowDefinition;
 import com.ruoyi.project.ai.workflow.definition.FileWorkflowStepDefinition;
@@ -23,6 +28,9 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * 文件化工作流执行引擎，不依赖废弃的工作流数据表。
+ * <p>
+ * 步骤按依赖图调度（加载时由 input/output 与 dependsOn 解析），所有前置步骤结束后即可执行，
+ * 同时就绪的步骤在 aiWorkflowTaskExecutor 上并行运行；每个步骤保留各自的重试与失败策略。
  */
 @Slf4j
 @Service
@@ -31,12 +39,15 @@ public class FileWorkflowEngine {
     private final FileWorkflowDefinitionLoader definitionLoader;
     private final AiGateway aiGateway;
     private final BlogCoverWorkflowHandler blogCoverWorkflowHandler;
+    private final ThreadPoolTaskExecutor stepExecutor;
 
     public FileWorkflowEngine(FileWorkflowDefinitionLoader definitionLoader, AiGateway aiGateway,
-            BlogCoverWorkflowHandler blogCoverWorkflowHandler) {
+            BlogCoverWorkflowHandler blogCoverWorkflowHandler,
+            @Qualifier("aiWorkflowTaskExecutor") ThreadPoolTaskExecutor stepExecutor) {
         this.definitionLoader = definitionLoader;
         this.aiGateway = aiGateway;
         this.blogCoverWorkflowHandler = blogCoverWorkflowHandler;
+        this.stepExecutor = stepExecutor;
     }
 
     public boolean supports(String workflowKey) {
@@ -85,22 +96,83 @@ public class FileWorkflowEngine {
         output.put("workflowKey", definition.getId());
         output.put("workflowName", definition.getName());
         output.put("workflowVersion", definition.getVersion());
-        output.put("workflowHash", definitionHash(definition));
+        output.put("workflowHash", definition.getHash());
 
         try {
-            for (FileWorkflowStepDefinition step : definition.getSteps()) {
-                executeStep(definition, step, context, output);
-            }
+            executeGraph(definition, context, output);
             output.put("status", "completed");
             return output;
         } catch (Exception e) {
-            output.put("status", "failed");
-            output.put("errorMessage", e.getMessage());
-            log.error("文件化工作流执行失败: workflow={}, output={}", definition.getId(), JSONUtil.toJsonStr(output), e);
+            synchronized (output) {
+                output.put("status", "failed");
+                output.put("errorMessage", e.getMessage());
+                log.error("文件化工作流执行失败: workflow={}, output={}", definition.getId(), JSONUtil.toJsonStr(output), e);
+            }
             throw e instanceof ServiceException ? (ServiceException) e : new ServiceException(e.getMessage());
         }
     }
 
+    /**
+     * 按依赖图调度步骤：入度为 0 的步骤提交线程池，每完成一个步骤就释放其下游。
+     * 某步骤失败（failurePolicy 非 continue）后不再提交新步骤，等待已在执行的步骤结束后抛出该异常。
+     */
+    private void executeGraph(FileWorkflowDefinition definition, Map<String, Object> context,
+            Map<String, Object> output) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<FileWorkflowStepDefinition>> dependents = new HashMap<>();
+        List<FileWorkflowStepDefinition> ready = new ArrayList<>();
+        for (FileWorkflowStepDefinition step : definition.getSteps()) {
+            pending.put(step.getId(), step.getDependsOn().size());
+            for (String dependency : step.getDependsOn()) {
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(step);
+            }
+            if (step.getDependsOn().isEmpty()) {
+                ready.add(step);
+            }
+        }
+
+        CompletionService<String> completionService = new ExecutorCompletionService<>(stepExecutor);
+        int running = 0;
+        RuntimeException failure = null;
+        while (!ready.isEmpty() || running > 0) {
+            if (failure == null) {
+                for (FileWorkflowStepDefinition step : ready) {
+                    completionService.submit(() -> {
+                        executeStep(definition, step, context, output);
+                        return step.getId();
+                    });
+                    running++;
+                }
+            }
+            ready.clear();
+            if (running == 0) {
+                break;
+            }
+            try {
+                Future<String> done = completionService.take();
+                running--;
+                String stepId = done.get();
+                for (FileWorkflowStepDefinition next : dependents.getOrDefault(stepId, List.of())) {
+                    if (pending.merge(next.getId(), -1, Integer::sum) == 0) {
+                        ready.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceException("文件化工作流执行被中断: " + definition.getId());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new ServiceException(e.getCause().getMessage());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     private void executeStep(FileWorkflowDefinition definition, FileWorkflowStepDefinition step,
             Map<String, Object> context, Map<String, Object> output) {
         long start = System.currentTimeMillis();
@@ -111,8 +183,10 @@ public class FileWorkflowEngine {
             try {
                 log.info("执行文件化工作流步骤: workflow={}, step={}, handler={}, attempt={}/{}",
                         definition.getId(), step.getId(), step.getHandler(), attempt, maxAttempts);
-                String result = executeStepBody(definition, step, context);
-                handleStepResult(step, context, output, result, System.currentTimeMillis() - start, attempt);
+                String result = executeStepBody(definition, step, snapshot(context));
+                synchronized (output) {
+                    handleStepResult(step, context, output, result, System.currentTimeMillis() - start, attempt);
+                }
                 return;
             } catch (Exception e) {
                 lastError = e;
@@ -125,23 +199,33 @@ public class FileWorkflowEngine {
         }
 
         if ("continue".equalsIgnoreCase(step.getFailurePolicy())) {
-            output.put(step.getId(), Map.of(
-                    "status", "skipped",
-                    "message", lastError != null ? lastError.getMessage() : "步骤失败但已跳过"));
+            synchronized (output) {
+                output.put(step.getId(), Map.of(
+                        "status", "skipped",
+                        "message", lastError != null ? lastError.getMessage() : "步骤失败但已跳过"));
+            }
             return;
         }
         throw new ServiceException("文件化工作流步骤失败: " + step.getName() + ", "
                 + (lastError != null ? lastError.getMessage() : "未知错误"));
     }
 
+    /**
+     * 步骤执行期间读取上下文副本，并行步骤写回结果时不影响正在渲染提示词的其它步骤
+     */
+    private Map<String, Object> snapshot(Map<String, Object> context) {
+        synchronized (context) {
+            return new LinkedHashMap<>(context);
+        }
+    }
+
     private String executeStepBody(FileWorkflowDefinition definition, FileWorkflowStepDefinition step,
             Map<String, Object> context) {
         if (StrUtil.isNotBlank(step.getHandler())) {
             return executeDeterministicHandler(step, context);
         }
 
-        String promptTemplate = definitionLoader.loadPrompt(step.getPrompt());
-        String userPrompt = PromptVariableProcessor.processVariables(promptTemplate, context);
+        String userPrompt = definitionLoader.loadPromptTemplate(step.getPrompt()).render(context);
         String systemPrompt = buildSystemPrompt(definition, step);
         Long modelConfigId = step.getModelConfigId() != null ? step.getModelConfigId() : definition.getModelConfigId();
         if (modelConfigId == null) {
@@ -195,7 +279,9 @@ public class FileWorkflowEngine {
         output.put(step.getId(), stepOutput);
 
         if (StrUtil.isNotBlank(step.getOutput())) {
-            context.put(step.getOutput(), result);
+            synchronized (context) {
+                context.put(step.getOutput(), result);
+            }
             output.put(step.getOutput(), result);
         }
     }
@@ -206,18 +292,4 @@ public class FileWorkflowEngine {
                 + "当前步骤: " + step.getName() + " (" + step.getId() + ")\n"
                 + "请优先完成当前步骤目标。工具返回空数据时，根据提示词中的降级要求继续完成可完成的部分。";
     }
-
-    private String definitionHash(FileWorkflowDefinition definition) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(JSONUtil.toJsonStr(definition).getBytes(StandardCharsets.UTF_8));
-            StringBuilder builder = new StringBuilder();
-            for (int i = 0; i < Math.min(hash.length, 8); i++) {
-                builder.append(String.format("%02x", hash[i]));
-            }
-            return builder.toString();
-        } catch (Exception e) {
-            return "unknown";
-        }
-    }
 }
@@ -32,4 +32,9 @@ public class FileWorkflowDefinition {
     private List<Long> legacyWorkflowIds = new ArrayList<>();
 
     private List<FileWorkflowStepDefinition> steps = new ArrayList<>();
+
+    /**
+     * 定义内容摘要，加载时计算一次。
+     */
+    private String hash;
 }
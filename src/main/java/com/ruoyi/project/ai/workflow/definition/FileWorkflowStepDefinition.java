@@ -30,6 +30,11 @@ public class FileWorkflowStepDefinition {
 
     private String output;
 
+    /**
+     * 前置步骤 ID。加载时会并入 input 所引用输出的生产步骤，执行引擎据此并行调度无依赖的步骤。
+     */
+    private List<String> dependsOn = new ArrayList<>();
+
     private Integer retry = 0;
 
     private String emptyPolicy = "fail";
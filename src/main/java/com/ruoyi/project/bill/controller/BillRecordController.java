@@ -3,7 +3,6 @@ package com.ruoyi.project.bill.controller;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -134,9 +133,8 @@ public class BillRecordController extends BaseController {
     @PostMapping("/export")
     public void export(HttpServletResponse response, BillRecord billRecord) {
         QueryWrapper queryWrapper = buildFlexQueryWrapper(billRecord);
-        List<BillRecord> list = billRecordService.list(queryWrapper);
         MagicExcelUtil<BillRecord> util = new MagicExcelUtil<>(BillRecord.class);
-        util.exportExcel(response, list, "账单记录数据");
+        util.exportExcel(response, "账单记录数据", billRecordService.getMapper(), queryWrapper);
     }
 
     /**
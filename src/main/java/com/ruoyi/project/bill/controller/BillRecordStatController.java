@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.ruoyi.framework.web.controller.BaseController;
 import com.ruoyi.framework.web.domain.AjaxResult;
 import com.ruoyi.project.bill.domain.BillUserProfile;
+import com.ruoyi.project.bill.service.IBillDailySummaryService;
 import com.ruoyi.project.bill.service.IBillRecordService;
 import com.ruoyi.project.bill.service.IBillUserProfileService;
 
@@ -37,6 +38,9 @@ public class BillRecordStatController extends BaseController {
     @Autowired
     private IBillUserProfileService billUserProfileService;
 
+    @Autowired
+    private IBillDailySummaryService billDailySummaryService;
+
     /**
      * 获取查询范围信息（个人或家庭组）
      * 返回Map包含：isFamilyMode(是否家庭组模式), queryId(查询ID), queryType("user"或"family")
@@ -74,49 +78,10 @@ public class BillRecordStatController extends BaseController {
         boolean isFamilyMode = (boolean) scope.get("isFamilyMode");
         Long queryId = (Long) scope.get("queryId");
 
-        // 今日统计
-        LocalDate today = LocalDate.now();
-        Map<String, BigDecimal> todayStats;
-
-        // 本月统计
-        LocalDate monthStart = today.withDayOfMonth(1);
-        Map<String, BigDecimal> monthStats;
-
-        // 本年统计
-        LocalDate yearStart = today.withDayOfYear(1);
-        Map<String, BigDecimal> yearStats;
-
-        if (isFamilyMode) {
-            // 家庭组模式：统计家庭组数据
-            todayStats = billRecordService.selectFamilyStatisticsByDateRange(queryId, today, today);
-            monthStats = billRecordService.selectFamilyStatisticsByDateRange(queryId, monthStart, today);
-            yearStats = billRecordService.selectFamilyStatisticsByDateRange(queryId, yearStart, today);
-        } else {
-            // 个人模式：统计个人数据
-            todayStats = billRecordService.selectStatisticsByDateRange(queryId, today, today);
-            monthStats = billRecordService.selectStatisticsByDateRange(queryId, monthStart, today);
-            yearStats = billRecordService.selectStatisticsByDateRange(queryId, yearStart, today);
-        }
-
-        Map<String, Object> result = new HashMap<>();
-
-        // 今日数据
-        result.put("todayExpense", todayStats.getOrDefault("totalExpense", BigDecimal.ZERO));
-        result.put("todayIncome", todayStats.getOrDefault("totalIncome", BigDecimal.ZERO));
-
-        // 本月数据
-        result.put("monthExpense", monthStats.getOrDefault("totalExpense", BigDecimal.ZERO));
-        result.put("monthIncome", monthStats.getOrDefault("totalIncome", BigDecimal.ZERO));
-
-        // 本年数据
-        result.put("yearExpense", yearStats.getOrDefault("totalExpense", BigDecimal.ZERO));
-        result.put("yearIncome", yearStats.getOrDefault("totalIncome", BigDecimal.ZERO));
-
-        // 总资产（本年收入 - 本年支出）
-        BigDecimal yearIncome = (BigDecimal) result.get("yearIncome");
-        BigDecimal yearExpense = (BigDecimal) result.get("yearExpense");
-        result.put("totalAssets", yearIncome.subtract(yearExpense));
-
+        // 今日、本月、本年统计一次查询完成
+        Map<String, Object> result = isFamilyMode
+                ? billDailySummaryService.selectOverview(queryId, null, LocalDate.now())
+                : billDailySummaryService.selectOverview(null, queryId, LocalDate.now());
         return success(result);
     }
 
@@ -199,52 +164,9 @@ public class BillRecordStatController extends BaseController {
             groupBy = "month";
         }
 
-        // 执行趋势统计SQL
-        String sql;
-        String queryField = isFamilyMode ? "family_id" : "user_id";
-
-        if ("day".equals(groupBy)) {
-            sql = "SELECT " +
-                    "DAY(record_date) as day, " +
-                    "SUM(CASE WHEN record_type = '0' THEN amount ELSE 0 END) as expense, " +
-                    "SUM(CASE WHEN record_type = '1' THEN amount ELSE 0 END) as income " +
-                    "FROM bill_record " +
-                    "WHERE " + queryField + " = ? " +
-                    "AND record_date BETWEEN ? AND ? " +
-                    "AND del_flag = '0' " +
-                    "GROUP BY DAY(record_date) " +
-                    "ORDER BY day";
-        } else {
-            sql = "SELECT " +
-                    "MONTH(record_date) as month, " +
-                    "SUM(CASE WHEN record_type = '0' THEN amount ELSE 0 END) as expense, " +
-                    "SUM(CASE WHEN record_type = '1' THEN amount ELSE 0 END) as income " +
-                    "FROM bill_record " +
-                    "WHERE " + queryField + " = ? " +
-                    "AND record_date BETWEEN ? AND ? " +
-                    "AND del_flag = '0' " +
-                    "GROUP BY MONTH(record_date) " +
-                    "ORDER BY month";
-        }
-
-        // 使用Db执行SQL查询
-        java.util.List<com.mybatisflex.core.row.Row> rows = com.mybatisflex.core.row.Db.selectListBySql(sql,
-                queryId, start, end);
-
-        // 转换为Map列表
-        java.util.List<Map<String, Object>> results = new java.util.ArrayList<>();
-        for (com.mybatisflex.core.row.Row row : rows) {
-            Map<String, Object> map = new java.util.HashMap<>();
-            if ("day".equals(groupBy)) {
-                map.put("day", row.get("day"));
-            } else {
-                map.put("month", row.get("month"));
-            }
-            map.put("expense", row.get("expense"));
-            map.put("income", row.get("income"));
-            results.add(map);
-        }
-
+        java.util.List<Map<String, Object>> results = isFamilyMode
+                ? billDailySummaryService.selectTrend(queryId, null, start, end, "day".equals(groupBy))
+                : billDailySummaryService.selectTrend(null, queryId, start, end, "day".equals(groupBy));
         return success(results);
     }
 
@@ -0,0 +1,56 @@
+package com.ruoyi.project.bill.domain;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+
+import lombok.Data;
+
+/**
+ * 账单日汇总对象 bill_daily_summary
+ * 按 家庭组 + 记账人 + 分类 + 账户 + 类型 + 日期 预聚合的金额与笔数，由账单记录增删改时增量维护
+ * 
+ * @author ruoyi
+ * @date 2026-10-17
+ */
+@Data
+@Table("bill_daily_summary")
+public class BillDailySummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 汇总ID */
+    @Id(keyType = KeyType.Auto)
+    private Long summaryId;
+
+    /** 家庭组ID（个人账单为0） */
+    private Long familyId;
+
+    /** 记账人ID */
+    private Long userId;
+
+    /** 分类ID（未分类为0） */
+    private Long categoryId;
+
+    /** 账户ID（未指定为0） */
+    private Long accountId;
+
+    /** 类型（0支出 1收入） */
+    private String recordType;
+
+    /** 统计日期 */
+    private LocalDate statDate;
+
+    /** 金额合计 */
+    private BigDecimal amount;
+
+    /** 账单笔数 */
+    private Integer recordCount;
+
+    /** 更新时间 */
+    private Date updateTime;
+}
@@ -0,0 +1,14 @@
+package com.ruoyi.project.bill.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import com.ruoyi.project.bill.domain.BillDailySummary;
+
+/**
+ * 账单日汇总Mapper接口
+ * 
+ * @author ruoyi
+ * @date 2026-10-17
+ */
+public interface BillDailySummaryMapper extends BaseMapper<BillDailySummary> {
+    // 遵循MyBatis-Flex规范，保持Mapper接口简洁，复杂查询在Service层实现
+}
@@ -0,0 +1,88 @@
+package com.ruoyi.project.bill.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.mybatisflex.core.service.IService;
+import com.ruoyi.project.bill.domain.BillDailySummary;
+import com.ruoyi.project.bill.domain.BillRecord;
+
+/**
+ * 账单日汇总Service接口
+ * 
+ * 统计范围约定：familyId 为空时按 userId 统计个人账单；familyId 不为空且 userId 为空时只统计家庭组账单；
+ * 两者都不为空时统计家庭组账单以及该用户尚未迁移的个人账单。
+ * 
+ * @author ruoyi
+ * @date 2026-10-17
+ */
+public interface IBillDailySummaryService extends IService<BillDailySummary> {
+    /**
+     * 把账单记录计入汇总（新增）
+     * 
+     * @param records 账单记录
+     */
+    void addRecords(Collection<BillRecord> records);
+
+    /**
+     * 把账单记录从汇总中扣除（删除或修改前的旧值）
+     * 
+     * @param records 账单记录
+     */
+    void subtractRecords(Collection<BillRecord> records);
+
+    /**
+     * 个人账单迁移到家庭组时同步迁移汇总
+     * 
+     * @param userId   用户ID
+     * @param familyId 家庭组ID
+     */
+    void migratePersonalToFamily(Long userId, Long familyId);
+
+    /**
+     * 按账单明细重建指定日期范围的汇总
+     * 
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @return 重建后的汇总行数
+     */
+    int rebuild(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 按账单明细全量重建汇总（按月分段执行）
+     * 
+     * @return 重建后的汇总行数
+     */
+    int rebuildAll();
+
+    /**
+     * 收支统计
+     * 
+     * @return 统计数据（totalIncome: 总收入, totalExpense: 总支出, balance: 结余）
+     */
+    Map<String, BigDecimal> selectStatistics(Long familyId, Long userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 首页概览：一次查询得到今日、本月、本年的收支
+     * 
+     * @return todayIncome/todayExpense/monthIncome/monthExpense/yearIncome/yearExpense/totalAssets
+     */
+    Map<String, Object> selectOverview(Long familyId, Long userId, LocalDate today);
+
+    /**
+     * 分类统计（含占比）
+     */
+    List<Map<String, Object>> selectCategoryStatistics(Long familyId, Long userId, String recordType,
+            LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 收支趋势
+     * 
+     * @param byDay true 按天分组（day），false 按月分组（month）
+     */
+    List<Map<String, Object>> selectTrend(Long familyId, Long userId, LocalDate startDate, LocalDate endDate,
+            boolean byDay);
+}
@@ -0,0 +1,318 @@
+package com.ruoyi.project.bill.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.ruoyi.project.bill.domain.BillDailySummary;
+import com.ruoyi.project.bill.domain.BillRecord;
+import com.ruoyi.project.bill.mapper.BillDailySummaryMapper;
+import com.ruoyi.project.bill.service.IBillDailySummaryService;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+
+/**
+ * 账单日汇总Service业务层处理
+ * 
+ * @author ruoyi
+ * @date 2026-10-17
+ */
+@Service
+public class BillDailySummaryServiceImpl extends ServiceImpl<BillDailySummaryMapper, BillDailySummary>
+                implements IBillDailySummaryService {
+        private static final Logger log = LoggerFactory.getLogger(BillDailySummaryServiceImpl.class);
+
+        /** 单条 INSERT 语句最多合并的汇总行数 */
+        private static final int UPSERT_BATCH_SIZE = 200;
+
+        private static final String UPSERT_PREFIX = "INSERT INTO bill_daily_summary "
+                        + "(family_id, user_id, category_id, account_id, record_type, stat_date, amount, record_count) VALUES ";
+
+        private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), "
+                        + "record_count = record_count + VALUES(record_count)";
+
+        private static final String REBUILD_SQL = "INSERT INTO bill_daily_summary "
+                        + "(family_id, user_id, category_id, account_id, record_type, stat_date, amount, record_count) "
+                        + "SELECT COALESCE(family_id, 0), user_id, COALESCE(category_id, 0), COALESCE(account_id, 0), "
+                        + "record_type, record_date, SUM(amount), COUNT(*) "
+                        + "FROM bill_record "
+                        + "WHERE del_flag = '0' AND user_id IS NOT NULL AND record_type IS NOT NULL "
+                        + "AND record_date BETWEEN ? AND ? "
+                        + "GROUP BY COALESCE(family_id, 0), user_id, COALESCE(category_id, 0), COALESCE(account_id, 0), "
+                        + "record_type, record_date";
+
+        @Override
+        public void addRecords(Collection<BillRecord> records) {
+                applyDelta(records, 1);
+        }
+
+        @Override
+        public void subtractRecords(Collection<BillRecord> records) {
+                applyDelta(records, -1);
+        }
+
+        /**
+         * 先在内存中按汇总维度合并增量，再以多行 INSERT ... ON DUPLICATE KEY UPDATE 累加到汇总表
+         */
+        private void applyDelta(Collection<BillRecord> records, int sign) {
+                if (CollUtil.isEmpty(records)) {
+                        return;
+                }
+                Map<List<Object>, Object[]> deltas = new LinkedHashMap<>();
+                for (BillRecord record : records) {
+                        if (record == null || record.getUserId() == null || record.getRecordType() == null
+                                        || record.getRecordDate() == null || "1".equals(record.getDelFlag())) {
+                                continue;
+                        }
+                        List<Object> key = Arrays.asList(zeroIfNull(record.getFamilyId()), record.getUserId(),
+                                        zeroIfNull(record.getCategoryId()), zeroIfNull(record.getAccountId()),
+                                        record.getRecordType(), record.getRecordDate());
+                        BigDecimal amount = record.getAmount() != null ? record.getAmount() : BigDecimal.ZERO;
+                        Object[] delta = deltas.computeIfAbsent(key, k -> new Object[] { BigDecimal.ZERO, 0 });
+                        delta[0] = ((BigDecimal) delta[0]).add(sign > 0 ? amount : amount.negate());
+                        delta[1] = (Integer) delta[1] + sign;
+                }
+                List<Map.Entry<List<Object>, Object[]>> entries = new ArrayList<>(deltas.entrySet());
+                for (List<Map.Entry<List<Object>, Object[]>> batch : CollUtil.split(entries, UPSERT_BATCH_SIZE)) {
+                        StringBuilder sql = new StringBuilder(UPSERT_PREFIX);
+                        List<Object> params = new ArrayList<>(batch.size() * 8);
+                        for (int i = 0; i < batch.size(); i++) {
+                                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?)");
+                                params.addAll(batch.get(i).getKey());
+                                params.add(batch.get(i).getValue()[0]);
+                                params.add(batch.get(i).getValue()[1]);
+                        }
+                        sql.append(UPSERT_SUFFIX);
+                        Db.insertBySql(sql.toString(), params.toArray());
+                }
+        }
+
+        @Override
+        public void migratePersonalToFamily(Long userId, Long familyId) {
+                if (userId == null || familyId == null || familyId <= 0) {
+                        return;
+                }
+                // 同一张表的 INSERT ... SELECT 由 MySQL 先物化查询结果，再合并到家庭组维度
+                Db.insertBySql("INSERT INTO bill_daily_summary "
+                                + "(family_id, user_id, category_id, account_id, record_type, stat_date, amount, record_count) "
+                                + "SELECT ?, user_id, category_id, account_id, record_type, stat_date, amount, record_count "
+                                + "FROM bill_daily_summary WHERE user_id = ? AND family_id = 0"
+                                + UPSERT_SUFFIX, familyId, userId);
+                Db.deleteBySql("DELETE FROM bill_daily_summary WHERE user_id = ? AND family_id = 0", userId);
+        }
+
+        @Override
+        public int rebuild(LocalDate startDate, LocalDate endDate) {
+                int[] rows = { 0 };
+                Db.tx(() -> {
+                        Db.deleteBySql("DELETE FROM bill_daily_summary WHERE stat_date BETWEEN ? AND ?", startDate, endDate);
+                        rows[0] = Db.insertBySql(REBUILD_SQL, startDate, endDate);
+                        return true;
+                });
+                return rows[0];
+        }
+
+        @Override
+        public int rebuildAll() {
+                Row range = Db.selectOneBySql(
+                                "SELECT MIN(record_date) AS minDate, MAX(record_date) AS maxDate FROM bill_record WHERE del_flag = '0'");
+                LocalDate min = range != null ? toLocalDate(range.get("minDate")) : null;
+                LocalDate max = range != null ? toLocalDate(range.get("maxDate")) : null;
+                if (min == null || max == null) {
+                        Db.deleteBySql("DELETE FROM bill_daily_summary");
+                        return 0;
+                }
+                // 清理明细范围之外的残留汇总
+                Db.deleteBySql("DELETE FROM bill_daily_summary WHERE stat_date < ? OR stat_date > ?", min, max);
+                int total = 0;
+                // 按月分段，避免一次性锁住整张明细表
+                for (LocalDate start = min.withDayOfMonth(1); !start.isAfter(max); start = start.plusMonths(1)) {
+                        total += rebuild(start, start.withDayOfMonth(start.lengthOfMonth()));
+                }
+                log.info("账单日汇总全量重建完成，范围 {} ~ {}，汇总行数 {}", min, max, total);
+                return total;
+        }
+
+        @Override
+        public Map<String, BigDecimal> selectStatistics(Long familyId, Long userId, LocalDate startDate,
+                        LocalDate endDate) {
+                List<Object> params = new ArrayList<>();
+                String scopeSql = scopeSql("", familyId, userId, params);
+                params.add(startDate);
+                params.add(endDate);
+                Row row = Db.selectOneBySql("SELECT "
+                                + "SUM(CASE WHEN record_type = '1' THEN amount ELSE 0 END) AS totalIncome, "
+                                + "SUM(CASE WHEN record_type = '0' THEN amount ELSE 0 END) AS totalExpense "
+                                + "FROM bill_daily_summary WHERE " + scopeSql + " AND stat_date BETWEEN ? AND ?",
+                                params.toArray());
+
+                Map<String, BigDecimal> result = new HashMap<>();
+                result.put("totalIncome", decimal(row, "totalIncome"));
+                result.put("totalExpense", decimal(row, "totalExpense"));
+                result.put("balance", result.get("totalIncome").subtract(result.get("totalExpense")));
+                return result;
+        }
+
+        @Override
+        public Map<String, Object> selectOverview(Long familyId, Long userId, LocalDate today) {
+                LocalDate monthStart = today.withDayOfMonth(1);
+                LocalDate yearStart = today.withDayOfYear(1);
+                List<Object> params = new ArrayList<>(Arrays.asList(today, today, monthStart, monthStart));
+                String scopeSql = scopeSql("", familyId, userId, params);
+                params.add(yearStart);
+                params.add(today);
+                Row row = Db.selectOneBySql("SELECT "
+                                + "SUM(CASE WHEN record_type = '1' AND stat_date = ? THEN amount ELSE 0 END) AS todayIncome, "
+                                + "SUM(CASE WHEN record_type = '0' AND stat_date = ? THEN amount ELSE 0 END) AS todayExpense, "
+                                + "SUM(CASE WHEN record_type = '1' AND stat_date >= ? THEN amount ELSE 0 END) AS monthIncome, "
+                                + "SUM(CASE WHEN record_type = '0' AND stat_date >= ? THEN amount ELSE 0 END) AS monthExpense, "
+                                + "SUM(CASE WHEN record_type = '1' THEN amount ELSE 0 END) AS yearIncome, "
+                                + "SUM(CASE WHEN record_type = '0' THEN amount ELSE 0 END) AS yearExpense "
+                                + "FROM bill_daily_summary WHERE " + scopeSql + " AND stat_date BETWEEN ? AND ?",
+                                params.toArray());
+
+                Map<String, Object> result = new HashMap<>();
+                for (String key : new String[] { "todayIncome", "todayExpense", "monthIncome", "monthExpense",
+                                "yearIncome", "yearExpense" }) {
+                        result.put(key, decimal(row, key));
+                }
+                // 总资产（本年收入 - 本年支出）
+                result.put("totalAssets", ((BigDecimal) result.get("yearIncome")).subtract((BigDecimal) result.get("yearExpense")));
+                return result;
+        }
+
+        @Override
+        public List<Map<String, Object>> selectCategoryStatistics(Long familyId, Long userId, String recordType,
+                        LocalDate startDate, LocalDate endDate) {
+                List<Object> params = new ArrayList<>();
+                String scopeSql = scopeSql("s.", familyId, userId, params);
+                params.add(recordType);
+                params.add(startDate);
+                params.add(endDate);
+                String sql = "SELECT " +
+                                "c.category_id AS categoryId, " +
+                                "c.category_name AS categoryName, " +
+                                "c.icon AS categoryIcon, " +
+                                "c.color AS categoryColor, " +
+                                "SUM(s.amount) AS amount, " +
+                                "SUM(s.record_count) AS count " +
+                                "FROM bill_daily_summary s " +
+                                "LEFT JOIN bill_category c ON s.category_id = c.category_id " +
+                                "WHERE " + scopeSql + " " +
+                                "AND s.record_type = ? " +
+                                "AND s.stat_date BETWEEN ? AND ? " +
+                                "GROUP BY c.category_id, c.category_name, c.icon, c.color " +
+                                "HAVING SUM(s.record_count) > 0 " +
+                                "ORDER BY amount DESC";
+
+                List<Row> rows = Db.selectListBySql(sql, params.toArray());
+                List<Map<String, Object>> results = new ArrayList<>();
+                if (rows == null || rows.isEmpty()) {
+                        return results;
+                }
+
+                BigDecimal totalAmount = BigDecimal.ZERO;
+                for (Row row : rows) {
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("categoryId", row.get("categoryId"));
+                        map.put("categoryName", row.get("categoryName"));
+                        map.put("categoryIcon", row.get("categoryIcon"));
+                        map.put("categoryColor", row.get("categoryColor"));
+                        map.put("amount", decimal(row, "amount"));
+                        map.put("count", Convert.toLong(row.get("count"), 0L));
+                        totalAmount = totalAmount.add((BigDecimal) map.get("amount"));
+                        results.add(map);
+                }
+
+                // 计算百分比
+                for (Map<String, Object> item : results) {
+                        BigDecimal amount = (BigDecimal) item.get("amount");
+                        if (totalAmount.compareTo(BigDecimal.ZERO) > 0) {
+                                BigDecimal percent = amount.divide(totalAmount, 4, RoundingMode.HALF_UP)
+                                                .multiply(new BigDecimal("100"));
+                                item.put("percent", percent.setScale(2, RoundingMode.HALF_UP));
+                        } else {
+                                item.put("percent", BigDecimal.ZERO);
+                        }
+                }
+                return results;
+        }
+
+        @Override
+        public List<Map<String, Object>> selectTrend(Long familyId, Long userId, LocalDate startDate, LocalDate endDate,
+                        boolean byDay) {
+                List<Object> params = new ArrayList<>();
+                String scopeSql = scopeSql("", familyId, userId, params);
+                params.add(startDate);
+                params.add(endDate);
+                String group = byDay ? "day" : "month";
+                String groupExpr = byDay ? "DAY(stat_date)" : "MONTH(stat_date)";
+                String sql = "SELECT " + groupExpr + " AS " + group + ", "
+                                + "SUM(CASE WHEN record_type = '0' THEN amount ELSE 0 END) AS expense, "
+                                + "SUM(CASE WHEN record_type = '1' THEN amount ELSE 0 END) AS income "
+                                + "FROM bill_daily_summary WHERE " + scopeSql + " AND stat_date BETWEEN ? AND ? "
+                                + "GROUP BY " + groupExpr + " ORDER BY " + group;
+
+                List<Row> rows = Db.selectListBySql(sql, params.toArray());
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (Row row : rows) {
+                        Map<String, Object> map = new HashMap<>();
+                        map.put(group, row.get(group));
+                        map.put("expense", decimal(row, "expense"));
+                        map.put("income", decimal(row, "income"));
+                        results.add(map);
+                }
+                return results;
+        }
+
+        /**
+         * 构造统计范围条件，参数按占位符顺序追加到 params
+         */
+        private static String scopeSql(String alias, Long familyId, Long userId, List<Object> params) {
+                if (familyId == null) {
+                        params.add(userId);
+                        return alias + "user_id = ?";
+                }
+                params.add(familyId);
+                if (userId == null) {
+                        return alias + "family_id = ?";
+                }
+                params.add(userId);
+                return "(" + alias + "family_id = ? OR (" + alias + "user_id = ? AND " + alias + "family_id = 0))";
+        }
+
+        private static BigDecimal decimal(Row row, String key) {
+                return row != null ? Convert.toBigDecimal(row.get(key), BigDecimal.ZERO) : BigDecimal.ZERO;
+        }
+
+        private static LocalDate toLocalDate(Object value) {
+                if (value instanceof LocalDate date) {
+                        return date;
+                }
+                if (value instanceof java.sql.Date date) {
+                        return date.toLocalDate();
+                }
+                LocalDateTime dateTime = Convert.toLocalDateTime(value);
+                return dateTime != null ? dateTime.toLocalDate() : null;
+        }
+
+        private static Long zeroIfNull(Long value) {
+                return value != null ? value : 0L;
+        }
+}
@@ -1,73 +1,119 @@
 package com.ruoyi.project.bill.service.impl;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mybatisflex.core.query.QueryWrapper;
-import com.mybatisflex.core.row.Db;
-import com.mybatisflex.core.row.Row;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.project.bill.domain.BillRecord;
 import com.ruoyi.project.bill.mapper.BillRecordMapper;
+import com.ruoyi.project.bill.service.IBillDailySummaryService;
 import com.ruoyi.project.bill.service.IBillRecordService;
 
+import cn.hutool.core.collection.CollUtil;
+
 /**
  * 账单记录Service业务层处理
  * 
+ * 增删改在同一事务内增量维护 bill_daily_summary，统计查询均读取日汇总表。
+ * 
  * @author ruoyi
  * @date 2025-12-14
  */
 @Service
 public class BillRecordServiceImpl extends ServiceImpl<BillRecordMapper, BillRecord> implements IBillRecordService {
-        @Override
-        public Map<String, BigDecimal> selectStatisticsByDateRange(Long userId, LocalDate startDate,
-                        LocalDate endDate) {
-                Map<String, BigDecimal> result = new HashMap<>();
+        @Autowired
+        private IBillDailySummaryService billDailySummaryService;
 
-                // 查询收入
-                QueryWrapper incomeQuery = QueryWrapper.create()
-                                .select("SUM(amount) as total")
-                                .from("bill_record")
-                                .eq("user_id", userId)
-                                .eq("record_type", "1")
-                                .where("record_date BETWEEN ? AND ?", startDate, endDate);
+        @Override
+        @Transactional(rollbackFor = Exception.class)
+        public boolean save(BillRecord entity) {
+                boolean saved = super.save(entity);
+                if (saved) {
+                        billDailySummaryService.addRecords(Collections.singletonList(entity));
+                }
+                return saved;
+        }
 
-                BigDecimal totalIncome = getMapper().selectObjectByQueryAs(incomeQuery, BigDecimal.class);
+        @Override
+        @Transactional(rollbackFor = Exception.class)
+        public boolean saveBatch(Collection<BillRecord> entities, int batchSize) {
+                boolean saved = super.saveBatch(entities, batchSize);
+                if (saved) {
+                        billDailySummaryService.addRecords(entities);
+                }
+                return saved;
+        }
 
-                // 查询支出
-                QueryWrapper expenseQuery = QueryWrapper.create()
-                                .select("SUM(amount) as total")
-                                .from("bill_record")
-                                .eq("user_id", userId)
-                                .eq("record_type", "0")
-                                .where("record_date BETWEEN ? AND ?", startDate, endDate);
+        @Override
+        @Transactional(rollbackFor = Exception.class)
+        public boolean updateById(BillRecord entity, boolean ignoreNulls) {
+                BillRecord before = entity.getRecordId() != null ? getMapper().selectOneById(entity.getRecordId()) : null;
+                boolean updated = super.updateById(entity, ignoreNulls);
+                if (updated && before != null) {
+                        // 先扣除旧值，再按更新后的完整记录计入
+                        billDailySummaryService.subtractRecords(Collections.singletonList(before));
+                        billDailySummaryService.addRecords(Collections.singletonList(getMapper().selectOneById(entity.getRecordId())));
+                }
+                return updated;
+        }
 
-                BigDecimal totalExpense = getMapper().selectObjectByQueryAs(expenseQuery, BigDecimal.class);
+        @Override
+        @Transactional(rollbackFor = Exception.class)
+        public boolean removeById(Serializable id) {
+                return removeByIds(Collections.singletonList(id));
+        }
 
-                result.put("totalIncome", totalIncome != null ? totalIncome : BigDecimal.ZERO);
-                result.put("totalExpense", totalExpense != null ? totalExpense : BigDecimal.ZERO);
-                result.put("balance", result.get("totalIncome").subtract(result.get("totalExpense")));
+        @Override
+        @Transactional(rollbackFor = Exception.class)
+        public boolean removeById(BillRecord entity) {
+                return entity != null && entity.getRecordId() != null && removeByIds(Collections.singletonList(entity.getRecordId()));
+        }
 
-                return result;
+        @Override
+        @Transactional(rollbackFor = Exception.class)
+        public boolean removeByIds(Collection<? extends Serializable> ids) {
+                if (CollUtil.isEmpty(ids)) {
+                        return false;
+                }
+                List<BillRecord> before = getMapper().selectListByIds(ids);
+                boolean removed = super.removeByIds(ids);
+                if (removed) {
+                        billDailySummaryService.subtractRecords(before);
+                }
+                return removed;
         }
 
-        private static final String FAMILY_SCOPE_SQL = "(family_id = ? OR (user_id = ? AND (family_id = 0 OR family_id IS NULL)))";
+        @Override
+        public Map<String, BigDecimal> selectStatisticsByDateRange(Long userId, LocalDate startDate,
+                        LocalDate endDate) {
+                return billDailySummaryService.selectStatistics(null, userId, startDate, endDate);
+        }
 
         @Override
+        @Transactional(rollbackFor = Exception.class)
         public int migratePersonalRecordsToFamily(Long userId, Long familyId) {
                 if (userId == null || familyId == null || familyId <= 0) {
                         return 0;
                 }
                 BillRecord update = new BillRecord();
                 update.setFamilyId(familyId);
-                return getMapper().updateByQuery(update, QueryWrapper.create()
+                int rows = getMapper().updateByQuery(update, QueryWrapper.create()
                                 .eq("user_id", userId)
                                 .and("(family_id = 0 OR family_id IS NULL)"));
+                if (rows > 0) {
+                        billDailySummaryService.migratePersonalToFamily(userId, familyId);
+                }
+                return rows;
         }
 
         @Override
@@ -79,97 +125,13 @@ public class BillRecordServiceImpl extends ServiceImpl<BillRecordMapper, BillRec
         @Override
         public Map<String, BigDecimal> selectFamilyStatisticsByDateRange(Long familyId, Long userId,
                         LocalDate startDate, LocalDate endDate) {
-                Map<String, BigDecimal> result = new HashMap<>();
-                String scopeSql = userId != null ? FAMILY_SCOPE_SQL : "family_id = ?";
-                Object[] incomeParams = userId != null
-                                ? new Object[] { familyId, userId, "1", startDate, endDate }
-                                : new Object[] { familyId, "1", startDate, endDate };
-                Object[] expenseParams = userId != null
-                                ? new Object[] { familyId, userId, "0", startDate, endDate }
-                                : new Object[] { familyId, "0", startDate, endDate };
-
-                QueryWrapper incomeQuery = QueryWrapper.create()
-                                .select("SUM(amount) as total")
-                                .from("bill_record")
-                                .where(scopeSql + " AND record_type = ? AND record_date BETWEEN ? AND ? AND del_flag = '0'",
-                                                incomeParams);
-
-                BigDecimal totalIncome = getMapper().selectObjectByQueryAs(incomeQuery, BigDecimal.class);
-
-                QueryWrapper expenseQuery = QueryWrapper.create()
-                                .select("SUM(amount) as total")
-                                .from("bill_record")
-                                .where(scopeSql + " AND record_type = ? AND record_date BETWEEN ? AND ? AND del_flag = '0'",
-                                                expenseParams);
-
-                BigDecimal totalExpense = getMapper().selectObjectByQueryAs(expenseQuery, BigDecimal.class);
-
-                result.put("totalIncome", totalIncome != null ? totalIncome : BigDecimal.ZERO);
-                result.put("totalExpense", totalExpense != null ? totalExpense : BigDecimal.ZERO);
-                result.put("balance", result.get("totalIncome").subtract(result.get("totalExpense")));
-
-                return result;
+                return billDailySummaryService.selectStatistics(familyId, userId, startDate, endDate);
         }
 
         @Override
         public List<Map<String, Object>> selectCategoryStatistics(Long userId, String recordType, LocalDate startDate,
                         LocalDate endDate) {
-                // 使用Db.selectListBySql执行原生SQL查询
-                String sql = "SELECT " +
-                                "c.category_id AS categoryId, " +
-                                "c.category_name AS categoryName, " +
-                                "c.icon AS categoryIcon, " +
-                                "c.color AS categoryColor, " +
-                                "SUM(r.amount) AS amount, " +
-                                "COUNT(r.record_id) AS count " +
-                                "FROM bill_record r " +
-                                "LEFT JOIN bill_category c ON r.category_id = c.category_id " +
-                                "WHERE r.user_id = ? " +
-                                "AND r.record_type = ? " +
-                                "AND r.record_date BETWEEN ? AND ? " +
-                                "AND r.del_flag = '0' " +
-                                "GROUP BY c.category_id, c.category_name, c.icon, c.color " +
-                                "ORDER BY amount DESC";
-
-                // 使用Db执行SQL查询
-                List<Row> rows = Db.selectListBySql(sql,
-                                userId, recordType, startDate, endDate);
-
-                if (rows == null || rows.isEmpty()) {
-                        return new java.util.ArrayList<>();
-                }
-
-                // 将Row转换为Map
-                List<Map<String, Object>> results = new java.util.ArrayList<>();
-                for (com.mybatisflex.core.row.Row row : rows) {
-                        Map<String, Object> map = new java.util.HashMap<>();
-                        map.put("categoryId", row.get("categoryId"));
-                        map.put("categoryName", row.get("categoryName"));
-                        map.put("categoryIcon", row.get("categoryIcon"));
-                        map.put("categoryColor", row.get("categoryColor"));
-                        map.put("amount", row.get("amount"));
-                        map.put("count", row.get("count"));
-                        results.add(map);
-                }
-
-                // 计算总金额
-                BigDecimal totalAmount = results.stream()
-                                .map(item -> (BigDecimal) item.get("amount"))
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                // 计算百分比
-                for (Map<String, Object> item : results) {
-                        BigDecimal amount = (BigDecimal) item.get("amount");
-                        if (totalAmount.compareTo(BigDecimal.ZERO) > 0) {
-                                BigDecimal percent = amount.divide(totalAmount, 4, java.math.RoundingMode.HALF_UP)
-                                                .multiply(new BigDecimal("100"));
-                                item.put("percent", percent.setScale(2, java.math.RoundingMode.HALF_UP));
-                        } else {
-                                item.put("percent", BigDecimal.ZERO);
-                        }
-                }
-
-                return results;
+                return billDailySummaryService.selectCategoryStatistics(null, userId, recordType, startDate, endDate);
         }
 
         @Override
@@ -182,65 +144,6 @@ public class BillRecordServiceImpl extends ServiceImpl<BillRecordMapper, BillRec
         @Override
         public List<Map<String, Object>> selectFamilyCategoryStatistics(Long familyId, Long userId, String recordType,
                         LocalDate startDate, LocalDate endDate) {
-                String scopeSql = userId != null
-                                ? "(r.family_id = ? OR (r.user_id = ? AND (r.family_id = 0 OR r.family_id IS NULL)))"
-                                : "r.family_id = ?";
-                Object[] params = userId != null
-                                ? new Object[] { familyId, userId, recordType, startDate, endDate }
-                                : new Object[] { familyId, recordType, startDate, endDate };
-
-                String sql = "SELECT " +
-                                "c.category_id AS categoryId, " +
-                                "c.category_name AS categoryName, " +
-                                "c.icon AS categoryIcon, " +
-                                "c.color AS categoryColor, " +
-                                "SUM(r.amount) AS amount, " +
-                                "COUNT(r.record_id) AS count " +
-                                "FROM bill_record r " +
-                                "LEFT JOIN bill_category c ON r.category_id = c.category_id " +
-                                "WHERE " + scopeSql + " " +
-                                "AND r.record_type = ? " +
-                                "AND r.record_date BETWEEN ? AND ? " +
-                                "AND r.del_flag = '0' " +
-                                "GROUP BY c.category_id, c.category_name, c.icon, c.color " +
-                                "ORDER BY amount DESC";
-
-                List<Row> rows = Db.selectListBySql(sql, params);
-
-                if (rows == null || rows.isEmpty()) {
-                        return new java.util.ArrayList<>();
-                }
-
-                // 将Row转换为Map
-                List<Map<String, Object>> results = new java.util.ArrayList<>();
-                for (com.mybatisflex.core.row.Row row : rows) {
-                        Map<String, Object> map = new java.util.HashMap<>();
-                        map.put("categoryId", row.get("categoryId"));
-                        map.put("categoryName", row.get("categoryName"));
-                        map.put("categoryIcon", row.get("categoryIcon"));
-                        map.put("categoryColor", row.get("categoryColor"));
-                        map.put("amount", row.get("amount"));
-                        map.put("count", row.get("count"));
-                        results.add(map);
-                }
-
-                // 计算总金额
-                BigDecimal totalAmount = results.stream()
-                                .map(item -> (BigDecimal) item.get("amount"))
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                // 计算百分比
-                for (Map<String, Object> item : results) {
-                        BigDecimal amount = (BigDecimal) item.get("amount");
-                        if (totalAmount.compareTo(BigDecimal.ZERO) > 0) {
-                                BigDecimal percent = amount.divide(totalAmount, 4, java.math.RoundingMode.HALF_UP)
-                                                .multiply(new BigDecimal("100"));
-                                item.put("percent", percent.setScale(2, java.math.RoundingMode.HALF_UP));
-                        } else {
-                                item.put("percent", BigDecimal.ZERO);
-                        }
-                }
-
-                return results;
+                return billDailySummaryService.selectCategoryStatistics(familyId, userId, recordType, startDate, endDate);
         }
 }
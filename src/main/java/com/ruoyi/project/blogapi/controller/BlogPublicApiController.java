@@ -16,6 +16,7 @@ import com.ruoyi.project.article.domain.Blog;
 import com.ruoyi.project.article.domain.BlogComment;
 import com.ruoyi.project.article.service.IBlogCommentService;
 import com.ruoyi.project.article.service.IBlogService;
+import com.ruoyi.project.blogapi.service.IBlogCounterService;
 
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
@@ -41,6 +42,9 @@ public class BlogPublicApiController extends BaseController
     @Autowired
     private IBlogCommentService blogCommentService;
 
+    @Autowired
+    private IBlogCounterService blogCounterService;
+
     /**
      * 博客点赞接口
      * 
@@ -64,25 +68,18 @@ public class BlogPublicApiController extends BaseController
             return error("博客不存在");
         }
         
+        int delta;
+        if ("like".equals(action)) {
+            delta = 1;
+        } else if ("unlike".equals(action)) {
+            delta = -1;
+        } else {
+            return error("操作类型不正确，应为like或unlike");
+        }
+        
         try {
-            int currentLikeCount = 0;
-            if (StrUtil.isNotBlank(blog.getLikeCount())) {
-                try {
-                    currentLikeCount = Integer.parseInt(blog.getLikeCount());
-                } catch (NumberFormatException e) {
-                    currentLikeCount = 0;
-                }
-            }
-            
-            if ("like".equals(action)) {
-                blog.setLikeCount(String.valueOf(currentLikeCount + 1));
-            } else if ("unlike".equals(action)) {
-                blog.setLikeCount(String.valueOf(Math.max(currentLikeCount - 1, 0)));
-            } else {
-                return error("操作类型不正确，应为like或unlike");
-            }
-            
-            blogService.updateById(blog);
+            // 点赞数在 Redis 中原子累加，由定时任务批量回写数据库
+            blogCounterService.recordLike(IBlogCounterService.TABLE_BLOG, blog.getBlogId(), delta);
             return success("操作成功");
         } catch (Exception e) {
             return error("操作失败：" + e.getMessage());
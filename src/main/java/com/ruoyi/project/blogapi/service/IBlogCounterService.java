@@ -0,0 +1,61 @@
+package com.ruoyi.project.blogapi.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 博客浏览/点赞计数Service接口
+ * 计数先在 Redis 中累加，由定时任务批量回写 blog / blog_en 表
+ * 
+ * @author ruoyi
+ */
+public interface IBlogCounterService
+{
+    /** 中文博客表 */
+    String TABLE_BLOG = "blog";
+
+    /** 英文博客表 */
+    String TABLE_BLOG_EN = "blog_en";
+
+    /**
+     * 记录一次浏览
+     * 
+     * @param table 博客表（blog / blog_en）
+     * @param blogId 博客ID
+     */
+    void recordView(String table, String blogId);
+
+    /**
+     * 记录点赞或取消点赞
+     * 
+     * @param table 博客表（blog / blog_en）
+     * @param blogId 博客ID
+     * @param delta 1 点赞，-1 取消点赞
+     */
+    void recordLike(String table, String blogId, int delta);
+
+    /**
+     * 查询尚未回写数据库的计数增量
+     * 
+     * @param table 博客表（blog / blog_en）
+     * @param blogIds 博客ID集合
+     * @return 博客ID -> {浏览增量, 点赞增量}，无增量的博客不返回
+     */
+    Map<String, long[]> getPendingDeltas(String table, Collection<String> blogIds);
+
+    /**
+     * 把数据库中的计数与增量合并，结果不小于0
+     * 
+     * @param dbValue 数据库中的计数
+     * @param delta 增量
+     * @return 合并后的计数
+     */
+    String mergeCount(String dbValue, long delta);
+
+    /**
+     * 把 Redis 中累积的增量批量回写数据库
+     * 
+     * @return 本次回写的博客数
+     */
+    int flush();
+}
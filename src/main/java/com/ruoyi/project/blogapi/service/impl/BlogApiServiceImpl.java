@@ -2,6 +2,9 @@ package com.ruoyi.project.blogapi.service.impl;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +19,7 @@ import com.ruoyi.project.article.mapper.BlogMapper;
 import com.ruoyi.project.blogapi.domain.vo.BlogEnListVO;
 import com.ruoyi.project.blogapi.domain.vo.BlogListVO;
 import com.ruoyi.project.blogapi.service.IBlogApiService;
+import com.ruoyi.project.blogapi.service.IBlogCounterService;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.ObjectUtil;
@@ -36,6 +40,9 @@ public class BlogApiServiceImpl implements IBlogApiService
     @Autowired
     private BlogEnMapper blogEnMapper;
 
+    @Autowired
+    private IBlogCounterService blogCounterService;
+
     /**
      * 分页查询中文博客列表
      * 
@@ -86,6 +93,8 @@ public class BlogApiServiceImpl implements IBlogApiService
         List<BlogListVO> voList = blogPage.getRecords().stream()
             .map(blog -> BeanUtil.copyProperties(blog, BlogListVO.class))
             .collect(Collectors.toList());
+        mergePendingCounts(IBlogCounterService.TABLE_BLOG, voList, BlogListVO::getBlogId,
+            BlogListVO::getViewCount, BlogListVO::setViewCount, BlogListVO::getLikeCount, BlogListVO::setLikeCount);
 
         // 构建返回的分页结果
         Page<BlogListVO> voPage = new Page<>();
@@ -148,6 +157,8 @@ public class BlogApiServiceImpl implements IBlogApiService
         List<BlogEnListVO> voList = blogPage.getRecords().stream()
             .map(blog -> BeanUtil.copyProperties(blog, BlogEnListVO.class))
             .collect(Collectors.toList());
+        mergePendingCounts(IBlogCounterService.TABLE_BLOG_EN, voList, BlogEnListVO::getBlogId,
+            BlogEnListVO::getViewCount, BlogEnListVO::setViewCount, BlogEnListVO::getLikeCount, BlogEnListVO::setLikeCount);
 
         // 构建返回的分页结果
         Page<BlogEnListVO> voPage = new Page<>();
@@ -162,7 +173,7 @@ public class BlogApiServiceImpl implements IBlogApiService
 
     /**
      * 根据博客ID获取中文博客详情
-     * 每次获取成功后会更新最后查看时间和查看次数
+     * 每次获取成功后累加查看次数（异步回写数据库）
      * 
      * @param blogId 博客ID
      * @return 博客详情
@@ -183,22 +194,11 @@ public class BlogApiServiceImpl implements IBlogApiService
         Blog blog = blogMapper.selectOneByQuery(queryWrapper);
         
         if (ObjectUtil.isNotNull(blog)) {
-            // 更新最后查看时间
+            // 浏览次数在 Redis 中累加，由定时任务批量回写，最后查看时间随回写一并更新
+            blogCounterService.recordView(IBlogCounterService.TABLE_BLOG, blog.getBlogId());
             blog.setLastReadTime(LocalDateTime.now());
-            
-            // 更新查看次数
-            Integer currentViewCount = 0;
-            if (StrUtil.isNotBlank(blog.getViewCount())) {
-                try {
-                    currentViewCount = Integer.parseInt(blog.getViewCount());
-                } catch (NumberFormatException e) {
-                    currentViewCount = 0;
-                }
-            }
-            blog.setViewCount(String.valueOf(currentViewCount + 1));
-            
-            // 保存更新
-            blogMapper.update(blog);
+            mergePendingCounts(IBlogCounterService.TABLE_BLOG, List.of(blog), Blog::getBlogId,
+                Blog::getViewCount, Blog::setViewCount, Blog::getLikeCount, Blog::setLikeCount);
         }
         
         return blog;
@@ -206,7 +206,7 @@ public class BlogApiServiceImpl implements IBlogApiService
 
     /**
      * 根据博客ID获取英文博客详情
-     * 每次获取成功后会更新最后查看时间和查看次数
+     * 每次获取成功后累加查看次数（异步回写数据库）
      * 
      * @param blogId 博客ID
      * @return 英文博客详情
@@ -227,22 +227,11 @@ public class BlogApiServiceImpl implements IBlogApiService
         BlogEn blogEn = blogEnMapper.selectOneByQuery(queryWrapper);
         
         if (ObjectUtil.isNotNull(blogEn)) {
-            // 更新最后查看时间
+            // 浏览次数在 Redis 中累加，由定时任务批量回写，最后查看时间随回写一并更新
+            blogCounterService.recordView(IBlogCounterService.TABLE_BLOG_EN, blogEn.getBlogId());
             blogEn.setLastReadTime(LocalDateTime.now());
-            
-            // 更新查看次数
-            Integer currentViewCount = 0;
-            if (StrUtil.isNotBlank(blogEn.getViewCount())) {
-                try {
-                    currentViewCount = Integer.parseInt(blogEn.getViewCount());
-                } catch (NumberFormatException e) {
-                    currentViewCount = 0;
-                }
-            }
-            blogEn.setViewCount(String.valueOf(currentViewCount + 1));
-            
-            // 保存更新
-            blogEnMapper.update(blogEn);
+            mergePendingCounts(IBlogCounterService.TABLE_BLOG_EN, List.of(blogEn), BlogEn::getBlogId,
+                BlogEn::getViewCount, BlogEn::setViewCount, BlogEn::getLikeCount, BlogEn::setLikeCount);
         }
         
         return blogEn;
@@ -282,9 +271,12 @@ public class BlogApiServiceImpl implements IBlogApiService
         List<Blog> blogList = blogMapper.selectListByQuery(queryWrapper);
         
         // 转换为VO对象
-        return blogList.stream()
+        List<BlogListVO> voList = blogList.stream()
             .map(blog -> BeanUtil.copyProperties(blog, BlogListVO.class))
             .collect(Collectors.toList());
+        mergePendingCounts(IBlogCounterService.TABLE_BLOG, voList, BlogListVO::getBlogId,
+            BlogListVO::getViewCount, BlogListVO::setViewCount, BlogListVO::getLikeCount, BlogListVO::setLikeCount);
+        return voList;
     }
 
     /**
@@ -321,8 +313,35 @@ public class BlogApiServiceImpl implements IBlogApiService
         List<BlogEn> blogList = blogEnMapper.selectListByQuery(queryWrapper);
         
         // 转换为VO对象
-        return blogList.stream()
+        List<BlogEnListVO> voList = blogList.stream()
             .map(blog -> BeanUtil.copyProperties(blog, BlogEnListVO.class))
             .collect(Collectors.toList());
+        mergePendingCounts(IBlogCounterService.TABLE_BLOG_EN, voList, BlogEnListVO::getBlogId,
+            BlogEnListVO::getViewCount, BlogEnListVO::setViewCount, BlogEnListVO::getLikeCount, BlogEnListVO::setLikeCount);
+        return voList;
+    }
+
+    /**
+     * 合并 Redis 中尚未回写数据库的浏览/点赞增量
+     */
+    private <V> void mergePendingCounts(String table, List<V> list, Function<V, String> idGetter,
+        Function<V, String> viewGetter, BiConsumer<V, String> viewSetter,
+        Function<V, String> likeGetter, BiConsumer<V, String> likeSetter)
+    {
+        if (list.isEmpty()) {
+            return;
+        }
+        Map<String, long[]> deltas = blogCounterService.getPendingDeltas(table,
+            list.stream().map(idGetter).filter(StrUtil::isNotBlank).collect(Collectors.toList()));
+        if (deltas.isEmpty()) {
+            return;
+        }
+        for (V item : list) {
+            long[] delta = deltas.get(idGetter.apply(item));
+            if (delta != null) {
+                viewSetter.accept(item, blogCounterService.mergeCount(viewGetter.apply(item), delta[0]));
+                likeSetter.accept(item, blogCounterService.mergeCount(likeGetter.apply(item), delta[1]));
+            }
+        }
     }
 }
@@ -0,0 +1,259 @@
+package com.ruoyi.project.blogapi.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import com.mybatisflex.core.row.Db;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.framework.redis.RedisLock;
+import com.ruoyi.project.blogapi.service.IBlogCounterService;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * 博客浏览/点赞计数Service业务层处理
+ * 
+ * Redis 结构：blog_counter:pending:{table} 为待回写增量（field 为 {blogId}:view / {blogId}:like）；
+ * 回写时先原子地改名为 blog_counter:flushing:{table} 并写入批次号，再在一个事务内执行批量 UPDATE 并登记批次号。
+ * 若节点在回写中途宕机，下一次回写会复用残留的 flushing 批次：数据库已登记则直接删除，未登记则重新执行，保证增量只计入一次。
+ * 
+ * @author ruoyi
+ */
+@Service
+public class BlogCounterServiceImpl implements IBlogCounterService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogCounterServiceImpl.class);
+
+    private static final String VIEW = "view";
+
+    private static final String LIKE = "like";
+
+    /** flushing 哈希中保存批次号的字段 */
+    private static final String BATCH_FIELD = "__batch";
+
+    /** 回写分布式锁 */
+    private static final String FLUSH_LOCK = "blog_counter_flush";
+
+    /** 单条 UPDATE 最多包含的博客数 */
+    private static final int UPDATE_BATCH_SIZE = 200;
+
+    /**
+     * 冻结待回写增量：存在残留批次时直接返回其批次号，否则把 pending 改名为 flushing 并写入新批次号
+     */
+    private static final DefaultRedisScript<String> FREEZE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[2]) == 1 then return redis.call('hget', KEYS[2], ARGV[2]) end "
+            + "if redis.call('exists', KEYS[1]) == 0 then return false end "
+            + "redis.call('rename', KEYS[1], KEYS[2]) "
+            + "redis.call('hset', KEYS[2], ARGV[2], ARGV[1]) "
+            + "return ARGV[1]", String.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisLock redisLock;
+
+    @Override
+    public void recordView(String table, String blogId)
+    {
+        increment(table, blogId, VIEW, 1);
+    }
+
+    @Override
+    public void recordLike(String table, String blogId, int delta)
+    {
+        increment(table, blogId, LIKE, delta);
+    }
+
+    private void increment(String table, String blogId, String metric, long delta)
+    {
+        checkTable(table);
+        if (StrUtil.isBlank(blogId) || delta == 0)
+        {
+            return;
+        }
+        stringRedisTemplate.opsForHash().increment(pendingKey(table), blogId + ":" + metric, delta);
+    }
+
+    @Override
+    public Map<String, long[]> getPendingDeltas(String table, Collection<String> blogIds)
+    {
+        checkTable(table);
+        Map<String, long[]> result = new HashMap<>();
+        if (CollUtil.isEmpty(blogIds))
+        {
+            return result;
+        }
+        List<String> ids = new ArrayList<>(blogIds);
+        List<Object> fields = new ArrayList<>(ids.size() * 2);
+        for (String id : ids)
+        {
+            fields.add(id + ":" + VIEW);
+            fields.add(id + ":" + LIKE);
+        }
+        try
+        {
+            // 正在回写的批次尚未删除前也计入，避免回写窗口内计数回退
+            List<Object> pending = stringRedisTemplate.opsForHash().multiGet(pendingKey(table), fields);
+            List<Object> flushing = stringRedisTemplate.opsForHash().multiGet(flushingKey(table), fields);
+            for (int i = 0; i < ids.size(); i++)
+            {
+                long view = Convert.toLong(pending.get(2 * i), 0L) + Convert.toLong(flushing.get(2 * i), 0L);
+                long like = Convert.toLong(pending.get(2 * i + 1), 0L) + Convert.toLong(flushing.get(2 * i + 1), 0L);
+                if (view != 0 || like != 0)
+                {
+                    result.put(ids.get(i), new long[] { view, like });
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            log.warn("读取博客计数增量失败: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public String mergeCount(String dbValue, long delta)
+    {
+        long base = StrUtil.isBlank(dbValue) ? 0L : Convert.toLong(dbValue.trim(), 0L);
+        return String.valueOf(Math.max(base + delta, 0L));
+    }
+
+    @Override
+    public int flush()
+    {
+        String lockValue = IdUtil.fastSimpleUUID();
+        if (!redisLock.tryLock(FLUSH_LOCK, lockValue, 120))
+        {
+            return 0;
+        }
+        try
+        {
+            int total = 0;
+            for (String table : Arrays.asList(TABLE_BLOG, TABLE_BLOG_EN))
+            {
+                total += flushTable(table);
+            }
+            // 批次登记只用于宕机重放判重，保留7天足够
+            Db.deleteBySql("DELETE FROM blog_counter_flush WHERE create_time < DATE_SUB(NOW(), INTERVAL 7 DAY)");
+            return total;
+        }
+        finally
+        {
+            redisLock.unlock(FLUSH_LOCK, lockValue);
+        }
+    }
+
+    private int flushTable(String table)
+    {
+        String flushingKey = flushingKey(table);
+        String batchId = stringRedisTemplate.execute(FREEZE_SCRIPT, Arrays.asList(pendingKey(table), flushingKey),
+                table + ":" + IdUtil.fastSimpleUUID(), BATCH_FIELD);
+        if (batchId == null)
+        {
+            return 0;
+        }
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(flushingKey);
+        Map<String, Long> views = new LinkedHashMap<>();
+        Map<String, Long> likes = new LinkedHashMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet())
+        {
+            String field = String.valueOf(entry.getKey());
+            int index = field.lastIndexOf(':');
+            long delta = Convert.toLong(entry.getValue(), 0L);
+            if (index <= 0 || delta == 0)
+            {
+                continue;
+            }
+            String blogId = field.substring(0, index);
+            String metric = field.substring(index + 1);
+            if (VIEW.equals(metric))
+            {
+                views.merge(blogId, delta, Long::sum);
+            }
+            else if (LIKE.equals(metric))
+            {
+                likes.merge(blogId, delta, Long::sum);
+            }
+        }
+        Db.tx(() -> {
+            // 批次已登记说明上次回写已提交，只是 Redis 删除前节点宕机
+            if (Db.selectCount("SELECT COUNT(*) FROM blog_counter_flush WHERE batch_id = ?", batchId) > 0)
+            {
+                return true;
+            }
+            updateCounts(table, "view_count", views, true);
+            updateCounts(table, "like_count", likes, false);
+            Db.insertBySql("INSERT INTO blog_counter_flush (batch_id, table_name, create_time) VALUES (?, ?, NOW())",
+                    batchId, table);
+            return true;
+        });
+        stringRedisTemplate.delete(flushingKey);
+        int blogs = views.size() + (int) likes.keySet().stream().filter(id -> !views.containsKey(id)).count();
+        log.debug("博客计数回写完成: table={}, batch={}, blogs={}", table, batchId, blogs);
+        return blogs;
+    }
+
+    /**
+     * 以 CASE 表达式把一批博客的增量合并为一条 UPDATE，计数列为字符串类型，先转数值再累加
+     */
+    private void updateCounts(String table, String column, Map<String, Long> deltas, boolean touchReadTime)
+    {
+        for (List<Map.Entry<String, Long>> batch : CollUtil.split(new ArrayList<>(deltas.entrySet()), UPDATE_BATCH_SIZE))
+        {
+            StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ").append(column)
+                    .append(" = GREATEST(CAST(COALESCE(NULLIF(").append(column).append(", ''), '0') AS SIGNED) + CASE blog_id");
+            List<Object> params = new ArrayList<>(batch.size() * 3);
+            for (Map.Entry<String, Long> entry : batch)
+            {
+                sql.append(" WHEN ? THEN ?");
+                params.add(entry.getKey());
+                params.add(entry.getValue());
+            }
+            sql.append(" ELSE 0 END, 0)");
+            if (touchReadTime)
+            {
+                sql.append(", last_read_time = NOW()");
+            }
+            sql.append(" WHERE blog_id IN (")
+                    .append(batch.stream().map(entry -> "?").collect(Collectors.joining(", "))).append(")");
+            batch.forEach(entry -> params.add(entry.getKey()));
+            Db.updateBySql(sql.toString(), params.toArray());
+        }
+    }
+
+    private static void checkTable(String table)
+    {
+        if (!TABLE_BLOG.equals(table) && !TABLE_BLOG_EN.equals(table))
+        {
+            throw new IllegalArgumentException("不支持的博客表: " + table);
+        }
+    }
+
+    private static String pendingKey(String table)
+    {
+        return CacheConstants.BLOG_COUNTER_KEY + "pending:" + table;
+    }
+
+    private static String flushingKey(String table)
+    {
+        return CacheConstants.BLOG_COUNTER_KEY + "flushing:" + table;
+    }
+}
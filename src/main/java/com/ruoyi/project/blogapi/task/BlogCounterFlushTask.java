@@ -0,0 +1,41 @@
+package com.ruoyi.project.blogapi.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.blogapi.service.IBlogCounterService;
+
+/**
+ * 博客计数回写定时任务
+ * 定期把 Redis 中累积的浏览/点赞增量批量回写数据库，多节点部署时由分布式锁保证同一时刻只有一个节点执行
+ * 
+ * @author ruoyi
+ */
+@Component
+public class BlogCounterFlushTask
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogCounterFlushTask.class);
+
+    @Autowired
+    private IBlogCounterService blogCounterService;
+
+    @Scheduled(fixedDelayString = "${blog.counter.flush-interval-ms:30000}", initialDelay = 30000)
+    public void execute()
+    {
+        try
+        {
+            int blogs = blogCounterService.flush();
+            if (blogs > 0)
+            {
+                log.info("博客计数回写完成，涉及 {} 篇博客", blogs);
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("博客计数回写失败，将在下次执行时重试", e);
+        }
+    }
+}
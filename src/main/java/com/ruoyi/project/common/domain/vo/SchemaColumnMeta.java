@@ -0,0 +1,51 @@
+package com.ruoyi.project.common.domain.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 数据库字段元数据（来自 information_schema.columns）
+ * 
+ * @author ruoyi
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemaColumnMeta {
+
+    /**
+     * 字段名
+     */
+    private String columnName;
+
+    /**
+     * 数据类型（data_type，小写）
+     */
+    private String dataType;
+
+    /**
+     * 字段注释
+     */
+    private String columnComment;
+
+    /**
+     * 是否可空（YES/NO）
+     */
+    private String isNullable;
+
+    /**
+     * 默认值
+     */
+    private String columnDefault;
+
+    /**
+     * 键类型（PRI/UNI/MUL）
+     */
+    private String columnKey;
+
+    /**
+     * 附加信息（如 auto_increment）
+     */
+    private String extra;
+}
@@ -0,0 +1,38 @@
+package com.ruoyi.project.common.domain.vo;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 数据库表元数据（来自 information_schema.tables）
+ * 
+ * @author ruoyi
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemaTableMeta {
+
+    /**
+     * 表名
+     */
+    private String tableName;
+
+    /**
+     * 表注释
+     */
+    private String tableComment;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+}
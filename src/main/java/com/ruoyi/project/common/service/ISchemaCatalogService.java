@@ -0,0 +1,55 @@
+package com.ruoyi.project.common.service;
+
+import java.util.List;
+
+import com.ruoyi.project.common.domain.vo.SchemaColumnMeta;
+import com.ruoyi.project.common.domain.vo.SchemaTableMeta;
+
+/**
+ * 数据库表结构目录缓存
+ * <p>
+ * 按数据源缓存 information_schema 中的表、表注释与字段信息，过期后在下次使用时重新加载，
+ * 建表、同步表结构等操作后可显式刷新。返回的对象为缓存共享实例，调用方只读不改。
+ * 
+ * @author ruoyi
+ */
+public interface ISchemaCatalogService {
+
+    /**
+     * 查询数据源下的全部表（按创建时间倒序）
+     * 
+     * @param dataSourceName 数据源名称，为空或 master 表示主数据源
+     * @return 表列表
+     */
+    List<SchemaTableMeta> listTables(String dataSourceName);
+
+    /**
+     * 查询单张表，未命中时按最短间隔重新加载一次目录，避免刚建的表查不到
+     * 
+     * @param dataSourceName 数据源名称，为空或 master 表示主数据源
+     * @param tableName 表名
+     * @return 表信息，不存在时返回 null
+     */
+    SchemaTableMeta getTable(String dataSourceName, String tableName);
+
+    /**
+     * 查询表的字段列表（按字段顺序）
+     * 
+     * @param dataSourceName 数据源名称，为空或 master 表示主数据源
+     * @param tableName 表名
+     * @return 字段列表，表不存在时返回空列表
+     */
+    List<SchemaColumnMeta> getColumns(String dataSourceName, String tableName);
+
+    /**
+     * 丢弃数据源的目录缓存，下次使用时重新加载
+     * 
+     * @param dataSourceName 数据源名称，为空或 master 表示主数据源
+     */
+    void refresh(String dataSourceName);
+
+    /**
+     * 丢弃全部数据源的目录缓存
+     */
+    void refreshAll();
+}
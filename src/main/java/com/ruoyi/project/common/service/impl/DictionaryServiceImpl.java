@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.mybatisflex.core.paginate.Page;
@@ -14,7 +15,9 @@ import com.mybatisflex.core.row.Row;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.project.common.domain.dto.DictQueryRequest;
 import com.ruoyi.project.common.domain.vo.DictOption;
+import com.ruoyi.project.common.domain.vo.SchemaColumnMeta;
 import com.ruoyi.project.common.service.IDictionaryService;
+import com.ruoyi.project.common.service.ISchemaCatalogService;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
@@ -43,6 +46,9 @@ public class DictionaryServiceImpl implements IDictionaryService {
         "id", "code", "value", "dict_value", "dict_code", "menu_id", "dept_id", "role_id", "user_id"
     );
 
+    @Autowired
+    private ISchemaCatalogService schemaCatalogService;
+
     @Override
     public List<DictOption> getTableDict(String tableName, String labelField, String valueField, String status) {
         // 验证表是否存在
@@ -424,9 +430,7 @@ public class DictionaryServiceImpl implements IDictionaryService {
         }
 
         try {
-            String sql = "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = ? AND table_schema = DATABASE()";
-            Long count = Db.selectCount(sql, tableName);
-            return count != null && count > 0;
+            return schemaCatalogService.getTable(null, tableName) != null;
         } catch (Exception e) {
             log.error("验证表是否存在失败: tableName={}, error={}", tableName, e.getMessage());
             return false;
@@ -440,15 +444,10 @@ public class DictionaryServiceImpl implements IDictionaryService {
         }
 
         try {
-            String sql = "SELECT column_name FROM information_schema.columns WHERE table_name = ? AND table_schema = DATABASE()";
-            List<Row> rows = Db.selectListBySql(sql, tableName);
-            
             List<String> columns = new ArrayList<>();
-            for (Row row : rows) {
-                Map<String, Object> result = row.toCamelKeysMap();
-                String columnName = (String) result.get("columnName");
-                if (StrUtil.isNotBlank(columnName)) {
-                    columns.add(columnName);
+            for (SchemaColumnMeta column : schemaCatalogService.getColumns(null, tableName)) {
+                if (StrUtil.isNotBlank(column.getColumnName())) {
+                    columns.add(column.getColumnName());
                 }
             }
             
@@ -573,44 +572,33 @@ public class DictionaryServiceImpl implements IDictionaryService {
      * 判断是否为文本类型字段
      */
     private boolean isTextColumn(String tableName, String columnName) {
-        try {
-            String sql = "SELECT data_type FROM information_schema.columns WHERE table_name = ? AND column_name = ? AND table_schema = DATABASE()";
-            List<Row> rows = Db.selectListBySql(sql, tableName, columnName);
-            
-            if (CollUtil.isNotEmpty(rows)) {
-                Map<String, Object> result = rows.get(0).toCamelKeysMap();
-                String dataType = (String) result.get("dataType");
-                if (StrUtil.isNotBlank(dataType)) {
-                    dataType = dataType.toLowerCase();
-                    return dataType.contains("varchar") || dataType.contains("text") || dataType.contains("char");
-                }
-            }
-        } catch (Exception e) {
-            log.debug("判断字段类型失败: tableName={}, columnName={}", tableName, columnName);
-        }
-        return false;
+        String dataType = getColumnDataType(tableName, columnName);
+        return dataType != null
+            && (dataType.contains("varchar") || dataType.contains("text") || dataType.contains("char"));
     }
 
     /**
      * 判断是否为数字类型字段
      */
     private boolean isNumericColumn(String tableName, String columnName) {
+        String dataType = getColumnDataType(tableName, columnName);
+        return dataType != null && (dataType.contains("int") || dataType.contains("bigint") || dataType.contains("decimal") || 
+                                    dataType.contains("float") || dataType.contains("double"));
+    }
+
+    /**
+     * 从表结构目录缓存中取字段类型（小写），取不到时返回 null
+     */
+    private String getColumnDataType(String tableName, String columnName) {
         try {
-            String sql = "SELECT data_type FROM information_schema.columns WHERE table_name = ? AND column_name = ? AND table_schema = DATABASE()";
-            List<Row> rows = Db.selectListBySql(sql, tableName, columnName);
-            
-            if (CollUtil.isNotEmpty(rows)) {
-                Map<String, Object> result = rows.get(0).toCamelKeysMap();
-                String dataType = (String) result.get("dataType");
-                if (StrUtil.isNotBlank(dataType)) {
-                    dataType = dataType.toLowerCase();
-                    return dataType.contains("int") || dataType.contains("bigint") || dataType.contains("decimal") || 
-                           dataType.contains("float") || dataType.contains("double");
+            for (SchemaColumnMeta column : schemaCatalogService.getColumns(null, tableName)) {
+                if (columnName.equalsIgnoreCase(column.getColumnName())) {
+                    return StrUtil.isNotBlank(column.getDataType()) ? column.getDataType() : null;
                 }
             }
         } catch (Exception e) {
             log.debug("判断字段类型失败: tableName={}, columnName={}", tableName, columnName);
         }
-        return false;
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.ruoyi.project.common.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.framework.datasource.DataSourceUtils;
+import com.ruoyi.framework.datasource.DynamicDataSourceContextHolder;
+import com.ruoyi.project.common.domain.vo.SchemaColumnMeta;
+import com.ruoyi.project.common.domain.vo.SchemaTableMeta;
+import com.ruoyi.project.common.service.ISchemaCatalogService;
+import com.ruoyi.project.system.domain.SysDataSource;
+import com.ruoyi.project.system.service.ISysDataSourceService;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 数据库表结构目录缓存实现
+ * <p>
+ * 每个数据源的表清单用一条 information_schema.tables 查询整体加载；字段信息按表首次使用时加载，
+ * 随所属目录一起过期。表名按小写匹配，与 MySQL 不区分大小写的表名比较一致。
+ * 
+ * @author ruoyi
+ */
+@Slf4j
+@Service
+public class SchemaCatalogServiceImpl implements ISchemaCatalogService {
+
+    /**
+     * 表未命中时允许重新加载目录的最短间隔（毫秒），防止不存在的表名反复触发加载
+     */
+    private static final long MISS_RELOAD_INTERVAL_MS = 5000;
+
+    /**
+     * 目录过期时间（秒）
+     */
+    @Value("${ruoyi.schema-catalog.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private ISysDataSourceService sysDataSourceService;
+
+    @Autowired
+    private DataSourceUtils dataSourceUtils;
+
+    private Cache<String, Catalog> catalogs;
+
+    @PostConstruct
+    public void init() {
+        catalogs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .maximumSize(64)
+            .build();
+    }
+
+    @Override
+    public List<SchemaTableMeta> listTables(String dataSourceName) {
+        return catalog(resolveKey(dataSourceName)).tableList;
+    }
+
+    @Override
+    public SchemaTableMeta getTable(String dataSourceName, String tableName) {
+        if (StrUtil.isBlank(tableName)) {
+            return null;
+        }
+        String key = resolveKey(dataSourceName);
+        Catalog current = catalog(key);
+        SchemaTableMeta table = current.tables.get(normalize(tableName));
+        if (table == null && System.currentTimeMillis() - current.loadedAt >= MISS_RELOAD_INTERVAL_MS) {
+            // 同一时刻只有一个线程重新加载，其余线程直接使用新目录
+            Catalog reloaded = catalogs.asMap().compute(key, (k, old) -> old == null || old == current ? load(k) : old);
+            table = reloaded.tables.get(normalize(tableName));
+        }
+        return table;
+    }
+
+    @Override
+    public List<SchemaColumnMeta> getColumns(String dataSourceName, String tableName) {
+        SchemaTableMeta table = getTable(dataSourceName, tableName);
+        if (table == null) {
+            return Collections.emptyList();
+        }
+        Catalog catalog = catalog(resolveKey(dataSourceName));
+        return catalog.columns.computeIfAbsent(normalize(tableName), name -> loadColumns(catalog, table.getTableName()));
+    }
+
+    @Override
+    public void refresh(String dataSourceName) {
+        catalogs.invalidate(resolveKey(dataSourceName));
+    }
+
+    @Override
+    public void refreshAll() {
+        catalogs.invalidateAll();
+    }
+
+    private Catalog catalog(String key) {
+        return catalogs.get(key, this::load);
+    }
+
+    private Catalog load(String key) {
+        String schema = null;
+        if (!DynamicDataSourceContextHolder.MASTER.equals(key)) {
+            SysDataSource sysDataSource = sysDataSourceService.selectSysDataSourceByName(key);
+            if (sysDataSource == null || StrUtil.isEmpty(sysDataSource.getDatabaseName())) {
+                throw new ServiceException("数据源不存在或数据库名称未配置");
+            }
+            schema = sysDataSource.getDatabaseName();
+        }
+        String sql = "SELECT table_name AS table_name, table_comment AS table_comment, "
+            + "create_time AS create_time, update_time AS update_time "
+            + "FROM information_schema.tables WHERE table_schema = " + (schema == null ? "DATABASE()" : "?")
+            + " ORDER BY create_time DESC";
+        Object[] args = schema == null ? new Object[0] : new Object[] { schema };
+        List<Row> rows = dataSourceUtils.executeWithDataSource(key, () -> Db.selectListBySql(sql, args));
+
+        Map<String, SchemaTableMeta> tables = new HashMap<>(rows.size() * 2);
+        List<SchemaTableMeta> tableList = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            SchemaTableMeta table = new SchemaTableMeta(row.getString("table_name"), row.getString("table_comment"),
+                row.getDate("create_time"), row.getDate("update_time"));
+            tables.put(normalize(table.getTableName()), table);
+            tableList.add(table);
+        }
+        log.debug("加载数据源 {} 的表结构目录，表数量: {}", key, tableList.size());
+        return new Catalog(key, schema, tables, Collections.unmodifiableList(tableList));
+    }
+
+    private List<SchemaColumnMeta> loadColumns(Catalog catalog, String tableName) {
+        String sql = "SELECT column_name AS column_name, data_type AS data_type, column_comment AS column_comment, "
+            + "is_nullable AS is_nullable, column_default AS column_default, column_key AS column_key, extra AS extra "
+            + "FROM information_schema.columns WHERE table_schema = "
+            + (catalog.schema == null ? "DATABASE()" : "?") + " AND table_name = ? ORDER BY ordinal_position";
+        Object[] args = catalog.schema == null ? new Object[] { tableName } : new Object[] { catalog.schema, tableName };
+        List<Row> rows = dataSourceUtils.executeWithDataSource(catalog.key, () -> Db.selectListBySql(sql, args));
+
+        List<SchemaColumnMeta> columns = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            String dataType = row.getString("data_type");
+            columns.add(new SchemaColumnMeta(row.getString("column_name"),
+                dataType != null ? dataType.toLowerCase() : null, row.getString("column_comment"),
+                row.getString("is_nullable"), row.getString("column_default"), row.getString("column_key"),
+                row.getString("extra")));
+        }
+        return Collections.unmodifiableList(columns);
+    }
+
+    private static String normalize(String tableName) {
+        return tableName.toLowerCase(Locale.ROOT);
+    }
+
+    private static String resolveKey(String dataSourceName) {
+        if (StrUtil.isBlank(dataSourceName) || DynamicDataSourceContextHolder.MASTER.equalsIgnoreCase(dataSourceName)) {
+            return DynamicDataSourceContextHolder.MASTER;
+        }
+        return dataSourceName;
+    }
+
+    /**
+     * 单个数据源的表结构目录
+     */
+    private static class Catalog {
+        private final String key;
+        /** 库名，主数据源为 null（使用 DATABASE()） */
+        private final String schema;
+        /** 小写表名 -> 表信息 */
+        private final Map<String, SchemaTableMeta> tables;
+        private final List<SchemaTableMeta> tableList;
+        /** 小写表名 -> 字段列表 */
+        private final Map<String, List<SchemaColumnMeta>> columns = new ConcurrentHashMap<>();
+        private final long loadedAt = System.currentTimeMillis();
+
+        Catalog(String key, String schema, Map<String, SchemaTableMeta> tables, List<SchemaTableMeta> tableList) {
+            this.key = key;
+            this.schema = schema;
+            this.tables = tables;
+            this.tableList = tableList;
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.ruoyi.project.gen.controller;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
@@ -45,7 +47,6 @@ import com.ruoyi.project.system.domain.SysDataSource;
 import com.ruoyi.project.system.service.ISysDataSourceService;
 
 import cn.dev33.satoken.annotation.SaCheckPermission;
-import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -269,9 +270,8 @@ public class GenController extends BaseController {
     @Log(title = "代码生成", businessType = BusinessType.GENCODE)
     @GetMapping("/download/{tableName}")
     public void download(HttpServletResponse response, @PathVariable("tableName") String tableName) throws IOException {
-        byte[] data = genTableService.downloadCode(tableName);
         String fileName = tableName + "_code.zip";
-        genCode(response, data, fileName);
+        genCode(response, fileName, out -> genTableService.downloadCode(new String[] { tableName }, out));
     }
 
     /**
@@ -283,11 +283,10 @@ public class GenController extends BaseController {
     @PostMapping("/batchDownload")
     public void batchDownload(HttpServletResponse response, @Validated @RequestBody BatchGenCodeRequest request)
             throws IOException {
-        byte[] data = genTableService.downloadCodeByIds(request.getTableIds(), request.getGenType());
-
         // 动态生成文件名
         String fileName = generateZipFileName(request.getTableIds());
-        genCode(response, data, fileName);
+        genCode(response, fileName,
+                out -> genTableService.downloadCodeByIds(request.getTableIds(), request.getGenType(), out));
     }
 
     /**
@@ -483,9 +482,8 @@ public class GenController extends BaseController {
     @GetMapping("/batchGenCode")
     public void batchGenCode(HttpServletResponse response, String tables) throws IOException {
         String[] tableNames = StrUtil.splitToArray(tables, ',');
-        byte[] data = genTableService.downloadCode(tableNames);
         String fileName = "batch_code.zip";
-        genCode(response, data, fileName);
+        genCode(response, fileName, out -> genTableService.downloadCode(tableNames, out));
     }
 
     /**
@@ -501,9 +499,10 @@ public class GenController extends BaseController {
     }
 
     /**
-     * 生成zip文件
+     * 生成zip文件，压缩包由服务层直接写入响应流（不设置Content-Length）
      */
-    private void genCode(HttpServletResponse response, byte[] data, String fileName) throws IOException {
+    private void genCode(HttpServletResponse response, String fileName, Consumer<OutputStream> writer)
+            throws IOException {
         response.reset();
         response.addHeader("Access-Control-Allow-Origin", "*");
         response.addHeader("Access-Control-Expose-Headers", "Content-Disposition");
@@ -513,9 +512,16 @@ public class GenController extends BaseController {
         response.setHeader("Content-Disposition",
                 "attachment; filename=\"" + fileName + "\"; filename*=UTF-8''" + encodedFileName);
 
-        response.addHeader("Content-Length", "" + data.length);
         response.setContentType("application/octet-stream; charset=UTF-8");
-        IoUtil.write(response.getOutputStream(), true, data);
+        try {
+            writer.accept(response.getOutputStream());
+        } catch (RuntimeException e) {
+            // 尚未输出内容时清掉下载响应头，交给全局异常处理返回错误信息
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
     }
 
     /**
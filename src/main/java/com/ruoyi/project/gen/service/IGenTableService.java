@@ -1,5 +1,6 @@
 package com.ruoyi.project.gen.service;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -159,6 +160,14 @@ public interface IGenTableService extends IService<GenTable> {
      */
     public byte[] downloadCode(String[] tableNames);
 
+    /**
+     * 批量生成代码（下载方式），ZIP 直接写入输出流
+     * 
+     * @param tableNames 表数组
+     * @param out 输出流（不会被关闭）
+     */
+    public void downloadCode(String[] tableNames, OutputStream out);
+
     /**
      * 批量生成代码（下载方式）- 支持tableId数组和生成类型
      * 
@@ -168,6 +177,15 @@ public interface IGenTableService extends IService<GenTable> {
      */
     public byte[] downloadCodeByIds(List<Long> tableIds, String genType);
 
+    /**
+     * 批量生成代码（下载方式）- 支持tableId数组和生成类型，ZIP 直接写入输出流
+     * 
+     * @param tableIds 表ID数组
+     * @param genType 生成类型：all-全部生成，java-只生成Java代码，vue-只生成Vue代码
+     * @param out 输出流（不会被关闭）
+     */
+    public void downloadCodeByIds(List<Long> tableIds, String genType, OutputStream out);
+
     /**
      * 批量生成代码（自定义路径）- 支持tableId数组和生成类型
      * 
@@ -3,16 +3,19 @@ package com.ruoyi.project.gen.service.impl;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -23,10 +26,11 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.Velocity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,11 +43,11 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.common.constant.Constants;
 import com.ruoyi.common.constant.GenConstants;
 import com.ruoyi.common.exception.ServiceException;
-import com.ruoyi.common.utils.RowUtil;
-import com.ruoyi.framework.datasource.DataSourceUtils;
 import com.ruoyi.framework.datasource.DynamicDataSourceContextHolder;
 import com.ruoyi.framework.web.page.PageDomain;
 import com.ruoyi.framework.web.page.TableSupport;
+import com.ruoyi.project.common.domain.vo.SchemaTableMeta;
+import com.ruoyi.project.common.service.ISchemaCatalogService;
 import com.ruoyi.project.gen.domain.GenTable;
 import com.ruoyi.project.gen.domain.GenTableColumn;
 import com.ruoyi.project.gen.mapper.GenTableMapper;
@@ -80,7 +84,11 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
     private ISysDataSourceService sysDataSourceService;
 
     @Autowired
-    private DataSourceUtils dataSourceUtils;
+    private ISchemaCatalogService schemaCatalogService;
+
+    @Autowired
+    @Qualifier("threadPoolTaskExecutor")
+    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
 
     /**
      * 查询业务列表
@@ -112,59 +120,7 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
      */
     @Override
     public Page<GenTable> selectDbTableList(GenTable genTable) {
-        // 获取分页参数
-        PageDomain pageDomain = TableSupport.buildPageRequest();
-        Integer pageNum = pageDomain.getPageNum();
-        Integer pageSize = pageDomain.getPageSize();
-
-        // 构建查询条件
-        StringBuilder sqlBuilder = new StringBuilder();
-        sqlBuilder.append("SELECT table_name, table_comment, ")
-                // 使用CAST处理日期时间类型，将其转换为字符串
-                .append("create_time, ")
-                .append("update_time ")
-                .append("FROM information_schema.tables ")
-                .append("WHERE table_schema = (SELECT DATABASE()) ")
-                .append("AND table_name NOT LIKE 'qrtz\\_%' AND table_name NOT LIKE 'gen\\_%' ")
-                .append("AND table_name NOT IN (SELECT table_name FROM gen_table WHERE table_name IS NOT NULL) ");
-
-        List<Object> params = new ArrayList<>();
-
-        // 添加条件查询
-        if (ObjectUtil.isNotEmpty(genTable.getTableName())) {
-            sqlBuilder.append("AND table_name LIKE ? ");
-            params.add("%" + genTable.getTableName() + "%");
-        }
-
-        if (ObjectUtil.isNotEmpty(genTable.getTableComment())) {
-            sqlBuilder.append("AND table_comment LIKE ? ");
-            params.add("%" + genTable.getTableComment() + "%");
-        }
-
-        // 添加排序
-        sqlBuilder.append("ORDER BY create_time DESC ");
-
-        // 先查询总记录数
-        String countSql = "SELECT COUNT(*) FROM (" + sqlBuilder.toString() + ") t";
-        Long total = (Long) Db.selectObject(countSql, params.toArray());
-
-        // 添加分页条件
-        sqlBuilder.append("LIMIT ?, ?");
-        params.add((pageNum - 1) * pageSize);
-        params.add(pageSize);
-
-        // 执行查询并获取结果
-        List<Row> rows = Db.selectListBySql(sqlBuilder.toString(), params.toArray());
-
-        // 使用自定义RowUtil直接转为GenTable实体列表
-        List<GenTable> list = RowUtil.toEntityList(rows, GenTable.class);
-
-        // 手动构造 Page 对象
-        Page<GenTable> page = new Page<>(pageNum, pageSize);
-        page.setRecords(list);
-        page.setTotalRow(total != null ? total : 0);
-
-        return page;
+        return selectDbTablePage(genTable, DynamicDataSourceContextHolder.MASTER);
     }
 
     /**
@@ -176,82 +132,53 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
      */
     @Override
     public Page<GenTable> selectDbTableListByDataSource(GenTable genTable, String dataSourceName) {
+        return selectDbTablePage(genTable, dataSourceName);
+    }
+
+    /**
+     * 从表结构目录缓存中筛选未导入的表并分页，不再每次分页都查询 information_schema
+     */
+    private Page<GenTable> selectDbTablePage(GenTable genTable, String dataSourceName) {
         // 获取分页参数
         PageDomain pageDomain = TableSupport.buildPageRequest();
         Integer pageNum = pageDomain.getPageNum();
         Integer pageSize = pageDomain.getPageSize();
 
-        // 获取已生成的表名列表
-        final List<String> genTableNames = new ArrayList<>();
+        // 获取已生成的表名列表（小写，MySQL 表名比较不区分大小写）
+        final Set<String> genTableNames = new HashSet<>();
         try {
-            genTableNames.addAll(this.selectTableNameList());
+            for (String name : this.selectTableNameList()) {
+                genTableNames.add(name.toLowerCase(Locale.ROOT));
+            }
         } catch (Exception e) {
             log.warn("获取已生成表名列表失败，将不过滤已生成的表: {}", e.getMessage());
         }
 
-        return dataSourceUtils.executeWithDataSource(dataSourceName, () -> {
-            // 获取数据源信息
-            SysDataSource sysDataSource = sysDataSourceService.selectSysDataSourceByName(dataSourceName);
-
-            // 构建查询条件
-            StringBuilder sqlBuilder = new StringBuilder();
-            sqlBuilder.append("SELECT table_name, table_comment, ")
-                    .append("create_time, ")
-                    .append("update_time ")
-                    .append("FROM information_schema.tables ")
-                    .append("WHERE table_schema = ? ")
-                    .append("AND table_name NOT LIKE 'qrtz\\_%' AND table_name NOT LIKE 'gen\\_%' ");
-
-            List<Object> params = new ArrayList<>();
-            params.add(sysDataSource.getDatabaseName());
-
-            // 如果成功获取到了已生成表名列表，则添加过滤条件
-            if (CollUtil.isNotEmpty(genTableNames)) {
-                sqlBuilder.append("AND table_name NOT IN (");
-                for (int i = 0; i < genTableNames.size(); i++) {
-                    sqlBuilder.append("?");
-                    if (i < genTableNames.size() - 1) {
-                        sqlBuilder.append(",");
-                    }
-                    params.add(genTableNames.get(i));
-                }
-                sqlBuilder.append(") ");
+        String tableName = StrUtil.emptyToNull(StrUtil.trim(genTable.getTableName()));
+        String tableComment = StrUtil.emptyToNull(StrUtil.trim(genTable.getTableComment()));
+        List<SchemaTableMeta> matched = new ArrayList<>();
+        for (SchemaTableMeta table : schemaCatalogService.listTables(dataSourceName)) {
+            if (isGenExcludedTable(table.getTableName()) || genTableNames.contains(table.getTableName().toLowerCase(Locale.ROOT))) {
+                continue;
             }
-
-            // 添加条件查询
-            if (ObjectUtil.isNotEmpty(genTable.getTableName())) {
-                sqlBuilder.append("AND table_name LIKE ? ");
-                params.add("%" + genTable.getTableName() + "%");
+            if (tableName != null && !StrUtil.containsIgnoreCase(table.getTableName(), tableName)) {
+                continue;
             }
-
-            if (ObjectUtil.isNotEmpty(genTable.getTableComment())) {
-                sqlBuilder.append("AND table_comment LIKE ? ");
-                params.add("%" + genTable.getTableComment() + "%");
+            if (tableComment != null && !StrUtil.containsIgnoreCase(table.getTableComment(), tableComment)) {
+                continue;
             }
+            matched.add(table);
+        }
 
-            // 添加排序
-            sqlBuilder.append("ORDER BY create_time DESC ");
-
-            // 先查询总记录数
-            String countSql = "SELECT COUNT(*) FROM (" + sqlBuilder.toString() + ") t";
-            Long total = (Long) Db.selectObject(countSql, params.toArray());
-
-            // 添加分页条件
-            sqlBuilder.append("LIMIT ?, ?");
-            params.add((pageNum - 1) * pageSize);
-            params.add(pageSize);
-
-            // 执行查询并获取结果
-            List<Row> rows = Db.selectListBySql(sqlBuilder.toString(), params.toArray());
-            List<GenTable> list = RowUtil.toEntityList(rows, GenTable.class);
-
-            // 手动构造 Page 对象
-            Page<GenTable> page = new Page<>(pageNum, pageSize);
-            page.setRecords(list);
-            page.setTotalRow(total != null ? total : 0);
+        // 目录已按创建时间倒序，直接截取当前页
+        int from = Math.min((pageNum - 1) * pageSize, matched.size());
+        int to = Math.min(from + pageSize, matched.size());
 
-            return page;
-        });
+        // 手动构造 Page 对象
+        Page<GenTable> page = new Page<>(pageNum, pageSize);
+        page.setRecords(toGenTables(matched.subList(from, to)));
+        page.setTotalRow(matched.size());
+        return page;
     }
 
     /**
@@ -262,17 +189,14 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
      */
     @Override
     public List<GenTable> selectDbTableListByNames(String[] tableNames) {
-        // 使用参数化查询避免SQL注入
-        String sql = "SELECT table_name, table_comment, create_time, update_time " +
-                "FROM information_schema.tables " +
-                "WHERE table_schema = (SELECT DATABASE()) " +
-                "AND table_name IN (" + String.join(",", Collections.nCopies(tableNames.length, "?")) + ")";
-
-        // 使用Db执行SQL并获取结果
-        List<Row> rows = Db.selectListBySql(sql, (Object[]) tableNames);
-
-        // 使用自定义RowUtil直接转为GenTable实体列表
-        return RowUtil.toEntityList(rows, GenTable.class);
+        List<SchemaTableMeta> tables = new ArrayList<>();
+        for (String tableName : tableNames) {
+            SchemaTableMeta table = schemaCatalogService.getTable(DynamicDataSourceContextHolder.MASTER, tableName);
+            if (table != null) {
+                tables.add(table);
+            }
+        }
+        return toGenTables(tables);
     }
 
     /**
@@ -289,23 +213,40 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
             throw new ServiceException("数据源不存在或数据库名称未配置");
         }
 
-        return executeWithDataSource(dataSourceName, () -> {
-            // 使用参数化查询避免SQL注入
-            String sql = "SELECT table_name, table_comment, create_time, update_time " +
-                    "FROM information_schema.tables " +
-                    "WHERE table_schema = ? " +
-                    "AND table_name NOT LIKE 'qrtz\\_%' AND table_name NOT LIKE 'gen\\_%' " +
-                    "AND table_name IN (" + String.join(",", Collections.nCopies(tableNames.length, "?")) + ")";
+        List<SchemaTableMeta> tables = new ArrayList<>();
+        for (String tableName : tableNames) {
+            if (isGenExcludedTable(tableName)) {
+                continue;
+            }
+            SchemaTableMeta table = schemaCatalogService.getTable(dataSourceName, tableName);
+            if (table != null) {
+                tables.add(table);
+            }
+        }
+        return toGenTables(tables);
+    }
 
-            // 构建参数列表
-            List<Object> params = new ArrayList<>();
-            params.add(sysDataSource.getDatabaseName());
-            params.addAll(Arrays.asList(tableNames));
+    /**
+     * 定时任务表（qrtz_）与代码生成表（gen_）不参与导入
+     */
+    private boolean isGenExcludedTable(String tableName) {
+        return StrUtil.startWithIgnoreCase(tableName, "qrtz_") || StrUtil.startWithIgnoreCase(tableName, "gen_");
+    }
 
-            // 执行查询并获取结果
-            List<Row> rows = Db.selectListBySql(sql, params.toArray());
-            return RowUtil.toEntityList(rows, GenTable.class);
-        });
+    /**
+     * 目录中的表信息转为新的业务表对象，调用方可以自由修改
+     */
+    private List<GenTable> toGenTables(List<SchemaTableMeta> tables) {
+        List<GenTable> list = new ArrayList<>(tables.size());
+        for (SchemaTableMeta table : tables) {
+            GenTable genTable = new GenTable();
+            genTable.setTableName(table.getTableName());
+            genTable.setTableComment(table.getTableComment());
+            genTable.setCreateTime(table.getCreateTime());
+            genTable.setUpdateTime(table.getUpdateTime());
+            list.add(genTable);
+        }
+        return list;
     }
 
     /**
@@ -527,6 +468,9 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
         } catch (Exception e) {
             e.printStackTrace();
             return false;
+        } finally {
+            // 表结构已变化，丢弃当前数据源的表结构目录缓存
+            schemaCatalogService.refresh(DynamicDataSourceContextHolder.getDataSourceType());
         }
     }
 
@@ -645,20 +589,11 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
         setSubTable(table);
         // 设置主键列信息
         setPkColumn(table);
-        VelocityInitializer.initVelocity();
 
-        VelocityContext context = VelocityUtils.prepareContext(table);
-
-        // 获取模板列表
+        // 获取模板列表并渲染
         List<String> templates = VelocityUtils.getTemplateList(table.getTplCategory(), table.getTplWebType(),
                 table.isInherit());
-        for (String template : templates) {
-            // 渲染模板
-            StringWriter sw = new StringWriter();
-            Template tpl = Velocity.getTemplate(template, Constants.UTF8);
-            tpl.merge(context, sw);
-            dataMap.put(template, sw.toString());
-        }
+        dataMap.putAll(renderTemplates(table, templates));
         return dataMap;
     }
 
@@ -670,11 +605,7 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
      */
     @Override
     public byte[] downloadCode(String tableName) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ZipOutputStream zip = new ZipOutputStream(outputStream);
-        generatorCode(tableName, zip);
-        IOUtils.closeQuietly(zip);
-        return outputStream.toByteArray();
+        return downloadCode(new String[] { tableName });
     }
 
     /**
@@ -686,29 +617,60 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
     @Override
     public byte[] downloadCode(String[] tableNames) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        downloadCode(tableNames, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 批量生成代码，ZIP 直接写入输出流
+     *
+     * @param tableNames 表数组
+     * @param out        输出流（不会被关闭）
+     */
+    @Override
+    public void downloadCode(String[] tableNames, OutputStream out) {
+        List<GenTable> tables = new ArrayList<>(tableNames.length);
         for (String tableName : tableNames) {
-            generatorCode(tableName, zip);
+            GenTable table = this.selectGenTableByName(tableName);
+            if (table == null) {
+                throw new ServiceException("表信息不存在，tableName: " + tableName);
+            }
+            tables.add(prepareGenTable(table));
         }
-        IOUtils.closeQuietly(zip);
-        return outputStream.toByteArray();
+        writeCodeZip(tables, "all", out);
     }
 
     @Override
     public byte[] downloadCodeByIds(List<Long> tableIds, String genType) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        downloadCodeByIds(tableIds, genType, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 按表ID批量生成代码，ZIP 直接写入输出流
+     *
+     * @param tableIds 表ID数组
+     * @param genType  生成类型：all-全部生成，java-只生成Java代码，vue-只生成Vue代码
+     * @param out      输出流（不会被关闭）
+     */
+    @Override
+    public void downloadCodeByIds(List<Long> tableIds, String genType, OutputStream out) {
+        List<GenTable> tables = new ArrayList<>(tableIds.size());
         for (Long tableId : tableIds) {
-            generatorCodeById(tableId, genType, zip);
+            GenTable table = this.getById(tableId);
+            if (table == null) {
+                throw new ServiceException("表信息不存在，tableId: " + tableId);
+            }
+            tables.add(prepareGenTable(table));
         }
-        IOUtils.closeQuietly(zip);
-        return outputStream.toByteArray();
+        writeCodeZip(tables, genType, out);
     }
 
     @Override
     public void generatorCodeByIds(List<Long> tableIds, String genType) {
         for (Long tableId : tableIds) {
-            generatorCodeById(tableId, genType, null);
+            generatorCodeById(tableId, genType);
         }
     }
 
@@ -730,8 +692,6 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
         // 设置主键列信息
         setPkColumn(table);
 
-        VelocityInitializer.initVelocity();
-
         VelocityContext context = VelocityUtils.prepareContext(table);
 
         // 获取模板列表
@@ -742,7 +702,7 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
             if (!StrUtil.containsAny(template, "mapper.xml.vm")) {
                 // 渲染模板
                 StringWriter sw = new StringWriter();
-                Template tpl = Velocity.getTemplate(template, Constants.UTF8);
+                Template tpl = VelocityInitializer.getTemplate(template);
                 tpl.merge(context, sw);
                 try {
                     String fileName = VelocityUtils.getFileName(template, table);
@@ -861,7 +821,11 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
 
         // 表存在，逐个字段进行同步
         log.info("开始同步表 {} 的字段结构", tableName);
-        synchTableFieldsOneByOne(tableName, tableColumns, dbTableColumns);
+        try {
+            synchTableFieldsOneByOne(tableName, tableColumns, dbTableColumns);
+        } finally {
+            schemaCatalogService.refresh(DynamicDataSourceContextHolder.MASTER);
+        }
         log.info("表 {} 字段结构同步完成", tableName);
     }
 
@@ -1178,6 +1142,7 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
             // 表存在，逐个字段同步表结构
             synchTableFieldsOneByOne(table.getTableName(), tableColumns, dbTableColumns);
         } finally {
+            schemaCatalogService.refresh(dataSourceName);
             // 操作完成后清理数据源上下文
             DynamicDataSourceContextHolder.clearDataSourceType();
         }
@@ -1353,88 +1318,135 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
      * @param zip       zip输出流
      */
     /**
-     * 根据表ID和生成类型生成代码
+     * 根据表ID和生成类型生成代码到文件系统
      * 
      * @param tableId 表ID
      * @param genType 生成类型：all-全部生成，java-只生成Java代码，vue-只生成Vue代码
-     * @param zip     ZIP输出流，为null时生成到文件系统
      */
-    private void generatorCodeById(Long tableId, String genType, ZipOutputStream zip) {
+    private void generatorCodeById(Long tableId, String genType) {
         // 查询表信息
         GenTable table = this.getById(tableId);
         if (table == null) {
             throw new ServiceException("表信息不存在，tableId: " + tableId);
         }
+        prepareGenTable(table);
+
+        // 获取模板列表，根据生成类型过滤后渲染
+        List<String> templates = filterTemplatesByGenType(VelocityUtils.getTemplateList(table.getTplCategory(),
+                table.getTplWebType(), table.isInherit()), genType);
+        Map<String, String> rendered = renderTemplates(table, templates);
+
+        for (Map.Entry<String, String> entry : rendered.entrySet()) {
+            String template = entry.getKey();
+            try {
+                // 生成到文件系统
+                String fileName = VelocityUtils.getFileName(template, table);
+                if (StrUtil.isEmpty(fileName)) {
+                    log.warn("跳过模板生成，文件名为空: {}", template);
+                    continue;
+                }
+
+                String basePath = getGenPath(table, template);
+                if (StrUtil.isEmpty(basePath)) {
+                    log.warn("跳过模板生成，基础路径为空: {}", template);
+                    continue;
+                }
+
+                // 组合完整的文件路径
+                String fullPath = basePath + fileName.replace("/", File.separator);
+                File targetFile = new File(fullPath);
+
+                // 确保父目录存在
+                File parentDir = targetFile.getParentFile();
+                if (parentDir != null && !parentDir.exists()) {
+                    boolean created = parentDir.mkdirs();
+                    if (!created) {
+                        throw new ServiceException("创建目录失败：" + parentDir.getAbsolutePath());
+                    }
+                }
 
+                log.info("生成文件: {}", targetFile.getAbsolutePath());
+                FileUtils.writeStringToFile(targetFile, entry.getValue(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                log.error("渲染模板失败，表名：{}，模板：{}，错误：{}", table.getTableName(), template, e.getMessage());
+                throw new ServiceException(
+                        "渲染模板失败，表名：" + table.getTableName() + "，模板：" + template + "，错误：" + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 加载生成代码所需的列、主子表、主键信息
+     *
+     * @param table 业务表
+     * @return 同一业务表对象
+     */
+    private GenTable prepareGenTable(GenTable table) {
         // 查询列信息
-        List<GenTableColumn> columns = genTableColumnService.selectGenTableColumnListByTableId(tableId);
+        List<GenTableColumn> columns = genTableColumnService.selectGenTableColumnListByTableId(table.getTableId());
         table.setColumns(columns);
-
         // 设置主子表信息
         setSubTable(table);
         // 设置主键列信息
         setPkColumn(table);
+        return table;
+    }
 
-        VelocityInitializer.initVelocity();
-
+    /**
+     * 渲染表的模板，结果按模板顺序返回（模板路径 -> 内容）
+     */
+    private Map<String, String> renderTemplates(GenTable table, List<String> templates) {
         VelocityContext context = VelocityUtils.prepareContext(table);
-
-        // 获取模板列表
-        List<String> templates = VelocityUtils.getTemplateList(table.getTplCategory(), table.getTplWebType(),
-                table.isInherit());
-
-        // 根据生成类型过滤模板
-        templates = filterTemplatesByGenType(templates, genType);
-
+        Map<String, String> rendered = new LinkedHashMap<>();
         for (String template : templates) {
-            // 渲染模板
             StringWriter sw = new StringWriter();
-            Template tpl = Velocity.getTemplate(template, Constants.UTF8);
-            tpl.merge(context, sw);
-            try {
-                if (zip != null) {
-                    // 生成到ZIP
-                    String fileName = VelocityUtils.getFileName(template, table, true);
+            VelocityInitializer.getTemplate(template).merge(context, sw);
+            rendered.put(template, sw.toString());
+        }
+        return rendered;
+    }
+
+    /**
+     * 多张表在线程池中并行渲染，按表的顺序依次写入 ZIP；ZIP 直接写到输出流，不在内存中拼装整个压缩包
+     */
+    private void writeCodeZip(List<GenTable> tables, String genType, OutputStream out) {
+        List<CompletableFuture<Map<String, String>>> futures = new ArrayList<>(tables.size());
+        for (GenTable table : tables) {
+            List<String> templates = filterTemplatesByGenType(VelocityUtils.getTemplateList(table.getTplCategory(),
+                    table.getTplWebType(), table.isInherit()), genType);
+            futures.add(CompletableFuture.supplyAsync(() -> renderTemplates(table, templates), threadPoolTaskExecutor));
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            for (int i = 0; i < tables.size(); i++) {
+                GenTable table = tables.get(i);
+                for (Map.Entry<String, String> entry : futures.get(i).join().entrySet()) {
+                    String fileName = VelocityUtils.getFileName(entry.getKey(), table, true);
+                    // 如果文件名为null，表示不需要生成该文件（如SQL文件）
                     if (fileName != null) {
                         zip.putNextEntry(new ZipEntry(fileName));
-                        IOUtils.write(sw.toString(), zip, Constants.UTF8);
-                        zip.flush();
+                        IOUtils.write(entry.getValue(), zip, Constants.UTF8);
                         zip.closeEntry();
                     }
-                } else {
-                    // 生成到文件系统
-                    String fileName = VelocityUtils.getFileName(template, table);
-                    if (StrUtil.isEmpty(fileName)) {
-                        log.warn("跳过模板生成，文件名为空: {}", template);
-                        continue;
-                    }
-
-                    String basePath = getGenPath(table, template);
-                    if (StrUtil.isEmpty(basePath)) {
-                        log.warn("跳过模板生成，基础路径为空: {}", template);
-                        continue;
-                    }
-
-                    // 组合完整的文件路径
-                    String fullPath = basePath + fileName.replace("/", File.separator);
-                    File targetFile = new File(fullPath);
-
-                    // 确保父目录存在
-                    File parentDir = targetFile.getParentFile();
-                    if (parentDir != null && !parentDir.exists()) {
-                        boolean created = parentDir.mkdirs();
-                        if (!created) {
-                            throw new ServiceException("创建目录失败：" + parentDir.getAbsolutePath());
-                        }
-                    }
-
-                    log.info("生成文件: {}", targetFile.getAbsolutePath());
-                    FileUtils.writeStringToFile(targetFile, sw.toString(), StandardCharsets.UTF_8);
                 }
-            } catch (IOException e) {
-                log.error("渲染模板失败，表名：{}，模板：{}，错误：{}", table.getTableName(), template, e.getMessage());
-                throw new ServiceException(
-                        "渲染模板失败，表名：" + table.getTableName() + "，模板：" + template + "，错误：" + e.getMessage());
+                // 已写出的表结果不再持有
+                futures.set(i, null);
+            }
+            zip.finish();
+            zip.flush();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("渲染模板失败", cause);
+            throw new ServiceException("渲染模板失败：" + cause.getMessage());
+        } catch (IOException e) {
+            log.error("写入代码压缩包失败", e);
+            throw new ServiceException("写入代码压缩包失败：" + e.getMessage());
+        } finally {
+            for (CompletableFuture<Map<String, String>> future : futures) {
+                if (future != null) {
+                    future.cancel(false);
+                }
             }
         }
     }
@@ -1468,49 +1480,6 @@ public class GenTableServiceImpl extends ServiceImpl<GenTableMapper, GenTable> i
         return filteredTemplates;
     }
 
-    private void generatorCode(String tableName, ZipOutputStream zip) {
-        // 查询表信息
-        GenTable table = this.selectGenTableByName(tableName);
-        // 查询列信息
-        List<GenTableColumn> columns = genTableColumnService.selectGenTableColumnListByTableId(table.getTableId());
-        table.setColumns(columns);
-
-        // 设置主子表信息
-        setSubTable(table);
-        // 设置主键列信息
-        setPkColumn(table);
-
-        VelocityInitializer.initVelocity();
-
-        VelocityContext context = VelocityUtils.prepareContext(table);
-
-        // 获取模板列表
-        List<String> templates = VelocityUtils.getTemplateList(table.getTplCategory(), table.getTplWebType(),
-                table.isInherit());
-
-        for (String template : templates) {
-            // 渲染模板
-            StringWriter sw = new StringWriter();
-            Template tpl = Velocity.getTemplate(template, Constants.UTF8);
-            tpl.merge(context, sw);
-            try {
-                // 添加到zip
-                if (zip != null) {
-                    String fileName = VelocityUtils.getFileName(template, table, true);
-                    // 如果文件名为null，表示不需要生成该文件（如SQL文件）
-                    if (fileName != null) {
-                        zip.putNextEntry(new ZipEntry(fileName));
-                        IOUtils.write(sw.toString(), zip, Constants.UTF8);
-                        zip.flush();
-                        zip.closeEntry();
-                    }
-                }
-            } catch (IOException e) {
-                log.error("渲染模板失败，表名：" + table.getTableName(), e);
-            }
-        }
-    }
-
     /**
      * 验证自增字段配置是否正确
      * 
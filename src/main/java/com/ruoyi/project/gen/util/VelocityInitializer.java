@@ -1,20 +1,48 @@
 package com.ruoyi.project.gen.util;
 
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.velocity.Template;
 import org.apache.velocity.app.Velocity;
+import org.apache.velocity.app.VelocityEngine;
 import com.ruoyi.common.constant.Constants;
 
 /**
  * VelocityEngine工厂
- * 
+ * 引擎只初始化一次；模板解析后缓存，解析后的模板可被多个线程并发渲染
+ *
  * @author ruoyi
  */
 public class VelocityInitializer
 {
+    /** 已解析的模板，key 为 classpath 下的模板路径 */
+    private static final Map<String, Template> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
+    private VelocityInitializer()
+    {
+    }
+
+    /**
+     * 获取代码生成专用的 Velocity 引擎
+     */
+    public static VelocityEngine getEngine()
+    {
+        return EngineHolder.ENGINE;
+    }
+
     /**
-     * 初始化vm方法
+     * 获取已解析的模板
+     *
+     * @param name 模板路径，如 vm/java/domain.java.vm
+     * @return 模板
      */
-    public static void initVelocity()
+    public static Template getTemplate(String name)
+    {
+        return TEMPLATE_CACHE.computeIfAbsent(name, key -> getEngine().getTemplate(key, Constants.UTF8));
+    }
+
+    private static VelocityEngine createEngine()
     {
         Properties p = new Properties();
         try
@@ -24,11 +52,21 @@ public class VelocityInitializer
             // 定义字符集
             p.setProperty(Velocity.INPUT_ENCODING, Constants.UTF8);
             // 初始化Velocity引擎，指定配置Properties
-            Velocity.init(p);
+            VelocityEngine engine = new VelocityEngine(p);
+            engine.init();
+            return engine;
         }
         catch (Exception e)
         {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * 延迟初始化，首次生成代码时才创建引擎
+     */
+    private static class EngineHolder
+    {
+        private static final VelocityEngine ENGINE = createEngine();
+    }
 }
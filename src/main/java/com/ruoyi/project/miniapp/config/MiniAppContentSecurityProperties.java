@@ -22,9 +22,6 @@ public class MiniAppContentSecurityProperties {
      */
     private int scene = 4;
 
-    /** 图片异步检测等待超时（毫秒） */
+    /** 多媒体异步检测等待回调超时（毫秒） */
     private long mediaCheckTimeoutMs = 15000;
-
-    /** 图片异步检测结果轮询间隔（毫秒） */
-    private long mediaCheckPollIntervalMs = 300;
 }
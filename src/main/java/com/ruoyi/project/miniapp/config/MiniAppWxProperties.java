@@ -0,0 +1,29 @@
+package com.ruoyi.project.miniapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 微信小程序接口调用配置（access_token 共享与主动刷新）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "miniapp.wx")
+public class MiniAppWxProperties {
+
+    /**
+     * 使用稳定版 access_token 接口（getStableAccessToken），多实例下刷新不会使其它实例持有的 token 立即失效
+     */
+    private boolean useStableAccessToken = true;
+
+    /** access_token 剩余有效期低于该值（秒）时由定时任务提前刷新 */
+    private int refreshAheadSeconds = 600;
+
+    /** 服务超过该时长（分钟）未被使用时移除，不再为其刷新 token */
+    private int serviceIdleMinutes = 1440;
+
+    /** 微信接口地址，为空时使用官方地址；联调时可指向本地桩服务 */
+    private String apiHostUrl;
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.ruoyi.framework.web.domain.AjaxResult;
@@ -15,6 +16,7 @@ import com.ruoyi.project.miniapp.domain.dto.MiniAppLoginRequest;
 import com.ruoyi.project.miniapp.domain.dto.UpdateMiniUserProfileRequest;
 import com.ruoyi.project.miniapp.domain.vo.MiniAppLoginUser;
 import com.ruoyi.project.miniapp.service.IMiniAppAuthService;
+import com.ruoyi.project.miniapp.util.MiniAppDeferredResultUtils;
 import com.ruoyi.project.miniapp.util.MiniAppSecurityUtils;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -25,6 +27,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/miniapp/auth")
 public class MiniAppAuthController {
 
+    /** 头像上传总超时：内容检测 + 上传存储 */
+    private static final long AVATAR_TIMEOUT_MS = 60000L;
+
     private final IMiniAppAuthService miniAppAuthService;
 
     public MiniAppAuthController(IMiniAppAuthService miniAppAuthService) {
@@ -53,9 +58,10 @@ public class MiniAppAuthController {
 
     @Operation(summary = "上传用户头像")
     @PostMapping("/avatar/upload")
-    public AjaxResult uploadAvatar(@RequestParam("file") MultipartFile file) throws Exception {
+    public DeferredResult<AjaxResult> uploadAvatar(@RequestParam("file") MultipartFile file) throws Exception {
         MiniAppLoginUser loginUser = MiniAppSecurityUtils.getLoginUser();
-        return AjaxResult.success(miniAppAuthService.uploadAvatar(file, loginUser));
+        return MiniAppDeferredResultUtils.toAjaxResult(miniAppAuthService.uploadAvatar(file, loginUser),
+                AVATAR_TIMEOUT_MS);
     }
 
     @Operation(summary = "小程序退出登录")
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.ruoyi.framework.web.domain.AjaxResult;
@@ -13,6 +14,7 @@ import com.ruoyi.project.miniapp.domain.dto.TranslateTextRequest;
 import com.ruoyi.project.miniapp.service.impl.MiniAppImageTranslateService;
 import com.ruoyi.project.miniapp.service.impl.MiniAppTextTranslateService;
 import com.ruoyi.project.miniapp.service.impl.MiniAppVoiceRecognizeService;
+import com.ruoyi.project.miniapp.util.MiniAppDeferredResultUtils;
 import com.ruoyi.project.miniapp.util.MiniAppSecurityUtils;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +25,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/miniapp/translate")
 public class MiniAppTranslateController {
 
+    /** 图片翻译总超时：内容检测 + OCR + 分段翻译 */
+    private static final long IMAGE_TIMEOUT_MS = 120000L;
+    /** 语音识别总超时：内容检测 + 语音识别 */
+    private static final long VOICE_TIMEOUT_MS = 60000L;
+
     private final MiniAppTextTranslateService textTranslateService;
     private final MiniAppImageTranslateService imageTranslateService;
     private final MiniAppVoiceRecognizeService voiceRecognizeService;
@@ -44,21 +51,23 @@ public class MiniAppTranslateController {
 
     @Operation(summary = "图片翻译（OCR + AI）")
     @PostMapping("/image")
-    public AjaxResult translateImage(
+    public DeferredResult<AjaxResult> translateImage(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "sourceLanguage", required = false, defaultValue = "Auto") String sourceLanguage,
             @RequestParam("targetLanguage") String targetLanguage) {
         MiniAppSecurityUtils.getLoginUser();
-        return AjaxResult.success(imageTranslateService.translateImage(file, sourceLanguage, targetLanguage));
+        return MiniAppDeferredResultUtils.toAjaxResult(
+                imageTranslateService.translateImage(file, sourceLanguage, targetLanguage), IMAGE_TIMEOUT_MS);
     }
 
     @Operation(summary = "语音录入识别")
     @PostMapping("/voice")
-    public AjaxResult recognizeVoice(
+    public DeferredResult<AjaxResult> recognizeVoice(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "format", required = false, defaultValue = "mp3") String format,
             @RequestParam(value = "sampleRate", required = false, defaultValue = "16000") Integer sampleRate) {
         MiniAppSecurityUtils.getLoginUser();
-        return AjaxResult.success(voiceRecognizeService.recognizeVoice(file, format, sampleRate));
+        return MiniAppDeferredResultUtils.toAjaxResult(
+                voiceRecognizeService.recognizeVoice(file, format, sampleRate), VOICE_TIMEOUT_MS);
     }
 }
@@ -2,8 +2,6 @@ package com.ruoyi.project.miniapp.controller.bill;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,9 +12,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.mybatisflex.core.row.Db;
-import com.mybatisflex.core.row.Row;
 import com.ruoyi.framework.web.domain.AjaxResult;
+import com.ruoyi.project.bill.service.IBillDailySummaryService;
 import com.ruoyi.project.bill.service.IBillRecordService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,6 +27,9 @@ public class MiniAppBillRecordStatController extends BillMiniAppBaseController {
     @Autowired
     private IBillRecordService billRecordService;
 
+    @Autowired
+    private IBillDailySummaryService billDailySummaryService;
+
     @Operation(summary = "首页概览统计")
     @GetMapping("/overview")
     public AjaxResult overview() {
@@ -38,35 +38,9 @@ public class MiniAppBillRecordStatController extends BillMiniAppBaseController {
         Long queryId = (Long) scope.get("queryId");
         Long userId = (Long) scope.get("userId");
 
-        LocalDate today = LocalDate.now();
-        LocalDate monthStart = today.withDayOfMonth(1);
-        LocalDate yearStart = today.withDayOfYear(1);
-
-        Map<String, BigDecimal> todayStats;
-        Map<String, BigDecimal> monthStats;
-        Map<String, BigDecimal> yearStats;
-
-        if (isFamilyMode) {
-            todayStats = billRecordService.selectFamilyStatisticsByDateRange(queryId, userId, today, today);
-            monthStats = billRecordService.selectFamilyStatisticsByDateRange(queryId, userId, monthStart, today);
-            yearStats = billRecordService.selectFamilyStatisticsByDateRange(queryId, userId, yearStart, today);
-        } else {
-            todayStats = billRecordService.selectStatisticsByDateRange(queryId, today, today);
-            monthStats = billRecordService.selectStatisticsByDateRange(queryId, monthStart, today);
-            yearStats = billRecordService.selectStatisticsByDateRange(queryId, yearStart, today);
-        }
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("todayExpense", todayStats.getOrDefault("totalExpense", BigDecimal.ZERO));
-        result.put("todayIncome", todayStats.getOrDefault("totalIncome", BigDecimal.ZERO));
-        result.put("monthExpense", monthStats.getOrDefault("totalExpense", BigDecimal.ZERO));
-        result.put("monthIncome", monthStats.getOrDefault("totalIncome", BigDecimal.ZERO));
-        result.put("yearExpense", yearStats.getOrDefault("totalExpense", BigDecimal.ZERO));
-        result.put("yearIncome", yearStats.getOrDefault("totalIncome", BigDecimal.ZERO));
-
-        BigDecimal yearIncome = (BigDecimal) result.get("yearIncome");
-        BigDecimal yearExpense = (BigDecimal) result.get("yearExpense");
-        result.put("totalAssets", yearIncome.subtract(yearExpense));
+        Map<String, Object> result = isFamilyMode
+                ? billDailySummaryService.selectOverview(queryId, userId, LocalDate.now())
+                : billDailySummaryService.selectOverview(null, queryId, LocalDate.now());
         return success(result);
     }
 
@@ -137,39 +111,9 @@ public class MiniAppBillRecordStatController extends BillMiniAppBaseController {
             groupBy = "month";
         }
 
-        String scopeSql = isFamilyMode
-                ? "(family_id = ? OR (user_id = ? AND (family_id = 0 OR family_id IS NULL)))"
-                : "user_id = ?";
-        String sql;
-        if ("day".equals(groupBy)) {
-            sql = "SELECT DAY(record_date) as day, "
-                    + "SUM(CASE WHEN record_type = '0' THEN amount ELSE 0 END) as expense, "
-                    + "SUM(CASE WHEN record_type = '1' THEN amount ELSE 0 END) as income "
-                    + "FROM bill_record WHERE " + scopeSql + " AND record_date BETWEEN ? AND ? "
-                    + "AND del_flag = '0' GROUP BY DAY(record_date) ORDER BY day";
-        } else {
-            sql = "SELECT MONTH(record_date) as month, "
-                    + "SUM(CASE WHEN record_type = '0' THEN amount ELSE 0 END) as expense, "
-                    + "SUM(CASE WHEN record_type = '1' THEN amount ELSE 0 END) as income "
-                    + "FROM bill_record WHERE " + scopeSql + " AND record_date BETWEEN ? AND ? "
-                    + "AND del_flag = '0' GROUP BY MONTH(record_date) ORDER BY month";
-        }
-
-        List<Row> rows = isFamilyMode
-                ? Db.selectListBySql(sql, queryId, userId, start, end)
-                : Db.selectListBySql(sql, queryId, start, end);
-        List<Map<String, Object>> results = new ArrayList<>();
-        for (Row row : rows) {
-            Map<String, Object> map = new HashMap<>();
-            if ("day".equals(groupBy)) {
-                map.put("day", row.get("day"));
-            } else {
-                map.put("month", row.get("month"));
-            }
-            map.put("expense", row.get("expense"));
-            map.put("income", row.get("income"));
-            results.add(map);
-        }
+        List<Map<String, Object>> results = isFamilyMode
+                ? billDailySummaryService.selectTrend(queryId, userId, start, end, "day".equals(groupBy))
+                : billDailySummaryService.selectTrend(null, queryId, start, end, "day".equals(groupBy));
         return success(results);
     }
 
@@ -1,6 +1,7 @@
 package com.ruoyi.project.miniapp.service;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.web.multipart.MultipartFile;
 
@@ -15,7 +16,8 @@ public interface IMiniAppAuthService {
 
     Map<String, Object> updateProfile(UpdateMiniUserProfileRequest request, MiniAppLoginUser loginUser);
 
-    Map<String, Object> uploadAvatar(MultipartFile file, MiniAppLoginUser loginUser) throws Exception;
+    CompletableFuture<Map<String, Object>> uploadAvatar(MultipartFile file, MiniAppLoginUser loginUser)
+            throws Exception;
 
     void logout();
 }
@@ -4,8 +4,11 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -14,6 +17,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.alibaba.fastjson2.JSON;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.storage.FileStorageService;
+import com.ruoyi.common.utils.file.ByteArrayMultipartFile;
 import com.ruoyi.project.miniapp.domain.MiniApp;
 import com.ruoyi.project.miniapp.domain.MiniUser;
 import com.ruoyi.project.miniapp.domain.MiniUserAuth;
@@ -46,6 +50,7 @@ public class MiniAppAuthServiceImpl implements IMiniAppAuthService {
     private final FileStorageService fileStorageService;
     private final BillMiniAppBootstrapService billMiniAppBootstrapService;
     private final MiniAppContentSecurityService contentSecurityService;
+    private final Executor executor;
 
     public MiniAppAuthServiceImpl(IMiniAppService miniAppService,
             IMiniUserService miniUserService,
@@ -53,7 +58,8 @@ public class MiniAppAuthServiceImpl implements IMiniAppAuthService {
             MiniAppWxServiceFactory wxServiceFactory,
             FileStorageService fileStorageService,
             BillMiniAppBootstrapService billMiniAppBootstrapService,
-            MiniAppContentSecurityService contentSecurityService) {
+            MiniAppContentSecurityService contentSecurityService,
+            @Qualifier("miniAppMediaTaskExecutor") Executor executor) {
         this.miniAppService = miniAppService;
         this.miniUserService = miniUserService;
         this.miniUserAuthService = miniUserAuthService;
@@ -61,6 +67,7 @@ public class MiniAppAuthServiceImpl implements IMiniAppAuthService {
         this.fileStorageService = fileStorageService;
         this.billMiniAppBootstrapService = billMiniAppBootstrapService;
         this.contentSecurityService = contentSecurityService;
+        this.executor = executor;
     }
 
     @Override
@@ -192,7 +199,8 @@ public class MiniAppAuthServiceImpl implements IMiniAppAuthService {
     }
 
     @Override
-    public Map<String, Object> uploadAvatar(MultipartFile file, MiniAppLoginUser loginUser) throws Exception {
+    public CompletableFuture<Map<String, Object>> uploadAvatar(MultipartFile file, MiniAppLoginUser loginUser)
+            throws Exception {
         if (file == null || file.isEmpty()) {
             throw new ServiceException("头像文件不能为空");
         }
@@ -206,19 +214,35 @@ public class MiniAppAuthServiceImpl implements IMiniAppAuthService {
             throw new ServiceException("头像仅支持 jpg、png、webp、gif 格式");
         }
 
-        contentSecurityService.checkProfileImage(
-                loginUser,
-                file.getBytes(),
+        // 请求结束后上传文件可能被清理，检测通过后从内存副本上传
+        MultipartFile avatarFile = new ByteArrayMultipartFile(
+                "file",
+                file.getOriginalFilename(),
                 StrUtil.blankToDefault(file.getContentType(), "image/jpeg"),
-                file.getOriginalFilename());
+                file.getBytes());
+        return contentSecurityService.checkProfileImageAsync(
+                loginUser,
+                avatarFile.getBytes(),
+                avatarFile.getContentType(),
+                avatarFile.getOriginalFilename())
+                .thenApplyAsync(v -> storeAvatar(avatarFile, extension, loginUser), executor);
+    }
 
+    private Map<String, Object> storeAvatar(MultipartFile file, String extension, MiniAppLoginUser loginUser) {
         String objectKey = StrUtil.format(
                 "miniapp/{}/avatar/{}/{}.{}",
                 loginUser.getAppCode(),
                 loginUser.getMiniUserId(),
                 UUID.randomUUID().toString().replace("-", ""),
                 extension);
-        String avatarUrl = fileStorageService.upload(file, objectKey);
+        String avatarUrl;
+        try {
+            avatarUrl = fileStorageService.upload(file, objectKey);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServiceException("头像上传失败");
+        }
 
         Map<String, Object> data = new HashMap<>();
         data.put("avatar", avatarUrl);
@@ -5,7 +5,6 @@ import java.util.Map;
 
 import org.springframework.stereotype.Service;
 
-import com.ruoyi.common.utils.ip.AddressUtils;
 import com.ruoyi.common.utils.ip.IpUtils;
 import com.ruoyi.project.miniapp.service.IMiniAppClientRegionService;
 import com.ruoyi.project.system.service.IpLocationService;
@@ -45,14 +44,7 @@ public class MiniAppClientRegionServiceImpl implements IMiniAppClientRegionServi
 
         Map<String, String> location = ipLocationService.getIpLocation(ip);
         String country = location.get("country");
-        if (isChinaCountry(country)) {
-            return true;
-        }
-        if (!"未知".equals(country)) {
-            return false;
-        }
-
-        return isDomesticByPconline(ip);
+        return isChinaCountry(country);
     }
 
     private String resolveCountry(String ip, boolean domestic) {
@@ -75,9 +67,4 @@ public class MiniAppClientRegionServiceImpl implements IMiniAppClientRegionServi
     private boolean isChinaCountry(String country) {
         return "China".equalsIgnoreCase(country) || "中国".equals(country);
     }
-
-    private boolean isDomesticByPconline(String ip) {
-        String address = AddressUtils.getRealAddressByIP(ip);
-        return !AddressUtils.UNKNOWN.equals(address) && !"内网IP".equals(address);
-    }
 }
@@ -4,7 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -48,17 +51,20 @@ public class MiniAppContentSecurityService {
     private final MiniAppWxServiceFactory wxServiceFactory;
     private final FileStorageService fileStorageService;
     private final MiniAppMediaCheckResultStore mediaCheckResultStore;
+    private final Executor executor;
 
     public MiniAppContentSecurityService(MiniAppContentSecurityProperties properties,
             IMiniAppService miniAppService,
             MiniAppWxServiceFactory wxServiceFactory,
             FileStorageService fileStorageService,
-            MiniAppMediaCheckResultStore mediaCheckResultStore) {
+            MiniAppMediaCheckResultStore mediaCheckResultStore,
+            @Qualifier("taskExecutor") Executor executor) {
         this.properties = properties;
         this.miniAppService = miniAppService;
         this.wxServiceFactory = wxServiceFactory;
         this.fileStorageService = fileStorageService;
         this.mediaCheckResultStore = mediaCheckResultStore;
+        this.executor = executor;
     }
 
     public void checkSocialText(MiniAppLoginUser loginUser, String content) {
@@ -73,16 +79,19 @@ public class MiniAppContentSecurityService {
         checkTextContent(loginUser, content, MiniAppContentSecurityScene.COMMENT, null);
     }
 
-    public void checkImageContent(MiniAppLoginUser loginUser, byte[] imageBytes, String mimeType, String filename) {
-        checkImageContent(loginUser, imageBytes, mimeType, filename, MiniAppContentSecurityScene.SOCIAL);
+    public CompletableFuture<Void> checkImageContentAsync(MiniAppLoginUser loginUser, byte[] imageBytes,
+            String mimeType, String filename) {
+        return checkImageContentAsync(loginUser, imageBytes, mimeType, filename, MiniAppContentSecurityScene.SOCIAL);
     }
 
-    public void checkProfileImage(MiniAppLoginUser loginUser, byte[] imageBytes, String mimeType, String filename) {
-        checkImageContent(loginUser, imageBytes, mimeType, filename, MiniAppContentSecurityScene.PROFILE);
+    public CompletableFuture<Void> checkProfileImageAsync(MiniAppLoginUser loginUser, byte[] imageBytes,
+            String mimeType, String filename) {
+        return checkImageContentAsync(loginUser, imageBytes, mimeType, filename, MiniAppContentSecurityScene.PROFILE);
     }
 
-    public void checkSocialAudio(MiniAppLoginUser loginUser, byte[] audioBytes, String mimeType, String filename) {
-        checkMediaContent(loginUser, audioBytes, mimeType, filename, WxMaConstants.SecCheckMediaType.VOICE,
+    public CompletableFuture<Void> checkSocialAudioAsync(MiniAppLoginUser loginUser, byte[] audioBytes,
+            String mimeType, String filename) {
+        return checkMediaContent(loginUser, audioBytes, mimeType, filename, WxMaConstants.SecCheckMediaType.VOICE,
                 MiniAppContentSecurityScene.SOCIAL, "security-audio");
     }
 
@@ -115,16 +124,20 @@ public class MiniAppContentSecurityService {
         }
     }
 
-    public void checkImageContent(MiniAppLoginUser loginUser, byte[] imageBytes, String mimeType, String filename,
-            int scene) {
-        checkMediaContent(loginUser, imageBytes, mimeType, filename, WxMaConstants.SecCheckMediaType.IMAGE, scene,
-                "security-check");
+    public CompletableFuture<Void> checkImageContentAsync(MiniAppLoginUser loginUser, byte[] imageBytes,
+            String mimeType, String filename, int scene) {
+        return checkMediaContent(loginUser, imageBytes, mimeType, filename, WxMaConstants.SecCheckMediaType.IMAGE,
+                scene, "security-check");
     }
 
-    private void checkMediaContent(MiniAppLoginUser loginUser, byte[] mediaBytes, String mimeType, String filename,
-            int mediaType, int scene, String objectPrefix) {
+    /**
+     * 提交多媒体检测：上传临时文件并调用 mediaCheckAsync 在当前线程完成，提交失败直接抛出；
+     * 检测结果由微信回调写入结果存储后完成返回的 future，超时以“无法检测”失败，等待期间不占用线程
+     */
+    private CompletableFuture<Void> checkMediaContent(MiniAppLoginUser loginUser, byte[] mediaBytes, String mimeType,
+            String filename, int mediaType, int scene, String objectPrefix) {
         if (!properties.isEnabled() || mediaBytes == null || mediaBytes.length == 0) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         WxMaService wxMaService = resolveWxMaService(loginUser);
@@ -159,26 +172,34 @@ public class MiniAppContentSecurityService {
                 throw new ServiceException(CHECK_UNAVAILABLE_MESSAGE);
             }
 
-            MiniAppMediaCheckResult checkResult = waitForMediaCheckResult(asyncResult.getTraceId());
-            validateMediaResult(checkResult);
+            String tempObjectKey = objectKey;
+            return mediaCheckResultStore.await(asyncResult.getTraceId(), properties.getMediaCheckTimeoutMs())
+                    .thenAccept(this::validateMediaResult)
+                    .whenCompleteAsync((result, e) -> deleteTempObject(tempObjectKey), executor);
         } catch (ServiceException e) {
+            deleteTempObject(objectKey);
             throw e;
         } catch (WxErrorException e) {
             log.warn("多媒体内容安全检测失败: openid={}, scene={}, mediaType={}, err={}",
                     loginUser.getOpenid(), scene, mediaType, e.getMessage());
+            deleteTempObject(objectKey);
             throw new ServiceException(CHECK_UNAVAILABLE_MESSAGE);
         } catch (Exception e) {
             log.warn("多媒体内容安全检测异常: openid={}, scene={}, mediaType={}, err={}",
                     loginUser.getOpenid(), scene, mediaType, e.getMessage());
+            deleteTempObject(objectKey);
             throw new ServiceException(CHECK_UNAVAILABLE_MESSAGE);
-        } finally {
-            if (StrUtil.isNotBlank(objectKey)) {
-                try {
-                    fileStorageService.delete(objectKey);
-                } catch (Exception e) {
-                    log.debug("清理临时检测文件失败: {}", objectKey);
-                }
-            }
+        }
+    }
+
+    private void deleteTempObject(String objectKey) {
+        if (StrUtil.isBlank(objectKey)) {
+            return;
+        }
+        try {
+            fileStorageService.delete(objectKey);
+        } catch (Exception e) {
+            log.debug("清理临时检测文件失败: {}", objectKey);
         }
     }
 
@@ -214,18 +235,6 @@ public class MiniAppContentSecurityService {
         }
     }
 
-    private MiniAppMediaCheckResult waitForMediaCheckResult(String traceId) throws InterruptedException {
-        long deadline = System.currentTimeMillis() + properties.getMediaCheckTimeoutMs();
-        while (System.currentTimeMillis() < deadline) {
-            MiniAppMediaCheckResult cached = mediaCheckResultStore.get(traceId);
-            if (cached != null) {
-                return cached;
-            }
-            Thread.sleep(Math.max(properties.getMediaCheckPollIntervalMs(), 100L));
-        }
-        return null;
-    }
-
     private List<String> splitContent(String content, int maxLength) {
         List<String> chunks = new ArrayList<>();
         String normalized = content.trim();
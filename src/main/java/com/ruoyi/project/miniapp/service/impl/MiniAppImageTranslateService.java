@@ -5,7 +5,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -32,16 +35,23 @@ public class MiniAppImageTranslateService {
     private final AliyunOcrService aliyunOcrService;
     private final MiniAppTextTranslateService textTranslateService;
     private final MiniAppContentSecurityService contentSecurityService;
+    private final Executor executor;
 
     public MiniAppImageTranslateService(AliyunOcrService aliyunOcrService,
             MiniAppTextTranslateService textTranslateService,
-            MiniAppContentSecurityService contentSecurityService) {
+            MiniAppContentSecurityService contentSecurityService,
+            @Qualifier("miniAppMediaTaskExecutor") Executor executor) {
         this.aliyunOcrService = aliyunOcrService;
         this.textTranslateService = textTranslateService;
         this.contentSecurityService = contentSecurityService;
+        this.executor = executor;
     }
 
-    public Map<String, String> translateImage(MultipartFile file, String sourceLanguage, String targetLanguage) {
+    /**
+     * 图片翻译：读图与提交内容检测在请求线程完成，检测通过后在异步线程识文并翻译
+     */
+    public CompletableFuture<Map<String, String>> translateImage(MultipartFile file, String sourceLanguage,
+            String targetLanguage) {
         if (file == null || file.isEmpty()) {
             throw new ServiceException("请上传图片");
         }
@@ -57,12 +67,17 @@ public class MiniAppImageTranslateService {
         MiniAppLoginUser loginUser = MiniAppSecurityUtils.getLoginUser();
 
         byte[] imageBytes = readImageBytes(file);
-        contentSecurityService.checkImageContent(
+        return contentSecurityService.checkImageContentAsync(
                 loginUser,
                 imageBytes,
                 resolveImageMimeType(file),
-                file.getOriginalFilename());
+                file.getOriginalFilename())
+                .thenApplyAsync(v -> recognizeAndTranslate(loginUser, imageBytes, normalizedSource, targetLanguage,
+                        startMs), executor);
+    }
 
+    private Map<String, String> recognizeAndTranslate(MiniAppLoginUser loginUser, byte[] imageBytes,
+            String normalizedSource, String targetLanguage, long startMs) {
         String ocrText = aliyunOcrService.recognizeText(imageBytes, normalizedSource);
         if (StrUtil.isBlank(ocrText)) {
             throw new ServiceException("未识别到文字，请换一张更清晰的图片");
@@ -74,7 +89,7 @@ public class MiniAppImageTranslateService {
             truncated = true;
         }
 
-        String translatedText = translateInChunks(ocrText, normalizedSource, targetLanguage);
+        String translatedText = translateInChunks(loginUser, ocrText, normalizedSource, targetLanguage);
 
         Map<String, String> result = new HashMap<>();
         result.put("sourceText", ocrText);
@@ -101,14 +116,15 @@ public class MiniAppImageTranslateService {
         }
     }
 
-    private String translateInChunks(String text, String sourceLanguage, String targetLanguage) {
+    private String translateInChunks(MiniAppLoginUser loginUser, String text, String sourceLanguage,
+            String targetLanguage) {
         if (text.length() <= TRANSLATE_CHUNK_SIZE) {
-            return translateChunk(text, sourceLanguage, targetLanguage);
+            return translateChunk(loginUser, text, sourceLanguage, targetLanguage);
         }
         List<String> chunks = splitText(text, TRANSLATE_CHUNK_SIZE);
         StringBuilder builder = new StringBuilder();
         for (int i = 0; i < chunks.size(); i++) {
-            String part = translateChunk(chunks.get(i), sourceLanguage, targetLanguage);
+            String part = translateChunk(loginUser, chunks.get(i), sourceLanguage, targetLanguage);
             if (StrUtil.isNotBlank(part)) {
                 if (builder.length() > 0) {
                     builder.append("\n\n");
@@ -119,12 +135,13 @@ public class MiniAppImageTranslateService {
         return builder.toString();
     }
 
-    private String translateChunk(String text, String sourceLanguage, String targetLanguage) {
+    private String translateChunk(MiniAppLoginUser loginUser, String text, String sourceLanguage,
+            String targetLanguage) {
         TranslateTextRequest request = new TranslateTextRequest();
         request.setText(text);
         request.setSourceLanguage(sourceLanguage);
         request.setTargetLanguage(targetLanguage);
-        Map<String, String> result = textTranslateService.translateText(request);
+        Map<String, String> result = textTranslateService.translateText(loginUser, request);
         return StrUtil.blankToDefault(result.get("translatedText"), "");
     }
 
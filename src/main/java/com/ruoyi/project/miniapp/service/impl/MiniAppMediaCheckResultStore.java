@@ -1,27 +1,54 @@
 package com.ruoyi.project.miniapp.service.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
 
 import com.ruoyi.framework.redis.RedisCache;
 import com.ruoyi.project.miniapp.domain.vo.MiniAppMediaCheckResult;
 
 import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 
 /**
- * 缓存微信图片异步检测结果，供业务轮询与回调写入
+ * 缓存微信多媒体异步检测结果
+ * 回调写入后通过 Redis 发布 traceId，各实例据此完成本地等待中的检测，等待方不占用线程
  */
+@Slf4j
 @Component
-public class MiniAppMediaCheckResultStore {
+public class MiniAppMediaCheckResultStore implements MessageListener {
 
     private static final String CACHE_KEY_PREFIX = "miniapp:media_check:trace:";
+    private static final String DONE_CHANNEL = "miniapp:media_check:done";
     private static final int CACHE_TTL_MINUTES = 30;
 
     private final RedisCache redisCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
 
-    public MiniAppMediaCheckResultStore(RedisCache redisCache) {
+    /** 本实例等待中的检测：traceId -> 结果 */
+    private final Map<String, CompletableFuture<MiniAppMediaCheckResult>> waiters = new ConcurrentHashMap<>();
+
+    public MiniAppMediaCheckResultStore(RedisCache redisCache, StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer) {
         this.redisCache = redisCache;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(DONE_CHANNEL));
     }
 
     public void save(MiniAppMediaCheckResult result) {
@@ -29,6 +56,13 @@ public class MiniAppMediaCheckResultStore {
             return;
         }
         redisCache.setCacheObject(buildKey(result.getTraceId()), result, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+        // 回调可能落在任意实例，先完成本地等待，再广播给其它实例
+        complete(result.getTraceId(), result);
+        try {
+            stringRedisTemplate.convertAndSend(DONE_CHANNEL, result.getTraceId());
+        } catch (Exception e) {
+            log.warn("多媒体检测结果广播失败: traceId={}, error={}", result.getTraceId(), e.getMessage());
+        }
     }
 
     public MiniAppMediaCheckResult get(String traceId) {
@@ -38,6 +72,43 @@ public class MiniAppMediaCheckResultStore {
         return redisCache.getCacheObject(buildKey(traceId));
     }
 
+    /**
+     * 等待检测结果，超时后以 null 完成
+     *
+     * @param traceId 微信返回的 trace_id
+     * @param timeoutMs 等待超时（毫秒）
+     * @return 检测结果
+     */
+    public CompletableFuture<MiniAppMediaCheckResult> await(String traceId, long timeoutMs) {
+        if (StrUtil.isBlank(traceId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<MiniAppMediaCheckResult> future = waiters.computeIfAbsent(traceId,
+                key -> new CompletableFuture<>());
+        future.whenComplete((result, e) -> waiters.remove(traceId, future));
+        // 注册前回调可能已到达，注册后再查一次存储
+        MiniAppMediaCheckResult cached = get(traceId);
+        if (cached != null) {
+            future.complete(cached);
+        }
+        return future.completeOnTimeout(null, Math.max(timeoutMs, 0L), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String traceId = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (waiters.containsKey(traceId)) {
+            complete(traceId, get(traceId));
+        }
+    }
+
+    private void complete(String traceId, MiniAppMediaCheckResult result) {
+        CompletableFuture<MiniAppMediaCheckResult> future = waiters.get(traceId);
+        if (future != null && result != null) {
+            future.complete(result);
+        }
+    }
+
     private String buildKey(String traceId) {
         return CACHE_KEY_PREFIX + traceId;
     }
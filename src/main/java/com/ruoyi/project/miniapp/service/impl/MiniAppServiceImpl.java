@@ -1,5 +1,9 @@
 package com.ruoyi.project.miniapp.service.impl;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 
 import com.mybatisflex.annotation.UseDataSource;
@@ -8,10 +12,18 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.project.miniapp.domain.MiniApp;
 import com.ruoyi.project.miniapp.mapper.MiniAppMapper;
 import com.ruoyi.project.miniapp.service.IMiniAppService;
+import com.ruoyi.project.miniapp.util.MiniAppWxServiceFactory;
 
 @Service
 @UseDataSource("MASTER")
 public class MiniAppServiceImpl extends ServiceImpl<MiniAppMapper, MiniApp> implements IMiniAppService {
+
+    private final MiniAppWxServiceFactory wxServiceFactory;
+
+    public MiniAppServiceImpl(MiniAppWxServiceFactory wxServiceFactory) {
+        this.wxServiceFactory = wxServiceFactory;
+    }
+
     @Override
     public MiniApp getEnabledByAppCode(String appCode) {
         QueryWrapper qw = QueryWrapper.create()
@@ -23,4 +35,37 @@ public class MiniAppServiceImpl extends ServiceImpl<MiniAppMapper, MiniApp> impl
                 .limit(1);
         return getOne(qw);
     }
+
+    /**
+     * 修改后移除原 appid 的微信服务（停用或更换 appid 时不再保活其 token），仍启用的下次使用时重建
+     */
+    @Override
+    public boolean updateById(MiniApp entity) {
+        MiniApp old = entity.getId() != null ? getById(entity.getId()) : null;
+        boolean updated = super.updateById(entity);
+        if (updated && old != null) {
+            wxServiceFactory.evict(old.getAppId());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        MiniApp old = getById(id);
+        boolean removed = super.removeById(id);
+        if (removed && old != null) {
+            wxServiceFactory.evict(old.getAppId());
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids) {
+        List<MiniApp> olds = listByIds(ids);
+        boolean removed = super.removeByIds(ids);
+        if (removed) {
+            olds.forEach(app -> wxServiceFactory.evict(app.getAppId()));
+        }
+        return removed;
+    }
 }
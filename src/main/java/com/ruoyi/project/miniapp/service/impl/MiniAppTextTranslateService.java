@@ -44,7 +44,13 @@ public class MiniAppTextTranslateService {
     }
 
     public Map<String, String> translateText(TranslateTextRequest request) {
-        MiniAppLoginUser loginUser = MiniAppSecurityUtils.getLoginUser();
+        return translateText(MiniAppSecurityUtils.getLoginUser(), request);
+    }
+
+    /**
+     * 以指定用户身份翻译，供不在请求线程上执行的流程使用
+     */
+    public Map<String, String> translateText(MiniAppLoginUser loginUser, TranslateTextRequest request) {
         contentSecurityService.checkSocialText(loginUser, request.getText());
 
         AiModelConfig modelConfig = resolveModelConfig();
@@ -3,7 +3,10 @@ package com.ruoyi.project.miniapp.service.impl;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,14 +25,21 @@ public class MiniAppVoiceRecognizeService {
 
     private final AliyunNlsService aliyunNlsService;
     private final MiniAppContentSecurityService contentSecurityService;
+    private final Executor executor;
 
     public MiniAppVoiceRecognizeService(AliyunNlsService aliyunNlsService,
-            MiniAppContentSecurityService contentSecurityService) {
+            MiniAppContentSecurityService contentSecurityService,
+            @Qualifier("miniAppMediaTaskExecutor") Executor executor) {
         this.aliyunNlsService = aliyunNlsService;
         this.contentSecurityService = contentSecurityService;
+        this.executor = executor;
     }
 
-    public Map<String, String> recognizeVoice(MultipartFile file, String format, Integer sampleRate) {
+    /**
+     * 语音识别：提交内容检测在请求线程完成，检测通过后在异步线程识别并校验识别文本
+     */
+    public CompletableFuture<Map<String, String>> recognizeVoice(MultipartFile file, String format,
+            Integer sampleRate) {
         if (file == null || file.isEmpty()) {
             throw new ServiceException("请上传语音文件");
         }
@@ -40,12 +50,16 @@ public class MiniAppVoiceRecognizeService {
         String normalizedFormat = resolveFormat(file, format);
         byte[] audioBytes = readAudioBytes(file);
         MiniAppLoginUser loginUser = MiniAppSecurityUtils.getLoginUser();
-        contentSecurityService.checkSocialAudio(
+        return contentSecurityService.checkSocialAudioAsync(
                 loginUser,
                 audioBytes,
                 resolveAudioMimeType(normalizedFormat),
-                file.getOriginalFilename());
+                file.getOriginalFilename())
+                .thenApplyAsync(v -> recognize(loginUser, audioBytes, normalizedFormat, sampleRate), executor);
+    }
 
+    private Map<String, String> recognize(MiniAppLoginUser loginUser, byte[] audioBytes, String normalizedFormat,
+            Integer sampleRate) {
         long startMs = System.currentTimeMillis();
         String recognizedText = aliyunNlsService.recognizeSpeech(audioBytes, normalizedFormat, sampleRate);
         contentSecurityService.checkSocialText(loginUser, recognizedText);
@@ -0,0 +1,32 @@
+package com.ruoyi.project.miniapp.task;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.project.miniapp.util.MiniAppWxServiceFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 小程序 access_token 主动刷新
+ * 在 token 过期前由一个实例提前刷新，业务请求不会因 token 过期而阻塞在换取 token 上
+ */
+@Slf4j
+@Component
+public class MiniAppAccessTokenRefreshTask {
+
+    private final MiniAppWxServiceFactory wxServiceFactory;
+
+    public MiniAppAccessTokenRefreshTask(MiniAppWxServiceFactory wxServiceFactory) {
+        this.wxServiceFactory = wxServiceFactory;
+    }
+
+    @Scheduled(fixedDelayString = "${miniapp.wx.refresh-check-interval-ms:60000}", initialDelay = 60000)
+    public void execute() {
+        try {
+            wxServiceFactory.refreshExpiringTokens();
+        } catch (Exception e) {
+            log.error("小程序 access_token 刷新任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ruoyi.project.miniapp.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.framework.web.domain.AjaxResult;
+
+/**
+ * 把异步处理结果包装为 DeferredResult：等待期间释放请求线程，完成后再派发响应；
+ * 异常解包后交给全局异常处理，与同步接口的返回格式一致
+ */
+public class MiniAppDeferredResultUtils {
+
+    private static final String TIMEOUT_MESSAGE = "处理超时，请稍后重试";
+
+    private static final String BUSY_MESSAGE = "服务繁忙，请稍后重试";
+
+    private MiniAppDeferredResultUtils() {
+    }
+
+    public static DeferredResult<AjaxResult> toAjaxResult(CompletableFuture<?> future, long timeoutMs) {
+        DeferredResult<AjaxResult> deferredResult = new DeferredResult<>(timeoutMs);
+        deferredResult.onTimeout(() -> deferredResult.setErrorResult(new ServiceException(TIMEOUT_MESSAGE)));
+        future.whenComplete((data, e) -> {
+            if (e != null) {
+                deferredResult.setErrorResult(unwrap(e));
+            } else {
+                deferredResult.setResult(AjaxResult.success(data));
+            }
+        });
+        return deferredResult;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        // 后续处理线程池已满时直接拒绝
+        if (cause instanceof RejectedExecutionException) {
+            return new ServiceException(BUSY_MESSAGE);
+        }
+        return cause;
+    }
+}
@@ -1,25 +1,149 @@
 package com.ruoyi.project.miniapp.util;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.project.miniapp.config.MiniAppWxProperties;
 import com.ruoyi.project.miniapp.domain.MiniApp;
 
 import cn.binarywang.wx.miniapp.api.WxMaService;
 import cn.binarywang.wx.miniapp.api.impl.WxMaServiceImpl;
-import cn.binarywang.wx.miniapp.config.impl.WxMaDefaultConfigImpl;
+import cn.binarywang.wx.miniapp.config.impl.WxMaRedisBetterConfigImpl;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.redis.RedisTemplateWxRedisOps;
 
+/**
+ * 微信小程序服务注册表
+ * <p>
+ * 每个 appid 只创建一个 WxMaService；access_token 存在 Redis 中由所有实例共享，刷新时持有 Redis 分布式锁，
+ * 同一时刻只有一个请求向微信换取 token。小程序配置（secret/token/aesKey）变化时自动重建，
+ * 小程序停用或删除时移除，长时间未使用的服务由刷新任务移除。
+ */
+@Slf4j
 @Component
 public class MiniAppWxServiceFactory {
 
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MiniAppWxProperties properties;
+
+    /** appid -> 已创建的服务 */
+    private final Map<String, ServiceHolder> services = new ConcurrentHashMap<>();
+
+    public MiniAppWxServiceFactory(StringRedisTemplate stringRedisTemplate, MiniAppWxProperties properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+    }
+
     public WxMaService getService(MiniApp miniApp) {
-        WxMaDefaultConfigImpl config = new WxMaDefaultConfigImpl();
+        String fingerprint = fingerprint(miniApp);
+        ServiceHolder holder = services.get(miniApp.getAppId());
+        if (holder == null || !holder.fingerprint.equals(fingerprint)) {
+            holder = services.compute(miniApp.getAppId(), (appId, current) -> {
+                if (current != null && current.fingerprint.equals(fingerprint)) {
+                    return current;
+                }
+                return new ServiceHolder(fingerprint, createService(miniApp));
+            });
+        }
+        holder.lastAccessTime = System.currentTimeMillis();
+        return holder.service;
+    }
+
+    /**
+     * 移除小程序服务（停用、删除或修改 appid 时调用），之后不再为其刷新 token
+     */
+    public void evict(String appId) {
+        if (StrUtil.isNotEmpty(appId) && services.remove(appId) != null) {
+            log.info("移除小程序服务: appId={}", appId);
+        }
+    }
+
+    /**
+     * 主动刷新即将过期的 access_token
+     * 只有拿到刷新锁的实例才会刷新，其它实例跳过；拿到锁后再次确认剩余有效期，避免重复刷新
+     */
+    public void refreshExpiringTokens() {
+        // 长时间未使用的服务不再保活 token，下次使用时按需重建（也覆盖其它实例上停用/删除的小程序）
+        long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(properties.getServiceIdleMinutes());
+        services.entrySet().removeIf(entry -> entry.getValue().lastAccessTime < idleBefore);
+
+        for (ServiceHolder holder : services.values()) {
+            WxMaService service = holder.service;
+            String appId = service.getWxMaConfig().getAppid();
+            if (!isExpiring(appId)) {
+                continue;
+            }
+            Lock lock = service.getWxMaConfig().getAccessTokenLock();
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (isExpiring(appId)) {
+                    // 必须强制刷新：稳定版接口普通模式在 token 最后 5 分钟前总是返回同一个 token，
+                    // 而 Redis 中的有效期为 expires_in-200，普通获取拿回的仍是即将过期的 token。
+                    // token 存在 Redis 中各实例共享，强制刷新后所有实例立即改用新 token；
+                    // 每个 token 约 6400 秒刷新一次，每天十余次，低于稳定版强制刷新每天 20 次的限制
+                    service.getAccessToken(true);
+                    log.info("小程序 access_token 已提前刷新: appId={}", appId);
+                }
+            } catch (Exception e) {
+                log.warn("小程序 access_token 刷新失败: appId={}, error={}", appId, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean isExpiring(String appId) {
+        Long ttl = stringRedisTemplate.getExpire(accessTokenKey(appId), TimeUnit.SECONDS);
+        // 键不存在（-2）时由首次调用按需获取，不在此处预取
+        return ttl != null && ttl >= 0 && ttl < properties.getRefreshAheadSeconds();
+    }
+
+    private WxMaService createService(MiniApp miniApp) {
+        WxMaRedisBetterConfigImpl config = new WxMaRedisBetterConfigImpl(
+                new RedisTemplateWxRedisOps(stringRedisTemplate), CacheConstants.WX_MA_KEY_PREFIX);
         config.setAppid(miniApp.getAppId());
         config.setSecret(miniApp.getAppSecret());
         config.setToken(miniApp.getToken());
         config.setAesKey(miniApp.getAesKey());
+        config.useStableAccessToken(properties.isUseStableAccessToken());
+        if (StrUtil.isNotBlank(properties.getApiHostUrl())) {
+            config.setApiHostUrl(properties.getApiHostUrl());
+        }
 
         WxMaService service = new WxMaServiceImpl();
         service.setWxMaConfig(config);
+        log.info("创建小程序服务: appId={}", miniApp.getAppId());
         return service;
     }
+
+    private static String accessTokenKey(String appId) {
+        // 与 WxMaRedisBetterConfigImpl 的键格式保持一致
+        return String.format("%s:access_token:%s", CacheConstants.WX_MA_KEY_PREFIX, appId);
+    }
+
+    private static String fingerprint(MiniApp miniApp) {
+        return String.valueOf(Objects.hash(miniApp.getAppSecret(), miniApp.getToken(), miniApp.getAesKey()));
+    }
+
+    private static final class ServiceHolder {
+        private final String fingerprint;
+        private final WxMaService service;
+        /** 最近一次通过 getService 获取的时间 */
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        private ServiceHolder(String fingerprint, WxMaService service) {
+            this.fingerprint = fingerprint;
+            this.service = service;
+        }
+    }
 }
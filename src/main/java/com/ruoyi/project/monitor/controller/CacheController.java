@@ -1,13 +1,11 @@
 package com.ruoyi.project.monitor.controller;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 import java.util.TreeSet;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +15,11 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ruoyi.framework.redis.NearCache;
+import com.ruoyi.framework.redis.RedisKeyScanner;
 import com.ruoyi.framework.web.domain.AjaxResult;
 import com.ruoyi.project.monitor.domain.SysCache;
 
@@ -35,9 +36,32 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/monitor/cache")
 public class CacheController
 {
+    /** 单页最多返回的键数 */
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    /** 已知缓存前缀及说明 */
+    private static final Map<String, String> CACHE_REMARKS = new LinkedHashMap<>();
+
+    static
+    {
+        CACHE_REMARKS.put("satoken:login:session", "用户信息");
+        CACHE_REMARKS.put("sys_config", "配置信息");
+        CACHE_REMARKS.put("sys_dict", "数据字典");
+        CACHE_REMARKS.put("captcha_codes", "验证码");
+        CACHE_REMARKS.put("repeat_submit", "防重提交");
+        CACHE_REMARKS.put("rate_limit", "限流处理");
+        CACHE_REMARKS.put("pwd_err_cnt", "密码错误次数");
+    }
+
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
+
     @SaCheckPermission("monitor:cache:list")
     @GetMapping()
     public AjaxResult getInfo() throws Exception
@@ -70,33 +94,12 @@ public class CacheController
     @GetMapping("/getNames")
     public AjaxResult cache()
     {
-        Set<String> keys = redisTemplate.keys("*");
-        if (keys == null || keys.isEmpty()) {
-            return AjaxResult.success(new ArrayList<>());
-        }
+        // 抽样统计前缀分布，避免 KEYS * 阻塞 Redis
+        Map<String, Long> stats = redisKeyScanner.samplePrefixes(this::getPrefix);
 
-        // 提取所有缓存的前缀
-        Map<String, String> cacheMap = new HashMap<>();
-        for (String key : keys) {
-            String prefix;
-            if (key.startsWith("satoken:")) {
-                // 处理 Sa-Token 相关的缓存
-                String[] parts = key.split(":");
-                if (parts.length >= 2) {
-                    prefix = parts[0] + ":" + parts[1];
-                } else {
-                    prefix = parts[0];
-                }
-            } else {
-                // 处理其他缓存
-                String[] parts = key.split(":");
-                prefix = parts[0];
-            }
-            
-            // 设置缓存说明
-            String remark = getRemark(prefix);
-            cacheMap.put(prefix, remark);
-        }
+        // 已知的系统缓存键数少，可能未被抽中，始终列出
+        Map<String, String> cacheMap = new LinkedHashMap<>(CACHE_REMARKS);
+        stats.keySet().forEach(prefix -> cacheMap.putIfAbsent(prefix, getRemark(prefix)));
 
         // 转换为前端需要的格式
         List<SysCache> cacheList = new ArrayList<>();
@@ -104,36 +107,34 @@ public class CacheController
             cacheList.add(new SysCache(prefix, remark));
         });
 
-        return AjaxResult.success(cacheList);
+        return AjaxResult.success(cacheList).put("stats", stats);
+    }
+
+    /**
+     * 获取缓存前缀
+     */
+    private String getPrefix(String key) {
+        String[] parts = key.split(":");
+        if (key.startsWith("satoken:") && parts.length >= 2) {
+            // 处理 Sa-Token 相关的缓存
+            return parts[0] + ":" + parts[1];
+        }
+        // 处理其他缓存
+        return parts[0];
     }
 
     /**
      * 获取缓存说明
      */
     private String getRemark(String prefix) {
-        switch (prefix) {
-            case "satoken:login:session":
-                return "用户信息";
-            case "sys_config":
-                return "配置信息";
-            case "sys_dict":
-                return "数据字典";
-            case "captcha_codes":
-                return "验证码";
-            case "repeat_submit":
-                return "防重提交";
-            case "rate_limit":
-                return "限流处理";
-            case "pwd_err_cnt":
-                return "密码错误次数";
-            default:
-                return "其他缓存";
-        }
+        return CACHE_REMARKS.getOrDefault(prefix, "其他缓存");
     }
 
     @SaCheckPermission("monitor:cache:list")
     @GetMapping("/getKeys/{cacheName}")
-    public AjaxResult getCacheKeys(@PathVariable String cacheName)
+    public AjaxResult getCacheKeys(@PathVariable String cacheName,
+            @RequestParam(defaultValue = RedisKeyScanner.CURSOR_END) String cursor,
+            @RequestParam(defaultValue = "100") int pageSize)
     {
         String pattern;
         if (cacheName.equals("satoken:login:session")) {
@@ -145,8 +146,9 @@ public class CacheController
             // 其他缓存
             pattern = cacheName + ":*";
         }
-        Set<String> cacheKeys = redisTemplate.keys(pattern);
-        return AjaxResult.success(new TreeSet<>(cacheKeys != null ? cacheKeys : new HashSet<>()));
+        // 按游标分页扫描，cursor 为 0 表示已到末尾
+        RedisKeyScanner.KeyPage page = redisKeyScanner.scan(pattern, cursor, Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE));
+        return AjaxResult.success(new TreeSet<>(page.getKeys())).put("cursor", page.getCursor());
     }
 
     @SaCheckPermission("monitor:cache:list")
@@ -162,8 +164,8 @@ public class CacheController
     @DeleteMapping("/clearCacheName/{cacheName}")
     public AjaxResult clearCacheName(@PathVariable String cacheName)
     {
-        Collection<String> cacheKeys = redisTemplate.keys(cacheName + "*");
-        redisTemplate.delete(cacheKeys);
+        redisKeyScanner.unlinkByPattern(cacheName + "*");
+        nearCache.evictByRedisKey(cacheName + "*");
         return AjaxResult.success();
     }
 
@@ -172,6 +174,7 @@ public class CacheController
     public AjaxResult clearCacheKey(@PathVariable String cacheKey)
     {
         redisTemplate.delete(cacheKey);
+        nearCache.evictByRedisKey(cacheKey);
         return AjaxResult.success();
     }
 
@@ -179,8 +182,8 @@ public class CacheController
     @DeleteMapping("/clearCacheAll")
     public AjaxResult clearCacheAll()
     {
-        Collection<String> cacheKeys = redisTemplate.keys("*");
-        redisTemplate.delete(cacheKeys);
+        redisKeyScanner.unlinkByPattern("*");
+        nearCache.evictByRedisKey("*");
         return AjaxResult.success();
     }
 }
@@ -1,7 +1,5 @@
 package com.ruoyi.project.monitor.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -68,9 +66,8 @@ public class SysJobLogController extends BaseController
     {
         // 创建 MyBatisFlex 的 QueryWrapper
         QueryWrapper queryWrapper = buildFlexQueryWrapper(sysJobLog);
-        List<SysJobLog> list = jobLogService.list(queryWrapper);
         MagicExcelUtil<SysJobLog> util = new MagicExcelUtil<SysJobLog>(SysJobLog.class);
-        util.exportExcel(response, list, "调度日志");
+        util.exportExcel(response, "调度日志", jobLogService.getMapper(), queryWrapper);
     }
     
     /**
@@ -1,7 +1,5 @@
 package com.ruoyi.project.monitor.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -66,9 +64,8 @@ public class SysLogininforController extends BaseController
     {
         // 创建 MyBatisFlex 的 QueryWrapper
         QueryWrapper queryWrapper = buildFlexQueryWrapper(logininfor);
-        List<SysLogininfor> list = logininforService.list(queryWrapper);
         MagicExcelUtil<SysLogininfor> util = new MagicExcelUtil<SysLogininfor>(SysLogininfor.class);
-        util.exportExcel(response, list, "登录日志");
+        util.exportExcel(response, "登录日志", logininforService.getMapper(), queryWrapper);
     }
 
     @SaCheckPermission("monitor:logininfor:remove")
@@ -1,7 +1,5 @@
 package com.ruoyi.project.monitor.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -62,9 +60,8 @@ public class SysOperlogController extends BaseController
     {
         // 创建 MyBatisFlex 的 QueryWrapper
         QueryWrapper queryWrapper = buildFlexQueryWrapper(operLog);
-        List<SysOperLog> list = operLogService.list(queryWrapper);
         MagicExcelUtil<SysOperLog> util = new MagicExcelUtil<SysOperLog>(SysOperLog.class);
-        util.exportExcel(response, list, "操作日志");
+        util.exportExcel(response, "操作日志", operLogService.getMapper(), queryWrapper);
     }
 
     @Log(title = "操作日志", businessType = BusinessType.DELETE)
@@ -1,9 +1,5 @@
 package com.ruoyi.project.monitor.controller;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +9,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.alibaba.fastjson2.JSON;
 import com.mybatisflex.core.paginate.Page;
 import com.ruoyi.common.constant.Constants;
 import com.ruoyi.framework.aspectj.lang.annotation.Log;
 import com.ruoyi.framework.aspectj.lang.enums.BusinessType;
-import com.ruoyi.framework.security.LoginUser;
 import com.ruoyi.framework.web.controller.BaseController;
 import com.ruoyi.framework.web.domain.AjaxResult;
 import com.ruoyi.framework.web.page.PageDomain;
@@ -28,9 +22,7 @@ import com.ruoyi.project.monitor.domain.SysUserOnline;
 import com.ruoyi.project.system.service.ISysUserOnlineService;
 
 import cn.dev33.satoken.annotation.SaCheckPermission;
-import cn.dev33.satoken.session.SaSession;
 import cn.dev33.satoken.stp.StpUtil;
-import cn.hutool.core.util.StrUtil;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 /**
@@ -52,102 +44,10 @@ public class SysUserOnlineController extends BaseController
     @GetMapping("/list")
     public TableDataInfo list(String ipaddr, String userName)
     {
-        log.info("开始获取在线用户列表, ipaddr={}, userName={}", ipaddr, userName);
-        
-        // 获取所有在线会话
-        List<String> sessionIds = StpUtil.searchSessionId("", 0, -1, false);
-        log.info("获取到的sessionId列表: {}", sessionIds);
-        
-        List<SysUserOnline> userOnlineList = new ArrayList<SysUserOnline>();
-        
-        for (String sessionId : sessionIds)
-        {
-            log.info("处理sessionId: {}", sessionId);
-            // 获取此 sessionId 对应的在线用户
-            SaSession session = StpUtil.getSessionBySessionId(sessionId);
-            if (session == null) {
-                log.warn("sessionId {} 对应的session为空", sessionId);
-                continue;
-            }
-            
-            LoginUser loginUser = (LoginUser) JSON.to(LoginUser.class, session.get(Constants.LOGIN_USER_KEY));
-            if (loginUser == null) {
-                log.warn("sessionId {} 对应的LoginUser为空", sessionId);
-                continue;
-            }
-            
-            log.info("获取到登录用户信息: userId={}, userName={}, ipaddr={}", 
-                loginUser.getUserId(), 
-                loginUser.getUser() != null ? loginUser.getUser().getUserName() : "null",
-                loginUser.getIpaddr());
-            
-            if (StrUtil.isNotEmpty(ipaddr) && StrUtil.isNotEmpty(userName))
-            {
-                if (StrUtil.equals(ipaddr, loginUser.getIpaddr()) && 
-                    loginUser.getUser() != null && 
-                    StrUtil.equals(userName, loginUser.getUser().getUserName()))
-                {
-                    userOnlineList.add(userOnlineService.loginUserToUserOnline(loginUser));
-                    log.info("根据IP和用户名匹配到用户");
-                }
-            }
-            else if (StrUtil.isNotEmpty(ipaddr))
-            {
-                if (StrUtil.equals(ipaddr, loginUser.getIpaddr()))
-                {
-                    userOnlineList.add(userOnlineService.loginUserToUserOnline(loginUser));
-                    log.info("根据IP匹配到用户");
-                }
-            }
-            else if (StrUtil.isNotEmpty(userName))
-            {
-                if (loginUser.getUser() != null && 
-                    StrUtil.equals(userName, loginUser.getUser().getUserName()))
-                {
-                    userOnlineList.add(userOnlineService.loginUserToUserOnline(loginUser));
-                    log.info("根据用户名匹配到用户");
-                }
-            }
-            else
-            {
-                userOnlineList.add(userOnlineService.loginUserToUserOnline(loginUser));
-                log.info("添加在线用户到列表");
-            }
-        }
-        
-        Collections.reverse(userOnlineList);
-        userOnlineList.removeAll(Collections.singleton(null));
-        log.info("最终获取到的在线用户数量: {}", userOnlineList.size());
-        
-        // 获取分页参数
+        // 在线会话索引中按条件分页，不再遍历全部会话
         PageDomain pageDomain = TableSupport.buildPageRequest();
-        Integer pageNum = pageDomain.getPageNum();
-        Integer pageSize = pageDomain.getPageSize();
-        
-        // 对列表进行手动分页
-        int total = userOnlineList.size();
-        int fromIndex = (pageNum - 1) * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, total);
-        
-        // 对索引进行有效性检查
-        if (fromIndex >= total) {
-            fromIndex = 0;
-            toIndex = Math.min(pageSize, total);
-        }
-        
-        // 获取当前页数据
-        List<SysUserOnline> pageList = userOnlineList;
-        if (fromIndex < toIndex) {
-            pageList = userOnlineList.subList(fromIndex, toIndex);
-        } else {
-            pageList = new ArrayList<>();
-        }
-        
-        // 手动构造Page对象
-        Page<SysUserOnline> page = new Page<>(pageNum, pageSize);
-        page.setRecords(pageList);
-        page.setTotalRow(total);
-        
+        Page<SysUserOnline> page = userOnlineService.selectOnlinePage(ipaddr, userName,
+                pageDomain.getPageNum(), pageDomain.getPageSize());
         return getDataTable(page);
     }
 
@@ -180,6 +80,8 @@ public class SysUserOnlineController extends BaseController
             } else {
                 log.warn("未找到token对应的登录ID: {}", tokenValue);
             }
+            // 移除在线会话索引（踢下线事件也会移除，token 已失效时在此兜底）
+            userOnlineService.removeOnline(tokenValue);
             return success();
         } catch (Exception e) {
             log.error("强制退出用户时发生错误", e);
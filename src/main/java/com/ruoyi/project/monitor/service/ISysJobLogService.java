@@ -1,5 +1,6 @@
 package com.ruoyi.project.monitor.service;
 
+import java.util.Date;
 import java.util.List;
 
 import com.mybatisflex.core.service.IService;
@@ -35,6 +36,13 @@ public interface ISysJobLogService extends IService<SysJobLog>
      */
     public void addJobLog(SysJobLog jobLog);
 
+    /**
+     * 批量新增任务日志（单条多行 INSERT）
+     * 
+     * @param jobLogs 调度日志列表
+     */
+    public void addJobLogBatch(List<SysJobLog> jobLogs);
+
     /**
      * 批量删除调度日志信息
      * 
@@ -55,4 +63,14 @@ public interface ISysJobLogService extends IService<SysJobLog>
      * 清空任务日志
      */
     public void cleanJobLog();
+
+    /**
+     * 分批删除指定时间之前的任务日志
+     * 
+     * @param before 截止时间（不含）
+     * @param status 执行状态，为空时不区分状态
+     * @param batchSize 每批删除条数
+     * @return 删除条数
+     */
+    public int deleteJobLogBefore(Date before, String status, int batchSize);
 }
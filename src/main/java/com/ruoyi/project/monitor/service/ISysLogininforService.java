@@ -19,6 +19,13 @@ public interface ISysLogininforService  extends IService<SysLogininfor>
      */
     public void insertLogininfor(SysLogininfor logininfor);
 
+    /**
+     * 批量新增系统登录日志（单条多行 INSERT）
+     * 
+     * @param logininfors 访问日志列表
+     */
+    public void insertLogininforBatch(List<SysLogininfor> logininfors);
+
     /**
      * 查询系统登录日志集合
      * 
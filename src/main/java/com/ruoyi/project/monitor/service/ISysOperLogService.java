@@ -19,6 +19,13 @@ public interface ISysOperLogService extends IService<SysOperLog>
      */
     public void insertOperlog(SysOperLog operLog);
 
+    /**
+     * 批量新增操作日志（单条多行 INSERT）
+     * 
+     * @param operLogs 操作日志列表
+     */
+    public void insertOperlogBatch(List<SysOperLog> operLogs);
+
     /**
      * 查询系统操作日志集合
      * 
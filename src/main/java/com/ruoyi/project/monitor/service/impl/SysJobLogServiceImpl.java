@@ -1,17 +1,21 @@
 package com.ruoyi.project.monitor.service.impl;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
 
 import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.project.monitor.domain.SysJobLog;
 import com.ruoyi.project.monitor.mapper.SysJobLogMapper;
 import com.ruoyi.project.monitor.service.ISysJobLogService;
 
+import cn.hutool.core.util.StrUtil;
+
 /**
  * 定时任务调度日志服务实现
  * 
@@ -73,6 +77,21 @@ public class SysJobLogServiceImpl extends ServiceImpl<SysJobLogMapper, SysJobLog
         save(jobLog);
     }
 
+    /**
+     * 批量新增任务日志（单条多行 INSERT）
+     * 
+     * @param jobLogs 调度日志列表
+     */
+    @Override
+    public void addJobLogBatch(List<SysJobLog> jobLogs)
+    {
+        if (jobLogs == null || jobLogs.isEmpty())
+        {
+            return;
+        }
+        mapper.insertBatch(jobLogs);
+    }
+
     /**
      * 批量删除调度日志信息
      * 
@@ -109,4 +128,30 @@ public class SysJobLogServiceImpl extends ServiceImpl<SysJobLogMapper, SysJobLog
         QueryWrapper queryWrapper = QueryWrapper.create().from("sys_job_log");
         remove(queryWrapper);
     }
+
+    /**
+     * 分批删除指定时间之前的任务日志，每批一个短事务，避免长时间锁表
+     * 
+     * @param before 截止时间（不含）
+     * @param status 执行状态，为空时不区分状态
+     * @param batchSize 每批删除条数
+     * @return 删除条数
+     */
+    @Override
+    public int deleteJobLogBefore(Date before, String status, int batchSize)
+    {
+        String sql = "DELETE FROM sys_job_log WHERE create_time < ?"
+            + (StrUtil.isNotEmpty(status) ? " AND status = ?" : "") + " LIMIT ?";
+        Object[] args = StrUtil.isNotEmpty(status) ? new Object[] { before, status, batchSize }
+            : new Object[] { before, batchSize };
+        int total = 0;
+        int deleted;
+        do
+        {
+            deleted = Db.deleteBySql(sql, args);
+            total += deleted;
+        }
+        while (deleted >= batchSize);
+        return total;
+    }
 }
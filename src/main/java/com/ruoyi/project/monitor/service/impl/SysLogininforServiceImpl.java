@@ -44,6 +44,21 @@ public class SysLogininforServiceImpl extends ServiceImpl<SysLogininforMapper, S
         }
     }
 
+    /**
+     * 批量新增系统登录日志（单条多行 INSERT）
+     * 
+     * @param logininfors 访问日志列表
+     */
+    @Override
+    public void insertLogininforBatch(List<SysLogininfor> logininfors)
+    {
+        if (logininfors == null || logininfors.isEmpty())
+        {
+            return;
+        }
+        mapper.insertBatch(logininfors);
+    }
+
     /**
      * 查询系统登录日志集合
      * 
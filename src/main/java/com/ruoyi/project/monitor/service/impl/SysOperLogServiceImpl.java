@@ -31,6 +31,21 @@ public class SysOperLogServiceImpl extends ServiceImpl<SysOperLogMapper, SysOper
         save(operLog);
     }
 
+    /**
+     * 批量新增操作日志（单条多行 INSERT）
+     * 
+     * @param operLogs 操作日志列表
+     */
+    @Override
+    public void insertOperlogBatch(List<SysOperLog> operLogs)
+    {
+        if (operLogs == null || operLogs.isEmpty())
+        {
+            return;
+        }
+        mapper.insertBatch(operLogs);
+    }
+
     /**
      * 查询系统操作日志集合
      * 
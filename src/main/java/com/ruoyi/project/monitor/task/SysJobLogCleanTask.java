@@ -0,0 +1,63 @@
+package com.ruoyi.project.monitor.task;
+
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.project.monitor.service.ISysJobLogService;
+
+import cn.hutool.core.date.DateUtil;
+
+/**
+ * 调度日志保留策略
+ * 成功日志与失败日志分别按保留天数定期分批清理，保留天数为 0 时不清理
+ *
+ * @author ruoyi
+ */
+@Component
+public class SysJobLogCleanTask {
+
+    private static final Logger log = LoggerFactory.getLogger(SysJobLogCleanTask.class);
+
+    /** 成功日志保留天数 */
+    @Value("${ruoyi.job-log.retention-days:30}")
+    private int retentionDays;
+
+    /** 失败日志保留天数 */
+    @Value("${ruoyi.job-log.fail-retention-days:90}")
+    private int failRetentionDays;
+
+    /** 每批删除条数 */
+    @Value("${ruoyi.job-log.clean-batch-size:5000}")
+    private int batchSize;
+
+    @Autowired
+    private ISysJobLogService jobLogService;
+
+    @Scheduled(cron = "${ruoyi.job-log.clean-cron:0 20 3 * * ?}")
+    public void execute() {
+        try {
+            int success = clean(Constants.SUCCESS, retentionDays);
+            int fail = clean(Constants.FAIL, failRetentionDays);
+            if (success + fail > 0) {
+                log.info("调度日志清理完成，成功日志 {} 条，失败日志 {} 条", success, fail);
+            }
+        } catch (Exception e) {
+            log.error("调度日志清理失败", e);
+        }
+    }
+
+    private int clean(String status, int days) {
+        if (days <= 0) {
+            return 0;
+        }
+        Date before = DateUtil.offsetDay(DateUtil.beginOfDay(new Date()), -days);
+        return jobLogService.deleteJobLogBefore(before, status, batchSize);
+    }
+}
@@ -31,8 +31,8 @@ import com.ruoyi.project.ai.domain.AiUsageRecord;
 import com.ruoyi.project.ai.service.IAiModelConfigService;
 import com.ruoyi.project.ai.service.IAiModelRouteService;
 import com.ruoyi.project.ai.service.IAiQuotaCheckService;
-import com.ruoyi.project.ai.service.IAiUsageRecordService;
-import com.ruoyi.project.ai.service.IAiUsageSummaryDailyService;
+import com.ruoyi.project.ai.service.IAiQuotaCheckService.QuotaReservation;
+import com.ruoyi.project.ai.service.impl.AiUsageBatchWriter;
 import com.ruoyi.project.ai.service.impl.LangChain4jAgentService;
 
 import cn.dev33.satoken.stp.StpUtil;
@@ -79,10 +79,7 @@ public class PluginAiController {
     private IAiModelConfigService modelConfigService;
 
     @Autowired
-    private IAiUsageRecordService usageRecordService;
-
-    @Autowired
-    private IAiUsageSummaryDailyService usageSummaryDailyService;
+    private AiUsageBatchWriter usageBatchWriter;
 
     @Autowired
     private LangChain4jAgentService langChain4jAgentService;
@@ -109,9 +106,10 @@ public class PluginAiController {
         }
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // 2. 配额检查
+        // 2. 预占配额（成功后按实际 Token 结算，失败或未发起调用时归还）
+        QuotaReservation reservation;
         try {
-            quotaCheckService.checkAndConsume(userId, USER_TIER_FREE, PRODUCT_TYPE);
+            reservation = quotaCheckService.reserve(userId, USER_TIER_FREE, PRODUCT_TYPE);
         } catch (ServiceException e) {
             return AjaxResult.error(429, e.getMessage());
         }
@@ -121,12 +119,14 @@ public class PluginAiController {
         try {
             messages = parseChatMessages(requestBody.get("messages"));
         } catch (IllegalArgumentException e) {
+            quotaCheckService.refund(reservation);
             return AjaxResult.error(e.getMessage());
         }
 
         // 4. 获取模型候选链
-        List<AiModelConfig> candidates = resolveModelConfigChain();
+        List<AiModelConfig> candidates = resolveModelConfigChain(userId);
         if (candidates.isEmpty()) {
+            quotaCheckService.refund(reservation);
             return AjaxResult.error("暂无可用的 AI 模型，请联系管理员");
         }
 
@@ -135,11 +135,8 @@ public class PluginAiController {
         if (stream) {
             httpResponse.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE + ";charset=UTF-8");
             httpResponse.setCharacterEncoding("UTF-8");
-            AiModelConfig streamModel = resolveStreamModel();
-            if (streamModel == null) {
-                return AjaxResult.error("暂无可用的流式 AI 模型，请联系管理员");
-            }
-            return buildStreamEmitter(userId, streamModel, messages, request);
+            AiModelConfig streamModel = candidates.get(0);
+            return buildStreamEmitter(userId, reservation, streamModel, messages, request);
         }
 
         // 6. 非流式：依次轮询候选模型，遇到上游 429/500 自动切下一个
@@ -149,6 +146,7 @@ public class PluginAiController {
             try {
                 LangChain4jAgentService.ChatExecutionResult result =
                         langChain4jAgentService.chatWithMessagesDetailed(modelConfig.getId(), messages);
+                quotaCheckService.commit(reservation, modelConfig.getModel(), defaultInt(result.getTotalTokens()));
                 saveUsageRecord(userId, modelConfig, request, start,
                         result.getInputTokens(), result.getOutputTokens(), result.getTotalTokens(),
                         "success", null);
@@ -166,12 +164,14 @@ public class PluginAiController {
                     // 其他错误（网络、配置等），直接终止
                     log.error("插件 AI 调用失败: model={}", modelConfig.getModel(), e);
                     saveUsageRecord(userId, modelConfig, request, start, 0, 0, 0, "failed", e.getMessage());
+                    quotaCheckService.refund(reservation);
                     return AjaxResult.error("AI 服务暂时不可用，请稍后重试");
                 }
             }
         }
 
         // 所有候选都不可用
+        quotaCheckService.refund(reservation);
         log.error("插件 AI 全部候选模型均不可用，lastError={}", lastError != null ? lastError.getMessage() : "unknown");
         return AjaxResult.error("AI 服务繁忙，请稍后重试");
     }
@@ -185,7 +185,7 @@ public class PluginAiController {
      * <p>
      * 优先级：路由表主模型（id=55 deepseek-v4-flash）→ 路由表 fallback（id=56 deepseek-v4-pro）
      */
-    private List<AiModelConfig> resolveModelConfigChain() {
+    private List<AiModelConfig> resolveModelConfigChain(Long userId) {
         List<AiModelConfig> chain = new ArrayList<>();
 
         // 1. 从路由表取主/备模型
@@ -199,28 +199,19 @@ public class PluginAiController {
                 .limit(1);
         AiModelRoute route = modelRouteService.getOne(qw);
         if (route != null) {
-            addIfEnabled(chain, route.getPrimaryModelConfigId());
-            addIfEnabled(chain, route.getFallbackModelConfigId());
+            addIfEnabled(chain, route.getPrimaryModelConfigId(), userId);
+            addIfEnabled(chain, route.getFallbackModelConfigId(), userId);
         }
 
         // 2. 兜底：直接加载 deepseek-v4-flash / deepseek-v4-pro（防路由表未配置场景）
-        addIfEnabled(chain, 55L); // deepseek-v4-flash
-        addIfEnabled(chain, 56L); // deepseek-v4-pro
+        addIfEnabled(chain, 55L, userId); // deepseek-v4-flash
+        addIfEnabled(chain, 56L, userId); // deepseek-v4-pro
 
         return chain;
     }
 
-    /**
-     * 流式模式专用：优先使用 deepseek-v4-flash（id=55），熔断时降级到 deepseek-v4-pro（id=56）
-     */
-    private AiModelConfig resolveStreamModel() {
-        // 取候选链第一个（addIfEnabled 已过滤熔断模型）
-        List<AiModelConfig> chain = resolveModelConfigChain();
-        return chain.isEmpty() ? null : chain.get(0);
-    }
-
-    /** 根据 configId 查模型，若启用且未熔断则加入链（去重） */
-    private void addIfEnabled(List<AiModelConfig> chain, Long configId) {
+    /** 根据 configId 查模型，若启用、未熔断且未超出模型策略每日限额则加入链（去重） */
+    private void addIfEnabled(List<AiModelConfig> chain, Long configId, Long userId) {
         if (configId == null) return;
         if (chain.stream().anyMatch(c -> c.getId().equals(configId))) return;
         if (isCircuitOpen(configId)) {
@@ -229,6 +220,10 @@ public class PluginAiController {
         }
         AiModelConfig cfg = modelConfigService.getById(configId);
         if (cfg != null && "Y".equals(cfg.getEnabled()) && "0".equals(cfg.getStatus())) {
+            if (!quotaCheckService.isModelAvailable(userId, USER_TIER_FREE, PRODUCT_TYPE, cfg.getId(), cfg.getModel())) {
+                log.debug("模型 id={} 今日已达策略限额，跳过", configId);
+                return;
+            }
             chain.add(cfg);
         }
     }
@@ -353,12 +348,12 @@ public class PluginAiController {
         return response;
     }
 
-    private SseEmitter buildStreamEmitter(Long userId, AiModelConfig modelConfig,
+    private SseEmitter buildStreamEmitter(Long userId, QuotaReservation reservation, AiModelConfig modelConfig,
             List<ChatMessage> messages, HttpServletRequest request) {
-        return buildStreamEmitter(userId, modelConfig, messages, request, false);
+        return buildStreamEmitter(userId, reservation, modelConfig, messages, request, false);
     }
 
-    private SseEmitter buildStreamEmitter(Long userId, AiModelConfig modelConfig,
+    private SseEmitter buildStreamEmitter(Long userId, QuotaReservation reservation, AiModelConfig modelConfig,
             List<ChatMessage> messages, HttpServletRequest request, boolean isFallback) {
         SseEmitter emitter = new SseEmitter(0L);
         String completionId = "chatcmpl-" + UUID.randomUUID().toString().replace("-", "");
@@ -390,6 +385,7 @@ public class PluginAiController {
                     }
                 },
                 result -> {
+                    quotaCheckService.commit(reservation, modelConfig.getModel(), defaultInt(result.getTotalTokens()));
                     try {
                         Map<String, Object> doneChunk = new LinkedHashMap<>();
                         doneChunk.put("id", completionId);
@@ -420,16 +416,18 @@ public class PluginAiController {
                     if (!isFallback && firstChunk.get() && isUpstreamServerError(error)) {
                         // 熔断当前模型
                         tripCircuit(modelConfig.getId(), modelConfig.getModel(), error.getMessage());
-                        List<AiModelConfig> chain = resolveModelConfigChain();
+                        List<AiModelConfig> chain = resolveModelConfigChain(userId);
                         if (!chain.isEmpty()) {
                             AiModelConfig fallbackModel = chain.get(0);
                             log.warn("流式自动降级: {} -> {}", modelConfig.getModel(), fallbackModel.getModel());
-                            SseEmitter fallbackEmitter = buildStreamEmitter(userId, fallbackModel, messages, request, true);
+                            SseEmitter fallbackEmitter = buildStreamEmitter(userId, reservation, fallbackModel, messages,
+                                    request, true);
                             fallbackEmitter.onCompletion(emitter::complete);
                             fallbackEmitter.onError(emitter::completeWithError);
                             return;
                         }
                     }
+                    quotaCheckService.refund(reservation);
                     emitter.completeWithError(error);
                 });
         return emitter;
@@ -464,15 +462,10 @@ public class PluginAiController {
             record.setCreateBy("plugin");
             record.setUpdateBy("plugin");
             record.setDelFlag("0");
-            usageRecordService.save(record);
-
-            // 实时更新每日汇总（保证配额检查能拿到最新用量）
-            int successDelta = "success".equals(status) ? 1 : 0;
-            int failedDelta  = "failed".equals(status)  ? 1 : 0;
-            usageSummaryDailyService.upsertDailyRecord(
-                    userId, PRODUCT_TYPE,
-                    modelConfig.getProvider(), modelConfig.getModel(),
-                    1, successDelta, failedDelta,
+            // 明细与每日汇总均在请求线程外写入；配额实时计数由 quotaCheckService 在 Redis 中维护
+            usageBatchWriter.offer(record);
+            quotaCheckService.recordDailyUsageAsync(userId, PRODUCT_TYPE,
+                    modelConfig.getProvider(), modelConfig.getModel(), status,
                     defaultInt(inputTokens), defaultInt(outputTokens), defaultInt(totalTokens));
         } catch (Exception e) {
             log.error("保存插件用量记录失败", e);
@@ -59,6 +59,13 @@ public interface ISysDictTypeService extends IService<SysDictType>
      */
     public void resetDictCache();
 
+    /**
+     * 按字典类型从数据库重新加载缓存，并通知各节点清除本地缓存
+     * 
+     * @param dictType 字典类型
+     */
+    public void refreshDictCache(String dictType);
+
     /**
      * 校验字典类型称是否唯一
      * 
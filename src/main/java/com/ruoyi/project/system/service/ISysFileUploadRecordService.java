@@ -1,5 +1,7 @@
 package com.ruoyi.project.system.service;
 
+import java.util.List;
+
 import com.mybatisflex.core.service.IService;
 import com.ruoyi.project.system.domain.SysFileUploadRecord;
 
@@ -10,5 +12,10 @@ import com.ruoyi.project.system.domain.SysFileUploadRecord;
  * @date 2025-07-11 12:01:15
  */
 public interface ISysFileUploadRecordService extends IService<SysFileUploadRecord> {
-    // 可以添加自定义的业务方法
+    /**
+     * 批量新增上传记录（单条多行 INSERT）
+     * 
+     * @param records 上传记录列表
+     */
+    void insertUploadRecordBatch(List<SysFileUploadRecord> records);
 }
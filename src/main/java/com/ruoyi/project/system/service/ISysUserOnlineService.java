@@ -1,5 +1,6 @@
 package com.ruoyi.project.system.service;
 
+import com.mybatisflex.core.paginate.Page;
 import com.ruoyi.framework.security.LoginUser;
 import com.ruoyi.project.monitor.domain.SysUserOnline;
 
@@ -45,4 +46,37 @@ public interface ISysUserOnlineService
      * @return 在线用户
      */
     public SysUserOnline loginUserToUserOnline(LoginUser user);
+
+    /**
+     * 登记在线会话（登录成功并写入会话信息后调用）
+     * 
+     * @param tokenValue 登录令牌
+     * @param user 用户信息
+     */
+    public void registerOnline(String tokenValue, LoginUser user);
+
+    /**
+     * 移除在线会话（注销、踢下线、顶下线时调用）
+     * 
+     * @param tokenValue 登录令牌
+     */
+    public void removeOnline(String tokenValue);
+
+    /**
+     * 回填在线会话索引（索引上线前已存在的登录会话）
+     * 
+     * @return 回填的会话数
+     */
+    public int backfillOnline();
+
+    /**
+     * 分页查询在线用户，按登录时间倒序
+     * 
+     * @param ipaddr 登录地址
+     * @param userName 用户名称
+     * @param pageNum 页码
+     * @param pageSize 每页条数
+     * @return 在线用户分页
+     */
+    public Page<SysUserOnline> selectOnlinePage(String ipaddr, String userName, int pageNum, int pageSize);
 }
@@ -1,11 +1,14 @@
 package com.ruoyi.project.system.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+
+import com.ruoyi.framework.ip.IpLocator;
+import com.ruoyi.framework.ip.IpRegion;
+
+import cn.hutool.core.util.StrUtil;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -16,48 +19,48 @@ import java.util.Map;
 @Service
 public class IpLocationService
 {
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String UNKNOWN = "未知";
+
+    /** 中文国家名 -> 英文国家名（与原 ip-api 返回的英文名一致，如 China、United States） */
+    private static final Map<String, String> COUNTRY_EN = new HashMap<>();
+
+    static {
+        for (String code : Locale.getISOCountries()) {
+            Locale locale = new Locale("", code);
+            COUNTRY_EN.put(locale.getDisplayCountry(Locale.SIMPLIFIED_CHINESE), locale.getDisplayCountry(Locale.ENGLISH));
+        }
+        COUNTRY_EN.put("中国香港", "Hong Kong");
+        COUNTRY_EN.put("香港", "Hong Kong");
+        COUNTRY_EN.put("中国澳门", "Macao");
+        COUNTRY_EN.put("澳门", "Macao");
+        COUNTRY_EN.put("中国台湾", "Taiwan");
+    }
+
+    private final IpLocator ipLocator;
+
+    public IpLocationService(IpLocator ipLocator) {
+        this.ipLocator = ipLocator;
+    }
     
     /**
      * 获取IP地理位置信息
-     * 使用免费的IP地理位置API
+     * 使用本地离线库查询（带缓存），查不到的项返回“未知”；
+     * 国家名保持英文（China、United States 等），省份、城市为中文
      */
     public Map<String, String> getIpLocation(String ip) {
+        IpRegion region = ipLocator.locate(ip);
         Map<String, String> location = new HashMap<>();
-        
-        try {
-            // 使用ip-api.com的免费API
-            String url = "http://ip-api.com/json/" + ip + "?fields=status,message,country,regionName,city,isp";
-            String response = restTemplate.getForObject(url, String.class);
-            
-            if (response != null) {
-                JsonNode jsonNode = objectMapper.readTree(response);
-                
-                if ("success".equals(jsonNode.get("status").asText())) {
-                    location.put("country", jsonNode.get("country").asText());
-                    location.put("region", jsonNode.get("regionName").asText());
-                    location.put("city", jsonNode.get("city").asText());
-                    location.put("isp", jsonNode.get("isp").asText());
-                } else {
-                    // API调用失败，返回默认值
-                    location.put("country", "未知");
-                    location.put("region", "未知");
-                    location.put("city", "未知");
-                    location.put("isp", "未知");
-                }
-            }
-        } catch (Exception e) {
-            // 异常情况，返回默认值
-            location.put("country", "未知");
-            location.put("region", "未知");
-            location.put("city", "未知");
-            location.put("isp", "未知");
-        }
-        
+        location.put("country", StrUtil.emptyToDefault(toEnglishCountry(region.getCountry()), UNKNOWN));
+        location.put("region", StrUtil.emptyToDefault(region.getProvince(), UNKNOWN));
+        location.put("city", StrUtil.emptyToDefault(region.getCity(), UNKNOWN));
+        location.put("isp", StrUtil.emptyToDefault(region.getIsp(), UNKNOWN));
         return location;
     }
     
+    private String toEnglishCountry(String country) {
+        return StrUtil.isEmpty(country) ? country : COUNTRY_EN.getOrDefault(country, country);
+    }
+
     /**
      * 检查是否为内网IP
      */
@@ -1,5 +1,6 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
 
@@ -14,7 +15,9 @@ import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.framework.redis.NearCache;
 import com.ruoyi.framework.redis.OptimizedRedisCache;
+import com.ruoyi.framework.redis.RedisKeyScanner;
 import com.ruoyi.framework.redis.RedisCache;
 import com.ruoyi.framework.service.BatchInitializationService;
 import com.ruoyi.project.system.domain.SysConfig;
@@ -39,6 +42,12 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig
     
     @Autowired
     private OptimizedRedisCache optimizedRedisCache;
+
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
+
+    @Autowired
+    private NearCache nearCache;
     
     @Autowired
     private BatchInitializationService batchInitializationService;
@@ -59,6 +68,7 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig
             
             // 使用优化的Redis缓存批量加载
             optimizedRedisCache.batchLoadConfigCache(data.getConfigs());
+            nearCache.evictConfig(null);
             
             long endTime = System.currentTimeMillis();
             log.info("系统配置缓存异步初始化完成，加载 {} 个配置项，耗时: {}ms", 
@@ -79,6 +89,17 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig
      */
     @Override
     public String selectConfigByKey(String configKey)
+    {
+        return nearCache.getConfig(configKey, this::loadConfigValue);
+    }
+
+    /**
+     * 从 Redis 读取参数值，未命中时查询数据库并回填
+     * 
+     * @param configKey 参数key
+     * @return 参数键值
+     */
+    private String loadConfigValue(String configKey)
     {
         String configValue = Convert.toStr(redisCache.getCacheObject(getCacheKey(configKey)));
         if (StrUtil.isNotEmpty(configValue))
@@ -140,6 +161,7 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig
         {
             redisCache.setCacheObject(getCacheKey(config.getConfigKey()), config.getConfigValue());
         }
+        nearCache.evictConfig(null);
     }
 
     /**
@@ -148,8 +170,8 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig
     @Override
     public void clearConfigCache()
     {
-        Collection<String> keys = redisCache.keys(CacheConstants.SYS_CONFIG_KEY + "*");
-        redisCache.deleteObject(keys);
+        redisKeyScanner.unlinkByPattern(CacheConstants.SYS_CONFIG_KEY + "*");
+        nearCache.evictConfig(null);
     }
 
     /**
@@ -162,6 +184,90 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig
         loadingConfigCache();
     }
 
+    /**
+     * 新增参数配置，同步刷新缓存
+     * 
+     * @param config 参数配置信息
+     * @return 结果
+     */
+    @Override
+    public boolean save(SysConfig config)
+    {
+        boolean result = super.save(config);
+        if (result)
+        {
+            refreshConfigCache(config.getConfigKey(), config.getConfigValue());
+        }
+        return result;
+    }
+
+    /**
+     * 修改参数配置，同步刷新缓存（键名变更时同时清除旧键）
+     * 
+     * @param config 参数配置信息
+     * @param ignoreNulls 是否忽略空值
+     * @return 结果
+     */
+    @Override
+    public boolean updateById(SysConfig config, boolean ignoreNulls)
+    {
+        SysConfig oldConfig = ObjectUtil.isNull(config.getConfigId()) ? null : this.getById(config.getConfigId());
+        boolean result = super.updateById(config, ignoreNulls);
+        if (result)
+        {
+            SysConfig current = this.getById(config.getConfigId());
+            if (ObjectUtil.isNotNull(oldConfig) && (ObjectUtil.isNull(current)
+                    || !StrUtil.equals(oldConfig.getConfigKey(), current.getConfigKey())))
+            {
+                evictConfigCache(oldConfig.getConfigKey());
+            }
+            if (ObjectUtil.isNotNull(current))
+            {
+                refreshConfigCache(current.getConfigKey(), current.getConfigValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 删除参数配置，同步清除缓存
+     * 
+     * @param id 参数ID
+     * @return 结果
+     */
+    @Override
+    public boolean removeById(Serializable id)
+    {
+        SysConfig config = this.getById(id);
+        boolean result = super.removeById(id);
+        if (result && ObjectUtil.isNotNull(config))
+        {
+            evictConfigCache(config.getConfigKey());
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除参数配置，同步清除缓存
+     * 
+     * @param ids 参数ID集合
+     * @return 结果
+     */
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids)
+    {
+        List<SysConfig> configs = this.listByIds(ids);
+        boolean result = super.removeByIds(ids);
+        if (result)
+        {
+            for (SysConfig config : configs)
+            {
+                evictConfigCache(config.getConfigKey());
+            }
+        }
+        return result;
+    }
+
     /**
      * 校验参数键名是否唯一
      * 
@@ -182,6 +288,32 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig
         return true;
     }
 
+    /**
+     * 写入 Redis 并通知各节点清除本地缓存
+     */
+    private void refreshConfigCache(String configKey, String configValue)
+    {
+        if (StrUtil.isEmpty(configKey))
+        {
+            return;
+        }
+        redisCache.setCacheObject(getCacheKey(configKey), configValue);
+        nearCache.evictConfig(configKey);
+    }
+
+    /**
+     * 删除 Redis 缓存并通知各节点清除本地缓存
+     */
+    private void evictConfigCache(String configKey)
+    {
+        if (StrUtil.isEmpty(configKey))
+        {
+            return;
+        }
+        redisCache.deleteObject(getCacheKey(configKey));
+        nearCache.evictConfig(configKey);
+    }
+
     /**
      * 设置cache key
      * 
@@ -1,21 +1,25 @@
 package com.ruoyi.project.system.service.impl;
 
-import java.util.ArrayList;
+import java.io.Serializable;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
 import com.mybatisflex.core.row.DbChain;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.SecurityUtils;
+import com.ruoyi.common.utils.TreeBuildUtils;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.framework.redis.NearCache;
+import com.ruoyi.framework.security.service.PermissionCacheService;
 import com.ruoyi.framework.web.domain.TreeSelect;
 import com.ruoyi.project.system.domain.SysDept;
 import com.ruoyi.project.system.domain.SysUser;
@@ -35,10 +39,88 @@ import cn.hutool.core.util.ObjectUtil;
 @Service
 public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> implements ISysDeptService
 {
+    /** 整棵部门树的缓存标识 */
+    private static final String ALL_DEPT_TREE = "all";
 
     @Autowired
     private SysUserMapper userMapper;
 
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private PermissionCacheService permissionCacheService;
+
+    /**
+     * 新增部门，同步维护部门闭包表并清除部门树缓存
+     * 
+     * @param dept 部门信息
+     * @return 结果
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean save(SysDept dept)
+    {
+        boolean result = super.save(dept);
+        if (result)
+        {
+            insertClosure(dept.getDeptId(), dept.getParentId());
+            permissionCacheService.evictDataScopes();
+            permissionCacheService.evictDeptTree();
+        }
+        return result;
+    }
+
+    /**
+     * 修改部门，上级部门变化时移动闭包表中的整棵子树，并清除部门树缓存
+     * 
+     * @param dept 部门信息
+     * @param ignoreNulls 是否忽略空值
+     * @return 结果
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateById(SysDept dept, boolean ignoreNulls)
+    {
+        SysDept old = ObjectUtil.isNotNull(dept.getParentId()) ? getById(dept.getDeptId()) : null;
+        boolean moved = old != null && !dept.getParentId().equals(old.getParentId());
+        if (moved && isDescendant(dept.getDeptId(), dept.getParentId()))
+        {
+            throw new ServiceException("修改部门'" + dept.getDeptName() + "'失败，上级部门不能是自己的下级部门");
+        }
+        boolean result = super.updateById(dept, ignoreNulls);
+        if (result)
+        {
+            if (moved)
+            {
+                moveClosure(dept.getDeptId(), dept.getParentId());
+                permissionCacheService.evictDataScopes();
+            }
+            permissionCacheService.evictDeptTree();
+        }
+        return result;
+    }
+
+    /**
+     * 删除部门，同步删除闭包表记录并清除部门树缓存
+     * 
+     * @param id 部门ID
+     * @return 结果
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeById(Serializable id)
+    {
+        boolean result = super.removeById(id);
+        if (result)
+        {
+            Db.deleteBySql("DELETE FROM sys_dept_closure WHERE descendant_id = ? OR ancestor_id = ?", id, id);
+            permissionCacheService.evictDataScopes();
+            permissionCacheService.evictDeptTree();
+        }
+        return result;
+    }
+
     /**
      * 修改所在部门正常状态
      * 
@@ -51,6 +133,7 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
             .where(new QueryColumn("dept_id").in(Arrays.asList(deptIds)))
             .set("status", "0")
             .update();
+        permissionCacheService.evictDeptTree();
     }
 
     /**
@@ -82,6 +165,12 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
     @Override
     public List<TreeSelect> selectDeptTreeList(SysDept dept)
     {
+        // 不带筛选条件的整棵部门树走本地缓存，部门变更时清除
+        if (ObjectUtil.isEmpty(dept.getDeptName()) && ObjectUtil.isNull(dept.getStatus())
+                && ObjectUtil.isNull(dept.getParentId()))
+        {
+            return nearCache.getDeptTree(ALL_DEPT_TREE, key -> buildDeptTreeSelect(selectDeptList(dept)));
+        }
         List<SysDept> depts = selectDeptList(dept);
         return buildDeptTreeSelect(depts);
     }
@@ -95,22 +184,8 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
     @Override
     public List<SysDept> buildDeptTree(List<SysDept> depts)
     {
-        List<SysDept> returnList = new ArrayList<SysDept>();
-        List<Long> tempList = depts.stream().map(SysDept::getDeptId).collect(Collectors.toList());
-        for (SysDept dept : depts)
-        {
-            // 如果是顶级节点, 遍历该父节点的所有子节点
-            if (!tempList.contains(dept.getParentId()))
-            {
-                recursionFn(depts, dept);
-                returnList.add(dept);
-            }
-        }
-        if (returnList.isEmpty())
-        {
-            returnList = depts;
-        }
-        return returnList;
+        // 父节点不在列表中的视为顶级节点
+        return TreeBuildUtils.build(depts, SysDept::getDeptId, SysDept::getParentId, SysDept::setChildren);
     }
 
     /**
@@ -241,46 +316,37 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
     }
 
     /**
-     * 递归列表
+     * 闭包表：新部门继承上级部门的全部祖先，并加入自身
      */
-    private void recursionFn(List<SysDept> list, SysDept t)
+    private void insertClosure(Long deptId, Long parentId)
     {
-        // 得到子节点列表
-        List<SysDept> childList = getChildList(list, t);
-        t.setChildren(childList);
-        for (SysDept tChild : childList)
-        {
-            if (hasChild(list, tChild))
-            {
-                recursionFn(list, tChild);
-            }
-        }
+        Db.insertBySql("INSERT INTO sys_dept_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT ancestor_id, ?, depth + 1 FROM sys_dept_closure WHERE descendant_id = ? "
+            + "UNION ALL SELECT ?, ?, 0", deptId, parentId, deptId, deptId);
     }
 
     /**
-     * 得到子节点列表
+     * 闭包表：断开子树与原祖先的关联，再把子树挂到新上级的全部祖先下
      */
-    private List<SysDept> getChildList(List<SysDept> list, SysDept t)
+    private void moveClosure(Long deptId, Long parentId)
     {
-        List<SysDept> tlist = new ArrayList<SysDept>();
-        Iterator<SysDept> it = list.iterator();
-        while (it.hasNext())
-        {
-            SysDept n = (SysDept) it.next();
-            if (ObjectUtil.isNotNull(n.getParentId()) && n.getParentId().longValue() == t.getDeptId().longValue())
-            {
-                tlist.add(n);
-            }
-        }
-        return tlist;
+        Db.deleteBySql("DELETE c FROM sys_dept_closure c "
+            + "INNER JOIN sys_dept_closure sub ON sub.descendant_id = c.descendant_id AND sub.ancestor_id = ? "
+            + "INNER JOIN sys_dept_closure sup ON sup.ancestor_id = c.ancestor_id AND sup.descendant_id = ? "
+            + "AND sup.depth > 0", deptId, deptId);
+        Db.insertBySql("INSERT INTO sys_dept_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 "
+            + "FROM sys_dept_closure sup INNER JOIN sys_dept_closure sub ON sub.ancestor_id = ? "
+            + "WHERE sup.descendant_id = ?", deptId, parentId);
     }
 
     /**
-     * 判断是否有子节点
+     * 判断 descendantId 是否为 deptId 的下级部门（含自身）
      */
-    private boolean hasChild(List<SysDept> list, SysDept t)
+    private boolean isDescendant(Long deptId, Long descendantId)
     {
-        return getChildList(list, t).size() > 0;
+        return Db.selectCount("SELECT COUNT(*) FROM sys_dept_closure WHERE ancestor_id = ? AND descendant_id = ?",
+            deptId, descendantId) > 0;
     }
 
     @Override
@@ -303,6 +369,9 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
                 result++;
             }
         }
+        if (result > 0) {
+            permissionCacheService.evictDeptTree();
+        }
         return result;
     }
 }
@@ -1,7 +1,12 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.mybatisflex.core.query.QueryColumn;
@@ -11,6 +16,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.project.system.domain.SysDictData;
 import com.ruoyi.project.system.mapper.SysDictDataMapper;
 import com.ruoyi.project.system.service.ISysDictDataService;
+import com.ruoyi.project.system.service.ISysDictTypeService;
 
 import cn.hutool.core.util.ObjectUtil;
 
@@ -22,6 +28,9 @@ import cn.hutool.core.util.ObjectUtil;
 @Service
 public class SysDictDataServiceImpl extends ServiceImpl<SysDictDataMapper, SysDictData> implements ISysDictDataService
 {
+    @Autowired
+    private ISysDictTypeService dictTypeService;
+
     /**
      * 查询字典数据
      * 
@@ -51,6 +60,11 @@ public class SysDictDataServiceImpl extends ServiceImpl<SysDictDataMapper, SysDi
             .where(new QueryColumn("dict_type").eq(oldDictType))
             .set("dict_type", newDictType)
             .update();
+        if (success)
+        {
+            dictTypeService.refreshDictCache(oldDictType);
+            dictTypeService.refreshDictCache(newDictType);
+        }
         return success ? 1 : 0;
     }
 
@@ -89,4 +103,86 @@ public class SysDictDataServiceImpl extends ServiceImpl<SysDictDataMapper, SysDi
             .and(new QueryColumn("dict_value").eq(dictValue)));
         return dictData != null ? dictData.getDictLabel() : "";
     }
+
+    /**
+     * 新增字典数据，同步刷新所属类型的缓存
+     * 
+     * @param dictData 字典数据信息
+     * @return 结果
+     */
+    @Override
+    public boolean save(SysDictData dictData)
+    {
+        boolean result = super.save(dictData);
+        if (result)
+        {
+            dictTypeService.refreshDictCache(dictData.getDictType());
+        }
+        return result;
+    }
+
+    /**
+     * 修改字典数据，同步刷新新旧所属类型的缓存
+     * 
+     * @param dictData 字典数据信息
+     * @param ignoreNulls 是否忽略空值
+     * @return 结果
+     */
+    @Override
+    public boolean updateById(SysDictData dictData, boolean ignoreNulls)
+    {
+        SysDictData oldData = ObjectUtil.isNull(dictData.getDictCode()) ? null : getById(dictData.getDictCode());
+        boolean result = super.updateById(dictData, ignoreNulls);
+        if (result)
+        {
+            Set<String> dictTypes = new LinkedHashSet<>();
+            if (ObjectUtil.isNotNull(oldData))
+            {
+                dictTypes.add(oldData.getDictType());
+            }
+            if (ObjectUtil.isNotEmpty(dictData.getDictType()))
+            {
+                dictTypes.add(dictData.getDictType());
+            }
+            dictTypes.forEach(dictTypeService::refreshDictCache);
+        }
+        return result;
+    }
+
+    /**
+     * 删除字典数据，同步刷新所属类型的缓存
+     * 
+     * @param id 字典编码
+     * @return 结果
+     */
+    @Override
+    public boolean removeById(Serializable id)
+    {
+        SysDictData dictData = getById(id);
+        boolean result = super.removeById(id);
+        if (result && ObjectUtil.isNotNull(dictData))
+        {
+            dictTypeService.refreshDictCache(dictData.getDictType());
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除字典数据，同步刷新所属类型的缓存
+     * 
+     * @param ids 字典编码集合
+     * @return 结果
+     */
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids)
+    {
+        Set<String> dictTypes = new LinkedHashSet<>();
+        listByIds(ids).forEach(dictData -> dictTypes.add(dictData.getDictType()));
+        boolean result = super.removeByIds(ids);
+        if (result)
+        {
+            dictTypes.forEach(dictTypeService::refreshDictCache);
+        }
+        return result;
+    }
 }
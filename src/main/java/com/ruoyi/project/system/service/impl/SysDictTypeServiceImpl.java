@@ -1,5 +1,7 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +18,7 @@ import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.common.utils.DictUtils;
+import com.ruoyi.framework.redis.NearCache;
 import com.ruoyi.framework.redis.OptimizedRedisCache;
 import com.ruoyi.framework.service.BatchInitializationService;
 import com.ruoyi.project.system.domain.SysDictData;
@@ -40,6 +43,9 @@ public class SysDictTypeServiceImpl extends ServiceImpl<SysDictTypeMapper, SysDi
     
     @Autowired
     private OptimizedRedisCache optimizedRedisCache;
+
+    @Autowired
+    private NearCache nearCache;
     
     @Autowired
     private BatchInitializationService batchInitializationService;
@@ -66,6 +72,7 @@ public class SysDictTypeServiceImpl extends ServiceImpl<SysDictTypeMapper, SysDi
 
             // 使用优化的Redis缓存批量加载
             optimizedRedisCache.batchLoadDictCache(dictTypesWithData);
+            nearCache.evictDict(null);
 
             long endTime = System.currentTimeMillis();
             log.info("字典缓存异步初始化完成，加载 {} 个字典类型，耗时: {}ms",
@@ -192,6 +199,7 @@ public class SysDictTypeServiceImpl extends ServiceImpl<SysDictTypeMapper, SysDi
                     .sorted(Comparator.comparing(SysDictData::getDictSort))
                     .collect(Collectors.toList()));
         }
+        nearCache.evictDict(null);
     }
 
     /**
@@ -211,6 +219,98 @@ public class SysDictTypeServiceImpl extends ServiceImpl<SysDictTypeMapper, SysDi
         loadingDictCache();
     }
 
+    /**
+     * 按字典类型从数据库重新加载缓存
+     * 
+     * @param dictType 字典类型
+     */
+    @Override
+    public void refreshDictCache(String dictType) {
+        if (ObjectUtil.isEmpty(dictType)) {
+            return;
+        }
+        List<SysDictData> dictDatas = dictDataMapper.selectListByQuery(QueryWrapper.create()
+                .from("sys_dict_data")
+                .where(new QueryColumn("dict_type").eq(dictType))
+                .and(new QueryColumn("status").eq("0"))
+                .orderBy(new QueryColumn("dict_sort").asc()));
+        if (CollUtil.isNotEmpty(dictDatas)) {
+            DictUtils.setDictCache(dictType, dictDatas);
+        } else {
+            DictUtils.removeDictCache(dictType);
+        }
+    }
+
+    /**
+     * 新增字典类型，清除该类型可能存在的空缓存
+     * 
+     * @param dict 字典类型
+     * @return 结果
+     */
+    @Override
+    public boolean save(SysDictType dict) {
+        boolean result = super.save(dict);
+        if (result) {
+            refreshDictCache(dict.getDictType());
+        }
+        return result;
+    }
+
+    /**
+     * 修改字典类型，类型变更时同时刷新新旧两个缓存
+     * 
+     * @param dict 字典类型
+     * @param ignoreNulls 是否忽略空值
+     * @return 结果
+     */
+    @Override
+    public boolean updateById(SysDictType dict, boolean ignoreNulls) {
+        SysDictType oldDict = ObjectUtil.isNull(dict.getDictId()) ? null : getById(dict.getDictId());
+        boolean result = super.updateById(dict, ignoreNulls);
+        if (result) {
+            if (ObjectUtil.isNotNull(oldDict)) {
+                refreshDictCache(oldDict.getDictType());
+            }
+            if (ObjectUtil.isNotEmpty(dict.getDictType())
+                    && (oldDict == null || !dict.getDictType().equals(oldDict.getDictType()))) {
+                refreshDictCache(dict.getDictType());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 删除字典类型，同步清除缓存
+     * 
+     * @param id 字典类型ID
+     * @return 结果
+     */
+    @Override
+    public boolean removeById(Serializable id) {
+        SysDictType dict = getById(id);
+        boolean result = super.removeById(id);
+        if (result && ObjectUtil.isNotNull(dict)) {
+            DictUtils.removeDictCache(dict.getDictType());
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除字典类型，同步清除缓存
+     * 
+     * @param ids 字典类型ID集合
+     * @return 结果
+     */
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids) {
+        List<SysDictType> dicts = listByIds(ids);
+        boolean result = super.removeByIds(ids);
+        if (result) {
+            dicts.forEach(dict -> DictUtils.removeDictCache(dict.getDictType()));
+        }
+        return result;
+    }
+
     /**
      * 校验字典类型称是否唯一
      * 
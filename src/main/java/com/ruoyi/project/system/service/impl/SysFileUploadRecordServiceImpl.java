@@ -1,5 +1,7 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 
 import com.mybatisflex.annotation.UseDataSource;
@@ -18,5 +20,14 @@ import com.ruoyi.project.system.service.ISysFileUploadRecordService;
 @UseDataSource("MASTER")
 public class SysFileUploadRecordServiceImpl extends ServiceImpl<SysFileUploadRecordMapper, SysFileUploadRecord>
         implements ISysFileUploadRecordService {
-    // 可以添加自定义的业务方法
+    /**
+     * 批量新增上传记录（单条多行 INSERT）
+     */
+    @Override
+    public void insertUploadRecordBatch(List<SysFileUploadRecord> records) {
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        mapper.insertBatch(records);
+    }
 }
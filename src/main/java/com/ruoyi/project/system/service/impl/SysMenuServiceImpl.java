@@ -1,5 +1,6 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -16,6 +17,9 @@ import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.common.constant.UserConstants;
 import com.ruoyi.common.utils.SecurityUtils;
+import com.ruoyi.common.utils.TreeBuildUtils;
+import com.ruoyi.framework.redis.NearCache;
+import com.ruoyi.framework.security.service.PermissionCacheService;
 import com.ruoyi.framework.web.domain.TreeSelect;
 import com.ruoyi.project.system.domain.SysMenu;
 import com.ruoyi.project.system.domain.SysRole;
@@ -40,12 +44,21 @@ import cn.hutool.core.util.StrUtil;
 public class SysMenuServiceImpl extends ServiceImpl<SysMenuMapper, SysMenu> implements ISysMenuService {
     public static final String PREMISSION_STRING = "perms[\"{0}\"]";
 
+    /** 管理员菜单树的缓存标识 */
+    private static final String ADMIN_MENU_TREE = "admin";
+
     @Autowired
     private SysRoleMapper roleMapper;
 
     @Autowired
     private SysRoleMenuMapper roleMenuMapper;
 
+    @Autowired
+    private PermissionCacheService permissionCacheService;
+
+    @Autowired
+    private NearCache nearCache;
+
     /**
      * 根据用户查询系统菜单列表
      * 
@@ -185,22 +198,39 @@ public class SysMenuServiceImpl extends ServiceImpl<SysMenuMapper, SysMenu> impl
      */
     @Override
     public List<SysMenu> selectMenuTreeByUserId(Long userId) {
-        List<SysMenu> menus;
+        // 菜单树只取决于角色组合，按角色组合缓存，菜单或角色菜单变更时清除
         if (SecurityUtils.isAdmin(userId)) {
+            return nearCache.getMenuTree(ADMIN_MENU_TREE, key -> selectMenuTreeByRoleIds(null));
+        }
+        List<Long> roleIds = permissionCacheService.getRoleIdList(userId).stream()
+                .sorted().collect(Collectors.toList());
+        return nearCache.getMenuTree(StrUtil.join(",", roleIds), key -> selectMenuTreeByRoleIds(roleIds));
+    }
+
+    /**
+     * 查询角色组合可见的菜单树
+     *
+     * @param roleIds 角色ID，为null时表示全部菜单（管理员）
+     * @return 菜单树
+     */
+    private List<SysMenu> selectMenuTreeByRoleIds(List<Long> roleIds) {
+        List<SysMenu> menus;
+        if (roleIds == null) {
             QueryWrapper queryWrapper = QueryWrapper.create()
                     .from("sys_menu")
                     .where(new QueryColumn("status").eq("0"))
                     .orderBy(new QueryColumn("parent_id").asc())
                     .orderBy(new QueryColumn("order_num").asc());
             menus = list(queryWrapper);
+        } else if (roleIds.isEmpty()) {
+            menus = new ArrayList<>();
         } else {
             QueryWrapper queryWrapper = QueryWrapper.create()
                     .select("DISTINCT m.*")
                     .from("sys_menu").as("m")
-                    .leftJoin("sys_role_menu").as("rm").on("m.menu_id = rm.menu_id")
-                    .leftJoin("sys_user_role").as("ur").on("rm.role_id = ur.role_id")
+                    .innerJoin("sys_role_menu").as("rm").on("m.menu_id = rm.menu_id")
                     .where("m.status = '0'")
-                    .and("ur.user_id = " + userId)
+                    .and("rm.role_id IN (" + StrUtil.join(",", roleIds) + ")")
                     .orderBy("m.parent_id asc, m.order_num asc");
             menus = list(queryWrapper);
         }
@@ -311,19 +341,8 @@ public class SysMenuServiceImpl extends ServiceImpl<SysMenuMapper, SysMenu> impl
      */
     @Override
     public List<SysMenu> buildMenuTree(List<SysMenu> menus) {
-        List<SysMenu> returnList = new ArrayList<SysMenu>();
-        List<Long> tempList = menus.stream().map(SysMenu::getMenuId).collect(Collectors.toList());
-        for (SysMenu menu : menus) {
-            // 如果是顶级节点, 遍历该父节点的所有子节点
-            if (!tempList.contains(menu.getParentId())) {
-                recursionFn(menus, menu);
-                returnList.add(menu);
-            }
-        }
-        if (returnList.isEmpty()) {
-            returnList = menus;
-        }
-        return returnList;
+        // 父节点不在列表中的视为顶级节点
+        return TreeBuildUtils.build(menus, SysMenu::getMenuId, SysMenu::getParentId, SysMenu::setChildren);
     }
 
     /**
@@ -482,60 +501,64 @@ public class SysMenuServiceImpl extends ServiceImpl<SysMenuMapper, SysMenu> impl
      * @return String
      */
     public List<SysMenu> getChildPerms(List<SysMenu> list, int parentId) {
-        List<SysMenu> returnList = new ArrayList<SysMenu>();
-        for (SysMenu t : list) {
-            // 一、根据传入的某个父节点ID,遍历该父节点的所有子节点
-            if (t.getParentId() == parentId) {
-                recursionFn(list, t);
-                returnList.add(t);
-            }
-        }
-        return returnList;
+        return TreeBuildUtils.build(list, (long) parentId, SysMenu::getMenuId, SysMenu::getParentId,
+                SysMenu::setChildren);
     }
 
     /**
-     * 递归列表
+     * 内链域名特殊字符替换
      * 
-     * @param list 分类表
-     * @param t    子节点
+     * @return 替换后的内链域名
      */
-    private void recursionFn(List<SysMenu> list, SysMenu t) {
-        // 得到子节点列表
-        List<SysMenu> childList = getChildList(list, t);
-        t.setChildren(childList);
-        for (SysMenu tChild : childList) {
-            if (hasChild(list, tChild)) {
-                recursionFn(list, tChild);
-            }
-        }
+    public String innerLinkReplaceEach(String path) {
+        return StrUtil.replace(path, "http://", "").replace("https://", "");
     }
 
     /**
-     * 得到子节点列表
+     * 新增菜单，清除菜单树缓存
+     * 
+     * @param menu 菜单信息
+     * @return 结果
      */
-    private List<SysMenu> getChildList(List<SysMenu> list, SysMenu t) {
-        List<SysMenu> tlist = new ArrayList<SysMenu>();
-        for (SysMenu n : list) {
-            if (n.getParentId().longValue() == t.getMenuId().longValue()) {
-                tlist.add(n);
-            }
+    @Override
+    public boolean save(SysMenu menu) {
+        boolean result = super.save(menu);
+        if (result) {
+            permissionCacheService.evictMenus();
         }
-        return tlist;
+        return result;
     }
 
     /**
-     * 判断是否有子节点
+     * 修改菜单，同步失效关联角色的权限缓存
+     * 
+     * @param menu 菜单信息
+     * @param ignoreNulls 是否忽略空值
+     * @return 结果
      */
-    private boolean hasChild(List<SysMenu> list, SysMenu t) {
-        return getChildList(list, t).size() > 0;
+    @Override
+    public boolean updateById(SysMenu menu, boolean ignoreNulls) {
+        boolean result = super.updateById(menu, ignoreNulls);
+        if (result) {
+            permissionCacheService.evictRolesByMenu(menu.getMenuId());
+            permissionCacheService.evictMenus();
+        }
+        return result;
     }
 
     /**
-     * 内链域名特殊字符替换
+     * 删除菜单，同步失效关联角色的权限缓存
      * 
-     * @return 替换后的内链域名
+     * @param id 菜单ID
+     * @return 结果
      */
-    public String innerLinkReplaceEach(String path) {
-        return StrUtil.replace(path, "http://", "").replace("https://", "");
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        if (result) {
+            permissionCacheService.evictRolesByMenu(Long.valueOf(id.toString()));
+            permissionCacheService.evictMenus();
+        }
+        return result;
     }
 }
@@ -1,6 +1,9 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -19,6 +22,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.framework.security.service.PermissionCacheService;
 import com.ruoyi.project.system.domain.SysRole;
 import com.ruoyi.project.system.domain.SysRoleDept;
 import com.ruoyi.project.system.domain.SysRoleMenu;
@@ -49,6 +53,9 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     @Autowired
     private SysRoleDeptMapper roleDeptMapper;
 
+    @Autowired
+    private PermissionCacheService permissionCacheService;
+
     /**
      * 根据条件分页查询角色数据
      * 
@@ -238,10 +245,12 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     @CacheEvict(value = "role", allEntries = true)
     public boolean updateRoleStatus(SysRole role)
     {
-        return DbChain.table("sys_role")
+        boolean result = DbChain.table("sys_role")
             .where("role_id = ?", role.getRoleId())
             .set("status", role.getStatus())
             .update();
+        permissionCacheService.evictRoles(Collections.singletonList(role.getRoleId()));
+        return result;
     }
 
     /**
@@ -267,7 +276,9 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
             .remove();
             
         // 新增角色和部门信息（数据权限）
-        return insertRoleDept(role);
+        boolean result = insertRoleDept(role);
+        permissionCacheService.evictRoles(Collections.singletonList(role.getRoleId()));
+        return result;
     }
 
     /**
@@ -295,7 +306,9 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
             })
             .collect(Collectors.toList());
             
-        return roleMenuMapper.insertBatch(list) > 0;
+        boolean result = roleMenuMapper.insertBatch(list) > 0;
+        permissionCacheService.evictRoles(Collections.singletonList(role.getRoleId()));
+        return result;
     }
 
     /**
@@ -308,9 +321,11 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     @CacheEvict(value = "role", allEntries = true)
     public boolean deleteRoleMenuByRoleId(Long roleId)
     {
-        return DbChain.table("sys_role_menu")
+        boolean result = DbChain.table("sys_role_menu")
             .where("role_id = ?", roleId)
             .remove();
+        permissionCacheService.evictRoles(Collections.singletonList(roleId));
+        return result;
     }
 
     /**
@@ -351,10 +366,12 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     @CacheEvict(value = "role", allEntries = true)
     public boolean deleteAuthUser(SysUserRole userRole)
     {
-        return DbChain.table("sys_user_role")
+        boolean result = DbChain.table("sys_user_role")
             .where("user_id = ?", userRole.getUserId())
             .and("role_id = ?", userRole.getRoleId())
             .remove();
+        permissionCacheService.evictUsers(userRole.getUserId());
+        return result;
     }
 
     /**
@@ -368,10 +385,12 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
     @CacheEvict(value = "role", allEntries = true)
     public boolean deleteAuthUsers(Long roleId, Long[] userIds)
     {
-        return DbChain.table("sys_user_role")
+        boolean result = DbChain.table("sys_user_role")
             .where("role_id = ?", roleId)
             .where("user_id IN (" + String.join(",", Arrays.stream(userIds).map(String::valueOf).collect(Collectors.toList())) + ")")
             .remove();
+        permissionCacheService.evictUsers(userIds);
+        return result;
     }
 
     /**
@@ -400,6 +419,62 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
             })
             .collect(Collectors.toList());
             
-        return userRoleMapper.insertBatch(list) > 0;
+        boolean result = userRoleMapper.insertBatch(list) > 0;
+        permissionCacheService.evictUsers(userIds);
+        return result;
+    }
+
+    /**
+     * 修改角色信息，同步失效该角色的权限缓存
+     * 
+     * @param role 角色信息
+     * @param ignoreNulls 是否忽略空值
+     * @return 结果
+     */
+    @Override
+    public boolean updateById(SysRole role, boolean ignoreNulls)
+    {
+        boolean result = super.updateById(role, ignoreNulls);
+        if (result)
+        {
+            permissionCacheService.evictRoles(Collections.singletonList(role.getRoleId()));
+        }
+        return result;
+    }
+
+    /**
+     * 删除角色，同步失效该角色的权限缓存
+     * 
+     * @param id 角色ID
+     * @return 结果
+     */
+    @Override
+    public boolean removeById(Serializable id)
+    {
+        boolean result = super.removeById(id);
+        if (result)
+        {
+            permissionCacheService.evictRoles(Collections.singletonList(Long.valueOf(id.toString())));
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除角色，同步失效这些角色的权限缓存
+     * 
+     * @param ids 角色ID集合
+     * @return 结果
+     */
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids)
+    {
+        boolean result = super.removeByIds(ids);
+        if (result)
+        {
+            permissionCacheService.evictRoles(ids.stream()
+                .map(id -> Long.valueOf(id.toString()))
+                .collect(Collectors.toList()));
+        }
+        return result;
     }
 }
@@ -1,11 +1,18 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.mybatisflex.annotation.UseDataSource;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.ruoyi.framework.redis.NearCache;
 import com.ruoyi.project.system.domain.SysStorageConfig;
 import com.ruoyi.project.system.mapper.SysStorageConfigMapper;
 import com.ruoyi.project.system.service.ISysStorageConfigService;
@@ -23,6 +30,9 @@ import cn.hutool.core.util.StrUtil;
 public class SysStorageConfigServiceImpl extends ServiceImpl<SysStorageConfigMapper, SysStorageConfig>
         implements ISysStorageConfigService {
 
+    @Autowired
+    private NearCache nearCache;
+
     /**
      * 新增存储配置（带默认配置唯一性校验）
      */
@@ -39,7 +49,9 @@ public class SysStorageConfigServiceImpl extends ServiceImpl<SysStorageConfigMap
             sysStorageConfig.setIsDefault("N");
         }
 
-        return save(sysStorageConfig);
+        boolean result = save(sysStorageConfig);
+        evictStorageAfterCommit();
+        return result;
     }
 
     /**
@@ -53,7 +65,19 @@ public class SysStorageConfigServiceImpl extends ServiceImpl<SysStorageConfigMap
             resetOtherDefaultConfigs(sysStorageConfig.getConfigId());
         }
 
-        return updateById(sysStorageConfig);
+        boolean result = updateById(sysStorageConfig);
+        evictStorageAfterCommit();
+        return result;
+    }
+
+    /**
+     * 批量删除存储配置
+     */
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> ids) {
+        boolean result = super.removeByIds(ids);
+        evictStorageAfterCommit();
+        return result;
     }
 
     /**
@@ -84,4 +108,20 @@ public class SysStorageConfigServiceImpl extends ServiceImpl<SysStorageConfigMap
             updateById(config);
         });
     }
+
+    /**
+     * 清除各节点缓存的当前存储策略（在事务中时于提交后执行）
+     */
+    private void evictStorageAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    nearCache.evictStorage();
+                }
+            });
+        } else {
+            nearCache.evictStorage();
+        }
+    }
 }
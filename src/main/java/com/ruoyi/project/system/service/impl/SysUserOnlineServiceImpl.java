@@ -1,21 +1,65 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.ObjectUtil;
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.session.SaTerminalInfo;
 import cn.dev33.satoken.stp.StpUtil;
+import com.alibaba.fastjson2.JSON;
+import com.mybatisflex.core.paginate.Page;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.framework.redis.RedisKeyScanner;
 import com.ruoyi.project.monitor.domain.SysUserOnline;
 import com.ruoyi.framework.security.LoginUser;
 import com.ruoyi.project.system.service.ISysUserOnlineService;
 
 /**
  * 在线用户 服务层处理
+ * 在线会话索引：有序集合按登录时间记录 token，哈希保存 token 对应的会话信息，
+ * 另按用户名、IP 各维护一个有序集合用于筛选；登录时登记，注销/踢下线/顶下线时移除，
+ * token 超时的记录在查询时按登录时间清理，查询到的失效 token 顺带移除；
+ * 索引上线前已存在的会话在应用启动后回填
  * 
  * @author ruoyi
  */
 @Service
 public class SysUserOnlineServiceImpl implements ISysUserOnlineService
 {
+    private static final Logger log = LoggerFactory.getLogger(SysUserOnlineServiceImpl.class);
+
+    private static final String INDEX_KEY = CacheConstants.ONLINE_SESSION_KEY + "index";
+
+    private static final String INFO_KEY = CacheConstants.ONLINE_SESSION_KEY + "info";
+
+    private static final String USER_KEY = CacheConstants.ONLINE_SESSION_KEY + "user:";
+
+    private static final String IP_KEY = CacheConstants.ONLINE_SESSION_KEY + "ip:";
+
+    /** 回填时每次扫描的会话键数 */
+    private static final int BACKFILL_PAGE_SIZE = 500;
+
+    /** 单次查询最多清理的超时会话数 */
+    private static final int PRUNE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
+
     /**
      * 通过登录地址查询信息
      * 
@@ -95,4 +139,276 @@ public class SysUserOnlineServiceImpl implements ISysUserOnlineService
         }
         return online;
     }
+
+    /**
+     * 登记在线会话
+     * 
+     * @param tokenValue 登录令牌
+     * @param user 用户信息
+     */
+    @Override
+    public void registerOnline(String tokenValue, LoginUser user)
+    {
+        indexOnline(tokenValue, user, System.currentTimeMillis());
+    }
+
+    /**
+     * 回填在线会话索引：扫描已有的后台登录会话，登记其中仍有效且未登记的 token
+     * 
+     * @return 回填的会话数
+     */
+    @Override
+    public int backfillOnline()
+    {
+        String pattern = SaManager.getConfig().getTokenName() + ":" + StpUtil.TYPE + ":session:*";
+        int count = 0;
+        RedisKeyScanner.KeyPage page;
+        String cursor = RedisKeyScanner.CURSOR_END;
+        do
+        {
+            page = redisKeyScanner.scan(pattern, cursor, BACKFILL_PAGE_SIZE);
+            for (String sessionId : page.getKeys())
+            {
+                count += backfillSession(sessionId);
+            }
+            cursor = page.getCursor();
+        }
+        while (!page.isFinished());
+        return count;
+    }
+
+    private int backfillSession(String sessionId)
+    {
+        try
+        {
+            SaSession session = StpUtil.getSessionBySessionId(sessionId);
+            if (session == null)
+            {
+                return 0;
+            }
+            LoginUser loginUser = JSON.to(LoginUser.class, session.get(Constants.LOGIN_USER_KEY));
+            if (loginUser == null)
+            {
+                return 0;
+            }
+            int count = 0;
+            for (SaTerminalInfo terminal : session.terminalListCopy())
+            {
+                String tokenValue = terminal.getTokenValue();
+                if (stringRedisTemplate.opsForZSet().score(INDEX_KEY, tokenValue) != null
+                        || StpUtil.getLoginIdByToken(tokenValue) == null)
+                {
+                    continue;
+                }
+                indexOnline(tokenValue, loginUser, terminal.getCreateTime());
+                count++;
+            }
+            return count;
+        }
+        catch (Exception e)
+        {
+            log.warn("回填在线会话失败: sessionId={}, error={}", sessionId, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 写入在线会话索引，loginTime 为排序与超时清理依据
+     */
+    private void indexOnline(String tokenValue, LoginUser user, long loginTime)
+    {
+        SysUserOnline online = loginUserToUserOnline(user);
+        if (StrUtil.isEmpty(tokenValue) || online == null)
+        {
+            return;
+        }
+        online.setTokenId(tokenValue);
+        if (online.getLoginTime() == null)
+        {
+            online.setLoginTime(loginTime);
+        }
+        double score = loginTime;
+        String info = JSON.toJSONString(online);
+        try
+        {
+            // 同一 token 重复登录（共享 token）时先移除旧的用户名/IP 索引
+            SysUserOnline previous = getOnline(tokenValue);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                if (previous != null)
+                {
+                    removeFilterIndex(conn, tokenValue, previous);
+                }
+                conn.zAdd(INDEX_KEY, score, tokenValue);
+                conn.hSet(INFO_KEY, tokenValue, info);
+                if (StrUtil.isNotEmpty(online.getUserName()))
+                {
+                    conn.zAdd(USER_KEY + online.getUserName(), score, tokenValue);
+                }
+                if (StrUtil.isNotEmpty(online.getIpaddr()))
+                {
+                    conn.zAdd(IP_KEY + online.getIpaddr(), score, tokenValue);
+                }
+                return null;
+            });
+        }
+        catch (Exception e)
+        {
+            log.warn("登记在线会话失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 移除在线会话
+     * 
+     * @param tokenValue 登录令牌
+     */
+    @Override
+    public void removeOnline(String tokenValue)
+    {
+        if (StrUtil.isEmpty(tokenValue))
+        {
+            return;
+        }
+        try
+        {
+            SysUserOnline online = getOnline(tokenValue);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.zRem(INDEX_KEY, tokenValue);
+                conn.hDel(INFO_KEY, tokenValue);
+                if (online != null)
+                {
+                    removeFilterIndex(conn, tokenValue, online);
+                }
+                return null;
+            });
+        }
+        catch (Exception e)
+        {
+            log.warn("移除在线会话失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 分页查询在线用户，按登录时间倒序
+     * 仅指定用户名或 IP 时直接在对应索引上分页；两者都指定时取用户名索引再按 IP 过滤
+     * 
+     * @param ipaddr 登录地址
+     * @param userName 用户名称
+     * @param pageNum 页码
+     * @param pageSize 每页条数
+     * @return 在线用户分页
+     */
+    @Override
+    public Page<SysUserOnline> selectOnlinePage(String ipaddr, String userName, int pageNum, int pageSize)
+    {
+        pruneExpired();
+        pageNum = Math.max(pageNum, 1);
+        pageSize = Math.max(pageSize, 1);
+        Page<SysUserOnline> page = new Page<>(pageNum, pageSize);
+        long start = (long) (pageNum - 1) * pageSize;
+
+        if (StrUtil.isNotEmpty(userName) && StrUtil.isNotEmpty(ipaddr))
+        {
+            Set<String> tokens = stringRedisTemplate.opsForZSet().reverseRange(USER_KEY + userName, 0, -1);
+            List<SysUserOnline> matched = new ArrayList<>();
+            for (SysUserOnline online : loadOnline(tokens))
+            {
+                if (StrUtil.equals(ipaddr, online.getIpaddr()))
+                {
+                    matched.add(online);
+                }
+            }
+            int from = (int) Math.min(start, matched.size());
+            page.setRecords(matched.subList(from, Math.min(from + pageSize, matched.size())));
+            page.setTotalRow(matched.size());
+            return page;
+        }
+
+        String indexKey = INDEX_KEY;
+        if (StrUtil.isNotEmpty(userName))
+        {
+            indexKey = USER_KEY + userName;
+        }
+        else if (StrUtil.isNotEmpty(ipaddr))
+        {
+            indexKey = IP_KEY + ipaddr;
+        }
+        Long total = stringRedisTemplate.opsForZSet().zCard(indexKey);
+        Set<String> tokens = stringRedisTemplate.opsForZSet().reverseRange(indexKey, start, start + pageSize - 1);
+        page.setRecords(loadOnline(tokens));
+        page.setTotalRow(total == null ? 0 : total);
+        return page;
+    }
+
+    /**
+     * 批量读取会话信息，已失效的 token 从索引中移除
+     */
+    private List<SysUserOnline> loadOnline(Set<String> tokens)
+    {
+        if (tokens == null || tokens.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        List<String> tokenList = new ArrayList<>(tokens);
+        List<Object> infos = stringRedisTemplate.opsForHash().multiGet(INFO_KEY, new ArrayList<>(tokenList));
+        List<SysUserOnline> result = new ArrayList<>(tokenList.size());
+        for (int i = 0; i < tokenList.size(); i++)
+        {
+            String tokenValue = tokenList.get(i);
+            Object info = infos.get(i);
+            if (info == null || StpUtil.getLoginIdByToken(tokenValue) == null)
+            {
+                removeOnline(tokenValue);
+                continue;
+            }
+            result.add(JSON.parseObject(info.toString(), SysUserOnline.class));
+        }
+        return result;
+    }
+
+    /**
+     * 清理登录时间早于 token 有效期且已失效的会话（超时不会触发注销事件）
+     */
+    private void pruneExpired()
+    {
+        long timeout = SaManager.getConfig().getTimeout();
+        if (timeout <= 0)
+        {
+            return;
+        }
+        double maxScore = System.currentTimeMillis() - timeout * 1000D;
+        Set<String> expired = stringRedisTemplate.opsForZSet().rangeByScore(INDEX_KEY, 0, maxScore, 0, PRUNE_BATCH_SIZE);
+        if (expired == null)
+        {
+            return;
+        }
+        for (String tokenValue : expired)
+        {
+            // 续期过的 token 仍有效，保留
+            if (StpUtil.getLoginIdByToken(tokenValue) == null)
+            {
+                removeOnline(tokenValue);
+            }
+        }
+    }
+
+    private SysUserOnline getOnline(String tokenValue)
+    {
+        Object info = stringRedisTemplate.opsForHash().get(INFO_KEY, tokenValue);
+        return info == null ? null : JSON.parseObject(info.toString(), SysUserOnline.class);
+    }
+
+    private void removeFilterIndex(StringRedisConnection conn, String tokenValue, SysUserOnline online)
+    {
+        if (StrUtil.isNotEmpty(online.getUserName()))
+        {
+            conn.zRem(USER_KEY + online.getUserName(), tokenValue);
+        }
+        if (StrUtil.isNotEmpty(online.getIpaddr()))
+        {
+            conn.zRem(IP_KEY + online.getIpaddr(), tokenValue);
+        }
+    }
 }
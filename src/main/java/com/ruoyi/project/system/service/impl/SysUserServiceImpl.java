@@ -21,6 +21,7 @@ import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.bean.BeanValidators;
 import com.ruoyi.framework.aspectj.lang.annotation.DataScope;
 import com.ruoyi.framework.security.service.PasswordEncoder;
+import com.ruoyi.framework.security.service.PermissionCacheService;
 import com.ruoyi.project.system.domain.SysPost;
 import com.ruoyi.project.system.domain.SysRole;
 import com.ruoyi.project.system.domain.SysUser;
@@ -64,6 +65,9 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PermissionCacheService permissionCacheService;
+
     /**
      * 根据条件分页查询用户列表
      * 
@@ -443,6 +447,7 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
                 }
             }
         }
+        permissionCacheService.evictUsers(userId);
     }
 
     /**